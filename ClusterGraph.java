@@ -0,0 +1,901 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> ClusterGraph.java
+ * @version 1.0
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>ClusterGraph.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a hierarchical abstraction of the graph of a
+ * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii, used to
+ * find paths in large arenas without searching every node of the graph, like
+ * the HPA* algorithm. The grid of the graph is split into square clusters of
+ * slots. Where nodes on both sides of the border between 2 clusters are
+ * linked, the border has an entrance, and the distance between each 2
+ * entrances of a cluster through that cluster is computed once and kept.
+ *
+ * <p>A path query links the source and the destination to the entrances of
+ * their clusters, then searches only the entrances with the A* algorithm, so
+ * it's cost grows with the length of the path and not with the area of the
+ * arena. The result is a hierarchical path through entrances, which is
+ * refined into nodes of the graph one cluster at a time, as the tank follows
+ * it. The paths found are close to the shortest ones, but not always as
+ * short, since they only cross borders at entrances.
+ *
+ * <p>When wall blocks are removed from the graph, only the clusters with
+ * nodes that changed and their neighbours are computed again.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ */
+public class ClusterGraph
+{
+	/**The default number of slots on each side of a cluster. Its value is
+	 * {@value}.*/
+	public static final int CLUSTER_SIZE=10;
+
+	/**The length in slots from which an open part of a border gets an
+	 * entrance at each of it's ends, instead of one in it's middle. Its
+	 * value is {@value}.*/
+	private static final int DOUBLE_ENTRANCE_LENGTH=6;
+
+	/**The direction of the right neighbour of a node, in the same order as
+	 * the bits of a neighbour mask. Its value is {@value}.*/
+	private static final int RIGHT=4;
+
+	/**The direction of the lower neighbour of a node, in the same order as
+	 * the bits of a neighbour mask. Its value is {@value}.*/
+	private static final int LOWER=6;
+
+	/**The graph this cluster graph is an abstraction of.*/
+	private final Graph graph;
+
+	/**The number of slots on each side of a cluster.*/
+	private final int clusterSize;
+
+	/**The number of columns of clusters.*/
+	private final int clusterColumns;
+
+	/**The number of rows of clusters.*/
+	private final int clusterRows;
+
+	/**The entrances on the border between each cluster and the one to it's
+	 * right, as pairs of the index of the slot inside the cluster followed by
+	 * the index of the slot across the border.*/
+	private final int[][] rightCrossings;
+
+	/**The entrances on the border between each cluster and the one below it,
+	 * as pairs of the index of the slot inside the cluster followed by the
+	 * index of the slot across the border.*/
+	private final int[][] lowerCrossings;
+
+	/**The indexes of the slots of the entrances of each cluster.*/
+	private final int[][] entrances;
+
+	/**The distance through each cluster between each 2 of it's entrances, as
+	 * a matrix stored row by row. It is infinite if they are not linked
+	 * inside the cluster.*/
+	private final double[][] entranceDistances;
+
+	/**The number of the first entrance of each cluster among the entrances
+	 * of all the clusters. The search of entrances uses the numbers of the
+	 * entrances, which are the same as their positions in the order of their
+	 * clusters.*/
+	private final int[] entranceNumbers;
+
+	/**The total number of entrances of all the clusters.*/
+	private int entranceCount;
+
+	/**The cluster of each entrance, by it's number.*/
+	private int[] entranceClusters;
+
+	/**The numbers of the entrances across the borders that each entrance is
+	 * linked to, by it's number.*/
+	private int[][] crossedEntrances;
+
+	/**The version of the topology of the graph this cluster graph was last
+	 * brought up to date with.*/
+	private int topologyVersion;
+
+	/**
+	 * Makes a new cluster graph of the given graph, with clusters of the
+	 * default size.
+	 * @param graph The graph this cluster graph is an abstraction of.
+	 */
+	public ClusterGraph(Graph graph)
+	{
+		this(graph, CLUSTER_SIZE);
+	}
+
+	/**
+	 * Makes a new cluster graph of the given graph, finding the entrances
+	 * of every cluster and the distances between them.
+	 * @param graph The graph this cluster graph is an abstraction of.
+	 * @param clusterSize The number of slots on each side of a cluster.
+	 */
+	public ClusterGraph(Graph graph, int clusterSize)
+	{
+		this.graph=graph;
+		this.clusterSize=clusterSize;
+		clusterColumns=(graph.getColumnCount()+clusterSize-1)/clusterSize;
+		clusterRows=(graph.getRowCount()+clusterSize-1)/clusterSize;
+
+		int clusterCount=clusterColumns*clusterRows;
+		rightCrossings=new int[clusterCount][];
+		lowerCrossings=new int[clusterCount][];
+		entrances=new int[clusterCount][];
+		entranceDistances=new double[clusterCount][];
+		entranceNumbers=new int[clusterCount];
+
+		/*First find the entrances on every border, then the distances
+		 * between the entrances of each cluster.*/
+		for(int cluster=0;cluster<clusterCount;cluster++)
+		{
+			findCrossings(cluster);
+		}
+
+		for(int cluster=0;cluster<clusterCount;cluster++)
+		{
+			findEntrances(cluster);
+		}
+
+		numberEntrances();
+		topologyVersion=graph.getTopologyVersion();
+	}
+
+	/**
+	 * Brings this cluster graph up to date with the topology of it's graph,
+	 * after wall blocks have been removed from it. The borders of the
+	 * clusters with changed nodes are checked again for entrances, and the
+	 * distances are computed again for those clusters and their neighbours,
+	 * whose entrances on the shared borders may have changed.
+	 */
+	public void update()
+	{
+		if(topologyVersion==graph.getTopologyVersion())
+		{
+			return;
+		}
+
+		boolean[] changed=new boolean[rightCrossings.length];
+		while(topologyVersion<graph.getTopologyVersion())
+		{
+			for(int node: graph.getChangedNodes(topologyVersion))
+			{
+				changed[getCluster(node)]=true;
+			}
+
+			topologyVersion++;
+		}
+
+		/*Find the crossings of the borders of the changed clusters, and mark
+		 * the clusters on the other side of those borders.*/
+		boolean[] affected=new boolean[changed.length];
+		for(int cluster=0;cluster<changed.length;cluster++)
+		{
+			if(!changed[cluster])
+			{
+				continue;
+			}
+
+			int clusterRow=cluster/clusterColumns;
+			int clusterColumn=cluster%clusterColumns;
+			findCrossings(cluster);
+			affected[cluster]=true;
+
+			if(clusterColumn>0)
+			{
+				findCrossings(cluster-1);
+				affected[cluster-1]=true;
+			}
+			if(clusterRow>0)
+			{
+				findCrossings(cluster-clusterColumns);
+				affected[cluster-clusterColumns]=true;
+			}
+			if(clusterColumn<clusterColumns-1)
+			{
+				affected[cluster+1]=true;
+			}
+			if(clusterRow<clusterRows-1)
+			{
+				affected[cluster+clusterColumns]=true;
+			}
+		}
+
+		for(int cluster=0;cluster<affected.length;cluster++)
+		{
+			if(affected[cluster])
+			{
+				findEntrances(cluster);
+			}
+		}
+
+		numberEntrances();
+	}
+
+	/**
+	 * Finds a path between the given coordinates in the game world and the
+	 * target node. The source and the target are linked to the entrances of
+	 * their clusters, then the entrances are searched with the A* algorithm.
+	 * If their clusters are next to each other, or the path can not be found
+	 * through entrances because 2 clusters are only linked diagonally at a
+	 * corner, the graph is searched instead.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @return A hierarchical path to the target node, or null if there is no
+	 * path.
+	 */
+	public HierarchicalPath findPath(int startX, int startY, GraphPoint target)
+	{
+		int source=graph.getNodeIndex(startX, startY);
+		int destination=target.getIndex();
+
+		/*Nodes in different components have no path between them.*/
+		if(source==-1 || graph.getComponent(source)!=graph.getComponent(destination))
+		{
+			return null;
+		}
+
+		/*Paths between close clusters are short, so the graph is searched
+		 * instead, since going through entrances could make them much longer.*/
+		int sourceCluster=getCluster(source);
+		int destinationCluster=getCluster(destination);
+		if(Math.abs(sourceCluster/clusterColumns-destinationCluster/clusterColumns)<=1 &&
+				Math.abs(sourceCluster%clusterColumns-destinationCluster%clusterColumns)<=1)
+		{
+			return findGraphPath(startX, startY, target);
+		}
+
+		/*Find the distances from the source and from the destination to the
+		 * slots of their clusters.*/
+		double[] sourceDistances=new double[clusterSize*clusterSize];
+		double[] destinationDistances=new double[clusterSize*clusterSize];
+		searchCluster(sourceCluster, source, -1, sourceDistances, null);
+		searchCluster(destinationCluster, destination, -1, destinationDistances,
+				null);
+
+		/*The entrances have the numbers from 0, then come the source and the
+		 * destination.*/
+		int sourceNumber=entranceCount;
+		int destinationNumber=entranceCount+1;
+		double[] distances=new double[entranceCount+2];
+		int[] previous=new int[entranceCount+2];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		Arrays.fill(previous, -1);
+		IndexedMinHeap openEntrances=new IndexedMinHeap(entranceCount+2);
+
+		distances[sourceNumber]=0;
+		openEntrances.insertOrUpdate(sourceNumber, graph.getOctileDistance(source,
+				destination));
+
+		while(!openEntrances.isEmpty())
+		{
+			int current=openEntrances.poll();
+			if(current==destinationNumber)
+			{
+				break;
+			}
+
+			/*The source is linked to the entrances of it's cluster, and to
+			 * the destination if they are in the same cluster.*/
+			if(current==sourceNumber)
+			{
+				for(int i=0;i<entrances[sourceCluster].length;i++)
+				{
+					int slot=entrances[sourceCluster][i];
+					relax(openEntrances, distances, previous, current,
+							entranceNumbers[sourceCluster]+i, slot,
+							sourceDistances[getLocalIndex(sourceCluster, slot)],
+							destination);
+				}
+
+				if(sourceCluster==destinationCluster)
+				{
+					relax(openEntrances, distances, previous, current,
+							destinationNumber, destination, sourceDistances[
+							getLocalIndex(sourceCluster, destination)], destination);
+				}
+
+				continue;
+			}
+
+			/*An entrance is linked to the other entrances of it's cluster, to
+			 * the entrances across it's borders, and to the destination if it
+			 * is in the cluster of the destination.*/
+			int cluster=entranceClusters[current];
+			int position=current-entranceNumbers[cluster];
+			int slot=entrances[cluster][position];
+			int count=entrances[cluster].length;
+
+			for(int i=0;i<count;i++)
+			{
+				relax(openEntrances, distances, previous, current,
+						entranceNumbers[cluster]+i, entrances[cluster][i],
+						entranceDistances[cluster][position*count+i], destination);
+			}
+
+			for(int other: crossedEntrances[current])
+			{
+				relax(openEntrances, distances, previous, current, other,
+						getSlot(other, source, destination), GraphPoint.INTERVAL,
+						destination);
+			}
+
+			if(cluster==destinationCluster)
+			{
+				relax(openEntrances, distances, previous, current, destinationNumber,
+						destination, destinationDistances[getLocalIndex(cluster, slot)],
+						destination);
+			}
+		}
+
+		/*If the entrances do not link the source and the destination, the
+		 * graph is searched instead.*/
+		if(previous[destinationNumber]==-1)
+		{
+			return findGraphPath(startX, startY, target);
+		}
+
+		/*Build the list of the slots of the path, from the destination back
+		 * to the source, leaving out entrances the path starts or ends at.*/
+		LinkedList<Integer> slots=new LinkedList<>();
+		for(int current=destinationNumber;current!=-1;current=previous[current])
+		{
+			int slot=getSlot(current, source, destination);
+			if(slots.isEmpty() || slots.getFirst().intValue()!=slot)
+			{
+				slots.addFirst(slot);
+			}
+		}
+
+		int[] waypoints=new int[slots.size()];
+		int i=0;
+		for(int slot: slots)
+		{
+			waypoints[i++]=slot;
+		}
+
+		return new HierarchicalPath(this, waypoints, distances[destinationNumber]);
+	}
+
+	/**
+	 * Finds a path by searching the graph, as a hierarchical path whose 
+	 * waypoints are all the nodes of the path.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @return The path, or null if there is no path.
+	 */
+	private HierarchicalPath findGraphPath(int startX, int startY, GraphPoint target)
+	{
+		LinkedList<GraphPoint> path=graph.getShortestPath(startX, startY, target);
+		if(path==null)
+		{
+			return null;
+		}
+
+		int[] waypoints=new int[path.size()];
+		int i=0;
+		for(GraphPoint node: path)
+		{
+			waypoints[i++]=node.getIndex();
+		}
+
+		return new HierarchicalPath(this, waypoints, getLength(path));
+	}
+
+	/**
+	 * Refines a part of a hierarchical path into the nodes of the graph,
+	 * between 2 of it's waypoints. The waypoints are either neighbours or in
+	 * the same cluster, so only that cluster is searched.
+	 * @param from The index of the slot of the first waypoint.
+	 * @param to The index of the slot of the next waypoint.
+	 * @return The nodes of the shortest path in the cluster after the first
+	 * waypoint, up to and including the next one, or null if there is none.
+	 */
+	public LinkedList<GraphPoint> refine(int from, int to)
+	{
+		LinkedList<GraphPoint> nodes=new LinkedList<>();
+
+		/*A crossing of a border is a single edge.*/
+		int mask=graph.getNeighbourMask(from);
+		for(int d=0;d<8;d++)
+		{
+			if((mask&(1<<d))!=0 && graph.getNeighbourIndex(from, d)==to)
+			{
+				nodes.add(graph.getNode(to));
+				return nodes;
+			}
+		}
+
+		int cluster=getCluster(from);
+		if(getCluster(to)!=cluster)
+		{
+			return null;
+		}
+
+		double[] distances=new double[clusterSize*clusterSize];
+		int[] previous=new int[clusterSize*clusterSize];
+		if(!searchCluster(cluster, from, to, distances, previous))
+		{
+			return null;
+		}
+
+		/*Follow the best previous nodes back from the next waypoint.*/
+		for(int current=to;current!=from;current=previous[getLocalIndex(cluster,
+				current)])
+		{
+			nodes.addFirst(graph.getNode(current));
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Relaxes the link between the current node of the search of entrances
+	 * and another node, if it makes a shorter path to the other node.
+	 * @param openEntrances The heap of the nodes of the search.
+	 * @param distances The distance of each node from the source.
+	 * @param previous The best previous node of each node.
+	 * @param current The number of the current node.
+	 * @param next The number of the other node.
+	 * @param nextSlot The index of the slot of the other node.
+	 * @param length The length of the link, infinite if there is no link.
+	 * @param destination The index of the slot of the destination.
+	 */
+	private void relax(IndexedMinHeap openEntrances, double[] distances,
+			int[] previous, int current, int next, int nextSlot, double length,
+			int destination)
+	{
+		double distance=distances[current]+length;
+		if(distance<distances[next])
+		{
+			distances[next]=distance;
+			previous[next]=current;
+			openEntrances.insertOrUpdate(next, distance+graph.getOctileDistance(
+					nextSlot, destination));
+		}
+	}
+
+	/**
+	 * Finds the crossings on the right and lower borders of a cluster. An
+	 * open part of a border is a run of slots whose nodes are linked to the
+	 * nodes across the border. A short open part gets an entrance in it's
+	 * middle, and a long one gets an entrance at each end.
+	 * @param cluster The number of the cluster.
+	 */
+	private void findCrossings(int cluster)
+	{
+		int clusterRow=cluster/clusterColumns;
+		int clusterColumn=cluster%clusterColumns;
+		int firstRow=clusterRow*clusterSize;
+		int firstColumn=clusterColumn*clusterSize;
+		int lastRow=Math.min(graph.getRowCount(), firstRow+clusterSize)-1;
+		int lastColumn=Math.min(graph.getColumnCount(), firstColumn+clusterSize)-1;
+		int columns=graph.getColumnCount();
+
+		/*The last column and row of clusters have no border to cross.*/
+		rightCrossings[cluster]=(clusterColumn==clusterColumns-1) ? new int[0] :
+				findCrossings(firstRow*columns+lastColumn, columns,
+				lastRow-firstRow+1, RIGHT);
+		lowerCrossings[cluster]=(clusterRow==clusterRows-1) ? new int[0] :
+				findCrossings(lastRow*columns+firstColumn, 1,
+				lastColumn-firstColumn+1, LOWER);
+	}
+
+	/**
+	 * Finds the crossings along one border of a cluster.
+	 * @param first The index of the first slot of the border inside the
+	 * cluster.
+	 * @param step The difference between the indexes of 2 slots next to each
+	 * other along the border.
+	 * @param length The number of slots along the border.
+	 * @param direction The direction in which the border is crossed.
+	 * @return The crossings, as pairs of the index of the slot inside the
+	 * cluster followed by the index of the slot across the border.
+	 */
+	private int[] findCrossings(int first, int step, int length, int direction)
+	{
+		List<Integer> slots=new ArrayList<>();
+		int runStart=-1;
+
+		/*Go one slot past the end, so the last open part is ended.*/
+		for(int i=0;i<=length;i++)
+		{
+			boolean open=i<length && (graph.getNeighbourMask(first+i*step)&
+					(1<<direction))!=0;
+
+			if(open && runStart==-1)
+			{
+				runStart=i;
+			}
+			else if(!open && runStart!=-1)
+			{
+				int runEnd=i-1;
+				if(runEnd-runStart+1<DOUBLE_ENTRANCE_LENGTH)
+				{
+					slots.add(first+(runStart+runEnd)/2*step);
+				}
+				else
+				{
+					slots.add(first+runStart*step);
+					slots.add(first+runEnd*step);
+				}
+
+				runStart=-1;
+			}
+		}
+
+		int[] crossings=new int[slots.size()*2];
+		for(int i=0;i<slots.size();i++)
+		{
+			crossings[2*i]=slots.get(i);
+			crossings[2*i+1]=graph.getNeighbourIndex(slots.get(i), direction);
+		}
+
+		return crossings;
+	}
+
+	/**
+	 * Collects the entrances of a cluster from the crossings of it's 4
+	 * borders, then computes the distance between each 2 of them by
+	 * searching the cluster from each entrance.
+	 * @param cluster The number of the cluster.
+	 */
+	private void findEntrances(int cluster)
+	{
+		int clusterRow=cluster/clusterColumns;
+		int clusterColumn=cluster%clusterColumns;
+		List<Integer> slots=new ArrayList<>();
+
+		addEntrances(slots, rightCrossings[cluster], 0);
+		addEntrances(slots, lowerCrossings[cluster], 0);
+		if(clusterColumn>0)
+		{
+			addEntrances(slots, rightCrossings[cluster-1], 1);
+		}
+		if(clusterRow>0)
+		{
+			addEntrances(slots, lowerCrossings[cluster-clusterColumns], 1);
+		}
+
+		int count=slots.size();
+		entrances[cluster]=new int[count];
+		for(int i=0;i<count;i++)
+		{
+			entrances[cluster][i]=slots.get(i);
+		}
+
+		/*Search the cluster from each entrance to find it's distance to the
+		 * other ones.*/
+		entranceDistances[cluster]=new double[count*count];
+		double[] distances=new double[clusterSize*clusterSize];
+		for(int i=0;i<count;i++)
+		{
+			searchCluster(cluster, entrances[cluster][i], -1, distances, null);
+			for(int j=0;j<count;j++)
+			{
+				entranceDistances[cluster][i*count+j]=distances[getLocalIndex(
+						cluster, entrances[cluster][j])];
+			}
+		}
+	}
+
+	/**
+	 * Adds the slots on one side of some crossings to a list of entrances,
+	 * if they are not in it already.
+	 * @param slots The list of the indexes of the slots of the entrances.
+	 * @param crossings The crossings, as pairs of slot indexes.
+	 * @param side 0 for the slots inside the cluster the crossings belong to,
+	 * 1 for the slots across the border.
+	 */
+	private static void addEntrances(List<Integer> slots, int[] crossings, int side)
+	{
+		for(int i=side;i<crossings.length;i+=2)
+		{
+			if(!slots.contains(crossings[i]))
+			{
+				slots.add(crossings[i]);
+			}
+		}
+	}
+
+	/**
+	 * Numbers the entrances of all the clusters, in the order of their
+	 * clusters.
+	 */
+	private void numberEntrances()
+	{
+		entranceCount=0;
+		for(int cluster=0;cluster<entrances.length;cluster++)
+		{
+			entranceNumbers[cluster]=entranceCount;
+			entranceCount+=entrances[cluster].length;
+		}
+
+		/*Keep the cluster of each entrance and the entrances it crosses to
+		 * by their numbers, so the search of entrances does not look for
+		 * them.*/
+		entranceClusters=new int[entranceCount];
+		crossedEntrances=new int[entranceCount][];
+		for(int cluster=0;cluster<entrances.length;cluster++)
+		{
+			for(int i=0;i<entrances[cluster].length;i++)
+			{
+				int number=entranceNumbers[cluster]+i;
+				List<Integer> crossed=getCrossedSlots(cluster, entrances[cluster][i]);
+				entranceClusters[number]=cluster;
+				crossedEntrances[number]=new int[crossed.size()];
+
+				for(int j=0;j<crossed.size();j++)
+				{
+					int other=crossed.get(j);
+					int otherCluster=getCluster(other);
+					crossedEntrances[number][j]=entranceNumbers[otherCluster]+
+							getEntrancePosition(otherCluster, other);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Searches a cluster from a source node, only through nodes of that
+	 * cluster. Without a target, this is Diejkstra's algorithm and finds the
+	 * distance to every slot of the cluster. With a target, it is the A*
+	 * algorithm and stops when the target is reached.
+	 * @param cluster The number of the cluster.
+	 * @param source The index of the source slot, inside the cluster.
+	 * @param target The index of the target slot inside the cluster, or -1 to
+	 * find the distance to every slot.
+	 * @param distances The array the distance from the source of each slot
+	 * is put in, by it's index in the cluster. It is infinite for the slots
+	 * that can not be reached.
+	 * @param previous The array the best previous slot of each slot is put
+	 * in, by it's index in the cluster, or null if it is not needed.
+	 * @return True if the target was reached, or false if not or if there is
+	 * no target.
+	 */
+	private boolean searchCluster(int cluster, int source, int target,
+			double[] distances, int[] previous)
+	{
+		int clusterRow=cluster/clusterColumns;
+		int clusterColumn=cluster%clusterColumns;
+		int firstRow=clusterRow*clusterSize;
+		int firstColumn=clusterColumn*clusterSize;
+		int lastRow=Math.min(graph.getRowCount(), firstRow+clusterSize)-1;
+		int lastColumn=Math.min(graph.getColumnCount(), firstColumn+clusterSize)-1;
+		int columns=graph.getColumnCount();
+
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		IndexedMinHeap openNodes=new IndexedMinHeap(clusterSize*clusterSize);
+		distances[getLocalIndex(cluster, source)]=0;
+		openNodes.insertOrUpdate(getLocalIndex(cluster, source),
+				(target==-1) ? 0 : graph.getOctileDistance(source, target));
+
+		while(!openNodes.isEmpty())
+		{
+			int local=openNodes.poll();
+			int current=(firstRow+local/clusterSize)*columns+firstColumn+
+					local%clusterSize;
+			if(current==target)
+			{
+				return true;
+			}
+
+			int mask=graph.getNeighbourMask(current);
+			for(int d=0;d<8;d++)
+			{
+				if((mask&(1<<d))==0)
+				{
+					continue;
+				}
+
+				/*Only the nodes inside the cluster are searched.*/
+				int neighbour=graph.getNeighbourIndex(current, d);
+				int row=neighbour/columns;
+				int column=neighbour%columns;
+				if(row<firstRow || row>lastRow || column<firstColumn || column>lastColumn)
+				{
+					continue;
+				}
+
+				int neighbourLocal=getLocalIndex(cluster, neighbour);
+				double distance=distances[local]+Graph.getEdgeLength(d);
+				if(distance<distances[neighbourLocal])
+				{
+					distances[neighbourLocal]=distance;
+					if(previous!=null)
+					{
+						previous[neighbourLocal]=current;
+					}
+
+					openNodes.insertOrUpdate(neighbourLocal, distance+((target==-1) ?
+							0 : graph.getOctileDistance(neighbour, target)));
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the slot of a node of the search of entrances.
+	 * @param number The number of the node.
+	 * @param source The index of the slot of the source.
+	 * @param destination The index of the slot of the destination.
+	 * @return The index of the slot of the node.
+	 */
+	private int getSlot(int number, int source, int destination)
+	{
+		if(number==entranceCount)
+		{
+			return source;
+		}
+		if(number==entranceCount+1)
+		{
+			return destination;
+		}
+
+		int cluster=entranceClusters[number];
+		return entrances[cluster][number-entranceNumbers[cluster]];
+	}
+
+	/**
+	 * Finds the position of an entrance among the entrances of it's cluster.
+	 * @param cluster The number of the cluster.
+	 * @param slot The index of the slot of the entrance.
+	 * @return The position of the entrance.
+	 */
+	private int getEntrancePosition(int cluster, int slot)
+	{
+		int position=0;
+		while(entrances[cluster][position]!=slot)
+		{
+			position++;
+		}
+
+		return position;
+	}
+
+	/**
+	 * Finds the slots across the borders of a cluster that an entrance of it
+	 * crosses to.
+	 * @param cluster The number of the cluster.
+	 * @param slot The index of the slot of the entrance.
+	 * @return The indexes of the slots across the borders.
+	 */
+	private List<Integer> getCrossedSlots(int cluster, int slot)
+	{
+		List<Integer> crossed=new ArrayList<>(2);
+		addCrossedSlots(crossed, rightCrossings[cluster], slot, 0);
+		addCrossedSlots(crossed, lowerCrossings[cluster], slot, 0);
+		if(cluster%clusterColumns>0)
+		{
+			addCrossedSlots(crossed, rightCrossings[cluster-1], slot, 1);
+		}
+		if(cluster/clusterColumns>0)
+		{
+			addCrossedSlots(crossed, lowerCrossings[cluster-clusterColumns], slot, 1);
+		}
+
+		return crossed;
+	}
+
+	/**
+	 * Adds the slots some crossings link to the given slot to a list.
+	 * @param crossed The list of the indexes of the crossed slots.
+	 * @param crossings The crossings, as pairs of slot indexes.
+	 * @param slot The index of a slot.
+	 * @param side 0 if the slot is inside the cluster the crossings belong
+	 * to, 1 if it is across the border.
+	 */
+	private static void addCrossedSlots(List<Integer> crossed, int[] crossings,
+			int slot, int side)
+	{
+		for(int i=0;i<crossings.length;i+=2)
+		{
+			if(crossings[i+side]==slot)
+			{
+				crossed.add(crossings[i+1-side]);
+			}
+		}
+	}
+
+	/**
+	 * Calculates the length of a path.
+	 * @param path A list of nodes.
+	 * @return The sum of the distances between consecutive nodes of the path.
+	 */
+	private static double getLength(List<GraphPoint> path)
+	{
+		double length=0;
+		GraphPoint last=null;
+		for(GraphPoint node: path)
+		{
+			if(last!=null)
+			{
+				length+=GraphPoint.getDistance(last, node);
+			}
+			last=node;
+		}
+
+		return length;
+	}
+
+	/**
+	 * Finds the cluster a slot of the grid belongs to.
+	 * @param index The index of a slot in the grid of the graph.
+	 * @return The number of the cluster of the slot.
+	 */
+	public int getCluster(int index)
+	{
+		int columns=graph.getColumnCount();
+		return (index/columns/clusterSize)*clusterColumns+(index%columns)/clusterSize;
+	}
+
+	/**
+	 * Finds the index of a slot inside it's cluster, counting the slots of
+	 * the cluster row by row as if it had the full size.
+	 * @param cluster The number of the cluster of the slot.
+	 * @param index The index of the slot in the grid of the graph.
+	 * @return The index of the slot in it's cluster.
+	 */
+	private int getLocalIndex(int cluster, int index)
+	{
+		int columns=graph.getColumnCount();
+		return (index/columns-(cluster/clusterColumns)*clusterSize)*clusterSize+
+				index%columns-(cluster%clusterColumns)*clusterSize;
+	}
+
+	/**
+	 * Getter for the total number of entrances of all the clusters.
+	 * @return The number of entrances.
+	 */
+	public int getEntranceCount()
+	{
+		return entranceCount;
+	}
+
+	/**
+	 * Getter for the number of clusters.
+	 * @return The number of clusters of the grid of the graph.
+	 */
+	public int getClusterCount()
+	{
+		return entrances.length;
+	}
+
+	/**
+	 * Getter for the graph this cluster graph is an abstraction of.
+	 * @return The graph of this cluster graph.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+}
@@ -0,0 +1,239 @@
+import java.util.Arrays;
+
+/**
+ * <p><b>File name: </b> CostLayer.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>CostLayer.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes an extra cost for passing through each node of the
+ * graph of a Greenfoot recreation of the Wii Tanks game for the Nintendo Wii.
+ * A path query given a cost layer adds the cost of each node it enters to the
+ * length of the path, so a tank can take a slightly longer path that keeps it
+ * out of danger, like the area around a land mine or the lane a shell is
+ * flying down, instead of the shortest one.
+ *
+ * <p>The costs are kept in an array of floats, one for each slot of the grid
+ * of the graph, in the same units as the length of a path. Dangers are added
+ * to the layer as discs or lanes, and removed by adding the same disc or lane
+ * with the opposite cost, so the layer is kept up to date without being built
+ * again. Costs should be whole numbers, so adding and removing them is exact.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Added a copy constructor, so a path can be computed on another
+ * thread with the costs the layer had when it was asked for.
+ */
+public class CostLayer
+{
+	/**The distance in pixels between 2 points checked along a lane to find the
+	 * first wall on it. Its value is {@value}.*/
+	private static final int LANE_STEP=5;
+
+	/**The graph whose nodes this layer gives costs to.*/
+	private final Graph graph;
+
+	/**The cost of entering each slot of the grid of the graph.*/
+	private final float[] costs;
+
+	/**
+	 * Makes a new cost layer for the given graph, where every node costs 0.
+	 * @param graph The graph whose nodes this layer gives costs to.
+	 */
+	public CostLayer(Graph graph)
+	{
+		this.graph=graph;
+		costs=new float[graph.getNodeCount()];
+	}
+
+	/**
+	 * Makes a new cost layer with the same costs as the given one, which do
+	 * not change when the costs of the given layer do.
+	 * @param layer The cost layer that is copied.
+	 */
+	public CostLayer(CostLayer layer)
+	{
+		graph=layer.graph;
+		costs=layer.toArray();
+	}
+
+	/**
+	 * Adds a cost to every slot whose point is within the given distance from
+	 * the given point.
+	 * @param x The x coordinate of the centre of the disc.
+	 * @param y The y coordinate of the centre of the disc.
+	 * @param radius The radius of the disc.
+	 * @param cost The cost added to each slot, which is negative to remove
+	 * a disc added before.
+	 */
+	public void addDisc(int x, int y, int radius, float cost)
+	{
+		addSegment(x, y, x, y, radius, cost);
+	}
+
+	/**
+	 * Adds a cost to every slot whose point is within the given distance from
+	 * the line segment between the given points.
+	 * @param startX The x coordinate of the start of the segment.
+	 * @param startY The y coordinate of the start of the segment.
+	 * @param endX The x coordinate of the end of the segment.
+	 * @param endY The y coordinate of the end of the segment.
+	 * @param halfWidth The largest distance from the segment of the points of
+	 * the slots whose cost changes.
+	 * @param cost The cost added to each slot, which is negative to remove
+	 * a segment added before.
+	 */
+	public void addSegment(int startX, int startY, int endX, int endY,
+			int halfWidth, float cost)
+	{
+		int columns=graph.getColumnCount();
+		int firstX=graph.getNodeX(0);
+		int firstY=graph.getNodeY(0);
+
+		/*Only the slots in the rectangle around the segment, made wider by the
+		 * half width on each side, can be close enough to it.*/
+		int firstColumn=Math.max(0, (Math.min(startX, endX)-halfWidth-firstX)/
+				GraphPoint.INTERVAL);
+		int lastColumn=Math.min(columns-1, (Math.max(startX, endX)+halfWidth-firstX)/
+				GraphPoint.INTERVAL);
+		int firstRow=Math.max(0, (Math.min(startY, endY)-halfWidth-firstY)/
+				GraphPoint.INTERVAL);
+		int lastRow=Math.min(graph.getRowCount()-1, (Math.max(startY, endY)+
+				halfWidth-firstY)/GraphPoint.INTERVAL);
+
+		for(int row=firstRow;row<=lastRow;row++)
+		{
+			for(int column=firstColumn;column<=lastColumn;column++)
+			{
+				int index=row*columns+column;
+				if(getSegmentDistance(graph.getNodeX(index), graph.getNodeY(index),
+						startX, startY, endX, endY)<=halfWidth)
+				{
+					costs[index]+=cost;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds where a lane starting at the given point and going in the given
+	 * direction first meets a wall of the graph's world, or ends.
+	 * @param startX The x coordinate where the lane starts.
+	 * @param startY The y coordinate where the lane starts.
+	 * @param rotation The direction of the lane, in degrees clockwise from the
+	 * right, like the rotation of an actor.
+	 * @param length The largest length of the lane.
+	 * @return An array with the x and y coordinates of the end of the lane.
+	 */
+	public int[] getLaneEnd(int startX, int startY, int rotation, int length)
+	{
+		double radians=Math.toRadians(rotation);
+		int endX=startX;
+		int endY=startY;
+
+		/*Move along the lane a few pixels at a time until a wall is hit.*/
+		for(int distance=LANE_STEP;distance<=length;distance+=LANE_STEP)
+		{
+			int x=startX+(int) Math.round(Math.cos(radians)*distance);
+			int y=startY+(int) Math.round(Math.sin(radians)*distance);
+
+			if(graph.isOccupied(x, y))
+			{
+				break;
+			}
+
+			endX=x;
+			endY=y;
+		}
+
+		return new int[] {endX, endY};
+	}
+
+	/**
+	 * Calculates the distance between a point and a line segment.
+	 * @param x The x coordinate of the point.
+	 * @param y The y coordinate of the point.
+	 * @param startX The x coordinate of the start of the segment.
+	 * @param startY The y coordinate of the start of the segment.
+	 * @param endX The x coordinate of the end of the segment.
+	 * @param endY The y coordinate of the end of the segment.
+	 * @return The distance between the point and the closest point of the
+	 * segment.
+	 */
+	private static double getSegmentDistance(int x, int y, int startX, int startY,
+			int endX, int endY)
+	{
+		double segmentX=endX-startX;
+		double segmentY=endY-startY;
+		double squaredLength=segmentX*segmentX+segmentY*segmentY;
+
+		/*Find the closest point of the segment, as a fraction of the way from
+		 * it's start to it's end.*/
+		double fraction=0;
+		if(squaredLength>0)
+		{
+			fraction=((x-startX)*segmentX+(y-startY)*segmentY)/squaredLength;
+			fraction=Math.max(0, Math.min(1, fraction));
+		}
+
+		double xDistance=x-(startX+fraction*segmentX);
+		double yDistance=y-(startY+fraction*segmentY);
+
+		return Math.sqrt(xDistance*xDistance+yDistance*yDistance);
+	}
+
+	/**
+	 * Getter for the cost of entering the slot with the given index.
+	 * @param index The index of a slot in the grid of the graph.
+	 * @return The cost of that slot.
+	 */
+	public float getCost(int index)
+	{
+		return costs[index];
+	}
+
+	/**
+	 * Copies the costs of this layer, so they can be used while the layer
+	 * keeps changing.
+	 * @return A new array with the cost of each slot of the grid of the graph.
+	 */
+	public float[] toArray()
+	{
+		return Arrays.copyOf(costs, costs.length);
+	}
+
+	/**Sets the cost of every slot back to 0.*/
+	public void clear()
+	{
+		Arrays.fill(costs, 0);
+	}
+
+	/**
+	 * Getter for the graph whose nodes this layer gives costs to.
+	 * @return The graph of this layer.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+}
@@ -0,0 +1,585 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * <p><b>File name: </b> DStarLitePlanner.java
+ * @version 1.3
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>DStarLitePlanner.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class plans the path of one tank through the graph of a Greenfoot
+ * recreation of the Wii Tanks game for the Nintendo Wii with the D* Lite
+ * algorithm. It searches from the destination of the tank towards the tank
+ * and keeps the distance of every node it reached to the destination, so
+ * when wall blocks are destroyed and the graph gets new nodes, only the nodes
+ * whose distance changed are expanded again to repair the path, even though
+ * the tank has moved along it since it was planned.
+ *
+ * <p>Each node has a distance and a lookahead distance, which is the smallest
+ * distance through one of it's neighbours. A node is consistent if both are
+ * equal, and the inconsistent nodes are kept in a heap ordered by the smaller
+ * of the 2 values plus the octile distance to the tank.
+ *
+ * <p>A path can be planned with a layer of extra costs for entering nodes.
+ * The planner keeps a copy of the costs it was planned with, so it's repairs
+ * stay consistent while the layer changes, and the costs are only brought up
+ * to date when the next path is planned.
+ *
+ * <p>A new plan can also be computed a few nodes at a time: it is started,
+ * then continued with a largest number of nodes to expand each time until it
+ * is finished, so the world can spread the plans of many tanks over several
+ * acts.
+ *
+ * <p>A plan can also be computed on another thread, in an immutable snapshot
+ * of the graph. The planner is then moved back to the graph the snapshot was
+ * taken of, and the changes made to it since are repaired like any others.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Paths can now be planned with a layer of extra costs for
+ * entering nodes.
+ * <p>	-1.2 - New plans can now be computed a few nodes at a time.
+ * <p>	-1.3 - Planners can now be moved between a graph and it's snapshots.
+ */
+public class DStarLitePlanner
+{
+	/**The graph the paths are planned in.*/
+	private Graph graph;
+
+	/**The distance between each node and the destination, as far as this
+	 * planner knows.*/
+	private final double[] distances;
+
+	/**The lookahead distance of each node, meaning the smallest distance to
+	 * the destination through one of it's neighbours.*/
+	private final double[] lookaheads;
+
+	/**The extra cost of entering each node in the current plan, copied from
+	 * the cost layer it was planned with, or null if it has no costs.*/
+	private float[] nodeCosts;
+
+	/**The heap of inconsistent node indexes.*/
+	private final IndexedMinHeap openNodes;
+
+	/**The index of the node the path starts from, where the tank is.*/
+	private int start;
+
+	/**The index of the start node when the keys of the heap were last
+	 * corrected for the movement of the tank.*/
+	private int lastStart;
+
+	/**The index of the destination node, or -1 if no path has been planned.*/
+	private int destination;
+
+	/**The sum of the octile distances the tank has moved between repairs,
+	 * added to the keys of the heap so they do not need to be recomputed
+	 * when the tank moves.*/
+	private double keyModifier;
+
+	/**The version of the topology of the graph the current plan is for.*/
+	private int topologyVersion;
+
+	/**The number of nodes expanded by the last plan or repair.*/
+	private int expandedNodes;
+
+	/**A flag that indicates if a plan has been started and not finished.*/
+	private boolean planning;
+
+	/**
+	 * Makes a new planner that plans paths in the given graph.
+	 * @param graph The graph the paths are planned in.
+	 */
+	public DStarLitePlanner(Graph graph)
+	{
+		this.graph=graph;
+		distances=new double[graph.getNodeCount()];
+		lookaheads=new double[graph.getNodeCount()];
+		openNodes=new IndexedMinHeap(graph.getNodeCount());
+		destination=-1;
+	}
+
+	/**
+	 * Plans a new shortest path between the given coordinates in the game
+	 * world and the given destination node, forgetting the last plan.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @return A LinkedList of graph nodes that is the shortest path to the
+	 * destination node, or null if there is no such path.
+	 */
+	public LinkedList<GraphPoint> plan(int startX, int startY, GraphPoint target)
+	{
+		return plan(startX, startY, target, null);
+	}
+
+	/**
+	 * Plans a new cheapest path between the given coordinates in the game
+	 * world and the given destination node, forgetting the last plan. The
+	 * cost of a path is it's length plus the cost of each node it enters.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @param costLayer The extra cost of entering each node, which must not be
+	 * negative, or null for the shortest path. The costs are copied, so later
+	 * changes of the layer do not change this plan or it's repairs.
+	 * @return A LinkedList of graph nodes that is the cheapest path to the
+	 * destination node, or null if there is no such path.
+	 */
+	public LinkedList<GraphPoint> plan(int startX, int startY, GraphPoint target,
+			CostLayer costLayer)
+	{
+		startPlan(startX, startY, target, costLayer);
+		continuePlan(Integer.MAX_VALUE);
+
+		return getPlannedPath();
+	}
+
+	/**
+	 * Starts planning a new cheapest path between the given coordinates in
+	 * the game world and the given destination node, forgetting the last 
+	 * plan. No node is expanded until the plan is continued.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @param costLayer The extra cost of entering each node, which must not be
+	 * negative, or null for the shortest path. The costs are copied, so later
+	 * changes of the layer do not change this plan or it's repairs.
+	 */
+	public void startPlan(int startX, int startY, GraphPoint target,
+			CostLayer costLayer)
+	{
+		nodeCosts=(costLayer==null) ? null : costLayer.toArray();
+
+		//forget the distances of the last plan
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		Arrays.fill(lookaheads, Double.POSITIVE_INFINITY);
+		openNodes.clear();
+		keyModifier=0;
+		expandedNodes=0;
+
+		start=graph.getNodeIndex(startX, startY);
+		lastStart=start;
+		destination=target.getIndex();
+		topologyVersion=graph.getTopologyVersion();
+
+		/*The search starts from the destination, which is the only node
+		 * known to be at distance 0 from itself.*/
+		lookaheads[destination]=0;
+		openNodes.insertOrUpdate(destination, getKey(destination),
+				getSecondaryKey(destination));
+		planning=true;
+	}
+
+	/**
+	 * Continues the plan that was started, expanding at most the given 
+	 * number of nodes.
+	 * @param maxExpandedNodes The largest number of nodes to expand.
+	 * @return True if the plan is finished, false if more nodes need to be 
+	 * expanded.
+	 */
+	public boolean continuePlan(int maxExpandedNodes)
+	{
+		if(planning)
+		{
+			planning=!expandNodes(maxExpandedNodes);
+		}
+
+		return !planning;
+	}
+
+	/**
+	 * Stops the plan that was started, if it is not finished. The planner 
+	 * then has no planned path.
+	 */
+	public void cancelPlan()
+	{
+		if(planning)
+		{
+			planning=false;
+			destination=-1;
+		}
+	}
+
+	/**
+	 * Checks if a plan has been started and is not finished yet.
+	 * @return True if the plan needs more nodes to be expanded, false if not.
+	 */
+	public boolean isPlanning()
+	{
+		return planning;
+	}
+
+	/**
+	 * Builds the path of the last plan that was finished, from where the tank
+	 * was when it was planned or last repaired.
+	 * @return A LinkedList of graph nodes that is the cheapest path to the
+	 * destination node, or null if there is no such path or the plan is not
+	 * finished.
+	 */
+	public LinkedList<GraphPoint> getPlannedPath()
+	{
+		if(planning || destination==-1 || start==-1)
+		{
+			return null;
+		}
+
+		return getPath();
+	}
+
+	/**
+	 * Checks if the graph has changed since the current path was planned or
+	 * last repaired.
+	 * @return True if there is a finished plan and the topology of the graph
+	 * has changed since, false if not.
+	 */
+	public boolean isOutdated()
+	{
+		return destination!=-1 && !planning && topologyVersion!=
+				graph.getTopologyVersion();
+	}
+
+	/**
+	 * Repairs the planned path after the graph has changed, so that it is a
+	 * shortest path from the given coordinates, where the tank has moved to,
+	 * to the same destination. Only the nodes whose distance to the
+	 * destination is changed by the new nodes of the graph are expanded.
+	 * @param startX The x coordinate where the tank is now.
+	 * @param startY The y coordinate where the tank is now.
+	 * @return A LinkedList of graph nodes that is the shortest path to the
+	 * destination node, or null if there is no such path.
+	 */
+	public LinkedList<GraphPoint> repair(int startX, int startY)
+	{
+		expandedNodes=0;
+
+		/*Instead of changing the keys of all the nodes in the heap because the
+		 * tank moved, the distance it moved is added to the keys of nodes
+		 * that are put in the heap from now on.*/
+		start=graph.getNodeIndex(startX, startY);
+		if(start!=-1 && lastStart!=-1)
+		{
+			keyModifier+=graph.getOctileDistance(lastStart, start);
+			lastStart=start;
+		}
+
+		/*The edges of the changed nodes have changed, so their lookahead
+		 * distances have to be computed again.*/
+		while(topologyVersion<graph.getTopologyVersion())
+		{
+			for(int node: graph.getChangedNodes(topologyVersion))
+			{
+				updateNode(node);
+			}
+
+			topologyVersion++;
+		}
+
+		return computePath();
+	}
+
+	/**
+	 * Getter for the destination node of the planned path.
+	 * @return The destination node, or null if no path has been planned.
+	 */
+	public GraphPoint getDestination()
+	{
+		return destination==-1 ? null : graph.getNode(destination);
+	}
+
+	/**
+	 * Moves this planner and it's plan to another version of the same graph,
+	 * like a snapshot of it's graph or the graph a snapshot was taken of. The
+	 * indexes of the nodes are the same in both, so the plan stays valid, and
+	 * the changes of the topology made after the version the plan was made
+	 * in are repaired by the next repair.
+	 * @param graph A graph with the same grid as the graph of this planner,
+	 * whose topology version is not smaller than the one of the plan.
+	 * @throws IllegalArgumentException If the graph has a different grid.
+	 */
+	public void moveTo(Graph graph)
+	{
+		if(graph.getRowCount()!=this.graph.getRowCount() || 
+				graph.getColumnCount()!=this.graph.getColumnCount())
+		{
+			throw new IllegalArgumentException("A planner can only be moved to "
+					+"a graph with the same grid.");
+		}
+
+		this.graph=graph;
+	}
+
+	/**
+	 * Getter for the graph the paths of this planner are planned in.
+	 * @return The graph of this planner.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Getter for the number of nodes expanded by the last plan or repair.
+	 * @return The number of expanded nodes.
+	 */
+	public int getExpandedNodes()
+	{
+		return expandedNodes;
+	}
+
+	/**
+	 * Expands inconsistent nodes until the start node is consistent and no
+	 * node in the heap could change it's distance, then builds the path.
+	 * @return The shortest path from the start node to the destination, or
+	 * null if there is none.
+	 */
+	private LinkedList<GraphPoint> computePath()
+	{
+		/*If the start coordinates are not near a node, there is no path.*/
+		if(start==-1)
+		{
+			return null;
+		}
+
+		expandNodes(Integer.MAX_VALUE);
+		return getPath();
+	}
+
+	/**
+	 * Expands inconsistent nodes until the start node is consistent and no
+	 * node in the heap could change it's distance, or until the given number
+	 * of nodes has been expanded.
+	 * @param maxExpandedNodes The largest number of nodes to expand.
+	 * @return True if no more nodes need to be expanded, false if the number
+	 * of nodes ran out first.
+	 */
+	private boolean expandNodes(int maxExpandedNodes)
+	{
+		/*If the start coordinates are not near a node, there is no path and
+		 * nothing to expand.*/
+		if(start==-1)
+		{
+			return true;
+		}
+
+		int expanded=0;
+		while(!openNodes.isEmpty() && (isBefore(openNodes.peekKey(),
+				openNodes.peekSecondaryKey(), getKey(start), getSecondaryKey(start))
+				|| lookaheads[start]!=distances[start]))
+		{
+			/*Check if the largest number of nodes has been expanded.*/
+			if(expanded==maxExpandedNodes)
+			{
+				return false;
+			}
+			expanded++;
+
+			int current=openNodes.peek();
+			double oldKey=openNodes.peekKey();
+			double oldSecondaryKey=openNodes.peekSecondaryKey();
+			expandedNodes++;
+
+			/*Check if the key of the node is out of date because the tank has
+			 * moved since it was put in the heap.*/
+			if(isBefore(oldKey, oldSecondaryKey, getKey(current),
+					getSecondaryKey(current)))
+			{
+				//if so, put it back with it's new key
+				openNodes.insertOrUpdate(current, getKey(current),
+						getSecondaryKey(current));
+			}
+			/*Else, check if a shorter path to the destination has been found
+			 * for this node.*/
+			else if(distances[current]>lookaheads[current])
+			{
+				//if so, make it consistent and update it's neighbours
+				distances[current]=lookaheads[current];
+				openNodes.poll();
+				updateNeighbours(current);
+			}
+			/*Else, the path of this node became longer, so it's distance is
+			 * forgotten and computed again along with it's neighbours.*/
+			else
+			{
+				distances[current]=Double.POSITIVE_INFINITY;
+				updateNode(current);
+				updateNeighbours(current);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Computes the lookahead distance of each neighbour of a node again.
+	 * @param index The index of a node.
+	 */
+	private void updateNeighbours(int index)
+	{
+		int mask=graph.getNeighbourMask(index);
+		for(int d=0;d<8;d++)
+		{
+			if((mask&(1<<d))!=0)
+			{
+				updateNode(graph.getNeighbourIndex(index, d));
+			}
+		}
+	}
+
+	/**
+	 * Computes the lookahead distance of a node again and puts it in the heap
+	 * if it is inconsistent, or removes it from the heap if it is consistent.
+	 * @param index The index of a node.
+	 */
+	private void updateNode(int index)
+	{
+		/*The lookahead distance of the destination is always 0.*/
+		if(index!=destination)
+		{
+			double lookahead=Double.POSITIVE_INFINITY;
+			int mask=graph.getNeighbourMask(index);
+
+			for(int d=0;d<8;d++)
+			{
+				if((mask&(1<<d))!=0)
+				{
+					int neighbour=graph.getNeighbourIndex(index, d);
+					lookahead=Math.min(lookahead, Graph.getEdgeLength(d)+
+							getNodeCost(neighbour)+distances[neighbour]);
+				}
+			}
+
+			lookaheads[index]=lookahead;
+		}
+
+		/*Check if the node is inconsistent.*/
+		if(distances[index]!=lookaheads[index])
+		{
+			openNodes.insertOrUpdate(index, getKey(index), getSecondaryKey(index));
+		}
+		else
+		{
+			openNodes.remove(index);
+		}
+	}
+
+	/**
+	 * Getter for the extra cost of entering a node in the current plan.
+	 * @param index The index of a node.
+	 * @return The cost of the node, or 0 if the plan has no costs.
+	 */
+	private double getNodeCost(int index)
+	{
+		return nodeCosts==null ? 0 : nodeCosts[index];
+	}
+
+	/**
+	 * Calculates the key a node is ordered by in the heap.
+	 * @param index The index of a node.
+	 * @return The smaller of the distance and lookahead distance of the node,
+	 * plus the octile distance to the start node and the key modifier.
+	 */
+	private double getKey(int index)
+	{
+		return getSecondaryKey(index)+graph.getOctileDistance(start, index)+
+				keyModifier;
+	}
+
+	/**
+	 * Calculates the secondary key a node is ordered by in the heap.
+	 * @param index The index of a node.
+	 * @return The smaller of the distance and lookahead distance of the node.
+	 */
+	private double getSecondaryKey(int index)
+	{
+		return Math.min(distances[index], lookaheads[index]);
+	}
+
+	/**
+	 * Checks if a pair of keys comes before another pair in the heap.
+	 * @param key The first key of the first pair.
+	 * @param secondaryKey The secondary key of the first pair.
+	 * @param otherKey The first key of the second pair.
+	 * @param otherSecondaryKey The secondary key of the second pair.
+	 * @return True if the first pair comes first, false if not.
+	 */
+	private static boolean isBefore(double key, double secondaryKey,
+			double otherKey, double otherSecondaryKey)
+	{
+		return key<otherKey || (key==otherKey && secondaryKey<otherSecondaryKey);
+	}
+
+	/**
+	 * Builds the path from the start node to the destination by always
+	 * moving to the neighbour with the shortest path to the destination.
+	 * @return The linked list of nodes from the start to the destination
+	 * node, or null if the destination can not be reached.
+	 */
+	private LinkedList<GraphPoint> getPath()
+	{
+		/*Check if the destination can be reached from the start.*/
+		if(distances[start]==Double.POSITIVE_INFINITY)
+		{
+			return null;
+		}
+
+		LinkedList<GraphPoint> path=new LinkedList<>();
+		int current=start;
+		path.add(graph.getNode(current));
+
+		/*A path can not have more nodes than the graph, which stops the loop
+		 * if the distances are not consistent.*/
+		while(current!=destination && path.size()<=graph.getNodeCount())
+		{
+			int next=-1;
+			double nextDistance=Double.POSITIVE_INFINITY;
+			int mask=graph.getNeighbourMask(current);
+
+			//choose the neighbour with the shortest path to the destination
+			for(int d=0;d<8;d++)
+			{
+				if((mask&(1<<d))!=0)
+				{
+					int neighbour=graph.getNeighbourIndex(current, d);
+					double distance=Graph.getEdgeLength(d)+getNodeCost(neighbour)+
+							distances[neighbour];
+
+					if(distance<nextDistance)
+					{
+						next=neighbour;
+						nextDistance=distance;
+					}
+				}
+			}
+
+			if(next==-1)
+			{
+				return null;
+			}
+
+			current=next;
+			path.add(graph.getNode(current));
+		}
+
+		return current==destination ? path : null;
+	}
+}
@@ -0,0 +1,251 @@
+import java.util.Arrays;
+import java.util.LinkedList;
+
+/**
+ * <p><b>File name: </b> FlowField.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>FlowField.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a flow field over the graph of a Greenfoot
+ * recreation of the Wii Tanks game for the Nintendo Wii. A flow field has a
+ * root node, and gives each node of the graph the length of the shortest path
+ * from it to the root and the next node on that path. It is computed with
+ * Diejkstra's algorithm starting from the root, which since the edges of the
+ * graph go both ways finds the shortest paths from every node to the root.
+ *
+ * <p>The game world keeps a flow field rooted at the node of the player tank,
+ * so any number of tanks chasing the player can find the next node on their
+ * way without searching the graph. The field is only computed again when the
+ * player moves to another node or the graph changes.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Paths can now be put in a path buffer.
+ */
+public class FlowField
+{
+	/**The graph this flow field is computed on.*/
+	private final Graph graph;
+
+	/**The length of the shortest path from each node of the graph to the root
+	 * node, or infinity if the root can not be reached from it.*/
+	private final double[] distances;
+
+	/**The index of the next node on the shortest path from each node of the
+	 * graph to the root, or -1 for the root and the nodes that can not reach
+	 * it.*/
+	private final int[] nextNodes;
+
+	/**The heap of open nodes used when this flow field is computed.*/
+	private final IndexedMinHeap openNodes;
+
+	/**The index of the root node of this flow field, or -1 if it has not been
+	 * computed yet.*/
+	private int root;
+
+	/**The version of the topology of the graph this flow field was computed
+	 * for.*/
+	private int topologyVersion;
+
+	/**The number of times this flow field has been computed.*/
+	private int computations;
+
+	/**
+	 * Makes a new flow field for the given graph, which is computed the first
+	 * time it's root is set.
+	 * @param graph The graph the flow field is computed on.
+	 */
+	public FlowField(Graph graph)
+	{
+		this.graph=graph;
+		distances=new double[graph.getNodeCount()];
+		nextNodes=new int[graph.getNodeCount()];
+		openNodes=new IndexedMinHeap(graph.getNodeCount());
+		root=-1;
+		topologyVersion=-1;
+		computations=0;
+	}
+
+	/**
+	 * Sets the root node of this flow field, computing the field again if the
+	 * root is a different node or the graph has changed since it was computed.
+	 * @param root The index of the new root node, which must have a node.
+	 * @return True if the field was computed again, false if not.
+	 */
+	public boolean update(int root)
+	{
+		/*Check if the field is still up to date.*/
+		if(root==this.root && graph.getTopologyVersion()==topologyVersion)
+		{
+			return false;
+		}
+
+		this.root=root;
+		topologyVersion=graph.getTopologyVersion();
+		compute();
+
+		return true;
+	}
+
+	/**
+	 * Computes the shortest paths from every node to the root node with
+	 * Diejkstra's algorithm, starting from the root node.
+	 */
+	private void compute()
+	{
+		computations++;
+
+		//no node can reach the root until the search reaches it
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		Arrays.fill(nextNodes, -1);
+		openNodes.clear();
+
+		distances[root]=0;
+		openNodes.insertOrUpdate(root, 0);
+
+		/*Expand nodes in the order of their distance from the root until every
+		 * node that can reach it has been expanded.*/
+		while(!openNodes.isEmpty())
+		{
+			int current=openNodes.poll();
+			int mask=graph.getNeighbourMask(current);
+
+			/*Go through each neighbour of the current node and check if the
+			 * current node is the next node of a shorter path from it.*/
+			for(int d=0;d<8;d++)
+			{
+				if((mask&(1<<d))==0)
+				{
+					continue;
+				}
+
+				int neighbour=graph.getNeighbourIndex(current, d);
+				double distance=distances[current]+Graph.getEdgeLength(d);
+
+				if(distance<distances[neighbour])
+				{
+					distances[neighbour]=distance;
+					nextNodes[neighbour]=current;
+					openNodes.insertOrUpdate(neighbour, distance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Getter for the next node on the shortest path from the given node to the
+	 * root node.
+	 * @param index The index of a node in the graph.
+	 * @return The index of the next node, or -1 if the given node is the root
+	 * or can not reach it.
+	 */
+	public int getNextNode(int index)
+	{
+		return nextNodes[index];
+	}
+
+	/**
+	 * Getter for the length of the shortest path from the given node to the
+	 * root node.
+	 * @param index The index of a node in the graph.
+	 * @return The length of that path, or infinity if there is none.
+	 */
+	public double getDistance(int index)
+	{
+		return distances[index];
+	}
+
+	/**
+	 * Builds the shortest path from the node closest to the given coordinates
+	 * to the root node by following the next node of each node.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @return A LinkedList of graph nodes (GraphPoint objects) that is the
+	 * shortest path to the root node, or null if there is no such path.
+	 */
+	public LinkedList<GraphPoint> getPath(int startX, int startY)
+	{
+		PathBuffer path=new PathBuffer();
+		return getPath(startX, startY, path) ? path.toList(graph) : null;
+	}
+
+	/**
+	 * Puts the shortest path from the node closest to the given coordinates
+	 * to the root node in the given buffer, by following the next node of
+	 * each node, without making any objects if the buffer is long enough.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param path The buffer the indexes of the nodes of the path are put in.
+	 * It is emptied first, and left empty if there is no path.
+	 * @return True if there is a path to the root node, false if not.
+	 */
+	public boolean getPath(int startX, int startY, PathBuffer path)
+	{
+		path.clear();
+		int current=graph.getNodeIndex(startX, startY);
+
+		/*Check if the root can be reached from the starting node.*/
+		if(current==-1 || distances[current]==Double.POSITIVE_INFINITY)
+		{
+			return false;
+		}
+
+		while(current!=-1)
+		{
+			path.add(current);
+			current=nextNodes[current];
+		}
+
+		return true;
+	}
+
+	/**
+	 * Getter for the root node of this flow field.
+	 * @return The index of the root node, or -1 if the field has not been
+	 * computed yet.
+	 */
+	public int getRoot()
+	{
+		return root;
+	}
+
+	/**
+	 * Getter for the graph this flow field is computed on.
+	 * @return The graph of this flow field.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Getter for the number of times this flow field has been computed, to
+	 * check how rarely it needs to be.
+	 * @return The number of computations of this flow field.
+	 */
+	public int getComputations()
+	{
+		return computations;
+	}
+}
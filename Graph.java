@@ -1,11 +1,16 @@
+import greenfoot.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.List;
+import java.util.Random;
 
 /**
  * <p><b>File name: </b> Graph.java
- * @version 1.2
+ * @version 1.26
  * @since 27.07.2018
- * <p><b>Last modification date: </b> 05.10.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -32,6 +37,13 @@ import java.util.PriorityQueue;
  * nodes base on an instance of a TankWorld so that nodes are where a tank can move
  * safely without hitting walls.
  * 
+ * <p>The nodes are the slots of a grid placed over the inside of the world's 
+ * exterior walls. Each slot has an index, which is it's row multiplied by the
+ * number of columns, plus it's column. Instead of node objects, the graph 
+ * keeps one bit per slot telling if it has a node and one byte per slot with
+ * the directions in which that node has neighbours, so even much larger 
+ * worlds take little memory and the searches rarely miss the cache.
+ * 
  * <p><b>Version History</b>
  * <p>	-1.0 - Created the class.
  * <p>	-1.1 - Added code to generate paths that avoid land mines.
@@ -39,380 +51,2951 @@ import java.util.PriorityQueue;
  * repeat code in the getPathAvoidingMine method. The getter for points in the 
  * matrix now returns a non null neighbour if the point at the given coordinates
  * is null, and some minor refactoring to avoid exceptions.
+ * <p>	-1.3 - Added an A* search mode that uses an octile distance heuristic and
+ * only puts nodes in the priority queue once they are reached, and made the 
+ * graph count how many nodes each query expanded.
+ * <p>	-1.4 - Replaced the PriorityQueue used by the path queries with an indexed
+ * binary heap, so decreasing the tentative distance of a node no longer needs
+ * a linear search of the queue.
+ * <p>	-1.5 - Moved the state of path queries from the nodes to search contexts
+ * that belong to each thread, so the graph no longer needs to be reset after
+ * each query and several tanks can compute paths on it at the same time. 
+ * Diejkstra's algorithm now also only puts reached nodes in the heap.
+ * <p>	-1.6 - Added a Jump Point Search mode. Nodes close to a mine are now 
+ * marked as blocked instead of visited in the search context.
+ * <p>	-1.7 - The graph is now stored in primitive arrays instead of node objects
+ * linked to each other: a bit for each slot of the grid that has a node and a
+ * mask of the directions in which each node has neighbours. The coordinates
+ * of nodes and the indexes of their neighbours follow from their indexes, and
+ * the searches work only with node indexes. GraphPoint objects are only made
+ * for the paths and nodes returned by this graph.
+ * <p>	-1.8 - The graph is now built from an occupancy grid of the walls and
+ * the distance of each point to the closest wall, instead of asking the world
+ * for the walls at the corners of each point. The time it takes to build the
+ * graph is now measured.
+ * <p>	-1.9 - The graph can now be updated when a wall block is removed from 
+ * the world, and records which nodes changed in each update so path 
+ * planners can repair their paths.
+ * <p>	-1.10 - Shortest paths are now kept in a bounded cache by their source
+ * and destination nodes, so tanks asking for the same path again do not
+ * search the graph. Removing a wall block forgets the cached paths it may
+ * have made shorter.
+ * <p>	-1.11 - The nodes are now labelled with the connected component they
+ * belong to, so random destinations can be picked only among the nodes a tank
+ * can reach, in a bounded time.
+ * <p>	-1.12 - Paths avoiding land mines are now computed with a mask of the
+ * nodes close to any mine in the world, instead of recursively blocking the
+ * nodes close to a single mine for each query.
+ * <p>	-1.13 - Path queries can now be given a layer of extra costs for
+ * entering nodes, so tanks can take longer paths that keep them out of danger.
+ * <p>	-1.14 - Paths can now be smoothed by removing the nodes a tank can skip
+ * by driving in a straight line without hitting a wall.
+ * <p>	-1.15 - Added a Theta* search mode, which finds any-angle paths by
+ * linking nodes that can see each other.
+ * <p>	-1.16 - Added immutable snapshots of the graph, so paths can be 
+ * computed on other threads while wall blocks are removed from the world.
+ * <p>	-1.17 - Graphs can now be built for arenas of any size, and keep a
+ * cluster graph over their grid for hierarchical path queries.
+ * <p>	-1.18 - The A* and Jump Point Search modes now also estimate distances
+ * with the triangle inequality and the distances to a few landmark nodes, 
+ * which are picked and measured when the graph is built.
+ * <p>	-1.19 - Added a table of the first moves of the shortest paths between
+ * every pair of slots, which can be made for small graphs so shortest paths
+ * are found without searching.
+ * <p>	-1.20 - Paths can now be smoothed from a given node onward, keeping the
+ * nodes before it as they are, and paths avoiding land mines can be given a
+ * layer of extra costs for entering nodes as well.
+ * <p>	-1.21 - Added a bidirectional search mode, which searches from the source
+ * and the target at the same time until the 2 searches meet.
+ * <p>	-1.22 - Graphs can now be written to a buffer and made again from it,
+ * so the graph of a level only needs to be built once and can then be loaded
+ * from the graph cache.
+ * <p>	-1.23 - Added a quadtree search mode, which searches large square cells
+ * of nodes instead of single nodes in the open parts of the level.
+ * <p>	-1.24 - Paths are now built in path buffers, and can be planned and
+ * smoothed in the buffer of a tank without making any objects.
+ * <p>	-1.25 - The clearance of each slot, meaning how far it is from the 
+ * walls, is now kept, so paths can be found for tanks larger than the ones
+ * every node has room for on the same graph.
+ * <p>	-1.26 - A removed wall block is now taken out of the graph while it is
+ * still in the world, since it's position can not be read after.
  */
 public class Graph
 {
-	/**The matrix of graph points which contains this graph. Since nodes are points
-	 * on the game world, and each point has 8 neighbours which are the closest point
-	 * to that point in the world, the graph is stored as a 2 dimensional array.*/
-    private GraphPoint[][] pointMatrix;
+	/**The length of a diagonal edge between 2 neighbouring nodes. Used by the
+	 * octile distance heuristic of the A* search mode.*/
+	private static final double DIAGONAL_INTERVAL=Math.sqrt(2.0*GraphPoint.INTERVAL*
+			GraphPoint.INTERVAL);
+	
+	/**The row difference between a node and it's neighbour in each of the 8 
+	 * directions. Like the neighbours of a square on a chess board, the 
+	 * directions are in this order: upper left, upper, upper right, left, 
+	 * right, lower left, lower, lower right.*/
+	private static final int[] DIRECTION_ROWS={-1, -1, -1, 0, 0, 1, 1, 1};
+	
+	/**The column difference between a node and it's neighbour in each of the
+	 * 8 directions, in the same order as the row differences.*/
+	private static final int[] DIRECTION_COLUMNS={-1, 0, 1, -1, 1, -1, 0, 1};
+	
+	/**The length of the edge between a node and it's neighbour in each of the
+	 * 8 directions, in the same order as the row differences.*/
+	private static final double[] DIRECTION_LENGTHS={DIAGONAL_INTERVAL,
+			GraphPoint.INTERVAL, DIAGONAL_INTERVAL, GraphPoint.INTERVAL,
+			GraphPoint.INTERVAL, DIAGONAL_INTERVAL, GraphPoint.INTERVAL,
+			DIAGONAL_INTERVAL};
+
+	/**The number of paths kept in the path cache of a new graph. A level has
+	 * a few dozen tanks at most, which go back to a small number of places,
+	 * so this many paths hold most of the ones that are asked for again.*/
+	private static final int PATH_CACHE_CAPACITY=256;
+	
+	/**The number of landmarks picked when a graph is built. Each landmark
+	 * keeps a distance for every slot of the grid, and a few of them already
+	 * bound the distances of most queries from below. Its value is {@value}.*/
+	private static final int LANDMARK_COUNT=4;
+	
+	/**The version of the data written by graphs. It must be changed whenever
+	 * the way graphs are built or their data is written changes, so data of 
+	 * older graphs is not read. Its value is {@value}.*/
+	public static final int DATA_VERSION=2;
+	
+	/**The largest clearance kept for a slot. Slots further from the walls 
+	 * than this have this clearance, so paths can be found for tanks up to 
+	 * twice as large as the ones every node has room for. Its value is 
+	 * {@value}.*/
+	public static final int MAX_CLEARANCE=2*GraphPoint.WALL_OFFSET;
+	
+	/**
+	 * The algorithms this graph can use to compute the shortest path between 
+	 * a source point and a target node.
+	 */
+	public enum SearchMode
+	{
+		/**Diejkstra's algorithm, which expands nodes in the order of their 
+		 * distance from the source point.*/
+		DIJKSTRA,
+		
+		/**The A* algorithm, which expands nodes in the order of their distance
+		 * from the source plus a lower bound of their distance to the target
+		 * node, from the octile distance and the landmarks.*/
+		A_STAR,
+		
+		/**Jump Point Search, which is A* that only expands the nodes where a
+		 * shortest path may change direction.*/
+		JUMP_POINT,
+		
+		/**Theta*, which is A* where the best previous node of a node may be
+		 * any node that can see it, so paths go in straight lines at any 
+		 * angle and only have the nodes where they turn.*/
+		THETA_STAR,
+		
+		/**A* from the source and from the target at the same time, which
+		 * stops when no path through the nodes left in either heap can be
+		 * shorter than the shortest path found where the 2 searches met.*/
+		BIDIRECTIONAL,
+		
+		/**A* on the cells of the quadtree of the graph, which merges open 
+		 * squares of nodes into single cells. It's paths only have the nodes
+		 * where they turn, and are close to the shortest paths but not 
+		 * always as short.*/
+		QUADTREE
+	}
+	
+	/**The number of rows of the grid of slots this graph is made of.*/
+	private final int rows;
+	
+	/**The number of columns of the grid of slots this graph is made of.*/
+	private final int columns;
+	
+	/**The bits telling which slots of the grid have a node. The slot with a 
+	 * given index has a node if bit index%64 of element index/64 is set. Slots
+	 * where a tank would hit a wall have no node.*/
+	private final long[] nodeBits;
+	
+	/**The clearance of each slot of the grid, meaning the half side of the
+	 * largest square centred on it's point that does not touch a wall, up to
+	 * the largest clearance kept. A slot has a node if it's clearance is at 
+	 * least the wall offset of a node.*/
+	private final byte[] clearances;
+	
+	/**The neighbour mask of each slot of the grid. Bit i of a mask is set if the
+	 * node at that slot has a neighbour in direction i.*/
+	private final byte[] neighbourMasks;
+	
+	/**The difference between the index of a node and the index of it's 
+	 * neighbour in each of the 8 directions. Since slots are numbered row by
+	 * row, these are the same for every node.*/
+	private final int[] directionOffsets;
+    
+	/**The grid of the pixels of the world covered by walls, that this graph
+	 * is built from.*/
+	private final OccupancyGrid occupancyGrid;
+	
+	/**The nodes whose edges changed in each change of the topology of this
+	 * graph, in the order the changes were made.*/
+	private final List<int[]> topologyChanges;
+	
+	/**The connected component of each slot of the grid, meaning 2 nodes have
+	 * the same label if there is a path between them. Slots without a node
+	 * have the label -1.*/
+	private final int[] componentLabels;
+	
+	/**The indexes of the nodes of each connected component, in the order of
+	 * their labels.*/
+	private int[][] componentNodes;
+	
+	/**The position of each node in the array of nodes of it's component.*/
+	private final int[] componentPositions;
+	
+	/**The shortest paths computed by this graph that were asked for last, by
+	 * their source and destination nodes.*/
+	private final PathCache pathCache;
+	
+	/**The time it took to build this graph, in nanoseconds.*/
+	private final long buildTime;
+    
+    /**The algorithm used by this graph to compute shortest paths.*/
+    private SearchMode searchMode;
+    
+    /**The search context of each thread that computes paths on this graph,
+     * holding the state of that thread's current or last query.*/
+    private final ThreadLocal<SearchContext> searchContexts;
+    
+    /**The search context of each thread for the half of a bidirectional
+     * query that searches from the target.*/
+    private final ThreadLocal<SearchContext> reverseSearchContexts;
+    
+    /**A flag that indicates if this graph is a snapshot of another graph,
+     * which can not be changed.*/
+    private final boolean immutable;
+    
+    /**The last snapshot taken of this graph, which is given again while the
+     * topology of this graph does not change.*/
+    private Graph lastSnapshot;
+    
+    /**The graph of the clusters of the grid of this graph, used for the
+     * hierarchical path queries of large arenas. Is made when first needed.*/
+    private ClusterGraph clusterGraph;
+    
+    /**The quadtree of the cells of the grid of this graph, used by the 
+     * quadtree search mode. Is made when first needed and made again when 
+     * the topology of this graph changes.*/
+    private QuadtreeGraph quadtree;
+    
+    /**The indexes of the landmark nodes of this graph.*/
+    private int[] landmarks;
+    
+    /**The shortest distance between each slot of the grid and each landmark,
+     * with the distances of a slot to all the landmarks next to each other,
+     * so the distance between the slot with a given index and landmark i is
+     * at index*landmarks.length+i. It is 0 if there is no path between them.
+     * The array is replaced, never changed, when the distances change.*/
+    private double[] landmarkDistances;
+    
+    /**The table of the first moves of the shortest paths between every pair
+     * of slots of a snapshot of this graph, or null if it has not been made
+     * or the topology of this graph has changed since.*/
+    private NextHopTable nextHopTable;
 
     /**
      * Makes a new Graph that matches the layout of the given instance of TankWorld.
      * This means it will make a graph where if a point in the world is too close to
-     * a wall, it will be a null value in the matrix so that the tank will not 
-     * pass through walls. It also adds the edges between neighbouring nodes while
-     * making new nodes.
+     * a wall, there will be no node at that slot of the grid so that the tank will
+     * not pass through walls. It then adds the edges between neighbouring nodes.
      * @param tankWorld The world this graph is built for.
      */
-    public Graph(TankWorld tankWorld)
+    public Graph(TankWorld tankWorld)
+    {
+    	this(tankWorld, TankWorld.LENGTH, TankWorld.WIDTH);
+    }
+    
+    /**
+     * Makes a new Graph that matches the layout of the given world, which may
+     * be an arena of any size surrounded by exterior walls like the levels of
+     * the game.
+     * @param world The world this graph is built for.
+     * @param length The length of the world, in pixels.
+     * @param width The width of the world, in pixels.
+     */
+    public Graph(World world, int length, int width)
+    {
+    	long startTime=System.nanoTime();
+    	
+    	/*Since no nodes are created where a tank can not pass, no nodes need to 
+    	 * be created on the edges of the world where the exterior walls are, so
+    	 * the grid is only big enough to hold points that would fill the are 
+    	 * inside the world's exterior walls. Which is why it subtracts the length
+    	 * of 2 wall blocks from the length and width of the world.*/
+    	
+    	/*The number of columns is the length of world without the length of the 
+    	 * exterior walls divided by the interval at which graph points are made.*/
+    	columns=(length-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	
+    	/*The number of rows is the width of world without the width of the 
+    	 * exterior walls divided by the interval at which graph points are made.*/
+    	rows=(width-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	
+    	/*Each slot only needs a bit to tell if it has a node and a byte for the
+    	 * edges of that node. The coordinates of nodes are not stored, since 
+    	 * they follow from their indexes.*/
+    	final int nodeCount=rows*columns;
+    	nodeBits=new long[(nodeCount+63)/64];
+    	clearances=new byte[nodeCount];
+    	neighbourMasks=new byte[nodeCount];
+    	
+    	//calculate how far away the index of a neighbour is in each direction
+    	directionOffsets=getDirectionOffsets(columns);
+    	
+    	/*A* returns paths just as short as Diejkstra's algorithm while 
+    	 * expanding less nodes, so it is used by default.*/
+    	searchMode=SearchMode.A_STAR;
+    	searchContexts=makeSearchContexts();
+    	reverseSearchContexts=makeSearchContexts();
+    	immutable=false;
+   
+    	/*Draw the walls of the world into an occupancy grid once, instead of 
+    	 * asking the world for the walls at the corners of each point. The grid
+    	 * also keeps the pixels a tank's centre can not be on, which are as 
+    	 * far from the walls as a node has to be, for line of sight checks.*/
+    	occupancyGrid=new OccupancyGrid(world, length, width, GraphPoint.WALL_OFFSET);
+    	topologyChanges=new ArrayList<>();
+    	pathCache=new PathCache(PATH_CACHE_CAPACITY);
+
+    	/*A tank can pass through the centre of a point without hitting a wall 
+    	 * if no wall is closer to it than the wall offset of a node both 
+    	 * horizontally and vertically. The distances are computed up to the 
+    	 * largest clearance kept, so larger tanks can plan on this graph too.*/
+    	int[] wallDistances=occupancyGrid.getDistances(getNodeX(0), getNodeY(0), 
+    			GraphPoint.INTERVAL, columns, rows, MAX_CLEARANCE+1);
+    	
+    	/*First, go through each slot of the grid and check if it's point is far
+    	 * enough from the walls, to know if we need to add a node that belongs
+    	 * to a path a tank can follow.*/
+    	for(int index=0;index<nodeCount;index++)
+    	{
+    		clearances[index]=toClearance(wallDistances[index]);
+    		if(clearances[index]>=GraphPoint.WALL_OFFSET)
+    		{
+    			//if a tank would not hit a wall here, a node is added at this slot
+    			nodeBits[index>>>6]|=1L<<index;
+    		}
+    	}
+    	
+    	/*Then add the edges of each node. A node has an edge in each direction
+    	 * where the neighbouring slot is inside the grid and has a node too.*/
+    	for(int index=0;index<nodeCount;index++)
+    	{
+    		updateNeighbourMask(index);
+    	}
+    	
+    	//find out which nodes can be reached from each other
+    	componentLabels=new int[nodeCount];
+    	componentPositions=new int[nodeCount];
+    	labelComponents();
+    	
+    	//pick the landmarks and measure the distances to them
+    	setLandmarkCount(LANDMARK_COUNT);
+    	
+    	buildTime=System.nanoTime()-startTime;
+    }
+    
+    /**
+     * Makes a new Graph of the given world from the data written by a graph
+     * of a world with the same walls, instead of checking how far each slot 
+     * is from the walls and searching the graph for it's components and the
+     * distances of it's landmarks again. Only the occupancy grid is drawn 
+     * again from the walls of the world, since wall blocks are removed from 
+     * it and it checks the lines of sight of tanks.
+     * @param world The world this graph is built for.
+     * @param length The length of the world, in pixels.
+     * @param width The width of the world, in pixels.
+     * @param data A buffer whose position is at the start of the data written
+     * by a graph of the world, which is left after the end of the data.
+     * @throws IllegalArgumentException If the data is of a grid of another 
+     * size than the grid of the world.
+     */
+    public Graph(World world, int length, int width, ByteBuffer data)
+    {
+    	long startTime=System.nanoTime();
+    	
+    	columns=(length-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	rows=(width-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	if(data.getInt()!=rows || data.getInt()!=columns)
+    	{
+    		throw new IllegalArgumentException("The data is of a graph with a "
+    				+"grid of another size.");
+    	}
+    	
+    	final int nodeCount=rows*columns;
+    	nodeBits=new long[(nodeCount+63)/64];
+    	for(int i=0;i<nodeBits.length;i++)
+    	{
+    		nodeBits[i]=data.getLong();
+    	}
+    	
+    	clearances=new byte[nodeCount];
+    	data.get(clearances);
+    	neighbourMasks=new byte[nodeCount];
+    	data.get(neighbourMasks);
+    	directionOffsets=getDirectionOffsets(columns);
+    	
+    	searchMode=SearchMode.A_STAR;
+    	searchContexts=makeSearchContexts();
+    	reverseSearchContexts=makeSearchContexts();
+    	immutable=false;
+    	
+    	occupancyGrid=new OccupancyGrid(world, length, width, GraphPoint.WALL_OFFSET);
+    	topologyChanges=new ArrayList<>();
+    	pathCache=new PathCache(PATH_CACHE_CAPACITY);
+    	
+    	/*The nodes of each component are read in the order they were found 
+    	 * in, so each node gets the same position in it's component.*/
+    	componentLabels=new int[nodeCount];
+    	componentPositions=new int[nodeCount];
+    	Arrays.fill(componentLabels, -1);
+    	componentNodes=new int[data.getInt()][];
+    	for(int label=0;label<componentNodes.length;label++)
+    	{
+    		componentNodes[label]=new int[data.getInt()];
+    		for(int i=0;i<componentNodes[label].length;i++)
+    		{
+    			int node=data.getInt();
+    			componentNodes[label][i]=node;
+    			componentLabels[node]=label;
+    			componentPositions[node]=i;
+    		}
+    	}
+    	
+    	landmarks=new int[data.getInt()];
+    	for(int i=0;i<landmarks.length;i++)
+    	{
+    		landmarks[i]=data.getInt();
+    	}
+    	
+    	landmarkDistances=new double[nodeCount*landmarks.length];
+    	for(int i=0;i<landmarkDistances.length;i++)
+    	{
+    		landmarkDistances[i]=data.getDouble();
+    	}
+    	
+    	buildTime=System.nanoTime()-startTime;
+    }
+    
+    /**
+     * Makes a new immutable snapshot of the given graph, with copies of it's
+     * nodes, edges and occupancy grid that do not change when wall blocks 
+     * are removed from the given graph. The snapshot has the same topology 
+     * version as the given graph, and it's own empty path cache.
+     * @param graph The graph whose snapshot is made.
+     */
+    private Graph(Graph graph)
+    {
+    	long startTime=System.nanoTime();
+    	
+    	rows=graph.rows;
+    	columns=graph.columns;
+    	nodeBits=graph.nodeBits.clone();
+    	clearances=graph.clearances.clone();
+    	neighbourMasks=graph.neighbourMasks.clone();
+    	directionOffsets=graph.directionOffsets;
+    	occupancyGrid=new OccupancyGrid(graph.occupancyGrid);
+    	
+    	/*The arrays of changed nodes are never changed once recorded, so only
+    	 * the list of them is copied.*/
+    	topologyChanges=new ArrayList<>(graph.topologyChanges);
+    	
+    	componentLabels=graph.componentLabels.clone();
+    	componentNodes=graph.componentNodes.clone();
+    	componentPositions=graph.componentPositions.clone();
+    	pathCache=new PathCache(graph.pathCache.getCapacity());
+    	
+    	/*The landmark distances of a graph are replaced and never changed, so
+    	 * the snapshot keeps the ones the graph has now.*/
+    	landmarks=graph.landmarks;
+    	landmarkDistances=graph.landmarkDistances;
+    	nextHopTable=graph.nextHopTable;
+    	searchMode=graph.searchMode;
+    	searchContexts=makeSearchContexts();
+    	reverseSearchContexts=makeSearchContexts();
+    	immutable=true;
+    	
+    	buildTime=System.nanoTime()-startTime;
+    }
+    
+    /**
+     * Calculates the difference between the index of a node and the index of
+     * it's neighbour in each of the 8 directions.
+     * @param columns The number of columns of the grid of a graph.
+     * @return The differences of the indexes, in the order of the directions.
+     */
+    private static int[] getDirectionOffsets(int columns)
+    {
+    	int[] offsets=new int[DIRECTION_ROWS.length];
+    	for(int d=0;d<offsets.length;d++)
+    	{
+    		offsets[d]=DIRECTION_ROWS[d]*columns+DIRECTION_COLUMNS[d];
+    	}
+    	
+    	return offsets;
+    }
+    
+    /**
+     * Turns the Chebyshev distance between a point and the closest pixel 
+     * covered by a wall into the clearance of the point, which is the half
+     * side of the largest square centred on it that does not touch a wall.
+     * @param wallDistance The distance of a point to the walls, computed up
+     * to one more than the largest clearance kept.
+     * @return The clearance of the point, which is 0 if it is on a wall.
+     */
+    private static byte toClearance(int wallDistance)
+    {
+    	return (byte) Math.max(0, Math.min(MAX_CLEARANCE, wallDistance-1));
+    }
+    
+    /**
+     * Writes the data a graph of a world with the same walls can be made 
+     * from to the given buffer: the size of the grid, the bits of the slots
+     * with a node, the clearances of the slots, the neighbour masks, the 
+     * nodes of each component, the landmarks and their distances to every 
+     * slot. The occupancy grid, the 
+     * topology changes and the cached paths are not written.
+     * @param data A buffer with at least as many bytes left as the size of 
+     * the data of this graph, whose position is left after the end of the 
+     * data.
+     */
+    public void writeData(ByteBuffer data)
+    {
+    	data.putInt(rows);
+    	data.putInt(columns);
+    	for(long bits: nodeBits)
+    	{
+    		data.putLong(bits);
+    	}
+    	
+    	data.put(clearances);
+    	data.put(neighbourMasks);
+    	
+    	data.putInt(componentNodes.length);
+    	for(int[] nodes: componentNodes)
+    	{
+    		data.putInt(nodes.length);
+    		for(int node: nodes)
+    		{
+    			data.putInt(node);
+    		}
+    	}
+    	
+    	data.putInt(landmarks.length);
+    	for(int landmark: landmarks)
+    	{
+    		data.putInt(landmark);
+    	}
+    	
+    	for(double distance: landmarkDistances)
+    	{
+    		data.putDouble(distance);
+    	}
+    }
+    
+    /**
+     * Getter for the size of the data written by this graph.
+     * @return The number of bytes written by the writeData method.
+     */
+    public int getDataSize()
+    {
+    	/*Each component has it's size and it's nodes, and every node is in a
+    	 * component.*/
+    	int nodes=0;
+    	for(int[] component: componentNodes)
+    	{
+    		nodes+=component.length;
+    	}
+    	
+    	//ints take 4 bytes, while longs and doubles take 8 bytes
+    	int ints=2+1+componentNodes.length+nodes+1+landmarks.length;
+    	return 4*ints+8*(nodeBits.length+landmarkDistances.length)+
+    			clearances.length+neighbourMasks.length;
+    }
+    
+    /**
+     * Makes the thread local search contexts of this graph. Each thread gets
+     * it's own search context the first time it computes a path on this 
+     * graph.
+     * @return The thread local search contexts of this graph.
+     */
+    private ThreadLocal<SearchContext> makeSearchContexts()
+    {
+    	final int nodeCount=getNodeCount();
+    	
+    	return new ThreadLocal<SearchContext>()
+    	{
+    		@Override
+    		protected SearchContext initialValue()
+    		{
+    			return new SearchContext(nodeCount);
+    		}
+    	};
+    }
+    
+    /**
+     * Gets an immutable snapshot of the current topology of this graph, in
+     * which other threads can compute paths while wall blocks keep being 
+     * removed from this graph. A snapshot is only made again after the 
+     * topology of this graph has changed. It's nodes have the same indexes
+     * and coordinates as the nodes of this graph, so they are equal to them.
+     * This method should only be called by the thread that changes this 
+     * graph.
+     * @return A snapshot of this graph, or this graph if it is a snapshot.
+     */
+    public Graph getSnapshot()
+    {
+    	if(immutable)
+    	{
+    		return this;
+    	}
+    	
+    	/*Check if the topology changed since the last snapshot was taken.*/
+    	if(lastSnapshot==null || lastSnapshot.getTopologyVersion()!=
+    			getTopologyVersion())
+    	{
+    		lastSnapshot=new Graph(this);
+    	}
+    	
+    	return lastSnapshot;
+    }
+    
+    /**
+     * Gets the graph of the clusters of the grid of this graph, which finds
+     * paths in large arenas without searching every node. It is made the
+     * first time it is asked for, and brought up to date with the topology
+     * of this graph each time it is asked for after that, so this method 
+     * should only be called by the thread that changes this graph.
+     * @return The cluster graph of this graph.
+     */
+    public ClusterGraph getClusterGraph()
+    {
+    	if(clusterGraph==null)
+    	{
+    		clusterGraph=new ClusterGraph(this);
+    	}
+    	else
+    	{
+    		clusterGraph.update();
+    	}
+    	
+    	return clusterGraph;
+    }
+    
+    /**
+     * Gets the quadtree of the cells of the grid of this graph. It is made 
+     * the first time it is asked for, and made again when it is asked for 
+     * after the topology of this graph changed. Threads computing paths on a
+     * snapshot at the same time may each make one, but they are all the 
+     * same, so any of them can be kept.
+     * @return The quadtree of this graph.
+     */
+    public QuadtreeGraph getQuadtree()
+    {
+    	QuadtreeGraph tree=quadtree;
+    	if(tree==null || tree.getTopologyVersion()!=getTopologyVersion())
+    	{
+    		tree=new QuadtreeGraph(this);
+    		quadtree=tree;
+    	}
+    	
+    	return tree;
+    }
+    
+    /**
+     * Checks if this graph is an immutable snapshot of another graph.
+     * @return True if this graph is a snapshot, false if not.
+     */
+    public boolean isSnapshot()
+    {
+    	return immutable;
+    }
+    
+    /**
+     * Updates this graph for a wall block that is being removed from the 
+     * world, for example by the explosion of a land mine. Only the slots 
+     * close enough to the wall block for their clearance to have been 
+     * limited by it are checked again, and the ones that are far enough from
+     * the remaining walls get a node. The nodes whose edges changed are 
+     * recorded as a new version of the topology of this graph, so that path
+     * planners can repair their paths instead of computing them again. This
+     * must be called before the wall block leaves the world, since the 
+     * position of an actor can not be read once it has been removed.
+     * @param wall The wall block being removed, which is still in the world.
+     * @param world The world the wall block is in.
+     * @throws IllegalStateException If this graph is a snapshot.
+     */
+    public void removeWall(WallBlock wall, World world)
+    {
+    	if(immutable)
+    	{
+    		throw new IllegalStateException("A snapshot of a graph can not be "
+    				+"changed.");
+    	}
+    	
+    	occupancyGrid.removeWall(wall, world);
+    	
+    	/*The points whose clearance may have been limited by the removed wall
+    	 * are those whose largest square touched it, so they are closer to 
+    	 * it's centre than half the side of a wall block and the largest 
+    	 * clearance kept.*/
+    	int reach=WallBlock.SIDE/2+MAX_CLEARANCE+1;
+    	int firstColumn=Math.max(0, (wall.getX()-reach-getNodeX(0))/GraphPoint.INTERVAL);
+    	int lastColumn=Math.min(columns-1, (wall.getX()+reach-getNodeX(0))/
+    			GraphPoint.INTERVAL);
+    	int firstRow=Math.max(0, (wall.getY()-reach-getNodeY(0))/GraphPoint.INTERVAL);
+    	int lastRow=Math.min(rows-1, (wall.getY()+reach-getNodeY(0))/
+    			GraphPoint.INTERVAL);
+    	
+    	//the nodes whose edges change, as a set of indexes
+    	List<Integer> changedNodes=new ArrayList<>();
+    	
+    	/*Check if any slot of the grid is close enough to the removed wall.*/
+    	if(firstColumn<=lastColumn && firstRow<=lastRow)
+    	{
+    		int windowColumns=lastColumn-firstColumn+1;
+    		int windowRows=lastRow-firstRow+1;
+    		
+    		/*Compute the distances to the remaining walls only for the slots 
+    		 * close to the removed one.*/
+    		int[] wallDistances=occupancyGrid.getDistances(getNodeX(firstColumn), 
+    				getNodeY(firstRow*columns), GraphPoint.INTERVAL, windowColumns,
+    				windowRows, MAX_CLEARANCE+1);
+    		
+    		for(int i=0;i<windowRows;i++)
+    		{
+    			for(int j=0;j<windowColumns;j++)
+    			{
+    				int index=(firstRow+i)*columns+firstColumn+j;
+    				clearances[index]=toClearance(wallDistances[i*windowColumns+j]);
+    				
+    				/*Check if this slot had no node and is now far enough from
+    				 * the walls for a tank to pass through it.*/
+    				if(!hasNode(index) && clearances[index]>=GraphPoint.WALL_OFFSET)
+    				{
+    					//if so, add a node and mark it and it's neighbours as changed
+    					nodeBits[index>>>6]|=1L<<index;
+    					addChangedNode(changedNodes, index);
+    					
+    					for(int d=0;d<DIRECTION_ROWS.length;d++)
+    					{
+    						if(!indexesOutOfBounds(firstRow+i+DIRECTION_ROWS[d],
+    								firstColumn+j+DIRECTION_COLUMNS[d]) && 
+    								hasNode(index+directionOffsets[d]))
+    						{
+    							addChangedNode(changedNodes, index+directionOffsets[d]);
+    						}
+    					}
+    				}
+    			}
+    		}
+    	}
+    	
+    	/*Update the edges of the changed nodes, then record them as a new 
+    	 * version of the topology of this graph. A new version is recorded even
+    	 * if no node changed, so planners know the world has changed.*/
+    	int[] changes=new int[changedNodes.size()];
+    	for(int i=0;i<changes.length;i++)
+    	{
+    		changes[i]=changedNodes.get(i);
+    		updateNeighbourMask(changes[i]);
+    	}
+    	
+    	topologyChanges.add(changes);
+
+    	/*The new nodes may give shorter paths than some of the cached ones, 
+    	 * and may join components that were walled off from each other.*/
+    	if(changes.length>0)
+    	{
+    		pathCache.invalidate(this, changes);
+    		labelComponents();
+    		
+    		/*The new nodes may also make the paths to the landmarks shorter, 
+    		 * so their distances would no longer be lower bounds.*/
+    		measureLandmarks();
+    		
+    		//the next-hop table no longer has the shortest paths
+    		nextHopTable=null;
+    	}
+    }
+    
+    /**
+     * Picks the given number of landmarks and measures the distance between
+     * them and every node. The landmarks are picked in the largest component
+     * of this graph, each one being the node farthest from the ones picked 
+     * before it, so they are spread around the edges of the level where the
+     * bounds they give are the tightest.
+     * @param count The number of landmarks, or 0 to only estimate distances
+     * with the octile distance.
+     */
+    public void setLandmarkCount(int count)
+    {
+    	/*Find the largest component, where most queries are made.*/
+    	int largest=-1;
+    	for(int component=0;component<getComponentCount();component++)
+    	{
+    		if(largest==-1 || componentNodes[component].length>
+    				componentNodes[largest].length)
+    		{
+    			largest=component;
+    		}
+    	}
+    	
+    	count=(largest==-1) ? 0 : Math.min(count, componentNodes[largest].length);
+    	int[] pickedLandmarks=new int[count];
+    	
+    	if(count>0)
+    	{
+    		/*The first landmark is the node farthest from any node of the 
+    		 * component, then each landmark is the node whose distance to the
+    		 * closest landmark picked before it is the largest.*/
+    		double[] closestDistances=measureDistances(componentNodes[largest][0]);
+    		for(int i=0;i<count;i++)
+    		{
+    			int farthest=componentNodes[largest][0];
+    			for(int node: componentNodes[largest])
+    			{
+    				if(closestDistances[node]>closestDistances[farthest])
+    				{
+    					farthest=node;
+    				}
+    			}
+    			
+    			pickedLandmarks[i]=farthest;
+    			double[] distances=measureDistances(farthest);
+    			for(int node: componentNodes[largest])
+    			{
+    				closestDistances[node]=(i==0) ? distances[node] : 
+    					Math.min(closestDistances[node], distances[node]);
+    			}
+    		}
+    	}
+    	
+    	landmarks=pickedLandmarks;
+    	measureLandmarks();
+    }
+    
+    /**
+     * Measures the distance between each landmark and every node again, 
+     * replacing the array of landmark distances.
+     */
+    private void measureLandmarks()
+    {
+    	double[] distances=new double[getNodeCount()*landmarks.length];
+    	
+    	for(int i=0;i<landmarks.length;i++)
+    	{
+    		double[] landmarkDistance=measureDistances(landmarks[i]);
+    		for(int index=0;index<getNodeCount();index++)
+    		{
+    			/*The slots the landmark can not reach get 0, which is only 
+    			 * compared with other slots it can not reach, since a path 
+    			 * only links slots in the same component.*/
+    			if(landmarkDistance[index]!=Double.MAX_VALUE)
+    			{
+    				distances[index*landmarks.length+i]=landmarkDistance[index];
+    			}
+    		}
+    	}
+    	
+    	landmarkDistances=distances;
+    }
+    
+    /**
+     * Measures the shortest distance between a node and every other node 
+     * with Diejkstra's algorithm, using the search context of the calling 
+     * thread.
+     * @param source The index of a node.
+     * @return The distance of each slot from the node, or Double.MAX_VALUE
+     * for the slots without a path to it.
+     */
+    private double[] measureDistances(int source)
+    {
+    	SearchContext context=searchContexts.get();
+    	context.startQuery();
+    	context.setDistance(source, 0, -1);
+    	
+    	//without a target, every node of the component is expanded
+    	search(context, source, -1, false);
+    	
+    	double[] distances=new double[getNodeCount()];
+    	for(int index=0;index<distances.length;index++)
+    	{
+    		distances[index]=context.getDistance(index);
+    	}
+    	
+    	return distances;
+    }
+    
+    /**
+     * Searches the whole component of the given node with Diejkstra's 
+     * algorithm, using the search context of the calling thread. Since moves
+     * between neighbouring nodes are as long both ways, the best previous 
+     * node of each node is the next node of a shortest path from it to the
+     * given node.
+     * @param root The index of a node.
+     * @return The index of the best previous node of each slot, or -1 for the
+     * given node and the slots without a path to it.
+     */
+    public int[] getShortestPathTree(int root)
+    {
+    	SearchContext context=searchContexts.get();
+    	context.startQuery();
+    	context.setDistance(root, 0, -1);
+    	search(context, root, -1, false);
+    	
+    	int[] previousNodes=new int[getNodeCount()];
+    	for(int index=0;index<previousNodes.length;index++)
+    	{
+    		previousNodes[index]=(context.getDistance(index)==Double.MAX_VALUE) ?
+    				-1 : context.getPrevious(index);
+    	}
+    	
+    	return previousNodes;
+    }
+    
+    /**
+     * Makes the table of the first moves of the shortest paths between every
+     * pair of slots of this graph, with a thread for each processor. The 
+     * table takes a byte for every 2 pairs of slots, so it should only be 
+     * made for small graphs, like those of the levels of the game. It is 
+     * made from a snapshot of this graph, and is dropped when a wall block 
+     * removed from this graph changes it's topology. Since making the table 
+     * takes much longer than a search, it can also be made on another thread
+     * and set when it is finished.
+     * @return The new next-hop table.
+     * @throws IllegalStateException If this graph is a snapshot.
+     */
+    public NextHopTable buildNextHopTable()
+    {
+    	if(immutable)
+    	{
+    		throw new IllegalStateException("A snapshot of a graph can not be "
+    				+"changed.");
+    	}
+    	
+    	nextHopTable=new NextHopTable(getSnapshot());
+    	return nextHopTable;
+    }
+    
+    /**
+     * Sets the next-hop table of this graph to a table made on another 
+     * thread, if it was made from the snapshot of the current topology of 
+     * this graph.
+     * @param table A next-hop table made from a snapshot of this graph.
+     * @return True if the table was set, false if this graph changed since 
+     * the snapshot was taken or the table is of another graph.
+     * @throws IllegalStateException If this graph is a snapshot.
+     */
+    public boolean setNextHopTable(NextHopTable table)
+    {
+    	if(immutable)
+    	{
+    		throw new IllegalStateException("A snapshot of a graph can not be "
+    				+"changed.");
+    	}
+    	
+    	/*The snapshot is only made again when the topology changes.*/
+    	if(table.getGraph()!=getSnapshot())
+    	{
+    		return false;
+    	}
+    	
+    	nextHopTable=table;
+    	return true;
+    }
+    
+    /**
+     * Getter for the next-hop table of this graph.
+     * @return The table of the first moves of the shortest paths of this 
+     * graph, or null if it has not been made or has been dropped.
+     */
+    public NextHopTable getNextHopTable()
+    {
+    	return nextHopTable;
+    }
+    
+    /**
+     * Gets the shortest path between the given coordinates in the game world
+     * and the target node from the next-hop table of this graph, without 
+     * searching. If a cost layer is given, the path is only returned if it 
+     * enters no node with a cost, since then no path can be cheaper.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @param costLayer The extra cost of entering each node, or null.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
+     * shortest path to the target node, or null if this graph has no 
+     * next-hop table, there is no such path or it enters a node with a cost.
+     */
+    public LinkedList<GraphPoint> getNextHopPath(int startX, int startY,
+    		GraphPoint target, CostLayer costLayer)
+    {
+    	PathBuffer path=searchContexts.get().getPathBuffer();
+    	return getNextHopPath(startX, startY, target.getIndex(), costLayer, path) ? 
+    			path.toList(this) : null;
+    }
+    
+    /**
+     * Puts the shortest path between the given coordinates in the game world
+     * and the target node from the next-hop table of this graph in the given
+     * buffer, without searching. If a cost layer is given, the path is only
+     * kept if it enters no node with a cost, since then no path can be 
+     * cheaper.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param costLayer The extra cost of entering each node, or null.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if the path was found, false if this graph has no next-hop
+     * table, there is no such path or it enters a node with a cost.
+     */
+    public boolean getNextHopPath(int startX, int startY, int target, 
+    		CostLayer costLayer, PathBuffer path)
+    {
+    	path.clear();
+    	int source=getNodeIndex(startX, startY);
+    	if(nextHopTable==null || source==-1 || 
+    			!nextHopTable.getPath(source, target, path))
+    	{
+    		return false;
+    	}
+    	
+    	/*The source is not entered by the path, so it's cost is not paid.*/
+    	for(int i=1;costLayer!=null && i<path.size();i++)
+    	{
+    		if(costLayer.getCost(path.get(i))>0)
+    		{
+    			path.clear();
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    /**
+     * Labels each node of this graph with the connected component it belongs
+     * to, by filling each component from the first node found that has no 
+     * label yet. Also makes the array of the nodes of each component.
+     */
+    private void labelComponents()
+    {
+    	Arrays.fill(componentLabels, -1);
+    	List<int[]> components=new ArrayList<>();
+    	
+    	/*The nodes of the component being filled, which are also used as the
+    	 * stack of nodes whose neighbours still need to be checked.*/
+    	int[] nodes=new int[getNodeCount()];
+    	
+    	for(int index=0;index<getNodeCount();index++)
+    	{
+    		/*Check if this node starts a new component.*/
+    		if(!hasNode(index) || componentLabels[index]!=-1)
+    		{
+    			continue;
+    		}
+    		
+    		int label=components.size();
+    		int size=0;
+    		int next=0;
+    		componentLabels[index]=label;
+    		nodes[size++]=index;
+    		
+    		/*Label every neighbour of the labelled nodes until the whole 
+    		 * component is labelled.*/
+    		while(next<size)
+    		{
+    			int current=nodes[next++];
+    			int mask=neighbourMasks[current]&0xFF;
+    			
+    			for(int d=0;d<DIRECTION_ROWS.length;d++)
+    			{
+    				int neighbour=current+directionOffsets[d];
+    				if((mask&(1<<d))!=0 && componentLabels[neighbour]==-1)
+    				{
+    					componentLabels[neighbour]=label;
+    					nodes[size++]=neighbour;
+    				}
+    			}
+    		}
+    		
+    		//remember where each node is in the array of it's component
+    		for(int i=0;i<size;i++)
+    		{
+    			componentPositions[nodes[i]]=i;
+    		}
+    		components.add(Arrays.copyOf(nodes, size));
+    	}
+    	
+    	componentNodes=components.toArray(new int[components.size()][]);
+    }
+    
+    /**
+     * Getter for the connected component of a node. There is a path between
+     * 2 nodes if and only if they are in the same component.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The label of the component of the node at that slot, or -1 if
+     * no node is there.
+     */
+    public int getComponent(int index)
+    {
+    	return componentLabels[index];
+    }
+    
+    /**
+     * Getter for the number of connected components of this graph.
+     * @return The number of components.
+     */
+    public int getComponentCount()
+    {
+    	return componentNodes.length;
+    }
+    
+    /**
+     * Getter for the nodes of a connected component.
+     * @param component The label of a component of this graph.
+     * @return The indexes of the nodes of that component. The returned array 
+     * must not be changed.
+     */
+    public int[] getComponentNodes(int component)
+    {
+    	return componentNodes[component];
+    }
+    
+    /**
+     * Picks a random node of a connected component that is farther than the 
+     * given distance from the given point, each such node being as likely to
+     * be picked. Instead of picking nodes until one is far enough, the nodes 
+     * of the component that are too close are found by only checking the 
+     * slots around the point, and a random node is picked among the others,
+     * so the time taken does not depend on the size of the graph or on luck.
+     * @param component The label of a component of this graph.
+     * @param avoidX The x coordinate of the point to keep away from.
+     * @param avoidY The y coordinate of the point to keep away from.
+     * @param avoidDistance The distance the picked node must be farther than
+     * from the point.
+     * @param random The random number generator used to pick the node.
+     * @return The index of the picked node, or -1 if every node of the 
+     * component is too close to the point.
+     */
+    public int getRandomNode(int component, int avoidX, int avoidY, 
+    		int avoidDistance, Random random)
+    {
+    	int[] nodes=componentNodes[component];
+    	
+    	/*The slots that may be close enough to the point are in a square 
+    	 * around it, whose side is twice the distance.*/
+    	int firstColumn=Math.max(0, (avoidX-avoidDistance-getNodeX(0))/
+    			GraphPoint.INTERVAL);
+    	int lastColumn=Math.min(columns-1, (avoidX+avoidDistance-getNodeX(0))/
+    			GraphPoint.INTERVAL);
+    	int firstRow=Math.max(0, (avoidY-avoidDistance-getNodeY(0))/
+    			GraphPoint.INTERVAL);
+    	int lastRow=Math.min(rows-1, (avoidY+avoidDistance-getNodeY(0))/
+    			GraphPoint.INTERVAL);
+    	
+    	/*Find the positions of the nodes of the component that are too close
+    	 * to the point in the array of nodes of the component.*/
+    	int[] excluded=new int[Math.max(0, (lastRow-firstRow+1)*
+    			(lastColumn-firstColumn+1))];
+    	int excludedCount=0;
+    	for(int row=firstRow;row<=lastRow;row++)
+    	{
+    		for(int column=firstColumn;column<=lastColumn;column++)
+    		{
+    			int index=row*columns+column;
+    			int xDistance=getNodeX(index)-avoidX;
+    			int yDistance=getNodeY(index)-avoidY;
+    			
+    			if(componentLabels[index]==component && xDistance*xDistance+
+    					yDistance*yDistance<=avoidDistance*avoidDistance)
+    			{
+    				excluded[excludedCount++]=componentPositions[index];
+    			}
+    		}
+    	}
+    	
+    	/*Check if any node of the component is far enough.*/
+    	if(excludedCount==nodes.length)
+    	{
+    		return -1;
+    	}
+    	
+    	/*Pick the position among the nodes that are far enough, then skip over
+    	 * the positions of the nodes too close that come before it.*/
+    	Arrays.sort(excluded, 0, excludedCount);
+    	int position=random.nextInt(nodes.length-excludedCount);
+    	for(int i=0;i<excludedCount && excluded[i]<=position;i++)
+    	{
+    		position++;
+    	}
+    	
+    	return nodes[position];
+    }
+    
+    /**
+     * Adds a node index to a list of changed nodes, if it is not in it already.
+     * @param changedNodes The list of changed node indexes.
+     * @param index The index of a node.
+     */
+    private void addChangedNode(List<Integer> changedNodes, int index)
+    {
+    	if(!changedNodes.contains(index))
+    	{
+    		changedNodes.add(index);
+    	}
+    }
+    
+    /**
+     * Sets the neighbour mask of the slot with the given index. A node has an
+     * edge in each direction where the neighbouring slot is inside the grid 
+     * and has a node too. Slots without a node have no edges.
+     * @param index The index of a slot in the grid of this graph.
+     */
+    private void updateNeighbourMask(int index)
+    {
+    	/*Slots without a node have no edges.*/
+    	if(!hasNode(index))
+    	{
+    		neighbourMasks[index]=0;
+    		return;
+    	}
+    	
+    	int row=index/columns;
+    	int column=index%columns;
+    	int mask=0;
+    	
+    	for(int d=0;d<DIRECTION_ROWS.length;d++)
+    	{
+    		if(!indexesOutOfBounds(row+DIRECTION_ROWS[d], column+DIRECTION_COLUMNS[d])
+    				&& hasNode(index+directionOffsets[d]))
+    		{
+    			mask|=1<<d;
+    		}
+    	}
+    	
+    	neighbourMasks[index]=(byte) mask;
+    }
+    
+    /**
+     * Getter for the version of the topology of this graph, which is the 
+     * number of times a wall block has been removed since it was built.
+     * @return The version of the topology of this graph.
+     */
+    public int getTopologyVersion()
+    {
+    	return topologyChanges.size();
+    }
+    
+    /**
+     * Getter for the nodes whose edges changed when the topology of this graph
+     * went from the given version to the next one.
+     * @param version A version of the topology of this graph, smaller than 
+     * the current version.
+     * @return The indexes of the nodes that were added in that change and of
+     * their neighbours.
+     */
+    public int[] getChangedNodes(int version)
+    {
+    	return topologyChanges.get(version);
+    }
+    
+    
+    /**
+     * Computes the shortest path between the given coordinates in the game 
+     * world and the target node in this graph, using the search algorithm 
+     * set as the search mode of this graph. The state of the search is kept
+     * in a search context that belongs to the calling thread, so several 
+     * threads can compute paths on this graph at the same time. If the path
+     * between the same source and destination nodes was asked for recently,
+     * it is taken from the path cache of this graph instead.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the
+     * shortest path to the target node, or null if there is no such path.
+     */
+    public LinkedList<GraphPoint> getShortestPath(int startX, int startY,
+    		GraphPoint target)
+    {
+    	return getShortestPath(startX, startY, target, null);
+    }
+    
+    /**
+     * Computes the cheapest path between the given coordinates in the game 
+     * world and the target node in this graph, where the cost of a path is
+     * it's length plus the cost of each node it enters in the given layer.
+     * Since the costs of nodes are not the same for each move, Jump Point 
+     * Search can not be used, so the A* algorithm is used instead in that 
+     * search mode. Paths with costs are not cached, since the costs change.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
+     * cheapest path to the target node, or null if there is no such path.
+     */
+    public LinkedList<GraphPoint> getShortestPath(int startX, int startY,
+    		GraphPoint target, CostLayer costLayer)
+    {
+    	PathBuffer path=searchContexts.get().getPathBuffer();
+    	return getShortestPath(startX, startY, target.getIndex(), costLayer, path) ?
+    			path.toList(this) : null;
+    }
+    
+    /**
+     * Puts the cheapest path between the given coordinates in the game world
+     * and the target node in this graph in the given buffer, like the method
+     * that returns a list. Apart from the paths kept in the path cache, no
+     * objects are made if the buffer is long enough, so tanks can plan paths
+     * into their own buffers as often as they need.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     */
+    public boolean getShortestPath(int startX, int startY, int target,
+    		CostLayer costLayer, PathBuffer path)
+    {
+    	return getShortestPath(startX, startY, target, costLayer, 
+    			GraphPoint.WALL_OFFSET, path);
+    }
+    
+    /**
+     * Computes the cheapest path between the given coordinates in the game 
+     * world and the target node in this graph for a tank that needs the 
+     * given clearance from the walls, so it only goes through nodes with at
+     * least that clearance. Tanks of any size up to the largest clearance 
+     * kept can so plan on the same graph.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall. Clearances up to the wall offset 
+     * of a node give the same paths as the methods without a clearance, 
+     * since every node has that much room.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
+     * cheapest path to the target node, or null if there is no such path.
+     * @throws IllegalArgumentException If the clearance is larger than the 
+     * largest clearance kept.
+     */
+    public LinkedList<GraphPoint> getShortestPath(int startX, int startY,
+    		GraphPoint target, CostLayer costLayer, int minClearance)
+    {
+    	PathBuffer path=searchContexts.get().getPathBuffer();
+    	return getShortestPath(startX, startY, target.getIndex(), costLayer, 
+    			minClearance, path) ? path.toList(this) : null;
+    }
+    
+    /**
+     * Puts the cheapest path between the given coordinates in the game world
+     * and the target node in this graph for a tank that needs the given 
+     * clearance from the walls in the given buffer, like the method that 
+     * returns a list. Paths of tanks that need more clearance than every 
+     * node has are not cached, since the cache only keeps one path for each
+     * source and destination. They are still taken from the next-hop table
+     * when the shortest path only goes through nodes with enough clearance,
+     * since then no path can be shorter.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     * @throws IllegalArgumentException If the clearance is larger than the 
+     * largest clearance kept.
+     */
+    public boolean getShortestPath(int startX, int startY, int target,
+    		CostLayer costLayer, int minClearance, PathBuffer path)
+    {
+    	path.clear();
+    	
+    	/*Check if the tank needs more room than every node has.*/
+    	if(minClearance>GraphPoint.WALL_OFFSET)
+    	{
+    		SearchContext context=searchContexts.get();
+    		context.startQuery();
+    		setMinClearance(context, minClearance);
+    		
+    		/*A shortest path that only goes through nodes with enough room is
+    		 * also the shortest path for the tank, unless an any-angle path is
+    		 * wanted.*/
+    		boolean anyAngle=(searchMode==SearchMode.THETA_STAR || 
+    				searchMode==SearchMode.QUADTREE);
+    		if(!anyAngle && getNextHopPath(startX, startY, target, costLayer, path)
+    				&& isClear(path, minClearance))
+    		{
+    			return true;
+    		}
+    		
+    		context.setCostLayer(costLayer);
+    		return findPath(context, startX, startY, target, path);
+    	}
+    	
+    	/*Paths with costs do not go through the cache. Neither do any-angle
+    	 * paths, since the cache forgets paths by their octile distances, which
+    	 * are not the shortest lengths of paths at any angle, nor quadtree 
+    	 * paths, which may not be the shortest.*/
+    	boolean anyAngle=(searchMode==SearchMode.THETA_STAR || 
+    			searchMode==SearchMode.QUADTREE);
+    	if(costLayer!=null || anyAngle)
+    	{
+    		SearchContext context=searchContexts.get();
+    		context.startQuery();
+    		
+    		/*A shortest path that enters no node with a cost is also the 
+    		 * cheapest path, so it can be taken from the next-hop table.*/
+    		if(!anyAngle && getNextHopPath(startX, startY, target, costLayer, path))
+    		{
+    			return true;
+    		}
+    		
+    		context.setCostLayer(costLayer);
+    		return findPath(context, startX, startY, target, path);
+    	}
+    	
+    	//get the search context of this thread and prepare it for a new query
+    	SearchContext context=searchContexts.get();
+    	context.startQuery();
+    	
+    	/*With a next-hop table, the shortest path is followed without 
+    	 * searching, and if it has no path there is none.*/
+    	if(nextHopTable!=null)
+    	{
+    		return getNextHopPath(startX, startY, target, null, path);
+    	}
+
+    	/*Check if this path is in the cache. It is copied into the buffer, 
+    	 * since tanks remove nodes from their paths as they follow them.*/
+    	int[] cachedPath=pathCache.get(getNodeIndex(startX, startY), target);
+    	if(cachedPath!=null)
+    	{
+    		for(int node: cachedPath)
+    		{
+    			path.add(node);
+    		}
+
+    		return true;
+    	}
+
+    	/*Remember the path found, with it's length so it can be forgotten when
+    	 * a shorter one may appear. It is only copied if the cache is on.*/
+    	if(findPath(context, startX, startY, target, path))
+    	{
+    		if(pathCache.getCapacity()>0)
+    		{
+    			pathCache.put(path.toArray(), context.getDistance(target));
+    		}
+    		
+    		return true;
+    	}
+
+    	return false;
+    }
+    
+    /**
+     * Computes the shortest path between the given coordinates in the game 
+     * world and the target node in this graph, while keeping a safe distance
+     * from every land mine in the given mask. The node closest to the given
+     * coordinates is never blocked, since a tank that has come close to a mine
+     * still needs to move away from it. These paths are not cached, since 
+     * they depend on the mines as well as on their source and destination.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the returned path will avoid.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
+     * shortest path to the target node, or null if there is no such path.
+     */
+    public LinkedList<GraphPoint> getPathAvoidingMines(int startX, int startY,
+    		GraphPoint target, MineExclusionMask mineMask)
+    {
+    	return getPathAvoidingMines(startX, startY, target, mineMask, null);
+    }
+    
+    /**
+     * Computes the cheapest path between the given coordinates in the game 
+     * world and the target node in this graph that keeps a safe distance from
+     * every land mine in the given mask. The cost of a path is it's length 
+     * plus the cost of each node it enters in the given layer, like the paths
+     * with costs that do not avoid the mines.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The node in the graph that is the destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the returned path will avoid.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
+     * cheapest path to the target node, or null if there is no such path.
+     */
+    public LinkedList<GraphPoint> getPathAvoidingMines(int startX, int startY,
+    		GraphPoint target, MineExclusionMask mineMask, CostLayer costLayer)
+    {
+    	PathBuffer path=searchContexts.get().getPathBuffer();
+    	return getPathAvoidingMines(startX, startY, target.getIndex(), mineMask, 
+    			costLayer, path) ? path.toList(this) : null;
+    }
+    
+    /**
+     * Puts the shortest path between the given coordinates in the game world
+     * and the target node in this graph that keeps a safe distance from every
+     * land mine in the given mask in the given buffer, like the method that
+     * returns a list, without making any objects if the buffer is long 
+     * enough.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the path will avoid.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     */
+    public boolean getPathAvoidingMines(int startX, int startY, int target, 
+    		MineExclusionMask mineMask, PathBuffer path)
+    {
+    	return getPathAvoidingMines(startX, startY, target, mineMask, 
+    			GraphPoint.WALL_OFFSET, path);
+    }
+    
+    /**
+     * Puts the cheapest path between the given coordinates in the game world
+     * and the target node in this graph that keeps a safe distance from every
+     * land mine in the given mask in the given buffer, like the method that
+     * returns a list, without making any objects if the buffer is long 
+     * enough.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the path will avoid.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     */
+    public boolean getPathAvoidingMines(int startX, int startY, int target, 
+    		MineExclusionMask mineMask, CostLayer costLayer, PathBuffer path)
+    {
+    	return getPathAvoidingMines(startX, startY, target, mineMask, costLayer, 
+    			GraphPoint.WALL_OFFSET, path);
+    }
+    
+    /**
+     * Puts the shortest path between the given coordinates in the game world
+     * and the target node in this graph that keeps a safe distance from every
+     * land mine in the given mask, for a tank that needs the given clearance
+     * from the walls, in the given buffer. The nodes with less clearance are
+     * blocked like the ones too close to the mines.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the path will avoid.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     * @throws IllegalArgumentException If the clearance is larger than the 
+     * largest clearance kept.
+     */
+    public boolean getPathAvoidingMines(int startX, int startY, int target, 
+    		MineExclusionMask mineMask, int minClearance, PathBuffer path)
+    {
+    	return getPathAvoidingMines(startX, startY, target, mineMask, null, 
+    			minClearance, path);
+    }
+    
+    /**
+     * Puts the cheapest path between the given coordinates in the game world
+     * and the target node in this graph that keeps a safe distance from every
+     * land mine in the given mask, for a tank that needs the given clearance
+     * from the walls, in the given buffer. The cost of a path is it's length
+     * plus the cost of each node it enters in the given layer, and the nodes
+     * with less clearance are blocked like the ones too close to the mines.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the 
+     * destination.
+     * @param mineMask The mask of the nodes too close to land mines, which 
+     * the path will avoid.
+     * @param costLayer The extra cost of entering each node, which must not be
+     * negative, or null for the shortest path.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall.
+     * @param path The buffer the indexes of the nodes of the path are put in.
+     * It is emptied first, and left empty if there is no path.
+     * @return True if a path was found, false if there is no such path.
+     * @throws IllegalArgumentException If the clearance is larger than the 
+     * largest clearance kept.
+     */
+    public boolean getPathAvoidingMines(int startX, int startY, int target, 
+    		MineExclusionMask mineMask, CostLayer costLayer, int minClearance,
+    		PathBuffer path)
+    {
+    	//get the search context of this thread and prepare it for a new query
+    	SearchContext context=searchContexts.get();
+    	context.startQuery();
+    	
+    	/*The nodes in the mask are blocked, so they will be ignored by the 
+    	 * shortest path algorithm, and so are the nodes too close to the walls
+    	 * for the tank.*/
+    	context.setExclusionMask(mineMask);
+    	context.setCostLayer(costLayer);
+    	setMinClearance(context, minClearance);
+    	
+    	//using the shortest path algorithm, get a path that avoids the mines
+    	return findPath(context, startX, startY, target, path);
+    }
+    
+    /**
+     * Smooths a path by pulling it tight like a string: starting from it's
+     * first node, the path goes straight to the furthest following node a 
+     * tank can drive to in a straight line without hitting a wall, and so on
+     * until the last node. The path gets only the nodes where the tank needs
+     * to turn, so the tank follows a few long segments instead of turning 
+     * every few pixels. Only walls are checked, so the segments may pass 
+     * through nodes a path with costs or a mask would have avoided.
+     * @param path A path of this graph, in which each node is a neighbour of
+     * the one before it, or null.
+     * @return A new path with the first and last node of the given path and
+     * the nodes between them where it turns, or null if the given path is 
+     * null.
+     */
+    public LinkedList<GraphPoint> smoothPath(List<GraphPoint> path)
+    {
+    	return smoothPath(path, 0);
+    }
+    
+    /**
+     * Smooths a path from the node at the given position onward, like the
+     * method that smooths a whole path. The nodes before that position are 
+     * kept as they are, for example because they were planned around other 
+     * tanks and a straight line would cut through the slots those tanks 
+     * reserved.
+     * @param path A path of this graph, in which each node is a neighbour of
+     * the one before it, or null.
+     * @param first The position of the first node the smoothed part of the
+     * path starts from, which is always kept.
+     * @return A new path with the nodes of the given path before the given 
+     * position, the node at that position, the last node and the nodes 
+     * between them where the path turns, or null if the given path is null.
+     */
+    public LinkedList<GraphPoint> smoothPath(List<GraphPoint> path, int first)
+    {
+    	if(path==null)
+    	{
+    		return null;
+    	}
+    	
+    	PathBuffer smoothPath=searchContexts.get().getPathBuffer();
+    	smoothPath.clear();
+    	smoothPath.addAll(path);
+    	smoothPath(smoothPath, first);
+    	
+    	return smoothPath.toList(this);
+    }
+    
+    /**
+     * Smooths the path in the given buffer in place, like the method that 
+     * smooths a list, so the buffer keeps only the first and last node and 
+     * the nodes between them where the path turns. No objects are made.
+     * @param path A buffer with a path of this graph, in which each node is 
+     * a neighbour of the one before it.
+     */
+    public void smoothPath(PathBuffer path)
+    {
+    	smoothPath(path, 0);
+    }
+    
+    /**
+     * Smooths the path in the given buffer in place from the node at the 
+     * given position onward, like the method that smooths a list from that 
+     * position. The nodes before it are kept as they are. No objects are 
+     * made.
+     * @param path A buffer with a path of this graph, in which each node is 
+     * a neighbour of the one before it.
+     * @param first The position of the first node the smoothed part of the
+     * path starts from, which is always kept.
+     */
+    public void smoothPath(PathBuffer path, int first)
+    {
+    	smoothPath(path, first, GraphPoint.WALL_OFFSET);
+    }
+    
+    /**
+     * Smooths the path in the given buffer in place from the node at the 
+     * given position onward, for a tank that needs the given clearance from
+     * the walls, so the straight lines it keeps are far enough from the 
+     * walls for the tank. The nodes before that position are kept as they 
+     * are.
+     * @param path A buffer with a path of this graph, in which each node is 
+     * a neighbour of the one before it.
+     * @param first The position of the first node the smoothed part of the
+     * path starts from, which is always kept.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall.
+     */
+    public void smoothPath(PathBuffer path, int first, int minClearance)
+    {
+    	/*A part of the path with fewer than 3 nodes has no node where it 
+    	 * could turn.*/
+    	if(path.size()-first<3)
+    	{
+    		return;
+    	}
+    	
+    	int anchor=path.get(first);
+    	int keptNodes=first+1;
+    	
+    	/*Go through the nodes of the path, and when one can not be seen from
+    	 * the last node kept, the node before it is where the tank needs to 
+    	 * turn, so it is kept and the following nodes are seen from it. Nodes
+    	 * are only written before the one being read, so the path can be 
+    	 * smoothed in it's own buffer.*/
+    	for(int i=first+2;i<path.size();i++)
+    	{
+    		if(!hasLineOfSight(anchor, path.get(i), minClearance))
+    		{
+    			anchor=path.get(i-1);
+    			path.set(keptNodes++, anchor);
+    		}
+    	}
+    	
+    	//the path must still end at it's destination
+    	path.set(keptNodes++, path.getLast());
+    	path.truncate(keptNodes);
+    }
+    
+    /**
+     * Checks if a tank can drive in a straight line between 2 nodes without
+     * hitting a wall, meaning every point of the line between them is as far
+     * from the walls as a node needs to be.
+     * @param start A node of this graph.
+     * @param end Another node of this graph.
+     * @return True if the tank can drive straight between the nodes, false if
+     * not.
+     */
+    public boolean hasLineOfSight(GraphPoint start, GraphPoint end)
+    {
+    	return occupancyGrid.isSegmentClear(start.getX(), start.getY(), end.getX(),
+    			end.getY());
+    }
+    
+    /**
+     * Checks if a tank can drive in a straight line between the nodes with 
+     * the given indexes without hitting a wall, like the method that takes 
+     * graph nodes.
+     * @param start The index of a node of this graph.
+     * @param end The index of another node of this graph.
+     * @return True if the tank can drive straight between the nodes, false if
+     * not.
+     */
+    public boolean hasLineOfSight(int start, int end)
+    {
+    	return occupancyGrid.isSegmentClear(getNodeX(start), getNodeY(start), 
+    			getNodeX(end), getNodeY(end));
+    }
+    
+    /**
+     * Checks if a tank that needs the given clearance from the walls can 
+     * drive in a straight line between the nodes with the given indexes 
+     * without hitting a wall.
+     * @param start The index of a node of this graph.
+     * @param end The index of another node of this graph.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall. Clearances up to the wall offset 
+     * of a node are checked like the method without a clearance.
+     * @return True if the tank can drive straight between the nodes, false if
+     * not.
+     */
+    public boolean hasLineOfSight(int start, int end, int minClearance)
+    {
+    	if(minClearance<=GraphPoint.WALL_OFFSET)
+    	{
+    		return hasLineOfSight(start, end);
+    	}
+    	
+    	return occupancyGrid.isSegmentClear(getNodeX(start), getNodeY(start), 
+    			getNodeX(end), getNodeY(end), minClearance);
+    }
+    
+    /**
+     * Blocks the nodes too close to the walls for a tank that needs the given
+     * clearance in the given query. Nothing is blocked if every node has 
+     * enough room for the tank.
+     * @param context The search context of the query.
+     * @param minClearance The half side of the square around the centre of 
+     * the tank that must not touch a wall.
+     * @throws IllegalArgumentException If the clearance is larger than the 
+     * largest clearance kept.
+     */
+    private void setMinClearance(SearchContext context, int minClearance)
+    {
+    	if(minClearance>MAX_CLEARANCE)
+    	{
+    		throw new IllegalArgumentException("The clearance can not be larger "
+    				+"than "+MAX_CLEARANCE+".");
+    	}
+    	
+    	if(minClearance>GraphPoint.WALL_OFFSET)
+    	{
+    		context.setMinClearance(clearances, minClearance);
+    	}
+    }
+    
+    /**
+     * Checks if every node of a path after the first one has at least the 
+     * given clearance. The first node is where the tank already is, so it is
+     * not checked, like the source of a search is never blocked.
+     * @param path A buffer with a path of this graph.
+     * @param minClearance The clearance each node needs.
+     * @return True if the nodes have enough clearance, false if not.
+     */
+    private boolean isClear(PathBuffer path, int minClearance)
+    {
+    	for(int i=1;i<path.size();i++)
+    	{
+    		if(clearances[path.get(i)]<minClearance)
+    		{
+    			return false;
+    		}
+    	}
+    	
+    	return true;
+    }
+    
+    /**
+     * Computes the shortest path between the given coordinates in the game 
+     * world and the target node in this graph with the given search context,
+     * using the search algorithm set as the search mode of this graph.
+     * @param context The search context of this query, in which some nodes
+     * may have already been marked as blocked so they will be avoided.
+     * @param startX The starting x coordinate.
+     * @param startY The starting y coordinate.
+     * @param target The index of the node in the graph that is the destination.
+     * @param path The buffer the indexes of the nodes of the shortest path to
+     * the target node are put in. It is emptied first, and left empty if 
+     * there is no such path.
+     * @return True if a path was found, false if there is no such path.
+     */
+    private boolean findPath(SearchContext context, int startX, int startY, 
+    		int target, PathBuffer path)
+    {
+    	path.clear();
+    	
+    	/*Find out the node in the graph closest to the starting coordinates, 
+    	 * which will be our source node and initialise it's tentative distance.*/
+    	int source=initializeSourcePoint(context, startX, startY);
+    	
+    	/*Check which algorithm this graph has been set to use. Jump Point
+    	 * Search is only used when every move in a direction costs the same.*/
+    	if(searchMode==SearchMode.JUMP_POINT && !context.hasCosts())
+    	{
+    		/*Jump Point Search only links jump points, so the nodes between 
+    		 * them are put back in the path for tanks to follow.*/
+    		if(jumpPointSearch(context, source, target))
+    		{
+    			fillPath(context, target, true, path);
+    			return true;
+    		}
+    		
+    		return false;
+    	}
+    	
+    	/*The bidirectional search joins the path it found from the source to 
+    	 * the node where the searches met with the one from the target.*/
+    	if(searchMode==SearchMode.BIDIRECTIONAL)
+    	{
+    		SearchContext reverseContext=reverseSearchContexts.get();
+    		reverseContext.startQuery();
+    		
+    		int meetingNode=bidirectionalSearch(context, reverseContext, source, target);
+    		if(meetingNode==-1)
+    		{
+    			return false;
+    		}
+    		
+    		fillPath(context, meetingNode, false, path);
+    		double length=context.getDistance(meetingNode)+reverseContext.getDistance(
+    				meetingNode);
+    		for(int node=reverseContext.getPrevious(meetingNode);node!=-1;
+    				node=reverseContext.getPrevious(node))
+    		{
+    			path.add(node);
+    		}
+    		
+    		/*The distance of the target is recorded like in the other search
+    		 * modes, so the length of the path can be read from the context.*/
+    		context.setDistance(target, length, -1);
+    		return true;
+    	}
+    	
+    	/*The cells of the quadtree do not tell their nodes apart, so they are
+    	 * only searched when the query has no nodes to avoid or that cost 
+    	 * more.*/
+    	if(searchMode==SearchMode.QUADTREE && !context.hasCosts() && 
+    			!context.hasExclusionMask() && !context.hasMinClearance())
+    	{
+    		return getQuadtree().findPath(context, source, target, path);
+    	}
+    	
+    	/*Theta* is only used when the straight line between 2 nodes can not go
+    	 * through nodes the query has to avoid or that cost more. Nodes with
+    	 * too little clearance do not stop it, since the lines of sight are
+    	 * checked with the clearance of the query.*/
+    	if(searchMode==SearchMode.THETA_STAR && !context.hasCosts() && 
+    			!context.hasExclusionMask())
+    	{
+    		/*The best previous node of each node is where the path turns, so 
+    		 * only those nodes are in the path.*/
+    		if(thetaStarSearch(context, source, target))
+    		{
+    			fillPath(context, target, false, path);
+    			return true;
+    		}
+    		
+    		return false;
+    	}
+    	
+    	/*Diejkstra's algorithm is the same as A* with an estimate of 0 for 
+    	 * the distance between each node and the target.*/
+    	boolean useHeuristic=(searchMode!=SearchMode.DIJKSTRA);
+    	
+    	/*Check if a path to the target has been found.*/
+    	if(search(context, source, target, useHeuristic))
+    	{
+    		//if so, build it from the best previous nodes
+    		fillPath(context, target, false, path);
+    		return true;
+    	}
+    	else
+    	{
+    		return false;
+    	}
+    }
+    
+    /**
+     * Searches for the shortest path between the source node and the target
+     * node. Nodes are only put in the heap of open nodes once they are reached
+     * from an expanded node. With the heuristic, the heap is ordered by the 
+     * tentative distance of each node plus a lower bound of the distance 
+     * between that node and the target (the A* algorithm). Since the bound is
+     * never longer than the shortest path between 2 nodes in this graph, the
+     * path found is still a shortest path. Without the heuristic, the heap is
+     * ordered by the tentative distance (Diejkstra's algorithm). If the query
+     * has a cost layer, the cost of each node entered is added to the length
+     * of the move, which keeps the bound a lower bound. Without a target, 
+     * every node that can be reached is expanded.
+     * @param context The search context of this query.
+     * @param source The index of the node the search starts from.
+     * @param target The index of the node in the graph that is the destination.
+     * @param useHeuristic True if the lower bound of the distance to the 
+     * target is used, false if not.
+     * @return True if a path to the target was found, false if the target 
+     * can not be reached from the source.
+     */
+    private boolean search(SearchContext context, int source, int target, 
+    		boolean useHeuristic)
+    {
+    	IndexedMinHeap openNodes=context.getOpenNodes();
+    	
+    	//only the source node is known when the search starts
+    	openNodes.insertOrUpdate(source, useHeuristic ? 
+    			getLowerBound(source, target) : 0);
+    	
+    	/*Expand nodes until the target is reached or there are no more nodes
+    	 * that can be reached from the source node.*/
+    	while(!openNodes.isEmpty())
+    	{
+    		//get the open node with the smallest estimated path length
+    		int current=openNodes.poll();
+    		
+    		//mark it as visited
+    		context.setVisited(current);
+    		context.countExpandedNode();
+    		
+    		/*Check if the node we are visiting is the destination node.*/
+    		if(current==target)
+    		{
+    			//if it is, then we have a shortest path to it
+    			return true;
+    		}
+    		
+    		double currentDistance=context.getDistance(current);
+    		int mask=neighbourMasks[current]&0xFF;
+    		
+    		/*Go through each direction in which the current node has a neighbour
+    		 * and update the tentative distances of the unvisited ones.*/
+    		for(int d=0;d<DIRECTION_ROWS.length;d++)
+    		{
+    			if((mask&(1<<d))==0)
+    			{
+    				continue;
+    			}
+    			
+    			int neighbour=current+directionOffsets[d];
+    			
+    			/*Check if that neighbour is not visited or blocked.*/
+    			if(!context.isVisited(neighbour) && !context.isBlocked(neighbour))
+    			{
+    				/*calculate the length of the path through this neighbour
+    				 * between this node and the source point.*/
+    				double tentativeDistance=currentDistance+DIRECTION_LENGTHS[d]+
+    						context.getCost(neighbour);
+    				
+    				/*Check if the calculated value if smaller than the current 
+    				 * tentative value of the selected neighbour,*/
+    				if(tentativeDistance<context.getDistance(neighbour))
+    				{
+    					/*If it is, update the value, set the best previous node
+    					 * to the current node and add the neighbour to the heap,
+    					 * or decrease it's key if it is already in the heap.*/
+    					context.setDistance(neighbour, tentativeDistance, current);
+    					openNodes.insertOrUpdate(neighbour, useHeuristic ?
+    							tentativeDistance+getLowerBound(neighbour, target) :
+    							tentativeDistance);
+    				}
+    			}
+    		}
+    	}
+    	
+    	/*If the heap was emptied without reaching the target, then the target
+    	 * is separated by a wall from the source point and no path exists.*/
+    	return false;
+    }
+    
+    /**
+     * Searches for the shortest path between the source node and the target
+     * node with 2 A* searches, one from the source in the first context and
+     * one from the target in the second. Each node gets a potential, which is
+     * half the difference between the lower bounds of it's distance to the
+     * target and from the source, and the forward search orders it's heap by
+     * the distance from the source plus the potential, while the backward 
+     * search orders it's heap by the distance to the target minus the 
+     * potential. Both searches then expand nodes like Diejkstra's algorithm
+     * with the same reduced lengths of the edges, which are never negative,
+     * so the search can stop as soon as the smallest keys of the 2 heaps add
+     * up to at least the length of the shortest path found through a node 
+     * reached by both searches. The search with the smaller heap expands the
+     * next node. Nodes blocked in the first context are avoided by both 
+     * searches, and the cost of each node entered is added to the length of
+     * the move in both directions.
+     * @param context The search context of this query, in which the source 
+     * node has been initialised.
+     * @param reverseContext The search context of the search from the target.
+     * @param source The index of the node the search starts from.
+     * @param target The index of the node in the graph that is the destination.
+     * @return The index of the node where the shortest path found goes from
+     * the part found from the source to the part found from the target, or 
+     * -1 if the target can not be reached from the source.
+     */
+    private int bidirectionalSearch(SearchContext context, SearchContext 
+    		reverseContext, int source, int target)
+    {
+    	reverseContext.setDistance(target, 0, -1);
+    	if(source==target)
+    	{
+    		return source;
+    	}
+    	
+    	//a blocked target can not be reached, even if it could be left
+    	if(context.isBlocked(target))
+    	{
+    		return -1;
+    	}
+    	
+    	IndexedMinHeap forwardNodes=context.getOpenNodes();
+    	IndexedMinHeap backwardNodes=reverseContext.getOpenNodes();
+    	forwardNodes.insertOrUpdate(source, getPotential(source, source, target));
+    	backwardNodes.insertOrUpdate(target, -getPotential(target, source, target));
+    	
+    	double shortestLength=Double.MAX_VALUE;
+    	int meetingNode=-1;
+    	
+    	/*Expand nodes until one of the searches has no more nodes to expand or
+    	 * no path through an open node can be shorter than the one found.*/
+    	while(!forwardNodes.isEmpty() && !backwardNodes.isEmpty() && 
+    			forwardNodes.peekKey()+backwardNodes.peekKey()<shortestLength)
+    	{
+    		boolean forward=forwardNodes.size()<=backwardNodes.size();
+    		SearchContext searching=forward ? context : reverseContext;
+    		SearchContext otherSearch=forward ? reverseContext : context;
+    		IndexedMinHeap openNodes=forward ? forwardNodes : backwardNodes;
+    		
+    		int current=openNodes.poll();
+    		searching.setVisited(current);
+    		context.countExpandedNode();
+    		
+    		double currentDistance=searching.getDistance(current);
+    		int mask=neighbourMasks[current]&0xFF;
+    		
+    		for(int d=0;d<DIRECTION_ROWS.length;d++)
+    		{
+    			if((mask&(1<<d))==0)
+    			{
+    				continue;
+    			}
+    			
+    			int neighbour=current+directionOffsets[d];
+    			if(searching.isVisited(neighbour) || context.isBlocked(neighbour))
+    			{
+    				continue;
+    			}
+    			
+    			/*Going forward the neighbour is entered, and going backward the
+    			 * current node is entered from the neighbour.*/
+    			double tentativeDistance=currentDistance+DIRECTION_LENGTHS[d]+
+    					context.getCost(forward ? neighbour : current);
+    			
+    			if(tentativeDistance<searching.getDistance(neighbour))
+    			{
+    				searching.setDistance(neighbour, tentativeDistance, current);
+    				double potential=getPotential(neighbour, source, target);
+    				openNodes.insertOrUpdate(neighbour, forward ? tentativeDistance+
+    						potential : tentativeDistance-potential);
+    				
+    				/*Check if the other search has reached the neighbour, and if
+    				 * the path through it is the shortest found so far.*/
+    				double otherDistance=otherSearch.getDistance(neighbour);
+    				if(otherDistance!=Double.MAX_VALUE && tentativeDistance+
+    						otherDistance<shortestLength)
+    				{
+    					shortestLength=tentativeDistance+otherDistance;
+    					meetingNode=neighbour;
+    				}
+    			}
+    		}
+    	}
+    	
+    	return meetingNode;
+    }
+    
+    /**
+     * Calculates the potential of a node in a bidirectional search, which is
+     * half the difference between the lower bound of it's distance to the 
+     * target and the lower bound of it's distance from the source.
+     * @param node The index of a node.
+     * @param source The index of the source node of the search.
+     * @param target The index of the target node of the search.
+     * @return The potential of the node.
+     */
+    private double getPotential(int node, int source, int target)
+    {
+    	return (getLowerBound(node, target)-getLowerBound(source, node))/2;
+    }
+    
+    /**
+     * Searches for a shortest any-angle path between the source node and the
+     * target node using Theta*. It is A* where the path to a neighbour of the
+     * current node may go in a straight line from the best previous node of
+     * the current node, if a tank can drive along that line without hitting 
+     * a wall. So the best previous node of each node is the last node where 
+     * it's path turns, and the path is close to the shortest one in the world,
+     * not only among the paths that move between neighbouring nodes. Since
+     * checking the line of sight takes the most time, it is only checked once
+     * for each node, when it is expanded, instead of for each neighbour that
+     * reaches it (the lazy version of Theta*). If the line turns out to be 
+     * blocked, the node gets the best path through one of it's expanded 
+     * neighbours instead. The heap is ordered by the tentative distance of 
+     * each node plus the straight line distance to the target, which is never
+     * longer than a path between them.
+     * @param context The search context of this query.
+     * @param source The index of the node the search starts from.
+     * @param target The index of the node in the graph that is the destination.
+     * @return True if a path to the target was found, false if the target 
+     * can not be reached from the source.
+     */
+    private boolean thetaStarSearch(SearchContext context, int source, int target)
     {
-    	/*Since no nodes are created where a tank can not pass, no nodes need to 
-    	 * be created on the edges of the world where the exterior walls are, so
-    	 * the matrix is only big enough to hold points that would fill the are 
-    	 * inside the world's exterior walls. Which is why it subtracts the length
-    	 * of 2 wall blocks from the length and width of the world.*/
+    	IndexedMinHeap openNodes=context.getOpenNodes();
     	
-    	/*The length of the matrix is the length of world without the length of the 
-    	 * exterior walls divided by the interval at which graph points are made.*/
-    	int matrixLength=(TankWorld.LENGTH-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	//only the source node is known when the search starts
+    	openNodes.insertOrUpdate(source, getStraightDistance(source, target));
     	
-    	/*The width of the matrix is the width of world without the width of the 
-    	 * exterior walls divided by the interval at which graph points are made.*/
-    	int matrixWidth=(TankWorld.WIDTH-2*WallBlock.SIDE)/GraphPoint.INTERVAL+1;
+    	/*Expand nodes until the target is reached or there are no more nodes
+    	 * that can be reached from the source node.*/
+    	while(!openNodes.isEmpty())
+    	{
+    		int current=openNodes.poll();
+    		context.setVisited(current);
+    		context.countExpandedNode();
+    		
+    		int mask=neighbourMasks[current]&0xFF;
+    		int parent=context.getPrevious(current);
+    		
+    		/*Check if the straight line from the best previous node, which was
+    		 * assumed when this node was reached, is blocked by a wall.*/
+    		if(parent!=-1 && !hasLineOfSight(parent, current, 
+    				context.getMinClearance()))
+    		{
+    			/*If so, the path comes from the expanded neighbour that gives
+    			 * the shortest one. The neighbour that reached this node is one
+    			 * of them, so there is always one.*/
+    			double bestDistance=Double.POSITIVE_INFINITY;
+    			for(int d=0;d<DIRECTION_ROWS.length;d++)
+    			{
+    				int neighbour=current+directionOffsets[d];
+    				if((mask&(1<<d))!=0 && context.isVisited(neighbour) && 
+    						context.getDistance(neighbour)+DIRECTION_LENGTHS[d]<
+    						bestDistance)
+    				{
+    					bestDistance=context.getDistance(neighbour)+
+    							DIRECTION_LENGTHS[d];
+    					parent=neighbour;
+    				}
+    			}
+    			
+    			context.setDistance(current, bestDistance, parent);
+    		}
+    		
+    		/*Check if the node we are visiting is the destination node.*/
+    		if(current==target)
+    		{
+    			return true;
+    		}
+    		
+    		/*The neighbours are reached in a straight line from the best 
+    		 * previous node of this node, or from this node if it is the 
+    		 * source.*/
+    		int origin=(parent==-1) ? current : parent;
+    		double originDistance=context.getDistance(origin);
+    		
+    		for(int d=0;d<DIRECTION_ROWS.length;d++)
+    		{
+    			if((mask&(1<<d))==0)
+    			{
+    				continue;
+    			}
+    			
+    			int neighbour=current+directionOffsets[d];
+    			if(context.isVisited(neighbour) || context.isBlocked(neighbour))
+    			{
+    				continue;
+    			}
+    			
+    			/*Check if the path found to the neighbour is shorter.*/
+    			double tentativeDistance=originDistance+getStraightDistance(origin,
+    					neighbour);
+    			if(tentativeDistance<context.getDistance(neighbour))
+    			{
+    				context.setDistance(neighbour, tentativeDistance, origin);
+    				openNodes.insertOrUpdate(neighbour, tentativeDistance+
+    						getStraightDistance(neighbour, target));
+    			}
+    		}
+    	}
     	
-    	//make a new matrix with the calculated sizes
-    	pointMatrix=new GraphPoint[matrixWidth][matrixLength];
+    	/*If the heap was emptied without reaching the target, then the target
+    	 * is separated by a wall from the source point and no path exists.*/
+    	return false;
+    }
     
-    	//variables for the coordinates where each point will be made
-    	int x, y;
-   
-    	/*For loop for creating each row of the matrix, loops for as many times
-    	 * as the width of the matrix.*/
-    	for(int i=0;i<matrixWidth;i++)
-    	{
-    		/*The y coordinate of the points in each row is the length of the wall
-    		 * block on the left edge of the world, with half the length between
-    		 * points(from the wall to the centre of the point) and the index of
-    		 * this matrix row multiplied by the distance between points.*/
-    		y=WallBlock.SIDE+(GraphPoint.INTERVAL/2)+i*GraphPoint.INTERVAL;
-    		
-    		/*For loop for creating each element of a row of the matrix, loops 
-    		 * for as many times as the length of the matrix.*/
-    		for(int j=0;j<matrixLength;j++)
-    		{
-    			/*The x coordinate of the points in each row is the length of the wall
-        		 * block on the left edge of the world, with half the length between
-        		 * points(from the wall to the centre of the point) and the index of
-        		 * this matrix column multiplied by the distance between points.*/
-    			x=WallBlock.SIDE+(GraphPoint.INTERVAL/2)+j*GraphPoint.INTERVAL;
+    /**
+     * Searches for the shortest path between the source node and the target
+     * node using Jump Point Search. Since the nodes of this graph form a 
+     * uniform grid where every move to a neighbour in the same direction 
+     * costs the same, many paths of the same length go between 2 nodes. 
+     * Jump Point Search only expands the nodes where the direction of a
+     * shortest path may need to change (jump points), and skips over the 
+     * nodes in between in a straight line, so it expands far fewer nodes 
+     * than A* while finding a path just as short. Like all paths of this 
+     * graph, a tank may move diagonally between 2 nodes even if the nodes 
+     * next to both of them are missing.
+     * @param context The search context of this query.
+     * @param source The index of the node the search starts from.
+     * @param target The index of the node in the graph that is the destination.
+     * @return True if a path to the target was found, false if the target 
+     * can not be reached from the source.
+     */
+    private boolean jumpPointSearch(SearchContext context, int source, int target)
+    {
+    	IndexedMinHeap openNodes=context.getOpenNodes();
+    	
+    	/*The directions in which the current jump point has successors, as
+    	 * row and column differences. A node has at most 8 of them.*/
+    	int[] rowDirections=new int[8];
+    	int[] columnDirections=new int[8];
+    	
+    	//only the source node is known when the search starts
+    	openNodes.insertOrUpdate(source, getLowerBound(source, target));
+    	
+    	/*Expand jump points until the target is reached or there are no more 
+    	 * jump points that can be reached from the source node.*/
+    	while(!openNodes.isEmpty())
+    	{
+    		//get the open jump point with the smallest estimated path length
+    		int current=openNodes.poll();
+    		context.setVisited(current);
+    		context.countExpandedNode();
+    		
+    		/*Check if the jump point we are visiting is the destination node.*/
+    		if(current==target)
+    		{
+    			//if it is, then we have a shortest path to it
+    			return true;
+    		}
+    		
+    		int row=current/columns;
+    		int column=current%columns;
+    		
+    		/*Find the directions in which this jump point can have successors
+    		 * that can not be reached in a shorter way without it.*/
+    		int directions=getPrunedDirections(context, current, rowDirections,
+    				columnDirections);
+    		
+    		/*Jump from this jump point in each of those directions.*/
+    		for(int i=0;i<directions;i++)
+    		{
+    			int jumpPoint=jump(context, row+rowDirections[i], 
+    					column+columnDirections[i], rowDirections[i], 
+    					columnDirections[i], target);
     			
-    			/*We need to check if a tank can pass through the centre of this
-    			 * point and not hit a wall, to know if we need to add a point that
-    			 * belong to a path a tank can follow.*/
-    			if(!GraphPoint.isIntersectingWall(x, y, tankWorld))
+    			/*Check if a jump point was found in that direction and that it
+    			 * has not been visited.*/
+    			if(jumpPoint!=-1 && !context.isVisited(jumpPoint))
     			{
-    				/*If a tank that would through this point would not intersect 
-    				 * with a wall, we make a new point here and add it's edges with
-    				 * it's neighbours.*/
-    				pointMatrix[i][j]=new GraphPoint(x,y);
-    				
-    				/*After putting a new node in the graph, we need to make the
-    				 * edges to it's neighbours. Since nodes are built from top 
-    				 * to bottom, left to right, when a new point is made it can 
-    				 * only above, in it's upper left, upper right and to it's left.
-    				 * Neighbours that are below it or to the right are added to the
-    				 * new point's array of neighbours when those new neighbours are made.*/
-    				
-    				//Check if this point has a neighbour above it.
-    				if(i!=0)
-    				{
-    					//If it has, add it to it's array of neighbours in the correct place
-    					pointMatrix[i][j].addNeighbour(pointMatrix[i-1][j], "upper");
-    				}
-    				
-    				//Check if this point has a neighbour to it's lefts.
-    				if(j!=0)
-    				{
-    					//If it has, add it to it's array of neighbours in the correct place
-    					pointMatrix[i][j].addNeighbour(pointMatrix[i][j-1], "left");
-    				}
-    				
-    				//Check if this point has a neighbour to it's upper left.
-    				if(j!=0 && i!=0)
-    				{
-    					//If it has, add it to it's array of neighbours in the correct place
-    					pointMatrix[i][j].addNeighbour(pointMatrix[i-1][j-1], "upper left");
-    				}
+    				/*The path between 2 jump points is a straight or diagonal
+    				 * line, so it's length is the octile distance between them.*/
+    				double tentativeDistance=context.getDistance(current)+
+    						getOctileDistance(current, jumpPoint);
     				
-    				//Check if this point has a neighbour to it's upper right.
-    				if(i!=0 && j!=(matrixLength-1))
+    				/*Check if the path through the current jump point is shorter.*/
+    				if(tentativeDistance<context.getDistance(jumpPoint))
     				{
-    					//If it has, add it to it's array of neighbours in the correct place
-    					pointMatrix[i][j].addNeighbour(pointMatrix[i-1][j+1], "upper right");
+    					context.setDistance(jumpPoint, tentativeDistance, current);
+    					openNodes.insertOrUpdate(jumpPoint, tentativeDistance+
+    							getLowerBound(jumpPoint, target));
     				}
     			}
-    			/*If a tank can not pass through this point on the world because
-    			 * of a wall, set this place in the matrix to null so the shortest 
-    			 * path algorithm will avoid it.*/
-    			else
-    			{
-    				pointMatrix[i][j]=null;
-    			}
     		}
     	}
+    	
+    	/*If the heap was emptied without reaching the target, then the target
+    	 * is separated by a wall from the source point and no path exists.*/
+    	return false;
     }
     
-    
     /**
-     * Computes the shortest path between the given coordinates in the game 
-     * world and the target node in this graph using Diejkstr'a algorithm.
-     * @param startX The starting x coordinate.
-     * @param startY The starting y coordinate.
-     * @param target The node in the graph that is the destination.
-     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
-     * shortest path to the target node.
+     * Finds the directions in which a jump point may have successors. The 
+     * source node has successors in all 8 directions. Other jump points only
+     * have successors in the direction they were reached from (and it's 2 
+     * straight components if it was reached diagonally), plus the "forced"
+     * directions that lead around a missing node next to the jump point.
+     * @param context The search context of this query.
+     * @param current The index of the jump point.
+     * @param rowDirections The array where the row difference of each 
+     * direction is put.
+     * @param columnDirections The array where the column difference of each
+     * direction is put.
+     * @return The number of directions put in the arrays.
      */
-    public LinkedList<GraphPoint> getShortestPath(int startX, int startY,
-    		GraphPoint target)
+    private int getPrunedDirections(SearchContext context, int current, 
+    		int[] rowDirections, int[] columnDirections)
     {
-    	/*Find out the node in the graph closest to the starting coordinates, 
-    	 * which will be our source node and initialise it's tentative distance.*/
-    	initializeSourcePoint(startX, startY);
-    	
-    	/*make a new priority queue, which will be used to get the node with 
-    	 *the shortest tentative distance*/
-    	PriorityQueue<GraphPoint> unvisitedNodes=new PriorityQueue<>();
+    	int row=current/columns;
+    	int column=current%columns;
+    	int previous=context.getPrevious(current);
+    	int directions=0;
     	
-    	//add all nodes in the graph matrix to the priority queue
-    	for(GraphPoint[] pointRow: pointMatrix)
+    	/*Check if this is the source node.*/
+    	if(previous==-1)
     	{
-    		for(GraphPoint point: pointRow)
+    		//if so, all 8 directions need to be searched
+    		for(int i=-1;i<=1;i++)
     		{
-    			//Check if that place in the matrix is populated by a node.
-    			if(point!=null)
+    			for(int j=-1;j<=1;j++)
     			{
-    				/*Check if the point has been marked as not visited. This 
-    				 * method might have been called by the getPathAvoidingMine
-    				 * method, where some nodes have been marked as visited if 
-    				 * they are too close to the mine. To avoid the mine, these
-    				 * nodes should not be in the priority queue, so we check to
-    				 * ensure this.*/
-    				if(!point.isVisited())
+    				if(i!=0 || j!=0)
     				{
-    					//if it is, add the node to the priority queue
-        				unvisitedNodes.add(point);
+    					rowDirections[directions]=i;
+    					columnDirections[directions]=j;
+    					directions++;
     				}
     			}
     		}
+    		
+    		return directions;
     	}
     	
-    	//the current node we are visiting
-    	GraphPoint current;
+    	/*The direction this jump point was reached from the previous one.*/
+    	int dRow=Integer.signum(row-previous/columns);
+    	int dColumn=Integer.signum(column-previous%columns);
     	
-    	//Visit all nodes and stop when the priority queue is empty.
-    	while(!unvisitedNodes.isEmpty())
+    	/*Check if this jump point was reached diagonally.*/
+    	if(dRow!=0 && dColumn!=0)
     	{
-    		//get the unvisited node with the smallest tentative distance
-    		current=unvisitedNodes.poll();
+    		/*The diagonal direction and it's 2 straight components.*/
+    		rowDirections[directions]=dRow;
+    		columnDirections[directions++]=0;
+    		rowDirections[directions]=0;
+    		columnDirections[directions++]=dColumn;
+    		rowDirections[directions]=dRow;
+    		columnDirections[directions++]=dColumn;
     		
-    		//mark it as visited
-    		current.setVisited(true);
+    		/*If a node behind this one is missing, the nodes diagonally past
+    		 * it can only be reached through this jump point.*/
+    		if(!isWalkable(context, row, column-dColumn))
+    		{
+    			rowDirections[directions]=dRow;
+    			columnDirections[directions++]=-dColumn;
+    		}
+    		if(!isWalkable(context, row-dRow, column))
+    		{
+    			rowDirections[directions]=-dRow;
+    			columnDirections[directions++]=dColumn;
+    		}
+    	}
+    	/*Else, check if it was reached vertically.*/
+    	else if(dColumn==0)
+    	{
+    		rowDirections[directions]=dRow;
+    		columnDirections[directions++]=0;
     		
-    		/*Check if the node we are visiting is the destination node.*/
-    		if(current.equals(target))
+    		/*If a node to the side of this one is missing, the node diagonally
+    		 * ahead of it can only be reached through this jump point.*/
+    		if(!isWalkable(context, row, column+1))
+    		{
+    			rowDirections[directions]=dRow;
+    			columnDirections[directions++]=1;
+    		}
+    		if(!isWalkable(context, row, column-1))
+    		{
+    			rowDirections[directions]=dRow;
+    			columnDirections[directions++]=-1;
+    		}
+    	}
+    	/*Else, it was reached horizontally.*/
+    	else
+    	{
+    		rowDirections[directions]=0;
+    		columnDirections[directions++]=dColumn;
+    		
+    		/*If a node above or below this one is missing, the node diagonally
+    		 * ahead of it can only be reached through this jump point.*/
+    		if(!isWalkable(context, row+1, column))
+    		{
+    			rowDirections[directions]=1;
+    			columnDirections[directions++]=dColumn;
+    		}
+    		if(!isWalkable(context, row-1, column))
     		{
-    			/*If it is, then we have a shortest path to it so the search is 
-    			 * finished and the loop is terminated.*/
-    			break;
+    			rowDirections[directions]=-1;
+    			columnDirections[directions++]=dColumn;
     		}
+    	}
+    	
+    	return directions;
+    }
+    
+    /**
+     * Moves from the given slot of the grid in the given direction until 
+     * a jump point is found, meaning the target, a node with a forced 
+     * neighbour, or (when moving diagonally) a node from which a jump point
+     * can be reached in a straight line.
+     * @param context The search context of this query.
+     * @param row The row index where the jump starts.
+     * @param column The column index where the jump starts.
+     * @param dRow The row difference of the direction of the jump.
+     * @param dColumn The column difference of the direction of the jump.
+     * @param target The index of the target node.
+     * @return The index of the jump point found, or -1 if a missing node 
+     * was reached first.
+     */
+    private int jump(SearchContext context, int row, int column, int dRow, 
+    		int dColumn, int target)
+    {
+    	/*Move one node at a time until a jump point or a missing node is found.*/
+    	while(isWalkable(context, row, column))
+    	{
+    		int current=row*columns+column;
     		
-    		/*Check if the unvisited node with smallest tentative distance is 
-    		 * still the maximum value set initially. */
-    		if(current.getDistance()==Integer.MAX_VALUE)
+    		/*The target is always a jump point.*/
+    		if(current==target)
     		{
-    			/*If it is,then this node and all other unvisited nodes is separated
-    			 * by a wall from the source point and no path to the destination exists.*/
-    			return null;
+    			return current;
     		}
     		
-    		/*Go through each neighbour of the current node and update the 
-    		 * tentative distances of the unvisited ones.*/
-    		for(GraphPoint neighbour: current.getNeighbours())
+    		/*Check if the jump is diagonal.*/
+    		if(dRow!=0 && dColumn!=0)
     		{
-    			/*Check if there is a neighbour at the current index and if that
-    			 * neighbour is not visited.*/
-    			if(neighbour!=null && !neighbour.isVisited())
+    			/*This node is a jump point if it has a forced neighbour.*/
+    			if((isWalkable(context, row+dRow, column-dColumn) && 
+    					!isWalkable(context, row, column-dColumn)) ||
+    					(isWalkable(context, row-dRow, column+dColumn) && 
+    					!isWalkable(context, row-dRow, column)))
     			{
-    				/*calculate the length of the path through this neighbour
-    				 * between this node and the source point.*/
-    				double tentativeDistance = current.getDistance()+
-    						GraphPoint.getDistance(current, neighbour);
-    				
-    				/*Check if the calculated value if smaller than the current 
-    				 * tentative value of the selected neighbour,*/
-    				if(tentativeDistance<neighbour.getDistance())
-    				{
-    					/*If it is, update the value, set the best previous node
-    					 * to the current node remove and re-add the neighbour
-    					 * to the priority queue so that it's place corresponds
-    					 * with the new value.*/
-    					unvisitedNodes.remove(neighbour);
-    					neighbour.setDistance(tentativeDistance);
-    					neighbour.setBestPrevious(current);
-    					
-    					unvisitedNodes.add(neighbour);
-    				}
+    				return current;
+    			}
+    			
+    			/*It is also a jump point if a jump point can be reached from
+    			 * it along one of the straight components of the direction.*/
+    			if(jump(context, row, column+dColumn, 0, dColumn, target)!=-1 ||
+    					jump(context, row+dRow, column, dRow, 0, target)!=-1)
+    			{
+    				return current;
+    			}
+    		}
+    		/*Else, check if the jump is horizontal.*/
+    		else if(dRow==0)
+    		{
+    			if((isWalkable(context, row+1, column+dColumn) && 
+    					!isWalkable(context, row+1, column)) ||
+    					(isWalkable(context, row-1, column+dColumn) && 
+    					!isWalkable(context, row-1, column)))
+    			{
+    				return current;
+    			}
+    		}
+    		/*Else, the jump is vertical.*/
+    		else
+    		{
+    			if((isWalkable(context, row+dRow, column+1) && 
+    					!isWalkable(context, row, column+1)) ||
+    					(isWalkable(context, row+dRow, column-1) && 
+    					!isWalkable(context, row, column-1)))
+    			{
+    				return current;
     			}
     		}
+    		
+    		//move on to the next node in the same direction
+    		row+=dRow;
+    		column+=dColumn;
     	}
     	
-    	//construct the linked list of nodes that is the path
-    	LinkedList<GraphPoint> path=getPath(target);
-    	
-    	/*since the computation is done, reset the tentative distance and 
-    	bestPrevious instance to be used for the next call of this method.*/
-    	resetGraph();
-    	return path;
+    	return -1;
     }
     
     /**
-     * Computes the shortest path between the given coordinates in the game 
-     * world and the target node in this graph using the Diejkstr'a algorithm, 
-     * while keeping a safe distance from the given land mine.
-     * @param target The node in the graph that is the destination.
-     * @param tank The tank for which this path is computed.
-     * @param mine The mine that will be avoided by the returned path.
-     * @return A LinkedList of graph nodes (GraphPoint objects) that is the 
-     * shortest path to the target node.
+     * Checks if a tank can pass through the slot of the grid at the given
+     * indexes in the given query.
+     * @param context The search context of the query.
+     * @param row The row index of the slot.
+     * @param column The column index of the slot.
+     * @return True if there is a node at that slot and it is not blocked in 
+     * the query, false if not.
      */
-    public LinkedList<GraphPoint> getPathAvoidingMine(MobileEnemyTank tank, 
-    		LandMine mine, GraphPoint target)
+    private boolean isWalkable(SearchContext context, int row, int column)
     {
-    	/*Starting from the node closest to the mine, check the nodes recursively 
-    	 * and mark them as visited if they are too close to the mine, so that
-    	 * they will be ignored by the shortest path algorithm.*/
-    	visitNodesCloseToMine(mine, tank.getMineAvoidanceDistance(),
-    			getPoint(mine.getX(), mine.getY()));
-    	
-    	//using the shortest path algorithm, get a path that avoids the given mine
-    	return getShortestPath(tank.getX(),tank.getY(), target);
+    	return !indexesOutOfBounds(row, column) && hasNode(row*columns+column)
+    			&& !context.isBlocked(row*columns+column);
     }
     
-   
     /**
      * Finds the node in the graph closest to the given coordinates in the game
      * world and initialises it's tentative distance.
+     * @param context The search context of this query.
      * @param startX The starting x coordinate.
      * @param startY The starting y coordinate.
+     * @return The index of the source node of the query.
      */
-    private GraphPoint initializeSourcePoint(int startX, int startY)
+    private int initializeSourcePoint(SearchContext context, int startX, 
+    		int startY)
     {	
     	//get the node at the calculated indexes
-    	GraphPoint approximateSource=getPoint(startX, startY);
+    	int approximateSource=getNodeIndex(startX, startY);
     	
     	/*initialise the tentative distance of the source node to 0, necessary
-    	 * for Diejkstra's algorithm. The node is also marked as not visited, 
-    	 * since before this method was called the visitNodesCloseToMine 
-    	 * method might have been called and marked this as too close to mine 
-    	 * (being on the edges of the imaginary circle around the mine). 
-    	 * Because of this, this node would not be put in the priority queue.*/
-    	approximateSource.setDistance(0);
-    	approximateSource.setVisited(false);
+    	 * for Diejkstra's algorithm. The node is also marked as not blocked, 
+    	 * since it might be too close to a mine in the mask of the query 
+    	 * (being on the edges of the imaginary circle around the mine).*/
+    	context.setDistance(approximateSource, 0, -1);
+    	context.clearBlocked(approximateSource);
     	
     	return approximateSource;
     }
     
     /**
-     * Builds and returns the linked list that is the path between the source
-     * point and the target node.
-     * @param target The target node the tank will move to.
-     * @return The linked list of nodes in the graph starting from the source
-     * to the destination node.
+     * Builds the path between the source point and the target node in the
+     * given buffer.
+     * @param context The search context of the query that found the path.
+     * @param target The index of the target node the tank will move to.
+     * @param fillJumps True if the best previous node of a node may be further
+     * away than a neighbour, like the jump points of Jump Point Search, in 
+     * which case the nodes on the straight or diagonal line between them are
+     * put in the path as well. False if the best previous node of each node 
+     * is always a neighbour of it.
+     * @param path The buffer that gets the indexes of the nodes in the graph
+     * starting from the source to the destination node.
      */
-    private LinkedList<GraphPoint> getPath(GraphPoint target)
+    private void fillPath(SearchContext context, int target, boolean fillJumps,
+    		PathBuffer path)
     {
-    	//the linked list that will be returned
-    	LinkedList<GraphPoint> path=new LinkedList<>();
+    	//the path is built backwards in the buffer
+    	path.clear();
     	
-    	/*The current node that is to be added to the list, starting with the 
-    	 * target node.*/
-    	GraphPoint current=target;
+    	/*The index of the current node that is to be added to the path, 
+    	 * starting with the target node.*/
+    	int current=target;
     	
     	/*Build the path by adding the current node to the path and then make the
     	 * best previous node of it the new current node. Since the source node
-    	 * is the first that was visited, it's bestPrevious value is null. So when
-    	 * the current node's bestPrevious is null, we reached the source node and
-    	 * stop the loop.*/
-    	while(current.getBestPrevious()!=null)
+    	 * is the first that was visited, it has no best previous node. So when
+    	 * the current index is -1, we added the source node and stop the loop.*/
+    	while(current!=-1)
     	{
     		path.addFirst(current);
-    		current=current.getBestPrevious();
+    		int previous=context.getPrevious(current);
+    		
+    		/*Check if the nodes between the current node and it's best 
+    		 * previous node need to be added.*/
+    		if(fillJumps && previous!=-1)
+    		{
+    			/*Both nodes are on a straight or diagonal line, so we step from
+    			 * the current node towards the previous one a node at a time.*/
+    			int step=Integer.signum(previous/columns-current/columns)*columns+
+    					Integer.signum(previous%columns-current%columns);
+    			
+    			for(int node=current+step;node!=previous;node+=step)
+    			{
+    				path.addFirst(node);
+    			}
+    		}
+    		
+    		current=previous;
     	}
+    }
+    
+    /**
+     * Calculates the octile distance between 2 nodes. This is the length of
+     * the shortest path between them if there were no walls in the world, 
+     * since a tank moving through this graph can only go horizontally, 
+     * vertically or diagonally between neighbouring nodes.
+     * @param a The index of a node.
+     * @param b The index of another node.
+     * @return The octile distance between the 2 nodes.
+     */
+    public double getOctileDistance(int a, int b)
+    {
+    	//get the number of rows and columns between the 2 nodes
+    	int columnDifference=Math.abs(a%columns-b%columns);
+    	int rowDifference=Math.abs(a/columns-b/columns);
     	
-    	//the loop was terminated before adding the source point, so we add it now.
-    	path.addFirst(current);
+    	/*The path goes diagonally for as many steps as the smaller difference,
+    	 * then in a straight line for the rest.*/
+    	int diagonalSteps=Math.min(columnDifference, rowDifference);
+    	int straightSteps=Math.max(columnDifference, rowDifference)-diagonalSteps;
     	
-    	//return the path
-    	return path;
+    	return diagonalSteps*DIAGONAL_INTERVAL+straightSteps*GraphPoint.INTERVAL;
     }
     
-    /**Resets the graph to prepare for the next call of the getShortestPath.*/
-    private void resetGraph()
+    /**
+     * Calculates a lower bound of the length of the shortest path between 2
+     * nodes, used by the A* and Jump Point Search modes to estimate the 
+     * distance to the target. By the triangle inequality, the path between 
+     * 2 nodes is at least as long as the difference between their distances
+     * to any landmark, which is much closer to the real length than the 
+     * octile distance when walls force long detours. The largest of these
+     * bounds is used.
+     * @param a The index of a node.
+     * @param b The index of another node.
+     * @return A lower bound of the distance between the 2 nodes.
+     */
+    private double getLowerBound(int a, int b)
     {
-    	/*Go through each node of this graph and reset it to prepare it for next 
-    	 * use of Diejkstra's algorithm.*/
-    	for(GraphPoint[] pointRow: pointMatrix)
+    	double bound=getOctileDistance(a, b);
+    	int count=landmarks.length;
+    	
+    	for(int i=0;i<count;i++)
     	{
-    		for(GraphPoint point: pointRow)
-    		{
-    			/*Check if a node actually exists at that slot in the matrix.*/
-    			if(point!=null)
-    			{
-    				point.reset();
-    			}
-    		}
+    		bound=Math.max(bound, Math.abs(landmarkDistances[a*count+i]-
+    				landmarkDistances[b*count+i]));
     	}
+    	
+    	return bound;
+    }
+    
+    /**
+     * Calculates the length of the straight line between the points of 2 
+     * nodes, which is the length of the shortest path between them if a tank
+     * could move at any angle and there were no walls in the world.
+     * @param a The index of a node.
+     * @param b The index of another node.
+     * @return The straight line distance between the 2 nodes.
+     */
+    public double getStraightDistance(int a, int b)
+    {
+    	int columnDifference=a%columns-b%columns;
+    	int rowDifference=a/columns-b/columns;
+    	
+    	return Math.sqrt(columnDifference*columnDifference+rowDifference*
+    			rowDifference)*GraphPoint.INTERVAL;
+    }
+    
+    /**
+     * Getter for the number of landmarks of this graph.
+     * @return The number of landmarks.
+     */
+    public int getLandmarkCount()
+    {
+    	return landmarks.length;
+    }
+    
+    /**
+     * Getter for the memory the distances of one landmark take, which is a
+     * double for each slot of the grid.
+     * @return The number of bytes used by each landmark.
+     */
+    public long getLandmarkMemory()
+    {
+    	return (long) getNodeCount()*Double.BYTES;
+    }
+    
+    /**
+     * Sets the algorithm this graph will use to compute shortest paths.
+     * @param searchMode The search algorithm that will be used.
+     */
+    public void setSearchMode(SearchMode searchMode)
+    {
+    	this.searchMode=searchMode;
+    }
+    
+    /**
+     * Getter for the algorithm this graph uses to compute shortest paths.
+     * @return The search algorithm this graph uses.
+     */
+    public SearchMode getSearchMode()
+    {
+    	return searchMode;
+    }
+    
+    /**
+     * Getter for the number of nodes that were expanded by the last path 
+     * query the calling thread made on this graph. Useful to compare how much
+     * work each search mode does for the same query.
+     * @return The number of nodes expanded by the last path query.
+     */
+    public int getLastExpandedNodes()
+    {
+    	return searchContexts.get().getExpandedNodes();
+    }
+    
+    /**
+     * Getter for the cache of the shortest paths computed by this graph,
+     * which counts how often a path was found in it and can be resized.
+     * @return The path cache of this graph.
+     */
+    public PathCache getPathCache()
+    {
+    	return pathCache;
+    }
+
+    /**
+     * Getter for the time it took to build this graph from the walls of it's
+     * world, including drawing them in it's occupancy grid.
+     * @return The time it took to build this graph, in nanoseconds.
+     */
+    public long getBuildTime()
+    {
+    	return buildTime;
+    }
+    
+    /**
+     * Getter for the number of slots in the grid of this graph. Every node
+     * of this graph has an index between 0 and this number minus 1.
+     * @return The number of rows multiplied by the number of columns of the 
+     * grid of this graph.
+     */
+    public int getNodeCount()
+    {
+    	return rows*columns;
+    }
+    
+    /**
+     * Getter for the number of rows of the grid of this graph.
+     * @return The number of rows.
+     */
+    public int getRowCount()
+    {
+    	return rows;
+    }
+    
+    /**
+     * Getter for the number of columns of the grid of this graph.
+     * @return The number of columns.
+     */
+    public int getColumnCount()
+    {
+    	return columns;
+    }
+    
+    /**
+     * Checks if a pixel of the world of this graph is covered by a wall.
+     * @param x The x coordinate of the pixel.
+     * @param y The y coordinate of the pixel.
+     * @return True if a wall covers the pixel, false if not or if the pixel
+     * is outside of the world.
+     */
+    public boolean isOccupied(int x, int y)
+    {
+    	return occupancyGrid.isOccupied(x, y);
+    }
+    
+    /**
+     * Checks if the slot of the grid with the given index has a node.
+     * @param index The index of a slot in the grid of this graph.
+     * @return True if there is a node at that slot, false if not.
+     */
+    public boolean hasNode(int index)
+    {
+    	return (nodeBits[index>>>6]&(1L<<index))!=0;
+    }
+    
+    /**
+     * Getter for the clearance of a slot of the grid, meaning the half side 
+     * of the largest square centred on it's point that does not touch a wall.
+     * A tank can pass through the slot if the square around it's centre that
+     * must not touch a wall is not larger than that.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The clearance of the slot, up to the largest clearance kept. 
+     * Every slot with a node has at least the wall offset of a node.
+     */
+    public int getClearance(int index)
+    {
+    	return clearances[index];
+    }
+    
+    /**
+     * Getter for the x coordinate of the point in the game world of the slot
+     * with the given index.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The x coordinate of the centre of that slot.
+     */
+    public int getNodeX(int index)
+    {
+    	/*The x coordinate of a point is the length of the wall block on the 
+    	 * left edge of the world, with half the length between points(from the
+    	 * wall to the centre of the point) and the index of it's column 
+    	 * multiplied by the distance between points.*/
+    	return WallBlock.SIDE+(GraphPoint.INTERVAL/2)+(index%columns)*GraphPoint.INTERVAL;
     }
     
     /**
-     * Recursively checks if the nodes around the given mine are at a safe
-     * distance away from the mine. If they are not, they are marked as 
-     * visited so they will not be considered by the shortest path 
-     * algorithm. The node given as an argument is marked as visited or not, 
-     * then the method is called on all it's unvisited neighbours.
-     * @param mine The mine that the nodes need to be at a safe distance away
-     * from to be considered in the shortest path algorithm.
-     * @param avoidanceDistance The safe distance nodes need to be away from to
-     * be considered in the shortest path algorithm.
-     * @param current The current node being considered in the recursion.
+     * Getter for the y coordinate of the point in the game world of the slot
+     * with the given index.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The y coordinate of the centre of that slot.
      */
-    private void visitNodesCloseToMine(LandMine mine, int avoidanceDistance,
-    		GraphPoint current)
+    public int getNodeY(int index)
     {
-    	/*Check if the current node is dangerously close to the given mine, based
-    	 * on the given avoidance distance.*/
-    	if(current.getDistanceFrom(mine)<=avoidanceDistance)
+    	/*The y coordinate of a point is the length of the wall block on the 
+    	 * top edge of the world, with half the length between points(from the
+    	 * wall to the centre of the point) and the index of it's row 
+    	 * multiplied by the distance between points.*/
+    	return WallBlock.SIDE+(GraphPoint.INTERVAL/2)+(index/columns)*GraphPoint.INTERVAL;
+    }
+    
+    /**
+     * Getter for the neighbour mask of a node. Bit i of the mask is set if the 
+     * node has a neighbour in direction i, the directions being in this order:
+     * upper left, upper, upper right, left, right, lower left, lower, lower 
+     * right.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The neighbour mask of the node at that slot, which is 0 if no
+     * node is there.
+     */
+    public int getNeighbourMask(int index)
+    {
+    	return neighbourMasks[index]&0xFF;
+    }
+    
+    /**
+     * Getter for the index of the slot next to the given one in the given 
+     * direction. The neighbour mask of the node tells if a node is there.
+     * @param index The index of a slot in the grid of this graph.
+     * @param direction A direction, from 0 to 7, in the same order as the 
+     * bits of a neighbour mask.
+     * @return The index of the neighbouring slot in that direction.
+     */
+    public int getNeighbourIndex(int index, int direction)
+    {
+    	return index+directionOffsets[direction];
+    }
+    
+    /**
+     * Getter for the length of an edge between 2 neighbouring nodes.
+     * @param direction A direction, from 0 to 7, in the same order as the 
+     * bits of a neighbour mask.
+     * @return The length of an edge in that direction.
+     */
+    public static double getEdgeLength(int direction)
+    {
+    	return DIRECTION_LENGTHS[direction];
+    }
+    
+    /**
+     * Getter for the node with the given index. Since nodes are not kept as
+     * objects by this graph, a new GraphPoint is made each time.
+     * @param index The index of a slot in the grid of this graph.
+     * @return The node at that slot, which is null if no node is there.
+     */
+    public GraphPoint getNode(int index)
+    {
+    	/*Check if the slot has a node.*/
+    	if(!hasNode(index))
     	{
-    		//if so, mark it as visited
-    		current.setVisited(true);
-    		
-    		/*Go through each neighbour to call this method recursively if needed.*/
-    		for(GraphPoint gp: current.getNeighbours())
-        	{
-    			/*Check if the neighbour is not null and if the neighbour is not 
-    			 * marked as visited already (to avoid infinite recursion and a
-    			 * StackOverflowError). The method will call itself recursively 
-    			 * until all neighbouring nodes.*/
-        		if(gp!=null && !gp.isVisited())
-        		{
-        			//if so, call this method recursively
-        			visitNodesCloseToMine(mine, avoidanceDistance, gp);
-        		}
-        	}
+    		return null;
     	}
+    	
+    	return new GraphPoint(getNodeX(index), getNodeY(index), index);
     }
-   
+    
     /**
      * Getter for individual nodes of this graph. Returns the node whose point
      * it represents is at the given coordinates in the world, or if at those 
-     * coordinates the slot in the matrix is null, it will return the first 
-     * non null neighbour of it.
-     * @param x The row index of the node to be returned.
-     * @param y The column index of the node to be returned.
-     * @return The point in the matrix at the given indexes.
+     * coordinates the slot in the grid has no node, it will return the first 
+     * existing neighbour of it.
+     * @param x The x coordinate of the node to be returned.
+     * @param y The y coordinate of the node to be returned.
+     * @return The node at those coordinates, or null if neither the slot at 
+     * those coordinates nor it's neighbours have a node.
      */
     public GraphPoint getPoint(int x, int y)
+    {
+    	int index=getNodeIndex(x, y);
+    	
+    	//get the node at the calculated index and return it
+    	return index==-1 ? null : getNode(index);
+    }
+    
+    /**
+     * Getter for the index of the node whose point is at the given coordinates
+     * in the world, or if at those coordinates the slot in the grid has no 
+     * node, the index of the first existing neighbour of it.
+     * @param x The x coordinate in the world.
+     * @param y The y coordinate in the world.
+     * @return The index of the node at those coordinates, or -1 if neither
+     * the slot at those coordinates nor it's neighbours have a node.
+     */
+    public int getNodeIndex(int x, int y)
     {
     	/*The nodes in the graph are all within the exterior walls of the level, 
     	 * so the top leftmost node' top left corner is at coordinates WallBock.SIDE
@@ -420,55 +3003,50 @@ public class Graph
     	x-=WallBlock.SIDE;
     	y-=WallBlock.SIDE;
    			 
-    	//System.out.println("coordinates "+x+" "+y);
     	/*Calculate the indexes of the approximate node these coordinates are over 
     	 *by dividing them with the horizontal/vertical distance between nodes.*/
     	int rowIndex=y/GraphPoint.INTERVAL;
     	int columnIndex=x/GraphPoint.INTERVAL;
-    	
-    	/*Closest element in the matrix to the given coordinates. The chosen
-    	 * element may be null.*/
-    	GraphPoint approximateSource=pointMatrix[rowIndex][columnIndex];
   
-    	/*Check if the slot at the calculated indexes is null. Very rarely, if 
-    	 * the enemy tank moved while turning it might get to a point for which
-    	 * there is no node in the graph (because that point is close to a wall,
-    	 * since if a slot in the graph matrix corresponds to a place in the game
-    	 * world covered by wall that slot is set to null so it will be ignored by
+    	/*Check if the slot at the calculated indexes has no node. Very rarely, 
+    	 * if the enemy tank moved while turning it might get to a point for 
+    	 * which there is no node in the graph (because that point is close to a
+    	 * wall, since if a slot in the grid corresponds to a place in the game
+    	 * world covered by wall that slot has no node so it will be ignored by
     	 * the path finding algorithm).*/
-    	if(approximateSource==null)
+    	if(indexesOutOfBounds(rowIndex, columnIndex) || 
+    			!hasNode(rowIndex*columns+columnIndex))
     	{
-    		approximateSource=getNonNullNeighbour(rowIndex, columnIndex);
+    		return getNonNullNeighbour(rowIndex, columnIndex);
     	}
     	
-    	//get the node at the calculated indexes and return it
-    	return approximateSource;
+    	return rowIndex*columns+columnIndex;
     }
     
     /**
-     * Gets the first non null neighbour encountered of a given point in the 
-     * matrix.
-     * Useful when a given slot in the matrix is null and we need a neighbouring 
-     * node that is not null.
-     * @param rowIndex The row index of the point in the matrix.
-     * @param columnIndex The column index of the point in the matrix.
-     * @return The first non null neighbour of the point in the matrix at the 
-     * given coordinates.
+     * Gets the first existing neighbour encountered of a given slot in the 
+     * grid.
+     * Useful when a given slot in the grid has no node and we need a 
+     * neighbouring node that exists.
+     * @param rowIndex The row index of the slot in the grid.
+     * @param columnIndex The column index of the slot in the grid.
+     * @return The index of the first existing neighbour of the slot in the 
+     * grid at the given coordinates, or -1 if there is none.
      */
-    private GraphPoint getNonNullNeighbour(int rowIndex, int columnIndex)
+    private int getNonNullNeighbour(int rowIndex, int columnIndex)
     {
     	/*We need to select a neighbouring existing node to be our 
 		 * source node. A node has 8 neighbours, like each square has on 
 		 * a chess board. We cycle through the differences between the 
-		 * neighbour's indexes and the indexes of the null slot (so -1, 
+		 * neighbour's indexes and the indexes of the empty slot (so -1, 
 		 * 0 and 1).*/
 			
 		/*Cycle through the values of the difference between the row index 
-		 * of the null slot and it's neighbours.*/
+		 * of the empty slot and it's neighbours.*/
 		for(int i=-1; i<=1; i++)
 		{
 			/*Cycle through the values of the difference between the column index 
-    		 * of the null slot and it's neighbours.*/
+    		 * of the empty slot and it's neighbours.*/
 			for(int j=-1 ; j<=1 ; j++)
     		{
 				/*Check if the calculated indexes of the neighbours are not 
@@ -478,22 +3056,22 @@ public class Graph
 					/*If at the indexes of the neighbour there is a node in the 
 					 * graph, it is our source point and we terminate the nested 
 					 * loops.*/
-		    		if(pointMatrix[rowIndex+i][columnIndex+j]!=null)
+		    		if(hasNode((rowIndex+i)*columns+columnIndex+j))
 		    		{
-		    			return pointMatrix[rowIndex+i][columnIndex+j];
+		    			return (rowIndex+i)*columns+columnIndex+j;
 		    		}
 				}
     		}
 		}
 		
-		/*if the given slot in the matrix is surrounded by null slots as well, 
-		 * there is no neighbour to return so we return null.*/
-		return null;
+		/*if the given slot in the grid is surrounded by empty slots as well, 
+		 * there is no neighbour to return so we return -1.*/
+		return -1;
     }
     
     /**
-     * Checks if the given indexes are within the bounds of the point matrix
-     * of this graph.
+     * Checks if the given indexes are within the bounds of the grid of this
+     * graph.
      * @param rowIndex The row index to be checked.
      * @param columnIndex The column index to be checked.
      * @return True if they are out of bounds, false if not.
@@ -507,15 +3085,15 @@ public class Graph
     		return true;
     	}
     	/*Else, check if the row index is larger than the last row index of 
-    	 * the matrix.*/
-    	else if(rowIndex>pointMatrix.length-1)
+    	 * the grid.*/
+    	else if(rowIndex>rows-1)
     	{
     		//If so, they are out of bounds
     		return true;
     	}
-    	/*Else, check if the column index is larger than the last row column 
-    	 * of the matrix.*/
-    	else if(columnIndex>pointMatrix[0].length-1)
+    	/*Else, check if the column index is larger than the last column index
+    	 * of the grid.*/
+    	else if(columnIndex>columns-1)
     	{
     		//If so, they are out of bounds
     		return true;
@@ -526,4 +3104,4 @@ public class Graph
     		return false;
     	}
     }
-}
\ No newline at end of file
+}
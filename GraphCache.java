@@ -0,0 +1,332 @@
+import greenfoot.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> GraphCache.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>GraphCache.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class keeps the graphs of the levels of a Greenfoot recreation of
+ * the Wii Tanks game for the Nintendo Wii in files, so the graph of a level
+ * and it's next-hop table are only built the first time the level is played.
+ * When the level is started or restarted again, the graph is made from the
+ * file, which is mapped into memory and only read, in much less time than it
+ * takes to build it.
+ *
+ * <p>Each file is named after a hash of the walls of the level, so when the
+ * walls of a level change, no file has it's name and the graph is built and
+ * written again. A file starts with a header with the version of it's format
+ * and the hash, followed by the data of the graph and, if the graph had one,
+ * the codes of it's next-hop table. Files that can not be read are treated
+ * like missing ones.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Getting a graph no longer makes it's next-hop table, which is 
+ * only loaded from the file if the file has it.
+ */
+public class GraphCache
+{
+	/**The first 4 bytes of every file of a graph, which are "PBGC" in ASCII.
+	 * Its value is {@value}.*/
+	private static final int MAGIC_NUMBER=0x50424743;
+
+	/**The version of the format of the files. It must be changed whenever
+	 * the header or the order of the sections of the files changes. Its value
+	 * is {@value}.*/
+	public static final int FORMAT_VERSION=1;
+
+	/**The flag set in the header of a file that has the codes of a next-hop
+	 * table after the data of the graph. Its value is {@value}.*/
+	private static final int NEXT_HOP_TABLE_FLAG=1;
+
+	/**The number of bytes of the header of a file: the magic number, the
+	 * version of the format, the version of the data of the graph, the hash
+	 * of the walls and the flags. Its value is {@value}.*/
+	private static final int HEADER_SIZE=4+4+4+8+4;
+
+	/**The starting value of the 64 bit FNV-1a hash of the walls. Its value is
+	 * {@value}.*/
+	private static final long FNV_OFFSET_BASIS=0xcbf29ce484222325L;
+
+	/**The number each byte of the 64 bit FNV-1a hash is multiplied by. Its
+	 * value is {@value}.*/
+	private static final long FNV_PRIME=0x100000001b3L;
+
+	/**The name of the folder of the shared cache, inside the folder of
+	 * temporary files. Its value is {@value}.*/
+	private static final String SHARED_FOLDER="panzer-batallion-graphs";
+
+	/**The cache shared by all the worlds, made when it is first asked for.*/
+	private static GraphCache sharedCache;
+
+	/**The folder the files of this cache are kept in.*/
+	private final File folder;
+
+	/**
+	 * Makes a new cache that keeps it's files in the given folder, which is
+	 * made when the first file is written.
+	 * @param folder The folder of the files of the cache.
+	 */
+	public GraphCache(File folder)
+	{
+		this.folder=folder;
+	}
+
+	/**
+	 * Gets the cache shared by all the worlds, which keeps it's files in the
+	 * folder of temporary files, so they are not part of the scenario.
+	 * @return The shared cache.
+	 */
+	public static synchronized GraphCache getSharedCache()
+	{
+		if(sharedCache==null)
+		{
+			sharedCache=new GraphCache(new File(System.getProperty("java.io.tmpdir"),
+					SHARED_FOLDER));
+		}
+
+		return sharedCache;
+	}
+
+	/**
+	 * Calculates a hash of the walls of the given world, with the sizes and
+	 * versions the graph depends on, so 2 worlds with the same hash have the
+	 * same graph. The coordinates of the wall blocks are sorted first, since
+	 * the world may give them in any order.
+	 * @param world A world.
+	 * @param length The length of the world, in pixels.
+	 * @param width The width of the world, in pixels.
+	 * @return The hash of the walls of the world.
+	 */
+	public static long getLayoutHash(World world, int length, int width)
+	{
+		List<WallBlock> walls=world.getObjects(WallBlock.class);
+		long[] coordinates=new long[walls.size()];
+		for(int i=0;i<coordinates.length;i++)
+		{
+			WallBlock wall=walls.get(i);
+			coordinates[i]=((long)wall.getX()<<32)|(wall.getY()&0xFFFFFFFFL);
+		}
+		Arrays.sort(coordinates);
+
+		long hash=FNV_OFFSET_BASIS;
+		long[] sizes={Graph.DATA_VERSION, length, width, WallBlock.SIDE,
+				GraphPoint.INTERVAL, GraphPoint.WALL_OFFSET};
+		for(long size: sizes)
+		{
+			hash=addToHash(hash, size);
+		}
+
+		for(long wall: coordinates)
+		{
+			hash=addToHash(hash, wall);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Adds the 8 bytes of a number to a 64 bit FNV-1a hash.
+	 * @param hash The hash so far.
+	 * @param value The number added to the hash.
+	 * @return The new hash.
+	 */
+	private static long addToHash(long hash, long value)
+	{
+		for(int i=0;i<8;i++)
+		{
+			hash^=(value>>>(8*i))&0xFF;
+			hash*=FNV_PRIME;
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Gets the graph of the given world, from the file of it's walls if there
+	 * is one. Otherwise, the graph is built and written to the file. The 
+	 * graph only gets a next-hop table if the file has one. A table is never
+	 * made here, since it takes much longer than building the graph, so it 
+	 * is made on another thread and written to the file once it is finished.
+	 * @param world A world.
+	 * @param length The length of the world, in pixels.
+	 * @param width The width of the world, in pixels.
+	 * @return The graph of the world.
+	 */
+	public Graph getGraph(World world, int length, int width)
+	{
+		long layoutHash=getLayoutHash(world, length, width);
+		Graph graph=load(layoutHash, world, length, width);
+
+		if(graph==null)
+		{
+			graph=new Graph(world, length, width);
+			store(layoutHash, graph);
+		}
+
+		return graph;
+	}
+
+	/**
+	 * Makes the graph of the given world from the file of the given hash of
+	 * it's walls, which is mapped into memory and only read. If the file has
+	 * the codes of a next-hop table, the table is given to the graph too.
+	 * @param layoutHash The hash of the walls of the world.
+	 * @param world The world the graph is made for.
+	 * @param length The length of the world, in pixels.
+	 * @param width The width of the world, in pixels.
+	 * @return The graph of the world, or null if there is no file of the hash
+	 * or it can not be read.
+	 */
+	public Graph load(long layoutHash, World world, int length, int width)
+	{
+		File file=getFile(layoutHash);
+		if(!file.isFile())
+		{
+			return null;
+		}
+
+		try(FileChannel channel=FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			MappedByteBuffer data=channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+
+			/*Files of other versions or of another hash are not read.*/
+			if(data.remaining()<HEADER_SIZE || data.getInt()!=MAGIC_NUMBER ||
+					data.getInt()!=FORMAT_VERSION || data.getInt()!=Graph.DATA_VERSION
+					|| data.getLong()!=layoutHash)
+			{
+				return null;
+			}
+
+			int flags=data.getInt();
+			Graph graph=new Graph(world, length, width, data);
+			if((flags&NEXT_HOP_TABLE_FLAG)!=0)
+			{
+				graph.setNextHopTable(new NextHopTable(graph.getSnapshot(), data));
+			}
+
+			return graph;
+		}
+		catch(IOException | BufferUnderflowException | IndexOutOfBoundsException |
+				IllegalArgumentException e)
+		{
+			//a file that can not be read is written again when the graph is built
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the data of the given graph and of it's next-hop table, if it
+	 * has one, to the file of the given hash of the walls of it's world. The
+	 * data is written to a temporary file first, which then replaces the
+	 * file of the hash, so a file is never read while it is half written.
+	 * @param layoutHash The hash of the walls of the world of the graph.
+	 * @param graph A graph.
+	 * @return True if the file was written, false if not.
+	 */
+	public boolean store(long layoutHash, Graph graph)
+	{
+		NextHopTable nextHopTable=graph.getNextHopTable();
+		int size=HEADER_SIZE+graph.getDataSize();
+		if(nextHopTable!=null)
+		{
+			size+=(int)nextHopTable.getMemory();
+		}
+
+		ByteBuffer data=ByteBuffer.allocate(size);
+		data.putInt(MAGIC_NUMBER);
+		data.putInt(FORMAT_VERSION);
+		data.putInt(Graph.DATA_VERSION);
+		data.putLong(layoutHash);
+		data.putInt((nextHopTable==null) ? 0 : NEXT_HOP_TABLE_FLAG);
+		graph.writeData(data);
+		if(nextHopTable!=null)
+		{
+			nextHopTable.writeData(data);
+		}
+		data.flip();
+
+		File temporaryFile=null;
+		try
+		{
+			folder.mkdirs();
+			temporaryFile=File.createTempFile("graph", ".tmp", folder);
+			try(FileChannel channel=FileChannel.open(temporaryFile.toPath(),
+					StandardOpenOption.WRITE))
+			{
+				while(data.hasRemaining())
+				{
+					channel.write(data);
+				}
+			}
+
+			Files.move(temporaryFile.toPath(), getFile(layoutHash).toPath(),
+					StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		}
+		catch(IOException e)
+		{
+			/*The graph is built again next time, so a file that could not be
+			 * written only costs time.*/
+			if(temporaryFile!=null)
+			{
+				temporaryFile.delete();
+			}
+
+			return false;
+		}
+	}
+
+	/**
+	 * Gets the file of the graph of a world with the given hash of it's
+	 * walls.
+	 * @param layoutHash The hash of the walls of a world.
+	 * @return The file of the graph, which may not exist.
+	 */
+	public File getFile(long layoutHash)
+	{
+		return new File(folder, String.format("graph-%016x.bin", layoutHash));
+	}
+
+	/**
+	 * Getter for the folder of this cache.
+	 * @return The folder the files of this cache are kept in.
+	 */
+	public File getFolder()
+	{
+		return folder;
+	}
+}
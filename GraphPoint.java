@@ -1,11 +1,10 @@
 import greenfoot.*;
-import java.lang.IllegalArgumentException;
 
 /**
  * <p><b>File name: </b> GraphPoint.java
- * @version 1.0
+ * @version 1.5
  * @since 26.08.2018
- * <p><b>Last modification date: </b> 05.10.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -29,16 +28,30 @@ import java.lang.IllegalArgumentException;
  * <p><b>Purpose: </b>
  * <p> This class describes a graph node used for finding the shortest path for a
  * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii. It is a node 
- * in the graph of the game world. It has 8 neighbours, corresponding coordinates
- * in the game world, and class variables that allow it to be used for Diejkstra's
- * algorithm. These nodes are not meant to be placed in the game world in points 
+ * in the graph of the game world. It has corresponding coordinates in the game
+ * world and an index that is unique in the graph. The graph itself is kept in
+ * primitive arrays, so a GraphPoint is only a view of one of it's nodes given
+ * to the tanks that follow paths. Two views of the same node are equal. 
+ * These nodes are not meant to be placed in the game world in points 
  * through which a tank can not pass without hitting a wall.
  * 
  * <p><b>Version History</b>
  * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Added an estimated distance used by the A* algorithm.
+ * <p>	-1.2 - Added an index that is unique to each node of a graph, used by
+ * the indexed heap of the shortest path algorithms. Removed the estimated
+ * distance, since the heap now keeps the value each node is ordered by.
+ * <p>	-1.3 - Moved the tentative distance, best previous node and visited 
+ * flag to the search context of each query, so nodes can be shared by 
+ * queries made at the same time.
+ * <p>	-1.4 - Removed the array of neighbours, since the graph now keeps the 
+ * edges of it's nodes in neighbour masks. Graph points are now views of the
+ * nodes of the graph, compared by their index and coordinates.
+ * <p>	-1.5 - Made the offset of the corners of the square checked for walls a
+ * public constant, so the graph can check it with an occupancy grid.
  */
 
-public class GraphPoint implements Comparable<GraphPoint>
+public class GraphPoint
 {
 	/**The vertical/horizontal interval or distance between the points in the 
 	 * world that these nodes represent. Its value is {@value}.*/
@@ -49,47 +62,34 @@ public class GraphPoint implements Comparable<GraphPoint>
 	 * into walls. Its value is {@value}.*/
 	private static final int WALL_DISTANCE=63;
 	
+	/**The distance between the centre of that imaginary square and it's 
+	 * sides, rounded up. A node can only be placed where no wall is this close
+	 * or closer both horizontally and vertically. Its value is {@value}.*/
+	public static final int WALL_OFFSET=(WALL_DISTANCE+1)/2;
+	
 	/**The x coordinate of the point in the world this node represents.*/
     private final int x;
     
     /**The y coordinate of the point in the world this node represents.*/
     private final int y;
-
-    /**The best previous node through each the shortest path so far to 
-     * the source point is.*/
-    private GraphPoint bestPrevious;
-    
-    /**The length of the current shortest path through the best previous
-     * node to the source point.*/
-    private double tentativeDistance;
-    
-    /**The array of neighbours of this node. Each node has 8 neighbours, since 
-     * nodes in the world are placed like squares on a chess board.*/
-    private GraphPoint[] neighbours;
-    
-    /**Indicates whether this node has been visited or not in the current 
-     * execution of Diejkstra's algorithm.*/
-    private boolean visited;
     
+    /**The index of this node in the graph, which is it's row in the graph's
+     * matrix multiplied by the number of columns, plus it's column.*/
+    private final int index;
+
     /**
      * Makes a new graph point representing the point in the game world at 
      * the given coordinates.
      * @param x The x coordinate of the point this node represents.
      * @param y The y coordinate of the point this node represents.
+     * @param index The index of this node in the graph.
      */
-    public GraphPoint(int x, int y)
+    public GraphPoint(int x, int y, int index)
     {
     	//initialise the x and y coordinates and the other variables.
     	this.x=x;
     	this.y=y;
-    	bestPrevious=null;
-    	visited=false;
-    	neighbours=new GraphPoint[8];
-    	
-    	/*According to shortest path algorithm, the tentative distance of 
-    	 * nodes should be initialised as infinite. Since computers are finite,
-    	 * we set it to the largest integer value possible.*/
-    	tentativeDistance=Integer.MAX_VALUE;
+    	this.index=index;
     }
 
     /**
@@ -113,265 +113,12 @@ public class GraphPoint implements Comparable<GraphPoint>
     }
     
     /**
-     * Getter for the tentative distance of this node.
-     * @return The tentative distance of this node.
-     */
-    public double getDistance()
-    {
-    	return tentativeDistance;
-    }
-    
-    /**
-     * Getter for the best previous node of this node.
-     * @return The best previous node of this node.
-     */
-    public GraphPoint getBestPrevious()
-    {
-    	return bestPrevious;
-    }
-    
-    /**
-     * Getter for the array of neighbours of this node.
-     * @return The array of neighbours of this node.
-     */
-    public GraphPoint[] getNeighbours()
-    {
-    	return neighbours;
-    }
-    
-    /**
-     * Says if this node was visited or not in the current execution of the 
-     * shortest path algorithm.
-     * @return True if this node has been visited, false if not.
+     * Getter for the index of this node in the graph.
+     * @return The index of this node.
      */
-    public boolean isVisited()
+    public int getIndex()
     {
-    	return visited;
-    }
-    
-    /**
-     * Getter for the instance of a specific neighbour of this node. The 8 
-     * neighbours of this node are arranged like the neighbours of a square
-     * on a chess board: one in the upper left, one directly above, one in 
-     * the upper right, one to the left, one to the right, one in the lower
-     * left, one directly below, one to the lower right. This method returns
-     * a specific neighbour based on the string argument which specifies it's
-     * position relative to this node. If the string argument does not match 
-     * any of the predetermined acceptable string arguments ("upper left", 
-     * "upper", "upper right","left","right","lower left","lower","lower right"),
-     * it throws an exception.
-     * @param position The position of the neighbour relative to this node.
-     * @return The neighbour specified by the string argument.
-     * @throws IllegalArgumentException
-     */
-    public GraphPoint getNeighbour(String position) throws IllegalArgumentException
-    {
-    	/*Based on the value of the string argument, return the corresponding 
-    	 * neighbour reference from the array of 8 neighbours.*/
-    	switch(position)
-    	{
-    		case "upper left":
-    			return neighbours[0];
-    		case "upper":
-    			return neighbours[1];
-    		case "upper right":
-    			return neighbours[2];
-    		case "left":
-    			return neighbours[3];
-    		case "right":
-    			return neighbours[4];
-    		case "lower left":
-    			return neighbours[5];
-    		case "lower":
-    			return neighbours[6];
-    		case "lower right":
-    			return neighbours[7];
-    		/*If the argument does not match any of the predetermined  acceptable
-    		 * arguments, throw an exception.*/
-    		default:
-    			throw new IllegalArgumentException("The location string argument"
-    					+ " has a value that is not one of: upper left, upper, "
-    					+ "upper right, left, right, lower left, lower or lower right.");
-    	}
-    }
-    
-    /**
-     * Sets the tentative distance of this node to a new value.
-     * @param distance The new value of this node's tentative distance.
-     */
-    public void setDistance(double distance)
-    {
-    	tentativeDistance=distance;
-    }
-    
-    /**
-     * Sets the boolean value that indicates whether this node has been visited
-     * or not in the current execution of the shortest path algorithm.
-     * @param visited True if this node has been visited, false if not
-     */
-    public void setVisited(boolean visited)
-    {
-    	this.visited=visited;
-    }
-    
-    /**
-     * Sets the reference of the best previous neighbour of this node to a new value.
-     * @param bestPrevious The new best previous neighbour of this node.
-     */
-    public void setBestPrevious(GraphPoint bestPrevious)
-    {
-    	this.bestPrevious=bestPrevious;
-    }
-    
-    /**
-     * Setter for the instance of a specific neighbour of this node. The 8 
-     * neighbours of this node are arranged like the neighbours of a square
-     * on a chess board: one in the upper left, one directly above, one in 
-     * the upper right, one to the left, one to the right, one in the lower
-     * left, one directly below, one to the lower right. This method sets
-     * a specific neighbour reference to a new value based on the string 
-     * argument which specifies it's position relative to this node. If the 
-     * string argument does not match any of the predetermined acceptable 
-     * string arguments ("upper left", "upper", "upper right","left","right",
-     * "lower left","lower","lower right"), it throws an exception.
-     * @param neighbour The new neighbour of this node.
-     * @param location The location of this new neighbour relative to this node.
-     * @throws IllegalArgumentException
-     */
-    public void addNeighbour(GraphPoint neighbour, String location) 
-    		throws IllegalArgumentException
-    {
-    	/*Based on the value of the string argument, set the corresponding 
-    	 * neighbour reference from the array of 8 neighbours to the new value.
-    	 * Since neighbourhood is a two way relation, we need to ensure the new
-    	 * neighbour has this node in it's correct place in it's array of neighbours.
-    	 * Therefore, for each case we check if the neighbour parameter is not null 
-    	 * (to avoid an exception) and if the new neighbour does not have this this 
-    	 * node in it's correct place in the neighbours array (to avoid an infinite
-    	 * recursion where the addNeighbour methods of the 2 nodes call each other
-    	 * infinitely). If it passes the check, we set this node to the appropiate 
-    	 * place in the neighbouring node's array.*/
-    	switch(location)
-    	{
-    		case "upper left":
-    			neighbours[0]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("lower right")!=this))
-    			{
-    				neighbour.addNeighbour(this, "lower right");
-    			}
-    			break;
-    		case "upper":
-    			neighbours[1]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("lower")!=this))
-    			{
-    				neighbour.addNeighbour(this, "lower");
-    			}
-    			break;
-    		case "upper right":
-    			neighbours[2]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("lower left")!=this))
-    			{
-    				neighbour.addNeighbour(this, "lower left");
-    			}
-    			break;
-    		case "left":
-    			neighbours[3]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("right")!=this))
-    			{
-    				neighbour.addNeighbour(this, "right");
-    			}
-    			break;
-    		case "right":
-    			neighbours[4]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("left")!=this))
-    			{
-    				neighbour.addNeighbour(this, "left");
-    			}
-    			break;
-    		case "lower left":
-    			neighbours[5]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("upper right")!=this))
-    			{
-    				neighbour.addNeighbour(this, "upper right");
-    			}
-    			break;
-    		case "lower":
-    			neighbours[6]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("upper")!=this))
-    			{
-    				neighbour.addNeighbour(this, "upper");
-    			}
-    			break;
-    		case "lower right":
-    			neighbours[7]=neighbour;
-    			
-    			if(neighbour!=null && (neighbour.getNeighbour("upper left")!=this))
-    			{
-    				neighbour.addNeighbour(this, "upper left");
-    			}
-    			break;
-    		/*If the argument does not match any of the predetermined  acceptable
-        	 * arguments, throw an exception.*/
-    		default:
-    			throw new IllegalArgumentException("The location string argument"
-    					+ " has a value that is not one of: upper left, upper, "
-    					+ "upper right, left, right, lower left, lower or lower right.");
-    	}
-    }
-    
-    /**Resets this graph point to prepare it to be used for another execution 
-     * of the shortest path algorithm.*/
-    public void reset()
-    {
-    	/*At the beginning of the shortest path algorithm, nodes have no best 
-    	 * previous neighbour, their tentative distance is infinite and they 
-    	 * are not visited.*/
-    	bestPrevious=null;
-    	tentativeDistance=Integer.MAX_VALUE;
-    	visited=false;
-    }
-   
-    /**
-     * Compares this node with other nodes in the graph. This method implements
-     * the method in the Comparable interface to be used in the shortest path 
-     * algorithm in a priority queue. A node is considered to be greater than 
-     * another node if it's tentative distance is smaller than the other's. As
-     * a result, nodes will be ordered in a priority queue so that at the head
-     * of the queue is the node with the smallest tentative distance.
-     * @param otherPoint Another node that this node is compared against.
-     */
-    @Override
-    public int compareTo(GraphPoint otherPoint)
-    {
-    	//calculate the difference between the tentative distances of the 2 nodes
-    	double difference=this.getDistance()-otherPoint.getDistance();
-    	
-    	/*Check if the difference is positive, negative, or 0, to see if this
-    	 * node's distance is greater, lesser or equal.*/
-    	if(difference>0)
-    	{
-    		/*if the difference is positive, then this node is considered lesser
-    		 * than the other*/
-    		return 1;
-    	}
-    	else if(difference<0)
-    	{
-    		/*if the difference is negative, then this node is considered 
-    		 * lesser than the other*/
-    		return -1;
-    	}
-    	else
-    	/*if the difference is 0, the nodes are considered equal*/
-    	{
-    		return 0;
-    	}
+    	return index;
     }
     
     /**
@@ -391,8 +138,8 @@ public class GraphPoint implements Comparable<GraphPoint>
     	 * the tank) with the centre in the given position does not intersect 
     	 * with a wall. The offsets are the horizontal and vertical distances
     	 * between the centre of the square and one of it's corners.*/
-    	int xOffset=(int) Math.ceil(WALL_DISTANCE/2.0);
-    	int yOffset=(int) Math.ceil(WALL_DISTANCE/2.0);
+    	int xOffset=WALL_OFFSET;
+    	int yOffset=WALL_OFFSET;
     	
     	/*Check if the bottom right corner of the square intersects a wall.*/
     	if(!world.getObjectsAt(x+xOffset, y+yOffset, WallBlock.class).isEmpty())
@@ -461,4 +208,34 @@ public class GraphPoint implements Comparable<GraphPoint>
     	double distance=Math.sqrt((xDistance*xDistance)+(yDistance*yDistance));
     	return distance;
     }
+    
+    /**
+     * Checks if the given object is a graph point for the same node as this one.
+     * @param object The object compared to this node.
+     * @return True if the object is a GraphPoint with the same index and 
+     * coordinates as this one, false if not.
+     */
+    @Override
+    public boolean equals(Object object)
+    {
+    	/*Check if the object is a graph point.*/
+    	if(!(object instanceof GraphPoint))
+    	{
+    		return false;
+    	}
+    	
+    	GraphPoint other=(GraphPoint) object;
+    	return index==other.index && x==other.x && y==other.y;
+    }
+    
+    /**
+     * Calculates the hash code of this node, which is it's index since that 
+     * is unique in the graph.
+     * @return The hash code of this node.
+     */
+    @Override
+    public int hashCode()
+    {
+    	return index;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> HierarchicalPath.java
+ * @version 1.0
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>HierarchicalPath.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a path found by the cluster graph of a Greenfoot
+ * recreation of the Wii Tanks game for the Nintendo Wii. It is a list of
+ * waypoints, which are the source, the entrances of the clusters the path
+ * passes through and the destination. The nodes between the waypoints are
+ * only found when the tank needs them, one cluster at a time, so a tank that
+ * changes it's mind half way never pays for refining the rest of the path.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ */
+public class HierarchicalPath
+{
+	/**The cluster graph that found this path and refines it.*/
+	private final ClusterGraph clusterGraph;
+
+	/**The indexes of the slots of the waypoints of this path, from the
+	 * source to the destination.*/
+	private final int[] waypoints;
+
+	/**The length of this path.*/
+	private final double length;
+
+	/**The position of the next waypoint to refine the path up to.*/
+	private int nextWaypoint;
+
+	/**
+	 * Makes a new hierarchical path through the given waypoints.
+	 * @param clusterGraph The cluster graph that found the path.
+	 * @param waypoints The indexes of the slots of the waypoints, from the
+	 * source to the destination. Each waypoint is a neighbour of the next
+	 * one or in the same cluster.
+	 * @param length The length of the path.
+	 */
+	public HierarchicalPath(ClusterGraph clusterGraph, int[] waypoints, double length)
+	{
+		this.clusterGraph=clusterGraph;
+		this.waypoints=waypoints;
+		this.length=length;
+		nextWaypoint=1;
+	}
+
+	/**
+	 * Checks if a part of this path has not been refined yet.
+	 * @return True if there is a next segment, false if the destination has
+	 * been reached.
+	 */
+	public boolean hasNextSegment()
+	{
+		return nextWaypoint<waypoints.length;
+	}
+
+	/**
+	 * Refines the next segment of this path, which goes through the cluster
+	 * the last segment ended in and up to the first node in the next cluster.
+	 * The first segment also starts with the source node, like the paths of
+	 * the graph.
+	 * @return The nodes of the next segment, or null if there is none or it
+	 * could not be refined.
+	 */
+	public LinkedList<GraphPoint> nextSegment()
+	{
+		if(!hasNextSegment())
+		{
+			return null;
+		}
+
+		LinkedList<GraphPoint> segment=new LinkedList<>();
+		if(nextWaypoint==1)
+		{
+			segment.add(clusterGraph.getGraph().getNode(waypoints[0]));
+		}
+
+		/*Refine waypoint after waypoint until the path leaves the cluster.*/
+		int cluster=clusterGraph.getCluster(waypoints[nextWaypoint-1]);
+		while(hasNextSegment())
+		{
+			LinkedList<GraphPoint> part=clusterGraph.refine(waypoints[nextWaypoint-1],
+					waypoints[nextWaypoint]);
+			if(part==null)
+			{
+				//the rest of the path can not be followed
+				nextWaypoint=waypoints.length;
+				return null;
+			}
+
+			segment.addAll(part);
+			nextWaypoint++;
+
+			if(clusterGraph.getCluster(waypoints[nextWaypoint-1])!=cluster)
+			{
+				break;
+			}
+		}
+
+		return segment;
+	}
+
+	/**
+	 * Getter for the waypoints of this path.
+	 * @return A list of the nodes of the waypoints, from the source to the
+	 * destination.
+	 */
+	public List<GraphPoint> getWaypoints()
+	{
+		List<GraphPoint> nodes=new LinkedList<>();
+		for(int waypoint: waypoints)
+		{
+			nodes.add(clusterGraph.getGraph().getNode(waypoint));
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Getter for the destination of this path.
+	 * @return The node at the end of the path.
+	 */
+	public GraphPoint getDestination()
+	{
+		return clusterGraph.getGraph().getNode(waypoints[waypoints.length-1]);
+	}
+
+	/**
+	 * Getter for the length of this path when it was found. The refined path
+	 * may be shorter if wall blocks are removed before it is refined.
+	 * @return The length of the path.
+	 */
+	public double getLength()
+	{
+		return length;
+	}
+}
@@ -0,0 +1,344 @@
+import java.util.Arrays;
+
+/**
+ * <p><b>File name: </b> IndexedMinHeap.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>IndexedMinHeap.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a binary min heap of node indexes used by the
+ * shortest path algorithms of the graph of a Greenfoot recreation of the Wii
+ * Tanks game for the Nintendo Wii. Each node of the graph has a unique index
+ * and this heap remembers where in the heap each index is, so the key of a
+ * node can be decreased in logarithmic time instead of removing the node
+ * with a linear search and adding it again, like a PriorityQueue would need.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Added secondary keys, used to order indexes with the same key,
+ * and the removal of any index from the heap.
+ */
+public class IndexedMinHeap
+{
+	/**The node indexes in this heap, arranged as a binary heap so the index
+	 * with the smallest key is the first element.*/
+	private final int[] heap;
+
+	/**The position in the heap array of each node index, or -1 if the index
+	 * is not in this heap.*/
+	private final int[] positions;
+
+	/**The key of each node index, meaning the value the heap is ordered by.*/
+	private final double[] keys;
+
+	/**The secondary key of each node index, which orders indexes that have
+	 * the same key.*/
+	private final double[] secondaryKeys;
+
+	/**The number of node indexes currently in this heap.*/
+	private int size;
+
+	/**
+	 * Makes a new empty heap that can hold node indexes from 0 to the given
+	 * capacity minus 1.
+	 * @param capacity The number of nodes of the graph this heap is used for.
+	 */
+	public IndexedMinHeap(int capacity)
+	{
+		heap=new int[capacity];
+		positions=new int[capacity];
+		keys=new double[capacity];
+		secondaryKeys=new double[capacity];
+		size=0;
+
+		//initially no index is in the heap
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * Checks if this heap has no node indexes in it.
+	 * @return True if the heap is empty, false if not.
+	 */
+	public boolean isEmpty()
+	{
+		return size==0;
+	}
+
+	/**
+	 * Getter for the number of node indexes in this heap.
+	 * @return The number of node indexes in this heap.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Checks if the given node index is in this heap.
+	 * @param index The index of a node.
+	 * @return True if the index is in this heap, false if not.
+	 */
+	public boolean contains(int index)
+	{
+		return positions[index]!=-1;
+	}
+
+	/**
+	 * Getter for the key the given node index is ordered by in this heap.
+	 * @param index The index of a node that is in this heap.
+	 * @return The key of that node index.
+	 */
+	public double getKey(int index)
+	{
+		return keys[index];
+	}
+
+	/**
+	 * Getter for the smallest key in this heap, without removing it.
+	 * @return The key of the index at the top of the heap.
+	 */
+	public double peekKey()
+	{
+		return keys[heap[0]];
+	}
+
+	/**
+	 * Getter for the secondary key of the index at the top of this heap,
+	 * without removing it.
+	 * @return The secondary key of the index at the top of the heap.
+	 */
+	public double peekSecondaryKey()
+	{
+		return secondaryKeys[heap[0]];
+	}
+
+	/**
+	 * Getter for the node index with the smallest key in this heap, without
+	 * removing it.
+	 * @return The index at the top of the heap.
+	 */
+	public int peek()
+	{
+		return heap[0];
+	}
+
+	/**
+	 * Adds the given node index to this heap with the given key. If the index
+	 * is already in the heap, it's key is changed to the new value instead.
+	 * @param index The index of a node.
+	 * @param key The value the node will be ordered by.
+	 */
+	public void insertOrUpdate(int index, double key)
+	{
+		insertOrUpdate(index, key, 0);
+	}
+
+	/**
+	 * Adds the given node index to this heap with the given keys. If the index
+	 * is already in the heap, it's keys are changed to the new values instead.
+	 * Indexes are ordered by their key, and by their secondary key if their
+	 * keys are equal.
+	 * @param index The index of a node.
+	 * @param key The value the node will be ordered by.
+	 * @param secondaryKey The value that orders the node among nodes with 
+	 * the same key.
+	 */
+	public void insertOrUpdate(int index, double key, double secondaryKey)
+	{
+		/*Check if the index is already in the heap.*/
+		if(contains(index))
+		{
+			//if so, move it up or down depending on it's new keys
+			boolean decreased=key<keys[index] || (key==keys[index] &&
+					secondaryKey<secondaryKeys[index]);
+			keys[index]=key;
+			secondaryKeys[index]=secondaryKey;
+
+			if(decreased)
+			{
+				siftUp(positions[index]);
+			}
+			else
+			{
+				siftDown(positions[index]);
+			}
+		}
+		/*Else, put it at the end of the heap and move it up to it's place.*/
+		else
+		{
+			keys[index]=key;
+			secondaryKeys[index]=secondaryKey;
+			heap[size]=index;
+			positions[index]=size;
+			size++;
+			siftUp(size-1);
+		}
+	}
+
+	/**
+	 * Removes the node index with the smallest key from this heap and returns it.
+	 * @return The index with the smallest key.
+	 */
+	public int poll()
+	{
+		int top=heap[0];
+
+		/*Move the last index in the heap to the top and then move it down
+		 * to it's correct place.*/
+		size--;
+		heap[0]=heap[size];
+		positions[heap[0]]=0;
+		positions[top]=-1;
+
+		if(size>0)
+		{
+			siftDown(0);
+		}
+
+		return top;
+	}
+
+	/**
+	 * Removes the given node index from this heap, if it is in it.
+	 * @param index The index of a node.
+	 */
+	public void remove(int index)
+	{
+		/*Check if the index is in the heap.*/
+		if(!contains(index))
+		{
+			return;
+		}
+
+		/*Move the last index in the heap to the place of the removed one, then
+		 * move it up or down to it's correct place.*/
+		int position=positions[index];
+		size--;
+		positions[index]=-1;
+
+		if(position<size)
+		{
+			int moved=heap[size];
+			heap[position]=moved;
+			positions[moved]=position;
+			siftUp(position);
+			siftDown(positions[moved]);
+		}
+	}
+
+	/**Removes all node indexes from this heap. Only the slots used by the
+	 * indexes still in the heap are cleared, so this is cheap after a search
+	 * that stopped early.*/
+	public void clear()
+	{
+		for(int i=0;i<size;i++)
+		{
+			positions[heap[i]]=-1;
+		}
+
+		size=0;
+	}
+
+	/**
+	 * Moves the node index at the given position in the heap up until it's
+	 * parent has a smaller or equal key.
+	 * @param position The position in the heap array of the index.
+	 */
+	private void siftUp(int position)
+	{
+		int index=heap[position];
+
+		while(position>0)
+		{
+			int parentPosition=(position-1)/2;
+			int parent=heap[parentPosition];
+
+			/*Stop when the parent is not bigger than the moved index.*/
+			if(!isSmaller(index, parent))
+			{
+				break;
+			}
+
+			//move the parent down one level
+			heap[position]=parent;
+			positions[parent]=position;
+			position=parentPosition;
+		}
+
+		heap[position]=index;
+		positions[index]=position;
+	}
+
+	/**
+	 * Moves the node index at the given position in the heap down until both
+	 * it's children have a bigger or equal key.
+	 * @param position The position in the heap array of the index.
+	 */
+	private void siftDown(int position)
+	{
+		int index=heap[position];
+		int half=size/2;
+
+		/*Positions from half of the size onwards have no children.*/
+		while(position<half)
+		{
+			int childPosition=2*position+1;
+			int child=heap[childPosition];
+
+			/*Choose the child with the smaller key.*/
+			if(childPosition+1<size && isSmaller(heap[childPosition+1], child))
+			{
+				childPosition++;
+				child=heap[childPosition];
+			}
+
+			/*Stop when the smaller child is not smaller than the moved index.*/
+			if(!isSmaller(child, index))
+			{
+				break;
+			}
+
+			//move the child up one level
+			heap[position]=child;
+			positions[child]=position;
+			position=childPosition;
+		}
+
+		heap[position]=index;
+		positions[index]=position;
+	}
+
+	/**
+	 * Checks if the first node index comes before the second one in this
+	 * heap.
+	 * @param a The index of a node in this heap.
+	 * @param b The index of another node in this heap.
+	 * @return True if the first index has a smaller key, or the same key and
+	 * a smaller secondary key, false if not.
+	 */
+	private boolean isSmaller(int a, int b)
+	{
+		return keys[a]<keys[b] || (keys[a]==keys[b] && 
+				secondaryKeys[a]<secondaryKeys[b]);
+	}
+}
@@ -3,9 +3,9 @@ import java.util.List;
 
 /**
  * <p><b>File name: </b> Shell.java
- * @version 1.4
+ * @version 1.6
  * @since 04.06.2018
- * <p><b>Last modification date: </b> 05.10.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -44,6 +44,10 @@ import java.util.List;
  *  Also fixed a bug that made the landmine not explode when being stepped on 
  *  by enemy tanks.
  * <p>	-1.4 - Added getters used by code for the suicide attack of Yellow Tanks.
+ * <p>	-1.5 - Destroyed wall blocks are now removed with the overloaded 
+ * removeObject method of the world, so the path finding graph is updated.
+ * <p>	-1.6 - Destroyed mines are now removed with the overloaded removeObject
+ * method of the world, so the masks of the nodes close to mines are updated.
  */
 
 public class LandMine extends Actor
@@ -214,14 +218,15 @@ public class LandMine extends Actor
     		world.removeObject(s);
     	}
     	
-    	/*Remove each destroyable wall block in the radius with the default 
-    	 * removeObject method.*/
+    	/*Remove each destroyable wall block in the radius with the overloaded
+    	 * removeObject method, which also updates the graph of the world.*/
     	for(DestroyableWallBlock destroyableBlock: destroyedWalls)
     	{
     		world.removeObject(destroyableBlock);
     	}
     	
-    	/*Remove each wall block in the radius with the default removeObject method.*/
+    	/*Remove each mine in the radius with the overloaded removeObject method,
+    	 * which also updates the masks of the nodes close to mines.*/
     	for(LandMine landMine: destroyedMines)
     	{
     		world.removeObject(landMine);
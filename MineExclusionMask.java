@@ -0,0 +1,187 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> MineExclusionMask.java
+ * @version 1.0
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>MineExclusionMask.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes the nodes of the graph of a Greenfoot recreation of
+ * the Wii Tanks game for the Nintendo Wii that are too close to a land mine
+ * for a tank to pass through them safely. A node is excluded if it is within
+ * the avoidance distance of the mask from any mine in the world, so a path
+ * that avoids every mine can be computed in one query.
+ *
+ * <p>The mask keeps a bit for each slot of the graph's grid, and the number of
+ * mines each slot is close to, so when a mine explodes only the slots no other
+ * mine is close to stop being excluded. Adding or removing a mine only checks
+ * the slots in a square around it, so the mask is kept up to date as mines are
+ * laid and explode instead of being built again.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ */
+public class MineExclusionMask
+{
+	/**The graph whose nodes this mask excludes.*/
+	private final Graph graph;
+
+	/**The distance from a mine within which nodes are excluded.*/
+	private final int avoidanceDistance;
+
+	/**The bits telling which slots of the grid are excluded. The slot with a
+	 * given index is excluded if bit index%64 of element index/64 is set.*/
+	private final long[] excludedBits;
+
+	/**The number of mines within the avoidance distance of each slot.*/
+	private final short[] mineCounts;
+
+	/**
+	 * Makes a new mask for the given graph, with no mines.
+	 * @param graph The graph whose nodes this mask excludes.
+	 * @param avoidanceDistance The distance from a mine within which nodes are
+	 * excluded.
+	 */
+	public MineExclusionMask(Graph graph, int avoidanceDistance)
+	{
+		this.graph=graph;
+		this.avoidanceDistance=avoidanceDistance;
+		excludedBits=new long[(graph.getNodeCount()+63)/64];
+		mineCounts=new short[graph.getNodeCount()];
+	}
+
+	/**
+	 * Builds this mask from the given mines in one pass, forgetting the mines
+	 * it had before.
+	 * @param mines All the land mines in the world.
+	 */
+	public void build(List<LandMine> mines)
+	{
+		Arrays.fill(excludedBits, 0);
+		Arrays.fill(mineCounts, (short) 0);
+
+		for(LandMine mine: mines)
+		{
+			addMine(mine.getX(), mine.getY());
+		}
+	}
+
+	/**
+	 * Excludes the nodes close to a mine that has been laid.
+	 * @param mineX The x coordinate of the mine.
+	 * @param mineY The y coordinate of the mine.
+	 */
+	public void addMine(int mineX, int mineY)
+	{
+		updateMine(mineX, mineY, 1);
+	}
+
+	/**
+	 * Stops excluding the nodes close to a mine that has been removed, unless
+	 * they are close to another mine as well.
+	 * @param mineX The x coordinate of the mine.
+	 * @param mineY The y coordinate of the mine.
+	 */
+	public void removeMine(int mineX, int mineY)
+	{
+		updateMine(mineX, mineY, -1);
+	}
+
+	/**
+	 * Changes the number of mines close to each slot within the avoidance
+	 * distance of a mine, by only checking the slots in a square around it
+	 * whose side is twice the avoidance distance.
+	 * @param mineX The x coordinate of the mine.
+	 * @param mineY The y coordinate of the mine.
+	 * @param change 1 if the mine was added, -1 if it was removed.
+	 */
+	private void updateMine(int mineX, int mineY, int change)
+	{
+		int columns=graph.getColumnCount();
+		int firstX=graph.getNodeX(0);
+		int firstY=graph.getNodeY(0);
+
+		int firstColumn=Math.max(0, (mineX-avoidanceDistance-firstX)/GraphPoint.INTERVAL);
+		int lastColumn=Math.min(columns-1, (mineX+avoidanceDistance-firstX)/
+				GraphPoint.INTERVAL);
+		int firstRow=Math.max(0, (mineY-avoidanceDistance-firstY)/GraphPoint.INTERVAL);
+		int lastRow=Math.min(graph.getRowCount()-1, (mineY+avoidanceDistance-firstY)/
+				GraphPoint.INTERVAL);
+
+		for(int row=firstRow;row<=lastRow;row++)
+		{
+			for(int column=firstColumn;column<=lastColumn;column++)
+			{
+				int index=row*columns+column;
+				int xDistance=mineX-graph.getNodeX(index);
+				int yDistance=mineY-graph.getNodeY(index);
+
+				/*Check if this slot is dangerously close to the mine, in the same
+				 * way tanks check if they are too close to a mine.*/
+				if(Math.sqrt(xDistance*xDistance+yDistance*yDistance)<=avoidanceDistance)
+				{
+					mineCounts[index]+=change;
+
+					//the slot is excluded while any mine is close to it
+					if(mineCounts[index]>0)
+					{
+						excludedBits[index>>>6]|=1L<<index;
+					}
+					else
+					{
+						excludedBits[index>>>6]&=~(1L<<index);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the slot with the given index is too close to a mine.
+	 * @param index The index of a slot in the grid of the graph.
+	 * @return True if a path must not pass through that slot, false if not.
+	 */
+	public boolean isExcluded(int index)
+	{
+		return (excludedBits[index>>>6]&(1L<<index))!=0;
+	}
+
+	/**
+	 * Getter for the distance from a mine within which nodes are excluded.
+	 * @return The avoidance distance of this mask.
+	 */
+	public int getAvoidanceDistance()
+	{
+		return avoidanceDistance;
+	}
+
+	/**
+	 * Getter for the graph whose nodes this mask excludes.
+	 * @return The graph of this mask.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+}
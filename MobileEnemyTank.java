@@ -1,13 +1,14 @@
 import java.util.LinkedList;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * <p><b>File name: </b> MobileEnemyTank.java
- * @version 1.4
+ * @version 1.16
  * @since 14.08.2018
- * <p><b>Last modification date: </b> 02.10.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright: </b>
  * <p>No copyright.* <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
@@ -47,6 +48,35 @@ import java.util.Random;
  *  <p>	-1.2 - Made tanks not run into walls when they move while turning.
  *  <p>	-1.3 - Made tanks avoid land mines.
  *  <p>	-1.4 - Made tanks avoid shell.
+ *  <p>	-1.5 - Paths to destination points are now planned with a D* Lite 
+ *  planner, so they are repaired when wall blocks are destroyed.
+ *  <p>	-1.6 - Destination points are now picked among the nodes this tank
+ *  can reach, without trying random points until one is suitable.
+ *  <p>	-1.7 - When a mine is detected, the tank now plans one path that avoids
+ *  every mine in the world, instead of a detour around that mine only.
+ *  <p>	-1.8 - Paths to destination points now keep away from mines, shells
+ *  and the fire lanes of static enemy tanks where it is not much longer.
+ *  <p>	-1.9 - Planned paths are now smoothed, so the tank drives straight
+ *  past the nodes it does not need to turn at.
+ *  <p>	-1.10 - Paths are now planned by the planning scheduler of the world
+ *  over several acts if many tanks need paths at once, and the tank waits
+ *  until it's path is planned.
+ *  <p>	-1.11 - Paths are now planned by the planning pool of the world if it
+ *  has one, and the tank checks in each act if it's path is ready.
+ *  <p>	-1.12 - In large arenas, paths are now found by the cluster graph of
+ *  the world graph and refined one cluster at a time as the tank follows them.
+ *  <p>	-1.13 - If the world graph has a next-hop table and the shortest path to
+ *  the destination keeps away from every danger, the path is taken from the
+ *  table without planning.
+ *  <p>	-1.14 - Tanks now reserve the slots of the world graph they will pass
+ *  through, plan the first steps of their paths around the slots reserved by
+ *  other tanks and give way to tanks with a higher priority. The first steps
+ *  planned again keep away from dangers and mines and are not smoothed, so
+ *  the tank does not drive back through the slots of the other tanks.
+ *  <p>	-1.15 - The path is now kept in a path buffer that is filled in place,
+ *  so following a path and avoiding mines makes no objects.
+ *  <p>	-1.16 - The path is now smoothed, and it's first steps planned again 
+ *  around other tanks, with the clearance from the walls this tank needs.
  */
 
 public abstract class MobileEnemyTank extends Tank
@@ -67,6 +97,11 @@ public abstract class MobileEnemyTank extends Tank
 	 * and efficiently around a mine. Its value is {@value}.*/
 	private static final int MINE_AVOIDANCE_TURN_TOLERANCE=25;
 	
+	/**The largest number of acts in a row this tank gives way to other tanks
+	 * before it chooses another destination, since the tank it gives way to
+	 * may not be going anywhere. Its value is {@value}.*/
+	private static final int MAX_YIELD_ACTS=60;
+	
 	/**A random number generator used to choose a destination point for this 
 	 * tank.*/
 	private Random numberGenerator;
@@ -81,17 +116,50 @@ public abstract class MobileEnemyTank extends Tank
 	/**Indicates if this tank is moving backwards.*/
 	protected boolean isMovingBackward;
 	
-	/**A linked list of GraphPoint objects that is the path this tank is taking
-	 * to it's chosen destination point.*/
-	protected LinkedList<GraphPoint> path;
+	/**The buffer of the path this tank is taking to it's chosen destination
+	 * point, with the indexes of the nodes of the world graph it drives to in
+	 * straight lines. This tank has no path when it is empty. Each new path
+	 * is put in the same buffer, so following paths makes no objects.*/
+	protected final PathBuffer path;
+	
+	/**The buffer the paths around land mines are planned in before they are 
+	 * put at the start of the path of this tank.*/
+	private final PathBuffer minePath;
 	
 	/**The rotation this tank should have for it to continue moving in the 
 	 * correct direction.*/
 	private int targetRotation;
 	
-	/**The GraphPoint object that is the next point in the game world this tank
-	 * needs to reach in it's path.*/
-	private GraphPoint nextPoint;
+	/**The index of the node of the world graph that is the next point in the
+	 * game world this tank needs to reach in it's path, or -1 if it has not 
+	 * been taken from the path yet.*/
+	private int nextNode;
+	
+	/**The x coordinate of the next point this tank needs to reach.*/
+	private int nextX;
+	
+	/**The y coordinate of the next point this tank needs to reach.*/
+	private int nextY;
+	
+	/**The planner of the paths of this tank to it's destination points, which
+	 * can repair a path when the graph of the world changes.*/
+	private DStarLitePlanner planner;
+	
+	/**A flag that indicates if this tank has started planning a path and has
+	 * not followed it yet.*/
+	private boolean waitingForPlan;
+	
+	/**The future of the path the planning pool of the world is planning for
+	 * this tank, or null if the pool is not planning one.*/
+	private Future<LinkedList<GraphPoint>> planFuture;
+	
+	/**The hierarchical path this tank is following in a large arena, whose
+	 * segments become the path of this tank one after another, or null if
+	 * the path is not hierarchical.*/
+	private HierarchicalPath hierarchicalPath;
+	
+	/**The number of acts in a row this tank has given way to other tanks.*/
+	private int yieldedActs;
 	
 	/**A flag that indicates if this tank is currently avoiding a mine.*/
 	private boolean avoidingMine;
@@ -118,7 +186,9 @@ public abstract class MobileEnemyTank extends Tank
         
         //initialize all instance variables of this subclass
         numberGenerator=new Random();
-        path=null;
+        path=new PathBuffer();
+        minePath=new PathBuffer();
+        nextNode=-1;
         avoidingMine=false;
         avoidingShell=false;
         
@@ -145,10 +215,10 @@ public abstract class MobileEnemyTank extends Tank
     	LandMine mine=detectLandMines();
     	
     	/*If there is a mine too close to the tank, and the is already not
-    	 * avoiding a mine, make this tank avoid the mine.*/
+    	 * avoiding a mine, make this tank avoid the mines.*/
 		if(!avoidingMine && (mine!=null))
 		{
-			avoidLandMine(mine);
+			avoidLandMines();
 		}
 		/*Else, if there is no mine in the vicinity of this tank, set the
 		 * mine avoidance flag to false.*/
@@ -199,8 +269,11 @@ public abstract class MobileEnemyTank extends Tank
 		//Else, the tank should move normally.
 		else
 		{
+			//Repair the path if wall blocks were destroyed since it was planned
+			repairPath();
+			
 			//Check if there  is a path to follow.
-			if(path!=null)
+			if(hasPath())
 			{
 				followPath();
 			}
@@ -212,6 +285,9 @@ public abstract class MobileEnemyTank extends Tank
 			}
 		}
 		
+		//let the other tanks know where this tank is going
+		reservePath();
+		
 		//lay mines if the tank decides so
 		layMine();
 		
@@ -220,105 +296,438 @@ public abstract class MobileEnemyTank extends Tank
 	}
     
     /**Generates a path to a destination point in the game world for the tank 
-     * to follow.*/
+     * to follow. The path is planned by the planning pool of the world if it
+     * has one, or else by it's planning scheduler, which may take several 
+     * acts if many tanks need paths at once, so the tank waits where it is
+     * until it's path is planned.*/
     private void generatePath()
     {
     	//Get a reference to the world this tank is in
     	TankWorld world=(TankWorld)getWorldOfType(TankWorld.class);
+    	PlanningScheduler scheduler=world.getPlanningScheduler();
+    	
+    	/*The planner is made again when the world has a new graph, for example
+    	 * when a new level has been loaded. While a worker plans with it, the
+    	 * planner is in a snapshot of the graph, so it is not checked.*/
+    	if(planner==null || (planFuture==null && planner.getGraph()!=
+    			world.getWorldGraph()))
+    	{
+    		cancelPlan();
+    		planner=new DStarLitePlanner(world.getWorldGraph());
+    	}
+    	
+    	/*In a large arena, the path is found by the cluster graph, which does
+    	 * not search the whole graph, and only it's first segment is refined.
+    	 * The other segments are refined as this tank follows the path.*/
+    	if(world.usesHierarchicalPaths())
+    	{
+    		GraphPoint destination=chooseDestinationPoint();
+    		if(destination!=null)
+    		{
+    			hierarchicalPath=world.getWorldGraph().getClusterGraph().findPath(
+    					getX(), getY(), destination);
+    			if(hierarchicalPath!=null)
+    			{
+    				setSegment(hierarchicalPath.nextSegment());
+    			}
+    		}
+    		
+    		return;
+    	}
+    	
+    	/*Check if this tank has not started planning a path yet.*/
+    	if(!waitingForPlan)
+    	{
+    		/*choose a destination point and start planning a path to it 
+    		 * through the world's graph.*/
+    		GraphPoint destination=chooseDestinationPoint();
+    		
+    		/*If there is no suitable destination, try again later.*/
+    		if(destination==null)
+    		{
+    			return;
+    		}
+    		
+    		/*If the shortest path to the destination keeps away from every
+    		 * danger, no path is cheaper, so it is taken at once from the 
+    		 * next-hop table of the graph into the path of this tank, without
+    		 * planning.*/
+    		if(world.getWorldGraph().getNextHopPath(getX(), getY(), 
+    				destination.getIndex(), world.getDangerCosts(), path))
+    		{
+    			hierarchicalPath=null;
+    			coordinatePath();
+    			return;
+    		}
+    		
+    		/*The danger costs make the planner prefer paths that keep away 
+    		 * from dangers. The plan is given to the planning pool if there is
+    		 * one, and to the scheduler if not or if the pool is full.*/
+    		PathPlanningPool pool=world.getPlanningPool();
+    		if(pool!=null)
+    		{
+    			planFuture=pool.submitPlan(planner, getX(), getY(), destination,
+    					world.getDangerCosts());
+    		}
+    		
+    		if(planFuture==null)
+    		{
+    			planner.startPlan(getX(), getY(), destination, 
+    					world.getDangerCosts());
+    		}
+    		
+    		waitingForPlan=true;
+    	}
+    	
+    	boolean finished;
+    	if(planFuture!=null)
+    	{
+    		//the planning pool finishes the plan on it's own
+    		finished=planFuture.isDone();
+    	}
+    	else
+    	{
+    		/*Give the plan to the scheduler, which continues it at once if 
+    		 * there are nodes left in the budget of this act. Nothing happens
+    		 * if the plan is already waiting for it's turn.*/
+    		scheduler.submit(planner);
+    		finished=!planner.isPlanning();
+    	}
+    	
+    	/*Check if the plan is finished.*/
+    	if(!finished)
+    	{
+    		//if not, this tank waits where it is
+    		isMoving=false;
+    		isMovingForward=false;
+    		isMovingBackward=false;
+    	}
+    	else
+    	{
+    		//if so, follow it, keeping only the nodes where this tank turns
+    		waitingForPlan=false;
+    		hierarchicalPath=null;
+    		setPlannedPath(getPlannedPath());
+    	}
+    }
+    
+    /**
+     * Checks if this tank has a path to follow, which is the case if there
+     * are nodes left in it's path or if the hierarchical path it follows has
+     * segments left to refine.
+     * @return True if this tank has a path, false if not.
+     */
+    private boolean hasPath()
+    {
+    	return !path.isEmpty() || (hierarchicalPath!=null && 
+    			hierarchicalPath.hasNextSegment());
+    }
+    
+    /**Removes every node from the path of this tank and forgets the 
+     * hierarchical path it follows, if any, so a new path is generated in 
+     * the next act.*/
+    protected void clearPath()
+    {
+    	path.clear();
+    	nextNode=-1;
+    	hierarchicalPath=null;
+    }
+    
+    /**
+     * Puts a segment of a hierarchical path in the path of this tank, 
+     * smoothed so it keeps only the nodes where this tank turns.
+     * @param segment The nodes of the segment, or null if it could not be
+     * refined, in which case the path is cleared so a new one is generated.
+     */
+    private void setSegment(List<GraphPoint> segment)
+    {
+    	if(segment==null)
+    	{
+    		clearPath();
+    		return;
+    	}
+    	
+    	path.clear();
+    	nextNode=-1;
+    	path.addAll(segment);
+    	getWorldOfType(TankWorld.class).getWorldGraph().smoothPath(path);
+    }
+    
+    /**
+     * Puts a path planned by the planner of this tank in it's path and
+     * prepares it for this tank to follow.
+     * @param plannedPath A path of the world graph, in which each node is a
+     * neighbour of the one before it, or null, in which case the path is
+     * left empty.
+     */
+    private void setPlannedPath(List<GraphPoint> plannedPath)
+    {
+    	path.clear();
+    	nextNode=-1;
+    	if(plannedPath!=null)
+    	{
+    		path.addAll(plannedPath);
+    		coordinatePath();
+    	}
+    }
+    
+    /**
+     * Prepares the planned path in the path buffer of this tank for it to 
+     * follow. The path is smoothed in place, keeping only the nodes where 
+     * this tank turns. If tanks plan their paths cooperatively and the first
+     * steps of the smoothed path run into the slots reserved by other tanks,
+     * the first steps are planned again around them and are not smoothed, so
+     * this tank does not drive straight back through those slots. They keep
+     * away from the dangers of the world, from the land mines too close for 
+     * this tank and from the walls, like the rest of the path.
+     */
+    private void coordinatePath()
+    {
+    	TankWorld world=getWorldOfType(TankWorld.class);
     	
-    	/*choose a destination point and use the world's graph to get a path 
-    	 * to it.*/
-    	GraphPoint destination=chooseDestinationPoint();
-    	path=world.getWorldGraph().getShortestPath(getX(), getY(), 
-    			destination);
+    	/*Check if this tank plans it's path with the other tanks.*/
+    	if(world.usesCooperativePlanning())
+    	{
+    		world.getReservationTable().coordinatePath(this, getX(), getY(), path,
+    				getSpeed(), world.getDangerCosts(), 
+    				world.getMineMask(getMineAvoidanceDistance()), getMinClearance());
+    	}
+    	else
+    	{
+    		world.getWorldGraph().smoothPath(path, 0, getMinClearance());
+    	}
     }
     
-    /**Chooses a random destination point for the tank to get to.*/
+    /**Reserves the slots of the world graph this tank will pass through in 
+     * the next steps of it's path, or the slot it is at if it has no path, 
+     * if tanks plan their paths cooperatively.*/
+    private void reservePath()
+    {
+    	TankWorld world=getWorldOfType(TankWorld.class);
+    	if(world!=null && world.usesCooperativePlanning())
+    	{
+    		world.getReservationTable().reserve(this, getX(), getY(), path, 
+    				getSpeed());
+    	}
+    }
+    
+    /**Removes the reservations of this tank from the reservation table of the
+     * world, if it has one.*/
+    private void releaseReservations()
+    {
+    	TankWorld world=getWorldOfType(TankWorld.class);
+    	if(world!=null && world.getReservationTable()!=null)
+    	{
+    		world.getReservationTable().release(this);
+    	}
+    }
+    
+    /**
+     * Checks if this tank should give way to another tank instead of driving
+     * towards the given point, because a tank with a higher priority will 
+     * soon pass next to the slot this tank would drive into. Tanks avoiding a
+     * mine never give way.
+     * @param pointX The x coordinate of the point this tank is driving 
+     * towards.
+     * @param pointY The y coordinate of the point this tank is driving 
+     * towards.
+     * @return True if this tank should wait where it is, false if not.
+     */
+    private boolean mustGiveWay(int pointX, int pointY)
+    {
+    	TankWorld world=getWorldOfType(TankWorld.class);
+    	if(avoidingMine || !world.usesCooperativePlanning())
+    	{
+    		yieldedActs=0;
+    		return false;
+    	}
+    	
+    	/*Check the slot an interval ahead on the way to the point, since the
+    	 * point may be far away on a smoothed path.*/
+    	int deltaX=pointX-getX();
+    	int deltaY=pointY-getY();
+    	double fraction=Math.min(1, GraphPoint.INTERVAL/Math.sqrt(deltaX*deltaX+
+    			deltaY*deltaY));
+    	int slot=world.getWorldGraph().getNodeIndex(getX()+(int)Math.round(deltaX*
+    			fraction), getY()+(int)Math.round(deltaY*fraction));
+    	
+    	if(!world.getReservationTable().mustYield(this, slot))
+    	{
+    		yieldedActs=0;
+    		return false;
+    	}
+    	
+    	yieldedActs++;
+    	return true;
+    }
+    
+    /**
+     * Gets the path that has been planned for this tank, by the planning pool
+     * or by the planning scheduler of the world.
+     * @return The planned path, or null if there is no path to the 
+     * destination or it could not be planned.
+     */
+    private LinkedList<GraphPoint> getPlannedPath()
+    {
+    	if(planFuture==null)
+    	{
+    		return planner.getPlannedPath();
+    	}
+    	
+    	try
+    	{
+    		return planFuture.get();
+    	}
+    	catch(InterruptedException | ExecutionException e)
+    	{
+    		/*Without a path, this tank plans a new one in the next act.*/
+    		return null;
+    	}
+    	finally
+    	{
+    		planFuture=null;
+    	}
+    }
+    
+    /**Stops the path this tank is planning, if any, so the planning scheduler
+     * of the world does not continue it. A plan given to the planning pool
+     * can not be stopped once a worker has started it, so it's result and
+     * it's planner are left to the worker and a new planner is made.*/
+    private void cancelPlan()
+    {
+    	TankWorld world=getWorldOfType(TankWorld.class);
+    	
+    	if(planFuture!=null)
+    	{
+    		planFuture.cancel(false);
+    		planFuture=null;
+    		planner=null;
+    	}
+    	else if(planner!=null && world!=null)
+    	{
+    		world.getPlanningScheduler().cancel(planner);
+    	}
+    	
+    	waitingForPlan=false;
+    }
+    
+    /**Repairs the path this tank follows if wall blocks have been destroyed
+     * since it was planned, since there may now be a shorter path to the same
+     * destination. Only paths made by the planner of this tank are repaired,
+     * and not while the tank is avoiding a mine, since then the path starts
+     * with a detour around the mine the planner does not know about.*/
+    private void repairPath()
+    {
+    	/*Check if the path needs to be repaired.*/
+    	if(!path.isEmpty() && !avoidingMine && planner!=null && 
+    			hierarchicalPath==null && planner.isOutdated() && 
+    			planner.getDestination()!=null && 
+    			path.getLast()==planner.getDestination().getIndex())
+    	{
+    		//if so, repair it from where this tank is now and smooth it again
+    		setPlannedPath(planner.repair(getX(), getY()));
+    	}
+    }
+    
+    /**
+     * Chooses a random destination point for the tank to get to, among the 
+     * nodes of the world's graph this tank can reach that are not too close
+     * to the player tank.
+     * @return The destination point, or null if there is none.
+     */
     private GraphPoint chooseDestinationPoint()
     {
-    	//the destination point that will be returned eventually
-    	GraphPoint destination=null;
+    	TankWorld world=(TankWorld)getWorld();
+    	Graph worldGraph=world.getWorldGraph();
     	
-    	/*A destination point we do not want may be chosen so this loop repeats
-    	 * the process until a suitable destination is chosen. If the 
-    	 * destination is not valid, destination is left null. If the destination is
-    	 * valid, destination is assigned that value, so the loop terminates.*/
-    	while(destination==null)
+    	/*Only the nodes in the same component as this tank can be reached by
+    	 * it, so the others are never chosen.*/
+    	int tankNode=worldGraph.getNodeIndex(getX(), getY());
+    	if(tankNode==-1)
     	{
-    		//generate random coordinates within the world's walls
-	    	int targetX=numberGenerator.nextInt(TankWorld.LENGTH-2*WallBlock.SIDE)
-	    			+ WallBlock.SIDE;
-	    	int targetY=numberGenerator.nextInt(TankWorld.WIDTH-2*WallBlock.SIDE)
-	    			+ WallBlock.SIDE;
-	    	
-	    	//Get the node/point at the calculated indexes from the graph.
-	    	TankWorld world=(TankWorld)getWorld();
-	    	GraphPoint potentialTarget=world.getWorldGraph().getPoint(targetX,
-	    			targetY);
-	    
-	    	/*Check if the value at those indexes is null. The random coordinates 
-	    	 * might be to a point situated inside or too close to a wall, in
-	    	 * which case the loop will repeat.*/
-	    	if(potentialTarget!=null)
-	    	{
-	    		/*If there is a node at those indexes, check if the destination
-	    		 * is not too close to the player tank.*/
-	    		if(world.getPlayerTank().getDistanceFrom(targetX, targetY)>
-	    			DISTANCE_FROM_PLAYER)
-	    		{
-	    			//If it is not too close, this destination is valid so we 
-	    			//choose it and terminate the loop
-	    			destination=potentialTarget;
-	    		}
-	    	}
+    		return null;
     	}
     	
-    	return destination;
+    	/*Pick a node of that component that is not too close to the player
+    	 * tank, so this tank will try to not get too close to the player.*/
+    	PlayerTank playerTank=world.getPlayerTank();
+    	int destination=worldGraph.getRandomNode(worldGraph.getComponent(tankNode),
+    			playerTank.getX(), playerTank.getY(), DISTANCE_FROM_PLAYER, 
+    			numberGenerator);
+    	
+    	return destination==-1 ? null : worldGraph.getNode(destination);
     }
     
     /**Makes the tank follow the path by passing by each node in the path until
-     * the destination is reached.*/
+     * the destination is reached. The nodes are read from the path buffer of
+     * this tank, so no objects are made.*/
     protected void followPath()
     {
-    	/*Check if it the tank has a reference to the next point it needs to 
-    	 * reach.*/
-    	if(nextPoint==null)
+    	/*Check if it the tank has taken the next point it needs to reach from
+    	 * it's path.*/
+    	if(nextNode==-1)
     	{
-    		//Try to get the first node in the LinkedList that is the path
-    		try
-        	{
-        		nextPoint=path.getFirst();
-        	}
-    		/*The path might be empty at this point or be null, in which 
-    		 * case we make sure the path is null so a new path will be 
-    		 * generated in the next call of the act() method and terminate
-    		 * this method.*/
-        	catch(NullPointerException | NoSuchElementException e)
-        	{
-            	path=null;
-        		return;
-        	}
+    		/*If the segment of a hierarchical path has been followed, the 
+    		 * next segment is refined and becomes the path.*/
+    		if(path.isEmpty() && hierarchicalPath!=null && 
+    				hierarchicalPath.hasNextSegment())
+    		{
+    			setSegment(hierarchicalPath.nextSegment());
+    		}
+    		
+    		/*The path might be empty at this point, in which case we make 
+    		 * sure there is no path so a new path will be generated in the 
+    		 * next call of the act() method and terminate this method.*/
+    		if(path.isEmpty())
+    		{
+    			clearPath();
+    			return;
+    		}
+    		
+    		//take the first node of the path and the point in the world it is at
+    		Graph worldGraph=getWorldOfType(TankWorld.class).getWorldGraph();
+    		nextNode=path.getFirst();
+    		nextX=worldGraph.getNodeX(nextNode);
+    		nextY=worldGraph.getNodeY(nextNode);
     	}
     	
-    	/*At this point nextPoint is not null, so we check if this tank has 
+    	/*At this point there is a next point, so we check if this tank has 
     	 * reached this point.*/
-	    if(reachedPoint(nextPoint))
+	    if(reachedPoint(nextX, nextY))
 	    {
-	    	/*If it has, remove it from the path and set nextPoint to null so 
-	    	 * a new point will be chosen next time this method is called.*/
+	    	/*If it has, remove it from the path and forget it so a new point
+	    	 * will be chosen next time this method is called.*/
 	    	path.removeFirst();
-	    	nextPoint=null;
+	    	nextNode=-1;
 	    }
 	    /*If it has not reached the next point, make sure the tank is heading
 	     * for it.*/
 	    else
 	    {
+	    	/*Check if this tank should give way to another tank.*/
+	    	if(mustGiveWay(nextX, nextY))
+	    	{
+	    		//if so, it waits where it is
+	    		isMoving=false;
+	    		isMovingForward=false;
+	    		isMovingBackward=false;
+	    		
+	    		/*If this tank has waited too long, it goes somewhere else.*/
+	    		if(yieldedActs>MAX_YIELD_ACTS)
+	    		{
+	    			clearPath();
+	    			yieldedActs=0;
+	    		}
+	    		
+	    		return;
+	    	}
+	    	
 	    	/*Calculate the rotation needed for this tank to turn towards the 
 	    	 * next point. This is recalculated every time since if the tank 
 	    	 * is moving while turning, the target rotation changes. Or because
 	    	 * Greenfoot works in integers, the target rotation may change by a
 	    	 * few degrees even when the tank is facing the next point.*/
-	    	targetRotation=calculateTargetRotation(nextPoint);
+	    	targetRotation=calculateTargetRotation(nextX, nextY);
 	    	
 	    	/*Check if the target rotation is the same as this tank's rotation.*/
 	    	if(getRotation()==targetRotation)
@@ -396,15 +805,17 @@ public abstract class MobileEnemyTank extends Tank
     /**
      * Detects if this tank has reached a point in the world graph, meaning it 
      * is within a certain distance from that node's coordinates.
-     * @param point A point in the world graph the tank wants to reach.
+     * @param pointX The x coordinate of a point in the world graph the tank 
+     * wants to reach.
+     * @param pointY The y coordinate of that point.
      * @return True if the tank has reached, false if not.
      */
-    private boolean reachedPoint(GraphPoint point)
+    private boolean reachedPoint(int pointX, int pointY)
     {
     	/*calculate the horizontal and vertical distances between this tank the
     	 * given graph point*/
-    	int deltaX=this.getX()-point.getX();
-    	int deltaY=this.getY()-point.getY();
+    	int deltaX=this.getX()-pointX;
+    	int deltaY=this.getY()-pointY;
     	
     	/*Calculate the total distance using Pythagora's theorem.*/
     	double distance=Math.sqrt(deltaX*deltaX + deltaY*deltaY);
@@ -426,15 +837,16 @@ public abstract class MobileEnemyTank extends Tank
     /**
      * Calculates the rotation this tank needs to have to turn toward the 
      * given graph point.
-     * @param nextPoint The point this tank wants to turn towards.
+     * @param pointX The x coordinate of the point this tank wants to turn 
+     * towards.
+     * @param pointY The y coordinate of that point.
      * @return The rotation, from 0 to 359, this needs to have.
      */
-    private int calculateTargetRotation(GraphPoint nextPoint)
+    private int calculateTargetRotation(int pointX, int pointY)
     {
     	/*Get the value of the angle between the horizontal axis and the 
 		 * line between this tank and the given GraphPoint.*/
-    	double theta=Math.toDegrees(Math.atan2(nextPoint.getY()-getY(), 
-    			nextPoint.getX()-getX()));
+    	double theta=Math.toDegrees(Math.atan2(pointY-getY(), pointX-getX()));
     	
     	//turn that value into an integer between 0 and 359 inclusive
 		int targetRotation=(int)Math.round(normalizeAngle(theta));
@@ -539,8 +951,7 @@ public abstract class MobileEnemyTank extends Tank
     	/*Get the value of the angle between the horizontal axis and the 
 		 * line between this tank and the given GraphPoint, if the tank would
 		 * have just moved ahead by getSpeed().*/
-		double nextTheta=Math.toDegrees(Math.atan2(nextPoint.getY()-tempY, 
-				nextPoint.getX()-tempX));
+		double nextTheta=Math.toDegrees(Math.atan2(nextY-tempY, nextX-tempX));
 		
 		//turn that value into an integer between 0 and 359 inclusive
 		int nextTargetRotation=(int)Math.round(normalizeAngle(nextTheta));
@@ -854,66 +1265,76 @@ public abstract class MobileEnemyTank extends Tank
     }
     
     /**
-     * This method modifies the path this tank follows so that it will avoid the
-     * mine given as an argument.
-     * @param mine The mine that is to be avoided by this tank.
+     * This method modifies the path this tank follows so that it will avoid 
+     * every mine in the world, not just the one that has been detected, so the
+     * tank does not need to change it's path again at each mine it meets. The
+     * path around the mines is planned in it's own buffer and put at the 
+     * start of the path in place, so no objects are made.
      */
-    private void avoidLandMine(LandMine mine)
+    private void avoidLandMines()
     {
-    	/*In order to avoid this mine, nodes that are too close to the mine must
-    	 * be removed from the path.*/
-    	try
-		{
-    		/*Removes the first node from the path until the first node is at 
-    		 * a safe distance away from the mine given.*/
-			while(path.getFirst().getDistanceFrom(mine)<getMineAvoidanceDistance())
-	    	{
-	    		path.removeFirst();
-	    	}
-		}
-    	/*If in this process the path becomes empty,
-   	     * we catch the exception that is thrown.*/
-    	catch(NoSuchElementException | NullPointerException e)
-		{
-    		/*If so, set the path to null and return to make the tank generate 
-    		 * a new path for it to follow.*/
-    		path=null;
-    		return;
-		}
-    	
     	//Get a reference to the world this tank is in and to the world graph
     	TankWorld world=(TankWorld)getWorldOfType(TankWorld.class);
     	Graph worldGraph=world.getWorldGraph();
     	
-    	/*If the path has not become empty by removing nodes, then the 
-    	 * destination point for the path that is avoiding the mine is the 
-    	 * remaining first node of the regular path.*/
-    	GraphPoint target=path.getFirst();
+    	//the nodes of the graph that are too close to a mine for this tank
+    	MineExclusionMask mineMask=world.getMineMask(getMineAvoidanceDistance());
+    	
+    	/*In order to avoid the mines, nodes that are too close to a mine must
+    	 * be removed from the path. Removes the first node from the path until
+    	 * the first node is at a safe distance away from every mine.*/
+    	while(!path.isEmpty() && mineMask.isExcluded(path.getFirst()))
+    	{
+    		path.removeFirst();
+    	}
+    	
+    	/*Check if in this process the path became empty.*/
+    	if(path.isEmpty())
+    	{
+    		/*If so, clear the path and return to make the tank generate a new
+    		 * path for it to follow.*/
+    		clearPath();
+    		return;
+    	}
+    	
+    	/*The destination of the path that is avoiding the mines is the last 
+    	 * node of the regular path, so the whole rest of the path avoids them. 
+    	 * If that node is too close to a mine, it is the remaining first node
+    	 * of the regular path instead.*/
+    	int target=path.getLast();
+    	if(mineMask.isExcluded(target))
+    	{
+    		target=path.getFirst();
+    	}
     	
-    	/*Use the world graph method getPathAvoidingMine to generate a path of 
-    	 * nodes that avoids the given mine and that leads the tank to the 
-    	 * first node of the regular path. This method uses a modified version
-    	 * of the Shortest Path Algorithm.*/
-    	LinkedList<GraphPoint> avoidancePath=worldGraph.getPathAvoidingMine
-    			(this, mine , target);
+    	/*Use the world graph method getPathAvoidingMines to generate a path of 
+    	 * nodes that avoids all mines and that leads the tank to the target
+    	 * node of the regular path. This method uses a modified version of the
+    	 * Shortest Path Algorithm.*/
+    	boolean foundPath=worldGraph.getPathAvoidingMines(getX(), getY(), target,
+    			mineMask, minePath);
     	
-    	/*Check if the returned path is null, which may happen if the mine blocks
-    	 * the only path leading to the destination point and there is not enough 
-    	 * space around it.*/
-    	if(avoidancePath!=null)
+    	/*Check if no path was found, which may happen if the mines block the 
+    	 * only path leading to the destination point and there is not enough
+    	 * space around them.*/
+    	if(foundPath)
     	{
-    		//the tank is currently avoiding the mine, so set the flag accordingly.
+    		//the tank is currently avoiding mines, so set the flag accordingly.
         	avoidingMine=true;
         	
-        	/*insert the path returned by the getPathAvoidingMine method in the
-        	 * beginning of the regular path of the tank*/
-    		path.addAll(0, avoidancePath);
+        	/*The nodes of the regular path before the target are replaced by
+        	 * the path found by the getPathAvoidingMines method.*/
+        	while(path.getFirst()!=target)
+        	{
+        		path.removeFirst();
+        	}
+    		path.addAllFirst(minePath);
     	}
-    	/*If it is null, set the entire path to null so the tank will generate a
-    	 * new path to follow.*/
+    	/*If not, clear the entire path so the tank will generate a new path 
+    	 * to follow.*/
     	else
     	{
-    		path=null;
+    		clearPath();
     	}
     }
     
@@ -1039,15 +1460,19 @@ public abstract class MobileEnemyTank extends Tank
     @Override
     public void reloadTank()
     {
-    	/*We need to set the to null, since if the player lost and level was
+    	/*We need to clear the path, since if the player lost and level was
     	 * reloaded, this tank would still try to follow the path it had before
     	 * the reload. This lead to the tank sometimes just driving thorough 
     	 * walls.*/
-    	path=null;
-    	nextPoint=null;
+    	clearPath();
     	avoidingMine=false;
     	generateNextMineLayingTime();
     	
+    	//a path planned from where this tank was is no longer needed
+    	cancelPlan();
+    	releaseReservations();
+    	yieldedActs=0;
+    	
     	//tank does not move initially
         isMoving=false;
         isMovingForward=false;
@@ -1057,6 +1482,16 @@ public abstract class MobileEnemyTank extends Tank
     	super.reloadTank();
     }
     
+    /**Removes this tank and it's turret from the world, after stopping the
+     * path it is planning.*/
+    @Override
+    public void deleteTank()
+    {
+    	cancelPlan();
+    	releaseReservations();
+    	super.deleteTank();
+    }
+    
     /**
      * Indicates the safe distance this type of tank will keep from a mine when
      * it is avoiding a mine. 
@@ -1067,6 +1502,18 @@ public abstract class MobileEnemyTank extends Tank
     	return (int)(getMineLengthMultiplier()*LENGTH);
     }
     
+    /**
+     * Indicates how far from the walls the centre of this type of tank must 
+     * stay when it drives along it's path. Mobile tanks are as large as the
+     * tanks every node of the world graph has room for.
+     * @return The half side of the square around the centre of this tank 
+     * that must not touch a wall.
+     */
+    public int getMinClearance()
+    {
+    	return GraphPoint.WALL_OFFSET;
+    }
+    
     /**
      * Indicates a real number that will be multiplied by the length of this 
      * tank and cast as an integer to get the mine avoidance distance of this tank
@@ -0,0 +1,311 @@
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p><b>File name: </b> NextHopTable.java
+ * @version 1.2
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>NextHopTable.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class keeps, for every pair of slots of the grid of the graph of a
+ * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii, the
+ * direction of the first move of a shortest path between them. A shortest
+ * path is then found by following these directions from the source to the
+ * destination, in a time that only depends on the length of the path,
+ * without searching the graph. The levels of the game have about 1300 slots,
+ * so the table of every pair of them is small enough to be made when a level
+ * starts.
+ *
+ * <p>The table is made with a search of the whole graph from each slot, which
+ * gives the next move towards that slot from every other slot. The searches
+ * are shared between a thread for each processor. Each direction is kept in
+ * half a byte, so the table takes a byte for every 2 pairs of slots.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Tables can now be written to a buffer and read from it, so the
+ * table of a level is only made once and then kept in the graph cache.
+ * <p>	-1.2 - Paths can now be put in a path buffer.
+ */
+public class NextHopTable
+{
+	/**The code of a pair of slots with no move between them, because they are
+	 * the same slot or there is no path between them. The code of any other
+	 * pair is the direction of the first move plus 1. Its value is {@value}.*/
+	private static final int NO_HOP=0;
+
+	/**The graph whose shortest paths are kept in this table.*/
+	private final Graph graph;
+
+	/**The codes of the first moves of the shortest paths, 2 in each byte. The
+	 * codes of the paths to the same destination are next to each other,
+	 * starting at the destination's index multiplied by the row length.*/
+	private final byte[] hops;
+
+	/**The number of bytes of the codes of the paths to each destination.*/
+	private final int rowLength;
+
+	/**The time it took to make this table, in nanoseconds.*/
+	private final long buildTime;
+
+	/**
+	 * Makes the table of the given graph with a thread for each processor.
+	 * @param graph The graph whose shortest paths are kept in the table,
+	 * which should be a snapshot, since it must not change.
+	 */
+	public NextHopTable(Graph graph)
+	{
+		this(graph, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Makes the table of the given graph, searching the graph from each of
+	 * it's slots with the given number of threads. The calling thread is one
+	 * of them, and waits until the others are finished.
+	 * @param graph The graph whose shortest paths are kept in the table,
+	 * which should be a snapshot, since it must not change.
+	 * @param threadCount The number of threads that search the graph.
+	 */
+	public NextHopTable(Graph graph, int threadCount)
+	{
+		long startTime=System.nanoTime();
+
+		this.graph=graph;
+		rowLength=(graph.getNodeCount()+1)/2;
+		hops=new byte[graph.getNodeCount()*rowLength];
+
+		/*Each thread takes the next destination no thread has taken yet, so
+		 * the threads finish at about the same time. The rows of different
+		 * destinations do not share bytes, so the threads never write to the
+		 * same byte.*/
+		final AtomicInteger nextDestination=new AtomicInteger();
+		Runnable worker=new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				int destination;
+				while((destination=nextDestination.getAndIncrement())<
+						NextHopTable.this.graph.getNodeCount())
+				{
+					fillRow(destination);
+				}
+			}
+		};
+
+		List<Thread> helpers=new ArrayList<>();
+		for(int i=1;i<threadCount;i++)
+		{
+			Thread helper=new Thread(worker, "Next hop table");
+			helper.setDaemon(true);
+			helper.start();
+			helpers.add(helper);
+		}
+
+		worker.run();
+
+		/*Wait for the other threads, so the whole table has been written and
+		 * can be read by this thread.*/
+		for(Thread helper: helpers)
+		{
+			boolean joined=false;
+			while(!joined)
+			{
+				try
+				{
+					helper.join();
+					joined=true;
+				}
+				catch(InterruptedException e)
+				{
+					//the table is not finished yet, so keep waiting
+				}
+			}
+		}
+
+		buildTime=System.nanoTime()-startTime;
+	}
+
+	/**
+	 * Makes the table of the given graph from the codes written by a table
+	 * of a graph with the same topology, without searching the graph.
+	 * @param graph The graph whose shortest paths are kept in the table,
+	 * which should be a snapshot, since it must not change.
+	 * @param data A buffer whose position is at the start of the codes 
+	 * written by the other table, which is left after the end of them.
+	 */
+	public NextHopTable(Graph graph, ByteBuffer data)
+	{
+		long startTime=System.nanoTime();
+
+		this.graph=graph;
+		rowLength=(graph.getNodeCount()+1)/2;
+		hops=new byte[graph.getNodeCount()*rowLength];
+		data.get(hops);
+
+		buildTime=System.nanoTime()-startTime;
+	}
+
+	/**
+	 * Writes the codes of the first moves of this table to the given buffer,
+	 * from which the table of a graph with the same topology can be made.
+	 * @param data A buffer with at least as many bytes left as the memory of
+	 * this table, whose position is left after the end of the codes.
+	 */
+	public void writeData(ByteBuffer data)
+	{
+		data.put(hops);
+	}
+
+	/**
+	 * Writes the codes of the first moves of the shortest paths from every
+	 * slot to the given destination. Since moves between neighbouring nodes
+	 * are as long both ways, the best previous node of a slot in a search
+	 * from the destination is the next node of a shortest path from it to
+	 * the destination.
+	 * @param destination The index of a slot.
+	 */
+	private void fillRow(int destination)
+	{
+		if(!graph.hasNode(destination))
+		{
+			return;
+		}
+
+		int[] nextNodes=graph.getShortestPathTree(destination);
+		int rowStart=destination*rowLength;
+
+		for(int source=0;source<nextNodes.length;source++)
+		{
+			int next=nextNodes[source];
+			if(next==-1)
+			{
+				continue;
+			}
+
+			/*Find the direction in which the next node is a neighbour.*/
+			for(int d=0;d<8;d++)
+			{
+				if(graph.getNeighbourIndex(source, d)==next)
+				{
+					hops[rowStart+(source>>>1)]|=(d+1)<<((source&1)*4);
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the direction of the first move of a shortest path between 2
+	 * slots.
+	 * @param source The index of the slot the path starts from.
+	 * @param destination The index of the slot the path ends at.
+	 * @return The direction of the first move, from 0 to 7 in the same order
+	 * as the bits of a neighbour mask, or -1 if the slots are the same or
+	 * there is no path between them.
+	 */
+	public int getNextDirection(int source, int destination)
+	{
+		int code=(hops[destination*rowLength+(source>>>1)]>>>((source&1)*4))&0xF;
+		return (code==NO_HOP) ? -1 : code-1;
+	}
+
+	/**
+	 * Gets a shortest path between 2 slots by following the first moves of
+	 * the shortest paths from each slot of the path to the destination.
+	 * @param source The index of the slot the path starts from.
+	 * @param destination The index of the slot the path ends at.
+	 * @return The indexes of the nodes of the path, from the source to the
+	 * destination, or null if there is no path between them.
+	 */
+	public int[] getPath(int source, int destination)
+	{
+		PathBuffer path=new PathBuffer();
+		return getPath(source, destination, path) ? path.toArray() : null;
+	}
+
+	/**
+	 * Puts a shortest path between 2 slots in the given buffer by following
+	 * the first moves of the shortest paths from each slot of the path to the
+	 * destination, without making any objects if the buffer is long enough.
+	 * @param source The index of the slot the path starts from.
+	 * @param destination The index of the slot the path ends at.
+	 * @param path The buffer the indexes of the nodes of the path are put in,
+	 * from the source to the destination. It is emptied first, and left 
+	 * empty if there is no path.
+	 * @return True if there is a path between the slots, false if not.
+	 */
+	public boolean getPath(int source, int destination, PathBuffer path)
+	{
+		path.clear();
+		if(!graph.hasNode(source) || !graph.hasNode(destination))
+		{
+			return false;
+		}
+
+		path.add(source);
+		for(int node=source;node!=destination;)
+		{
+			int direction=getNextDirection(node, destination);
+			if(direction==-1)
+			{
+				path.clear();
+				return false;
+			}
+
+			node=graph.getNeighbourIndex(node, direction);
+			path.add(node);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Getter for the graph whose shortest paths are kept in this table.
+	 * @return The graph of this table.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Getter for the memory taken by the codes of the first moves.
+	 * @return The number of bytes of the table.
+	 */
+	public long getMemory()
+	{
+		return hops.length;
+	}
+
+	/**
+	 * Getter for the time it took to make this table.
+	 * @return The time it took to make this table, in nanoseconds.
+	 */
+	public long getBuildTime()
+	{
+		return buildTime;
+	}
+}
@@ -0,0 +1,562 @@
+import greenfoot.*;
+
+/**
+ * <p><b>File name: </b> OccupancyGrid.java
+ * @version 1.6
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>OccupancyGrid.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a map of the pixels of the game world of a
+ * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii that are
+ * covered by walls. Every wall block is drawn once into a grid with one bit
+ * per pixel, so the graph used for path finding can find out how far each of
+ * it's points is from the closest wall without asking the world for the
+ * actors at many points.
+ *
+ * <p>The distance used is the Chebyshev distance, meaning the largest of the
+ * horizontal and vertical distances, since a point is too close to a wall if
+ * a square around it intersects the wall. It is computed with a distance
+ * transform done in 2 passes: first the horizontal distance to the closest
+ * covered pixel of each pixel row, then the smallest distance among the rows
+ * near each point. The transform is only computed at the points asked for,
+ * like the nodes of the graph, so it's time grows linearly with the area of
+ * the world.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Wall blocks can now be removed from the grid.
+ * <p>	-1.2 - Added a check if a square can slide along a line segment without
+ * touching a wall.
+ * <p>	-1.3 - The grid now also keeps the walls made wider by the clearance a
+ * tank needs, so the line of sight check only looks at the pixels the segment
+ * passes through.
+ * <p>	-1.4 - Added a copy constructor, used for the snapshots of the graph.
+ * <p>	-1.5 - The line of sight check can now be made for tanks that need more
+ * clearance than the walls of the grid were made wider by.
+ * <p>	-1.6 - A removed wall block is now taken out of the grid while it is 
+ * still in the world, since it's position can not be read after.
+ */
+public class OccupancyGrid
+{
+	/**The number of pixels that are stored in one element of the bit array.
+	 * Its value is {@value}.*/
+	private static final int BITS_PER_WORD=64;
+
+	/**The length of the world, in pixels.*/
+	private final int length;
+
+	/**The width of the world, in pixels.*/
+	private final int width;
+
+	/**The number of elements of the bit array used by each row of pixels.*/
+	private final int wordsPerRow;
+
+	/**The bits of the pixels covered by walls, one row of pixels after
+	 * another. The bit of the pixel at (x, y) is bit x%64 of element
+	 * y*wordsPerRow+x/64.*/
+	private final long[] occupied;
+
+	/**The Chebyshev distance from the walls within which the centre of a 
+	 * tank would hit a wall.*/
+	private final int clearance;
+
+	/**The bits of the pixels within the clearance of a wall, meaning the 
+	 * walls made wider by the clearance on each side, laid out like the bits
+	 * of the covered pixels.*/
+	private final long[] inflated;
+
+	/**
+	 * Makes a new occupancy grid of the given world, in which all the pixels
+	 * covered by a wall block of the world are marked as occupied.
+	 * @param world The world whose walls are drawn in this grid.
+	 * @param length The length of the world, in pixels.
+	 * @param width The width of the world, in pixels.
+	 * @param clearance The Chebyshev distance from the walls within which the
+	 * centre of a tank would hit a wall.
+	 */
+	public OccupancyGrid(World world, int length, int width, int clearance)
+	{
+		this.length=length;
+		this.width=width;
+		this.clearance=clearance;
+		wordsPerRow=(length+BITS_PER_WORD-1)/BITS_PER_WORD;
+		occupied=new long[wordsPerRow*width];
+		inflated=new long[wordsPerRow*width];
+
+		/*Draw each wall block into the grid as a square centred on it's
+		 * coordinates.*/
+		for(WallBlock wall: world.getObjects(WallBlock.class))
+		{
+			drawWall(wall, true);
+		}
+	}
+
+	/**
+	 * Makes a new occupancy grid with the same occupied pixels as the given
+	 * one, which does not change when the given grid does.
+	 * @param grid The occupancy grid that is copied.
+	 */
+	public OccupancyGrid(OccupancyGrid grid)
+	{
+		length=grid.length;
+		width=grid.width;
+		clearance=grid.clearance;
+		wordsPerRow=grid.wordsPerRow;
+		occupied=grid.occupied.clone();
+		inflated=grid.inflated.clone();
+	}
+
+	/**
+	 * Removes a wall block that is being removed from the world from this 
+	 * grid, by marking it's pixels as not occupied. Since wall blocks of the
+	 * world may overlap, the other wall blocks of the world that overlap the
+	 * removed one are then drawn again. This must be done before the wall 
+	 * block leaves the world, since it's position can not be read after.
+	 * @param wall The wall block being removed, which is still in the world.
+	 * @param world The world the wall block is in.
+	 */
+	public void removeWall(WallBlock wall, World world)
+	{
+		drawWall(wall, false);
+
+		/*Draw again the remaining wall blocks that overlap the removed one,
+		 * or whose clearance overlaps it's clearance.*/
+		for(WallBlock other: world.getObjects(WallBlock.class))
+		{
+			if(other!=wall && Math.abs(other.getX()-wall.getX())<WallBlock.SIDE+
+					2*clearance && Math.abs(other.getY()-wall.getY())<
+					WallBlock.SIDE+2*clearance)
+			{
+				drawWall(other, true);
+			}
+		}
+	}
+
+	/**
+	 * Marks the pixels of a wall block as occupied or not, and the pixels 
+	 * within the clearance of it as inflated or not. Like the image of an 
+	 * actor, the block covers SIDE/2 pixels to the left and above it's 
+	 * centre.
+	 * @param wall A wall block.
+	 * @param covered True if the pixels are marked, false if they are not.
+	 */
+	private void drawWall(WallBlock wall, boolean covered)
+	{
+		int left=wall.getX()-WallBlock.SIDE/2;
+		int top=wall.getY()-WallBlock.SIDE/2;
+		int right=left+WallBlock.SIDE-1;
+		int bottom=top+WallBlock.SIDE-1;
+
+		setRectangle(occupied, left, top, right, bottom, covered);
+		setRectangle(inflated, left-clearance, top-clearance, right+clearance,
+				bottom+clearance, covered);
+	}
+
+	/**
+	 * Sets or clears the bits of the pixels of a rectangle. The parts of the
+	 * rectangle outside the world are ignored.
+	 * @param bits The bits of the pixels, laid out like the covered pixels.
+	 * @param left The x coordinate of the first column of the rectangle.
+	 * @param top The y coordinate of the first row of the rectangle.
+	 * @param right The x coordinate of the last column of the rectangle.
+	 * @param bottom The y coordinate of the last row of the rectangle.
+	 * @param covered True if the bits are set, false if they are cleared.
+	 */
+	private void setRectangle(long[] bits, int left, int top, int right, 
+			int bottom, boolean covered)
+	{
+		//keep only the part of the rectangle inside the world
+		left=Math.max(0, left);
+		right=Math.min(length-1, right);
+		top=Math.max(0, top);
+		bottom=Math.min(width-1, bottom);
+
+		/*Check if any part of the square is inside the world.*/
+		if(left>right || top>bottom)
+		{
+			return;
+		}
+
+		int firstWord=left/BITS_PER_WORD;
+		int lastWord=right/BITS_PER_WORD;
+
+		/*Set the bits between the left and right pixel in each row.*/
+		for(int y=top;y<=bottom;y++)
+		{
+			int rowStart=y*wordsPerRow;
+			for(int word=firstWord;word<=lastWord;word++)
+			{
+				long mask=-1L;
+
+				//clear the bits before the left pixel and after the right one
+				if(word==firstWord)
+				{
+					mask&=-1L<<left;
+				}
+				if(word==lastWord)
+				{
+					mask&=-1L>>>(BITS_PER_WORD-1-right%BITS_PER_WORD);
+				}
+
+				if(covered)
+				{
+					bits[rowStart+word]|=mask;
+				}
+				else
+				{
+					bits[rowStart+word]&=~mask;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if the pixel at the given coordinates is covered by a wall.
+	 * Pixels outside the world are not covered.
+	 * @param x The x coordinate of the pixel.
+	 * @param y The y coordinate of the pixel.
+	 * @return True if the pixel is covered by a wall, false if not.
+	 */
+	public boolean isOccupied(int x, int y)
+	{
+		/*Check if the pixel is outside the world.*/
+		if(x<0 || y<0 || x>=length || y>=width)
+		{
+			return false;
+		}
+
+		return (occupied[y*wordsPerRow+x/BITS_PER_WORD]&(1L<<x))!=0;
+	}
+
+	/**
+	 * Checks if the centre of a tank can move in a straight line from a point
+	 * to another without the tank hitting a wall, meaning no point of the line
+	 * segment between them is within the clearance of a wall. Since the walls
+	 * made wider by the clearance are kept, only the pixels the segment passes
+	 * through are checked. The segment covers an interval of pixels in each 
+	 * row it crosses, so each row is checked once by looking for an inflated
+	 * pixel in that interval. The intervals are rounded outwards, so a 
+	 * segment passing very close to the clearance of a wall may be found not
+	 * to be clear.
+	 * @param startX The x coordinate of the start of the segment.
+	 * @param startY The y coordinate of the start of the segment.
+	 * @param endX The x coordinate of the end of the segment.
+	 * @param endY The y coordinate of the end of the segment.
+	 * @return True if no point of the segment is within the clearance of a 
+	 * wall, false if not.
+	 */
+	public boolean isSegmentClear(int startX, int startY, int endX, int endY)
+	{
+		return isSegmentClear(startX, startY, endX, endY, clearance);
+	}
+
+	/**
+	 * Checks if the centre of a tank that needs the given clearance from the
+	 * walls can move in a straight line from a point to another without the
+	 * tank hitting a wall. Like the check with the clearance of this grid, 
+	 * pixels of the wider walls are looked for in each row near the 
+	 * segment, but in an interval made wider by the extra clearance on each
+	 * side, and in the rows that much above and below the segment as well.
+	 * @param startX The x coordinate of the start of the segment.
+	 * @param startY The y coordinate of the start of the segment.
+	 * @param endX The x coordinate of the end of the segment.
+	 * @param endY The y coordinate of the end of the segment.
+	 * @param clearance The Chebyshev distance from the walls within which the
+	 * centre of the tank would hit a wall.
+	 * @return True if no point of the segment is within the given clearance 
+	 * of a wall, false if not.
+	 * @throws IllegalArgumentException If the clearance is smaller than the
+	 * clearance of this grid, since the walls were already made wider than 
+	 * that.
+	 */
+	public boolean isSegmentClear(int startX, int startY, int endX, int endY,
+			int clearance)
+	{
+		if(clearance<this.clearance)
+		{
+			throw new IllegalArgumentException("The clearance can not be smaller"
+					+" than the clearance of the grid.");
+		}
+		
+		/*A pixel is within the given clearance of a wall if a pixel within 
+		 * the extra clearance of it is in a wall made wider.*/
+		int extra=clearance-this.clearance;
+		int minY=Math.min(startY, endY);
+		int maxY=Math.max(startY, endY);
+		
+		/*The change of x along the segment for each pixel it goes down.*/
+		double slope=(startY==endY) ? 0 : (double) (endX-startX)/(endY-startY);
+		
+		//the rows within the extra clearance of the segment, inside the world
+		int top=Math.max(0, minY-extra);
+		int bottom=Math.min(width-1, maxY+extra);
+		
+		for(int y=top;y<=bottom;y++)
+		{
+			/*The segment is less than a pixel more than the extra clearance 
+			 * away from this row vertically between these rows, so it is 
+			 * close to the pixels of this row between the x coordinates it 
+			 * has on them, widened by the extra clearance.*/
+			int lowY=Math.max(minY, y-1-extra);
+			int highY=Math.min(maxY, y+1+extra);
+			double firstX=startX+(lowY-startY)*slope;
+			double lastX=startX+(highY-startY)*slope;
+			
+			if(startY==endY)
+			{
+				firstX=startX;
+				lastX=endX;
+			}
+			
+			int left=Math.max(0, (int) Math.floor(Math.min(firstX, lastX))-extra);
+			int right=Math.min(length-1, (int) Math.ceil(Math.max(firstX, lastX))+
+					extra);
+			
+			if(getFirstSet(inflated, y*wordsPerRow, left, right)!=-1)
+			{
+				return false;
+			}
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Computes the Chebyshev distance between each point of a lattice and the
+	 * closest pixel covered by a wall, meaning the half side of the smallest
+	 * square centred on the point that touches a wall. Distances larger than
+	 * the given maximum distance are not needed, so they are given as the
+	 * maximum distance, which keeps the transform fast.
+	 * @param firstX The x coordinate of the first point of the lattice.
+	 * @param firstY The y coordinate of the first point of the lattice.
+	 * @param interval The distance between neighbouring points of the lattice.
+	 * @param columns The number of columns of the lattice.
+	 * @param rows The number of rows of the lattice.
+	 * @param maxDistance The largest distance that will be computed.
+	 * @return The distances of the points of the lattice, row by row. The
+	 * distance of a covered pixel is 0.
+	 */
+	public int[] getDistances(int firstX, int firstY, int interval, int columns,
+			int rows, int maxDistance)
+	{
+		int[] distances=new int[rows*columns];
+
+		/*The pixel rows that can be closer than the maximum distance to one
+		 * of the points of the lattice.*/
+		int firstRow=Math.max(0, firstY-maxDistance);
+		int lastRow=Math.min(width-1, firstY+(rows-1)*interval+maxDistance);
+
+		/*The first pass of the transform: the horizontal distance between each
+		 * column of the lattice and the closest covered pixel in each row.*/
+		int[] horizontalDistances=new int[(lastRow-firstRow+1)*columns];
+		for(int y=firstRow;y<=lastRow;y++)
+		{
+			computeHorizontalDistances(y, firstX, interval, columns, maxDistance,
+					horizontalDistances, (y-firstRow)*columns);
+		}
+
+		/*The second pass: the distance of a point is the smallest value among
+		 * the rows above and below it of the largest between the vertical
+		 * distance to that row and the horizontal distance in that row.*/
+		for(int i=0;i<rows;i++)
+		{
+			int y=firstY+i*interval;
+			for(int j=0;j<columns;j++)
+			{
+				int distance=maxDistance;
+
+				/*Rows further away vertically than the best distance found so
+				 * far can not give a smaller one.*/
+				for(int dy=0;dy<distance;dy++)
+				{
+					if(y-dy>=firstRow && y-dy<=lastRow)
+					{
+						distance=Math.min(distance, Math.max(dy,
+								horizontalDistances[(y-dy-firstRow)*columns+j]));
+					}
+					if(y+dy>=firstRow && y+dy<=lastRow)
+					{
+						distance=Math.min(distance, Math.max(dy,
+								horizontalDistances[(y+dy-firstRow)*columns+j]));
+					}
+				}
+
+				distances[i*columns+j]=distance;
+			}
+		}
+
+		return distances;
+	}
+
+	/**
+	 * Calculates the horizontal distance between each column of a lattice and
+	 * the closest covered pixel in one row of pixels. The row is swept once 
+	 * from left to right to find the closest covered pixel to the left of 
+	 * each column, then once from right to left for the closest one to the
+	 * right, so each part of the row is only looked at twice.
+	 * @param y The y coordinate of the row.
+	 * @param firstX The x coordinate of the first column of the lattice.
+	 * @param interval The distance between neighbouring columns of the lattice.
+	 * @param columns The number of columns of the lattice.
+	 * @param maxDistance The largest distance that will be computed.
+	 * @param distances The array the distances are put in.
+	 * @param offset The position in the array where the distance of the first
+	 * column is put.
+	 */
+	private void computeHorizontalDistances(int y, int firstX, int interval, 
+			int columns, int maxDistance, int[] distances, int offset)
+	{
+		int rowStart=y*wordsPerRow;
+		
+		/*Sweep from left to right, remembering the last covered pixel found.*/
+		int lastCovered=-1;
+		int from=0;
+		for(int j=0;j<columns;j++)
+		{
+			int x=firstX+j*interval;
+			
+			//only look at the pixels after the previous column
+			int covered=getLastOccupied(rowStart, from, x);
+			if(covered!=-1)
+			{
+				lastCovered=covered;
+			}
+			from=x+1;
+			
+			distances[offset+j]=(lastCovered==-1) ? maxDistance :
+				Math.min(maxDistance, x-lastCovered);
+		}
+		
+		/*Sweep from right to left, remembering the first covered pixel found.*/
+		int firstCovered=-1;
+		int to=length-1;
+		for(int j=columns-1;j>=0;j--)
+		{
+			int x=firstX+j*interval;
+			
+			//only look at the pixels before the previous column
+			int covered=getFirstOccupied(rowStart, x, to);
+			if(covered!=-1)
+			{
+				firstCovered=covered;
+			}
+			to=x-1;
+			
+			if(firstCovered!=-1)
+			{
+				distances[offset+j]=Math.min(distances[offset+j], firstCovered-x);
+			}
+		}
+	}
+	
+	/**
+	 * Finds the first covered pixel between 2 pixels of a row.
+	 * @param rowStart The position in the bit array of the first element of
+	 * the row.
+	 * @param from The x coordinate of the first pixel looked at.
+	 * @param to The x coordinate of the last pixel looked at.
+	 * @return The x coordinate of the first covered pixel, or -1 if there is
+	 * none between the 2 pixels.
+	 */
+	private int getFirstOccupied(int rowStart, int from, int to)
+	{
+		return getFirstSet(occupied, rowStart, from, to);
+	}
+	
+	/**
+	 * Finds the first pixel whose bit is set between 2 pixels of a row.
+	 * @param bits The bits of the pixels, laid out like the covered pixels.
+	 * @param rowStart The position in the bit array of the first element of
+	 * the row.
+	 * @param from The x coordinate of the first pixel looked at.
+	 * @param to The x coordinate of the last pixel looked at.
+	 * @return The x coordinate of the first pixel whose bit is set, or -1 if
+	 * there is none between the 2 pixels.
+	 */
+	private int getFirstSet(long[] bits, int rowStart, int from, int to)
+	{
+		if(from>to)
+		{
+			return -1;
+		}
+		
+		/*Go through the elements of the bit array from left to right, ignoring
+		 * the bits before the first pixel.*/
+		long wordBits=bits[rowStart+from/BITS_PER_WORD]&(-1L<<from);
+		for(int word=from/BITS_PER_WORD;word<=to/BITS_PER_WORD;)
+		{
+			if(wordBits!=0)
+			{
+				int pixel=word*BITS_PER_WORD+Long.numberOfTrailingZeros(wordBits);
+				return pixel<=to ? pixel : -1;
+			}
+			
+			word++;
+			if(word<=to/BITS_PER_WORD)
+			{
+				wordBits=bits[rowStart+word];
+			}
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * Finds the last covered pixel between 2 pixels of a row.
+	 * @param rowStart The position in the bit array of the first element of
+	 * the row.
+	 * @param from The x coordinate of the first pixel looked at.
+	 * @param to The x coordinate of the last pixel looked at.
+	 * @return The x coordinate of the last covered pixel, or -1 if there is
+	 * none between the 2 pixels.
+	 */
+	private int getLastOccupied(int rowStart, int from, int to)
+	{
+		if(from>to)
+		{
+			return -1;
+		}
+		
+		/*Go through the elements of the bit array from right to left, ignoring
+		 * the bits after the last pixel.*/
+		long bits=occupied[rowStart+to/BITS_PER_WORD]&(-1L>>>(BITS_PER_WORD-1-
+				to%BITS_PER_WORD));
+		for(int word=to/BITS_PER_WORD;word>=from/BITS_PER_WORD;)
+		{
+			if(bits!=0)
+			{
+				int pixel=word*BITS_PER_WORD+BITS_PER_WORD-1-
+						Long.numberOfLeadingZeros(bits);
+				return pixel>=from ? pixel : -1;
+			}
+			
+			word--;
+			if(word>=from/BITS_PER_WORD)
+			{
+				bits=occupied[rowStart+word];
+			}
+		}
+		
+		return -1;
+	}
+}
@@ -0,0 +1,359 @@
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> PathBuffer.java
+ * @version 1.0
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>PathBuffer.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class holds a path of the graph of a Greenfoot recreation of the
+ * Wii Tanks game for the Nintendo Wii as the indexes of it's nodes, in an
+ * array used as a ring. Nodes can be added and removed at both ends without
+ * moving the others, so a tank can remove the nodes it has reached from the
+ * start of it's path and put a detour in front of the rest.
+ *
+ * <p>A tank keeps the same buffer for all of it's paths, and the graph fills
+ * it in place, so following paths and planning new ones does not make any
+ * objects. The array only grows, doubling it's length, when a path does not
+ * fit, so after the first few paths a buffer is long enough for every path
+ * of a level.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ */
+public class PathBuffer
+{
+	/**The number of nodes a new buffer has room for, which is enough for most
+	 * paths of a level. It must be a power of 2. Its value is {@value}.*/
+	private static final int DEFAULT_CAPACITY=64;
+
+	/**The indexes of the nodes of the path, starting at the head and going
+	 * around to the start of the array. The length is a power of 2.*/
+	private int[] nodes;
+
+	/**The position in the array of the first node of the path.*/
+	private int head;
+
+	/**The number of nodes in the path.*/
+	private int size;
+
+	/**Makes a new empty buffer with room for the default number of nodes.*/
+	public PathBuffer()
+	{
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Makes a new empty buffer with room for at least the given number of
+	 * nodes.
+	 * @param capacity The number of nodes the buffer has room for before it
+	 * grows.
+	 */
+	public PathBuffer(int capacity)
+	{
+		int length=1;
+		while(length<capacity)
+		{
+			length<<=1;
+		}
+
+		nodes=new int[length];
+		head=0;
+		size=0;
+	}
+
+	/**Removes every node from this buffer, keeping it's array.*/
+	public void clear()
+	{
+		head=0;
+		size=0;
+	}
+
+	/**
+	 * Checks if this buffer has no nodes.
+	 * @return True if the path is empty, false if not.
+	 */
+	public boolean isEmpty()
+	{
+		return size==0;
+	}
+
+	/**
+	 * Getter for the number of nodes in this buffer.
+	 * @return The number of nodes of the path.
+	 */
+	public int size()
+	{
+		return size;
+	}
+
+	/**
+	 * Getter for the number of nodes this buffer has room for before it
+	 * grows.
+	 * @return The length of the array of this buffer.
+	 */
+	public int getCapacity()
+	{
+		return nodes.length;
+	}
+
+	/**
+	 * Gets a node of the path.
+	 * @param position The position of the node in the path, from 0 for the
+	 * first node.
+	 * @return The index of the node.
+	 * @throws IndexOutOfBoundsException If there is no node at that position.
+	 */
+	public int get(int position)
+	{
+		checkPosition(position);
+		return nodes[(head+position)&(nodes.length-1)];
+	}
+
+	/**
+	 * Replaces a node of the path.
+	 * @param position The position of the node in the path, from 0 for the
+	 * first node.
+	 * @param node The index of the new node.
+	 * @throws IndexOutOfBoundsException If there is no node at that position.
+	 */
+	public void set(int position, int node)
+	{
+		checkPosition(position);
+		nodes[(head+position)&(nodes.length-1)]=node;
+	}
+
+	/**
+	 * Gets the first node of the path.
+	 * @return The index of the first node.
+	 * @throws IndexOutOfBoundsException If the path is empty.
+	 */
+	public int getFirst()
+	{
+		return get(0);
+	}
+
+	/**
+	 * Gets the last node of the path.
+	 * @return The index of the last node.
+	 * @throws IndexOutOfBoundsException If the path is empty.
+	 */
+	public int getLast()
+	{
+		return get(size-1);
+	}
+
+	/**
+	 * Removes the first node of the path.
+	 * @return The index of the removed node.
+	 * @throws IndexOutOfBoundsException If the path is empty.
+	 */
+	public int removeFirst()
+	{
+		int node=get(0);
+		head=(head+1)&(nodes.length-1);
+		size--;
+		return node;
+	}
+
+	/**
+	 * Adds a node at the end of the path.
+	 * @param node The index of the node.
+	 */
+	public void add(int node)
+	{
+		ensureCapacity(size+1);
+		nodes[(head+size)&(nodes.length-1)]=node;
+		size++;
+	}
+
+	/**
+	 * Adds a node at the start of the path.
+	 * @param node The index of the node.
+	 */
+	public void addFirst(int node)
+	{
+		ensureCapacity(size+1);
+		head=(head-1)&(nodes.length-1);
+		nodes[head]=node;
+		size++;
+	}
+
+	/**
+	 * Adds the nodes of another buffer at the end of the path, in their
+	 * order.
+	 * @param path The buffer whose nodes are added, which is not changed.
+	 */
+	public void addAll(PathBuffer path)
+	{
+		ensureCapacity(size+path.size);
+		for(int i=0;i<path.size;i++)
+		{
+			add(path.get(i));
+		}
+	}
+
+	/**
+	 * Adds the nodes of another buffer at the start of the path, in their
+	 * order, so the path goes through them before it's first node.
+	 * @param path The buffer whose nodes are added, which is not changed.
+	 */
+	public void addAllFirst(PathBuffer path)
+	{
+		ensureCapacity(size+path.size);
+		for(int i=path.size-1;i>=0;i--)
+		{
+			addFirst(path.get(i));
+		}
+	}
+
+	/**
+	 * Adds the indexes of the nodes of a list at the end of the path, for
+	 * paths made by the planners, which are lists.
+	 * @param path A list of graph nodes.
+	 */
+	public void addAll(List<GraphPoint> path)
+	{
+		ensureCapacity(size+path.size());
+		for(GraphPoint node: path)
+		{
+			add(node.getIndex());
+		}
+	}
+
+	/**
+	 * Removes the nodes after the given number of nodes from the start of the
+	 * path.
+	 * @param newSize The number of nodes kept.
+	 * @throws IndexOutOfBoundsException If the path has fewer nodes than
+	 * that.
+	 */
+	public void truncate(int newSize)
+	{
+		if(newSize<0 || newSize>size)
+		{
+			throw new IndexOutOfBoundsException("Size: "+newSize+", path size: "+
+					size);
+		}
+
+		size=newSize;
+	}
+
+	/**
+	 * Gets the position of the first node of the path with the given index.
+	 * @param node The index of a node.
+	 * @return The position of the node in the path, or -1 if it is not in
+	 * the path.
+	 */
+	public int indexOf(int node)
+	{
+		for(int i=0;i<size;i++)
+		{
+			if(nodes[(head+i)&(nodes.length-1)]==node)
+			{
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Copies the nodes of the path to a new array, for example to keep the
+	 * path in the path cache of a graph.
+	 * @return The indexes of the nodes of the path, from the first to the
+	 * last.
+	 */
+	public int[] toArray()
+	{
+		int[] path=new int[size];
+		for(int i=0;i<size;i++)
+		{
+			path[i]=nodes[(head+i)&(nodes.length-1)];
+		}
+
+		return path;
+	}
+
+	/**
+	 * Makes a list of the nodes of the path, for the callers of the graph that
+	 * take paths as lists.
+	 * @param graph The graph of the path.
+	 * @return A new LinkedList of graph nodes (GraphPoint objects) from the
+	 * first node to the last.
+	 */
+	public LinkedList<GraphPoint> toList(Graph graph)
+	{
+		LinkedList<GraphPoint> path=new LinkedList<>();
+		for(int i=0;i<size;i++)
+		{
+			path.add(graph.getNode(nodes[(head+i)&(nodes.length-1)]));
+		}
+
+		return path;
+	}
+
+	/**
+	 * Makes the array of this buffer long enough for the given number of
+	 * nodes, doubling it's length until it is, and moves the nodes to the
+	 * start of the new array.
+	 * @param capacity The number of nodes the buffer needs room for.
+	 */
+	private void ensureCapacity(int capacity)
+	{
+		if(capacity<=nodes.length)
+		{
+			return;
+		}
+
+		int length=nodes.length;
+		while(length<capacity)
+		{
+			length<<=1;
+		}
+
+		int[] newNodes=new int[length];
+		for(int i=0;i<size;i++)
+		{
+			newNodes[i]=nodes[(head+i)&(nodes.length-1)];
+		}
+
+		nodes=newNodes;
+		head=0;
+	}
+
+	/**
+	 * Checks that the path has a node at the given position.
+	 * @param position A position in the path.
+	 * @throws IndexOutOfBoundsException If there is no node at that position.
+	 */
+	private void checkPosition(int position)
+	{
+		if(position<0 || position>=size)
+		{
+			throw new IndexOutOfBoundsException("Position: "+position+
+					", path size: "+size);
+		}
+	}
+}
@@ -0,0 +1,291 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p><b>File name: </b> PathCache.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>PathCache.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a cache of the shortest paths computed by the graph
+ * of a Greenfoot recreation of the Wii Tanks game for the Nintendo Wii. Tanks
+ * often ask for paths between the same nodes, for example when they go back
+ * to similar destinations or chase the player from nearby places, so the
+ * paths are remembered by their source and destination nodes. When the cache
+ * is full, the path that was used the longest time ago is forgotten.
+ *
+ * <p>Paths are kept as arrays of node indexes, so tanks that change the paths
+ * they are given do not change the cached ones. The cache counts how many
+ * times a path was found in it and how many times it was not, so it's
+ * capacity can be chosen. It can be used by several threads at once.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - A cache turned off no longer looks paths up, since the key of a
+ * path is boxed to look it up.
+ */
+public class PathCache
+{
+	/**The paths in this cache with their lengths, by their source and
+	 * destination node indexes, in the order they were last used.*/
+	private final LinkedHashMap<Long, CachedPath> paths;
+
+	/**The largest number of paths this cache holds.*/
+	private int capacity;
+
+	/**The number of times a path was found in this cache.*/
+	private long hits;
+
+	/**The number of times a path was not found in this cache.*/
+	private long misses;
+
+	/**
+	 * A path in the cache, with the indexes of it's nodes and it's length.
+	 */
+	private static class CachedPath
+	{
+		/**The indexes of the nodes of the path, from the source node to the
+		 * destination node.*/
+		private final int[] nodes;
+
+		/**The length of the path.*/
+		private final double length;
+
+		/**
+		 * Makes a new cached path.
+		 * @param nodes The indexes of the nodes of the path.
+		 * @param length The length of the path.
+		 */
+		private CachedPath(int[] nodes, double length)
+		{
+			this.nodes=nodes;
+			this.length=length;
+		}
+	}
+
+	/**
+	 * Makes a new empty cache that holds up to the given number of paths.
+	 * @param capacity The largest number of paths the cache holds. A capacity
+	 * of 0 means no paths are cached.
+	 */
+	public PathCache(int capacity)
+	{
+		this.capacity=capacity;
+		hits=0;
+		misses=0;
+
+		/*A LinkedHashMap in access order keeps the path used the longest time
+		 * ago first, so it is the one removed when the cache is full.*/
+		paths=new LinkedHashMap<Long, CachedPath>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest)
+			{
+				return size()>PathCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cached path between the given nodes.
+	 * @param source The index of the source node.
+	 * @param target The index of the destination node.
+	 * @return The indexes of the nodes of the path, or null if it is not in
+	 * the cache. The returned array must not be changed.
+	 */
+	public synchronized int[] get(int source, int target)
+	{
+		/*A cache turned off has no paths, so the key is not boxed.*/
+		CachedPath path=(capacity>0) ? paths.get(getKey(source, target)) : null;
+
+		/*Count if the path was found or not.*/
+		if(path==null)
+		{
+			misses++;
+			return null;
+		}
+
+		hits++;
+		return path.nodes;
+	}
+
+	/**
+	 * Puts a path in the cache, removing the path used the longest time ago
+	 * if the cache is full.
+	 * @param nodes The indexes of the nodes of the path, from the source node
+	 * to the destination node.
+	 * @param length The length of the path.
+	 */
+	public synchronized void put(int[] nodes, double length)
+	{
+		if(capacity>0)
+		{
+			paths.put(getKey(nodes[0], nodes[nodes.length-1]),
+					new CachedPath(nodes, length));
+		}
+	}
+
+	/**
+	 * Removes the paths that may no longer be shortest paths after nodes have
+	 * been added to the graph, for example because a wall block was destroyed.
+	 * A path is removed if it passes through one of the changed nodes, or if
+	 * going through one of them could be shorter than the path, meaning the
+	 * octile distances between the node and both ends of the path add up to
+	 * less than it's length.
+	 * @param graph The graph the paths are in.
+	 * @param changedNodes The indexes of the nodes whose edges changed.
+	 */
+	public synchronized void invalidate(Graph graph, int[] changedNodes)
+	{
+		//mark the changed nodes, to check quickly if a path passes through them
+		boolean[] changed=new boolean[graph.getNodeCount()];
+		for(int node: changedNodes)
+		{
+			changed[node]=true;
+		}
+
+		Iterator<CachedPath> iterator=paths.values().iterator();
+		while(iterator.hasNext())
+		{
+			CachedPath path=iterator.next();
+			if(isAffected(graph, path, changed, changedNodes))
+			{
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Checks if a cached path may no longer be a shortest path.
+	 * @param graph The graph the path is in.
+	 * @param path The cached path.
+	 * @param changed The flag of each node telling if it has changed.
+	 * @param changedNodes The indexes of the changed nodes.
+	 * @return True if the path passes through a changed node or a changed
+	 * node could give a shorter path, false if not.
+	 */
+	private static boolean isAffected(Graph graph, CachedPath path,
+			boolean[] changed, int[] changedNodes)
+	{
+		int source=path.nodes[0];
+		int target=path.nodes[path.nodes.length-1];
+
+		for(int node: changedNodes)
+		{
+			if(graph.getOctileDistance(source, node)+graph.getOctileDistance(node,
+					target)<path.length-1e-9)
+			{
+				return true;
+			}
+		}
+
+		for(int node: path.nodes)
+		{
+			if(changed[node])
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**Removes all paths from this cache.*/
+	public synchronized void clear()
+	{
+		paths.clear();
+	}
+
+	/**
+	 * Sets the largest number of paths this cache holds, removing the paths
+	 * used the longest time ago if there are more.
+	 * @param capacity The new capacity of the cache. A capacity of 0 means no
+	 * paths are cached.
+	 */
+	public synchronized void setCapacity(int capacity)
+	{
+		this.capacity=capacity;
+
+		Iterator<Long> iterator=paths.keySet().iterator();
+		while(paths.size()>capacity)
+		{
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * Getter for the largest number of paths this cache holds.
+	 * @return The capacity of this cache.
+	 */
+	public synchronized int getCapacity()
+	{
+		return capacity;
+	}
+
+	/**
+	 * Getter for the number of paths in this cache.
+	 * @return The number of cached paths.
+	 */
+	public synchronized int size()
+	{
+		return paths.size();
+	}
+
+	/**
+	 * Getter for the number of times a path was found in this cache.
+	 * @return The number of cache hits.
+	 */
+	public synchronized long getHits()
+	{
+		return hits;
+	}
+
+	/**
+	 * Getter for the number of times a path was not found in this cache.
+	 * @return The number of cache misses.
+	 */
+	public synchronized long getMisses()
+	{
+		return misses;
+	}
+
+	/**Sets the number of cache hits and misses back to 0.*/
+	public synchronized void resetCounters()
+	{
+		hits=0;
+		misses=0;
+	}
+
+	/**
+	 * Calculates the key of the path between 2 nodes.
+	 * @param source The index of the source node.
+	 * @param target The index of the destination node.
+	 * @return A number that is different for each pair of nodes.
+	 */
+	private static long getKey(int source, int target)
+	{
+		return ((long) source<<32)|(target&0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,272 @@
+import java.util.LinkedList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p><b>File name: </b> PathPlanningPool.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>PathPlanningPool.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class computes the paths of the tanks of a Greenfoot recreation of
+ * the Wii Tanks game for the Nintendo Wii on a pool of worker threads, so on
+ * machines with several processors, planning the paths of many tanks does not
+ * make the acts of the world take longer. A path query or plan is submitted
+ * as a task and a future of it's path is returned at once, which the tank
+ * checks in later acts until the path is ready.
+ *
+ * <p>The workers never read the graph of the world, since wall blocks may be
+ * removed from it while they search. Each task gets an immutable snapshot of
+ * the graph and a copy of the costs it is planned with, taken when it is
+ * submitted. The queue of tasks is bounded, and when it is full no future is
+ * returned, so the path has to be planned in the acts of the world instead.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Next-hop tables of graphs can now be made by the workers.
+ */
+public class PathPlanningPool
+{
+	/**The largest number of tasks waiting for a worker. A level has a few
+	 * dozen tanks at most, and each one waits for one path at a time. Its
+	 * value is {@value}.*/
+	private static final int QUEUE_CAPACITY=64;
+
+	/**The largest number of workers of the shared pool. Its value is
+	 * {@value}.*/
+	private static final int MAX_SHARED_WORKERS=4;
+
+	/**The time in seconds after which an idle worker is stopped. Its value is
+	 * {@value}.*/
+	private static final long KEEP_ALIVE_TIME=30;
+
+	/**The pool shared by all the worlds, made when it is first asked for.*/
+	private static PathPlanningPool sharedPool;
+
+	/**The executor whose threads are the workers of this pool.*/
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * Makes a new pool with the given number of workers. The workers are
+	 * daemon threads, started when there are tasks and stopped when they are
+	 * idle for a while, so an unused pool does not keep the game running.
+	 * @param workerCount The number of workers of the pool.
+	 */
+	public PathPlanningPool(int workerCount)
+	{
+		executor=new ThreadPoolExecutor(workerCount, workerCount, KEEP_ALIVE_TIME,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY),
+				new ThreadFactory()
+				{
+					@Override
+					public Thread newThread(Runnable task)
+					{
+						Thread worker=new Thread(task, "Path planner");
+						worker.setDaemon(true);
+						return worker;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Gets the pool shared by all the worlds, which has one worker for each
+	 * processor other than the one the simulation runs on.
+	 * @return The shared pool, or null if there is only one processor, since
+	 * the workers would then compete with the simulation anyway.
+	 */
+	public static synchronized PathPlanningPool getSharedPool()
+	{
+		int workerCount=Math.min(MAX_SHARED_WORKERS,
+				Runtime.getRuntime().availableProcessors()-1);
+
+		if(workerCount<1)
+		{
+			return null;
+		}
+
+		if(sharedPool==null)
+		{
+			sharedPool=new PathPlanningPool(workerCount);
+		}
+
+		return sharedPool;
+	}
+
+	/**
+	 * Submits a query for the cheapest path between the given coordinates in
+	 * the game world and the target node, which is computed by a worker in a
+	 * snapshot of the given graph as it is now.
+	 * @param graph The graph the path is computed in.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @param costLayer The extra cost of entering each node, or null for the
+	 * shortest path. The costs are copied, so later changes of the layer do
+	 * not change the path.
+	 * @return A future of the path, whose result is null if there is no path,
+	 * or null if the queue of this pool is full.
+	 */
+	public Future<LinkedList<GraphPoint>> submitShortestPath(Graph graph,
+			final int startX, final int startY, final GraphPoint target,
+			CostLayer costLayer)
+	{
+		final Graph snapshot=graph.getSnapshot();
+		final CostLayer costs=(costLayer==null) ? null : new CostLayer(costLayer);
+
+		return submit(new Callable<LinkedList<GraphPoint>>()
+		{
+			@Override
+			public LinkedList<GraphPoint> call()
+			{
+				return snapshot.getShortestPath(startX, startY, target, costs);
+			}
+		});
+	}
+
+	/**
+	 * Starts a new plan of the given planner and submits it, so a worker
+	 * finishes it in a snapshot of the planner's graph as it is now. When the
+	 * plan is finished, the planner is moved back to it's graph, so it can
+	 * repair the path when the graph changes. The planner must not be used
+	 * until the future is done.
+	 * @param planner The planner whose plan is started.
+	 * @param startX The starting x coordinate.
+	 * @param startY The starting y coordinate.
+	 * @param target The node in the graph that is the destination.
+	 * @param costLayer The extra cost of entering each node, or null for the
+	 * shortest path. The costs are copied by the planner.
+	 * @return A future of the planned path, whose result is null if there is
+	 * no path, or null if the queue of this pool is full, in which case no
+	 * plan is started.
+	 */
+	public Future<LinkedList<GraphPoint>> submitPlan(final DStarLitePlanner planner,
+			int startX, int startY, GraphPoint target, CostLayer costLayer)
+	{
+		final Graph graph=planner.getGraph();
+
+		/*The plan is started in the snapshot by this thread, so it gets the
+		 * costs the layer has now.*/
+		planner.moveTo(graph.getSnapshot());
+		planner.startPlan(startX, startY, target, costLayer);
+
+		Future<LinkedList<GraphPoint>> future=submit(
+				new Callable<LinkedList<GraphPoint>>()
+		{
+			@Override
+			public LinkedList<GraphPoint> call()
+			{
+				try
+				{
+					planner.continuePlan(Integer.MAX_VALUE);
+					return planner.getPlannedPath();
+				}
+				finally
+				{
+					planner.moveTo(graph);
+				}
+			}
+		});
+
+		/*If the plan could not be submitted, the planner is left as it was.*/
+		if(future==null)
+		{
+			planner.cancelPlan();
+			planner.moveTo(graph);
+		}
+
+		return future;
+	}
+
+	/**
+	 * Submits the making of the next-hop table of a snapshot of the given
+	 * graph as it is now, which a worker makes on it's own.
+	 * @param graph The graph whose next-hop table is made.
+	 * @return A future of the table, or null if the queue of this pool is 
+	 * full.
+	 */
+	public Future<NextHopTable> submitNextHopTable(Graph graph)
+	{
+		final Graph snapshot=graph.getSnapshot();
+
+		return submit(new Callable<NextHopTable>()
+		{
+			@Override
+			public NextHopTable call()
+			{
+				return new NextHopTable(snapshot, 1);
+			}
+		});
+	}
+
+	/**
+	 * Gives a task to the workers of this pool.
+	 * @param task The task.
+	 * @return A future of the result of the task, or null if the queue of
+	 * this pool is full.
+	 */
+	private <T> Future<T> submit(Callable<T> task)
+	{
+		try
+		{
+			return executor.submit(task);
+		}
+		catch(RejectedExecutionException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * Getter for the number of tasks submitted to this pool that are not
+	 * finished yet.
+	 * @return The number of waiting and running tasks.
+	 */
+	public int getPendingCount()
+	{
+		return executor.getQueue().size()+executor.getActiveCount();
+	}
+
+	/**
+	 * Getter for the number of workers of this pool.
+	 * @return The number of worker threads.
+	 */
+	public int getWorkerCount()
+	{
+		return executor.getCorePoolSize();
+	}
+
+	/**
+	 * Stops the workers of this pool once the submitted tasks are finished.
+	 * No more tasks can be submitted after that.
+	 */
+	public void shutdown()
+	{
+		executor.shutdown();
+	}
+}
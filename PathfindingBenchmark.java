@@ -0,0 +1,1793 @@
+import greenfoot.*;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p><b>File name: </b> PathfindingBenchmark.java
+ * @version 1.21
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>PathfindingBenchmark.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class measures how fast the path finding graph of a Greenfoot
+ * recreation of the Wii Tanks game for the Nintendo Wii answers path queries
+ * on the graphs of the real levels of the game. Its static methods can be
+ * called from the Greenfoot class menu and print their results to the
+ * terminal.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class, with a benchmark of the indexed heap used by
+ * the graph against a PriorityQueue.
+ * <p>	-1.1 - Added a benchmark that compares the search modes of the graph.
+ * <p>	-1.2 - The PriorityQueue baseline now reads the edges of the graph from
+ * it's neighbour masks.
+ * <p>	-1.3 - Added a benchmark of the time taken to build the graph of each 
+ * level.
+ * <p>	-1.4 - Added a benchmark of the repair of paths when wall blocks are 
+ * destroyed.
+ * <p>	-1.5 - Added a benchmark of the path cache of the graph. The other
+ * benchmarks turn the path cache off, so they measure the searches.
+ * <p>	-1.6 - Added a benchmark of the flow field used to chase the player.
+ * <p>	-1.7 - Added a benchmark of the smoothing of paths.
+ * <p>	-1.8 - Added a benchmark of the any-angle paths of Theta*.
+ * <p>	-1.9 - Added a benchmark of the planning scheduler.
+ * <p>	-1.10 - Added a benchmark of the planning pool.
+ * <p>	-1.11 - Added a benchmark of hierarchical paths in large arenas made of
+ * the levels of the game.
+ * <p>	-1.12 - Added a benchmark of the landmarks of the graph.
+ * <p>	-1.13 - Added a benchmark of the next-hop table of the graph.
+ * <p>	-1.14 - Added a benchmark of cooperative planning with a reservation
+ * table, which counts the conflicts of the smoothed paths the tanks follow
+ * and reserve.
+ * <p>	-1.15 - Added a benchmark of the bidirectional search on paths across
+ * the map.
+ * <p>	-1.16 - Added a benchmark of the graph cache.
+ * <p>	-1.17 - Added a benchmark of the quadtree search mode.
+ * <p>	-1.18 - Added a benchmark of the memory allocated for the paths of
+ * tanks as lists and as path buffers.
+ * <p>	-1.19 - Added a benchmark of paths for tanks that need more clearance
+ * from the walls.
+ * <p>	-1.20 - The tanks of the benchmark of cooperative planning now plan 
+ * with the clearance of the default tank.
+ * <p>	-1.21 - The benchmark of replanning now updates the graph before each
+ * wall block is removed from the world.
+ */
+public class PathfindingBenchmark
+{
+	/**The number of the last level of the game. Its value is {@value}.*/
+	private static final int LEVELS=10;
+
+	/**The number of random path queries made on each level. Its value is
+	 * {@value}.*/
+	private static final int QUERIES=300;
+
+	/**The number of times the queries are run before being timed, so that
+	 * the code has been compiled by the JVM when it is timed. Its value is
+	 * {@value}.*/
+	private static final int WARM_UP_ROUNDS=3;
+
+	/**The seed of the random number generator used to pick queries, so each
+	 * run of a benchmark makes the same queries. Its value is {@value}.*/
+	private static final long SEED=2018;
+
+	/**The number of sources and destinations the queries of the path cache
+	 * benchmark are made between. Its value is {@value}.*/
+	private static final int PLACES=12;
+
+	/**The number of tanks planning paths at the same time in the benchmark of
+	 * cooperative planning. Its value is {@value}.*/
+	private static final int TEAM_SIZE=8;
+
+	/**The speed in pixels per act of the tanks in the benchmark of
+	 * cooperative planning. Its value is {@value}.*/
+	private static final int TANK_SPEED=2;
+
+	/**The clearances of the tanks of the clearance benchmark, from the one
+	 * every node has room for to the largest one the graph keeps.*/
+	private static final int[] CLEARANCES={GraphPoint.WALL_OFFSET, 
+			GraphPoint.WALL_OFFSET+8, GraphPoint.WALL_OFFSET+16, Graph.MAX_CLEARANCE};
+
+	/**The distance the tanks keep from the mines in the benchmark of path
+	 * buffers. Its value is {@value}.*/
+	private static final int MINE_AVOIDANCE_DISTANCE=Tank.LENGTH;
+
+	/**The bean of the threads of the JVM, which counts the bytes allocated by
+	 * each thread. It is only got once, since getting it allocates memory.*/
+	private static final ThreadMXBean THREAD_BEAN=ManagementFactory.getThreadMXBean();
+
+	/**Compares the time Diejkstra's algorithm takes on the graph of each level
+	 * when using a PriorityQueue where decreasing the distance of a node means
+	 * removing and re-adding it, with the indexed heap the graph uses. The
+	 * time taken by the A* search mode of the graph is also printed.*/
+	public static void benchmarkHeap()
+	{
+		System.out.println("Level | nodes | PriorityQueue Dijkstra | heap Dijkstra"
+				+ " | heap A* (microseconds per query)");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			double priorityQueueTime=0;
+			double dijkstraTime=0;
+			double aStarTime=0;
+
+			/*Run every query several times, keeping only the times of the
+			 * last round so the JVM has warmed up.*/
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				long start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					priorityQueueDijkstra(graph, query[0], query[1]);
+				}
+				priorityQueueTime=getMicrosPerQuery(start, queries.length);
+
+				graph.setSearchMode(Graph.SearchMode.DIJKSTRA);
+				start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					graph.getShortestPath(query[0].getX(), query[0].getY(), query[1]);
+				}
+				dijkstraTime=getMicrosPerQuery(start, queries.length);
+
+				graph.setSearchMode(Graph.SearchMode.A_STAR);
+				start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					graph.getShortestPath(query[0].getX(), query[0].getY(), query[1]);
+				}
+				aStarTime=getMicrosPerQuery(start, queries.length);
+			}
+
+			System.out.println(String.format("%5d | %5d | %22.1f | %13.1f | %7.1f",
+					level, countNodes(graph), priorityQueueTime, dijkstraTime,
+					aStarTime));
+		}
+	}
+
+	/**Prints, for the graph of each level, the average number of nodes
+	 * expanded and the average time taken by a query in each search mode of
+	 * the graph, for the same random queries.*/
+	public static void benchmarkSearchModes()
+	{
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			System.out.println("Level "+level+" ("+countNodes(graph)+" nodes)");
+
+			for(Graph.SearchMode mode: Graph.SearchMode.values())
+			{
+				graph.setSearchMode(mode);
+				long expandedNodes=0;
+				double time=0;
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					expandedNodes=0;
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						graph.getShortestPath(query[0].getX(), query[0].getY(),
+								query[1]);
+						expandedNodes+=graph.getLastExpandedNodes();
+					}
+					time=getMicrosPerQuery(start, queries.length);
+				}
+
+				System.out.println(String.format("  %-12s %8.1f expanded nodes %8.1f"
+						+ " microseconds per query", mode, 
+						(double)expandedNodes/queries.length, time));
+			}
+		}
+	}
+
+	/**Compares the time taken to build the graph of each level with it's 
+	 * occupancy grid, with the time taken to ask the world for the walls at 
+	 * the corners of each point of the graph, like the graph used to do. The
+	 * number of points where the 2 ways disagree is printed as well, and 
+	 * should always be 0.*/
+	public static void benchmarkGraphBuild()
+	{
+		System.out.println("Level | nodes | getObjectsAt | occupancy grid"
+				+ " (microseconds per graph) | different points");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			TankWorld world=TankWorld.buildLevel(level);
+			Graph graph=null;
+			double worldQueryTime=0;
+			double gridTime=0;
+			int differentPoints=0;
+
+			/*Build the graph several times, keeping only the times of the last
+			 * round so the JVM has warmed up.*/
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				graph=new Graph(world);
+				gridTime=graph.getBuildTime()/1000.0;
+
+				differentPoints=0;
+				long start=System.nanoTime();
+				for(int i=0;i<graph.getNodeCount();i++)
+				{
+					boolean intersecting=GraphPoint.isIntersectingWall(
+							graph.getNodeX(i), graph.getNodeY(i), world);
+					if(intersecting==graph.hasNode(i))
+					{
+						differentPoints++;
+					}
+				}
+				worldQueryTime=(System.nanoTime()-start)/1000.0;
+			}
+
+			System.out.println(String.format("%5d | %5d | %12.1f | %14.1f | %d",
+					level, countNodes(graph), worldQueryTime, gridTime,
+					differentPoints));
+		}
+	}
+
+	/**Compares, on each level with destroyable wall blocks, the work done by
+	 * D* Lite planners to repair their paths after each destroyable wall block
+	 * is removed, with the work done by the A* search mode of the graph to
+	 * compute the same paths again. The number of repaired paths that are 
+	 * longer or shorter than the paths computed again is printed as well, 
+	 * and should always be 0.*/
+	public static void benchmarkReplanning()
+	{
+		System.out.println("Level | walls | repair expanded nodes | A* expanded nodes"
+				+ " | repair | A* (microseconds per path) | different paths");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			TankWorld world=TankWorld.buildLevel(level);
+			Graph graph=new Graph(world);
+			graph.getPathCache().setCapacity(0);
+			List<DestroyableWallBlock> walls=world.getObjects(
+					DestroyableWallBlock.class);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			/*Plan a path for each query with it's own planner, like each tank
+			 * has it's own.*/
+			DStarLitePlanner[] planners=new DStarLitePlanner[queries.length];
+			for(int i=0;i<queries.length;i++)
+			{
+				planners[i]=new DStarLitePlanner(graph);
+				planners[i].plan(queries[i][0].getX(), queries[i][0].getY(),
+						queries[i][1]);
+			}
+
+			long repairNodes=0;
+			long searchNodes=0;
+			long repairTime=0;
+			long searchTime=0;
+			int differentPaths=0;
+
+			/*Destroy the wall blocks one at a time, then repair every path and
+			 * compute it again.*/
+			for(DestroyableWallBlock wall: walls)
+			{
+				/*The world of a level built for the benchmark has no graph of
+				 * it's own, so the graph of the benchmark is updated while the
+				 * wall block is still in the world.*/
+				graph.removeWall(wall, world);
+				world.removeObject(wall);
+
+				for(int i=0;i<queries.length;i++)
+				{
+					long start=System.nanoTime();
+					List<GraphPoint> repairedPath=planners[i].repair(
+							queries[i][0].getX(), queries[i][0].getY());
+					repairTime+=System.nanoTime()-start;
+					repairNodes+=planners[i].getExpandedNodes();
+
+					start=System.nanoTime();
+					List<GraphPoint> newPath=graph.getShortestPath(
+							queries[i][0].getX(), queries[i][0].getY(), queries[i][1]);
+					searchTime+=System.nanoTime()-start;
+					searchNodes+=graph.getLastExpandedNodes();
+
+					if(Math.abs(getLength(repairedPath)-getLength(newPath))>1e-6)
+					{
+						differentPaths++;
+					}
+				}
+			}
+
+			/*Levels without destroyable wall blocks have nothing to repair.*/
+			int paths=walls.size()*queries.length;
+			if(paths>0)
+			{
+				System.out.println(String.format("%5d | %5d | %21.1f | %17.1f | %6.1f"
+						+ " | %3.1f | %d", level, walls.size(), (double)repairNodes/paths,
+						(double)searchNodes/paths, repairTime/1000.0/paths,
+						searchTime/1000.0/paths, differentPaths));
+			}
+		}
+	}
+
+	/**Prints, for the graph of each level and several capacities of it's
+	 * path cache, the share of queries found in the cache and the average
+	 * time taken by a query. Like tanks going back to the same places, the
+	 * queries are between a few sources and a few destinations.*/
+	public static void benchmarkPathCache()
+	{
+		int[] capacities={0, 16, 64, 256};
+		System.out.println("Level | capacity | hit rate | microseconds per query");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			GraphPoint[][] places=makeQueries(graph);
+
+			/*Make queries between the sources and destinations of the first
+			 * few random queries.*/
+			Random random=new Random(SEED);
+			GraphPoint[][] queries=new GraphPoint[QUERIES][];
+			for(int i=0;i<QUERIES;i++)
+			{
+				queries[i]=new GraphPoint[] {places[random.nextInt(PLACES)][0],
+						places[random.nextInt(PLACES)][1]};
+			}
+
+			for(int capacity: capacities)
+			{
+				double time=0;
+				double hitRate=0;
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up. The cache is emptied
+				 * before each round.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					graph.getPathCache().setCapacity(0);
+					graph.getPathCache().setCapacity(capacity);
+					graph.getPathCache().resetCounters();
+
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						graph.getShortestPath(query[0].getX(), query[0].getY(),
+								query[1]);
+					}
+					time=getMicrosPerQuery(start, queries.length);
+					hitRate=(double)graph.getPathCache().getHits()/queries.length;
+				}
+
+				System.out.println(String.format("%5d | %8d | %7.1f%% | %6.1f",
+						level, capacity, hitRate*100, time));
+			}
+		}
+	}
+
+	/**Compares, on the graph of each level and for several numbers of tanks
+	 * chasing the player, the time taken to compute a path for each tank with
+	 * the A* search mode of the graph, with the time taken to compute a flow
+	 * field rooted at the player and follow it from each tank. The player is
+	 * moved to a new node for each round of paths. The number of paths from
+	 * the flow field that are longer or shorter than the ones from A* is 
+	 * printed as well, and should always be 0.*/
+	public static void benchmarkFlowField()
+	{
+		int[] tankCounts={1, 4, 16, 64};
+		System.out.println("Level | tanks | A* | flow field (microseconds per player"
+				+ " move) | different paths");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			for(int tanks: tankCounts)
+			{
+				long searchTime=0;
+				long fieldTime=0;
+				int differentPaths=0;
+				int moves=queries.length/tanks;
+
+				/*Each query gives the node the player moves to, and the tanks
+				 * are at the sources of the next few queries.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					searchTime=0;
+					fieldTime=0;
+					differentPaths=0;
+
+					for(int move=0;move<moves;move++)
+					{
+						GraphPoint player=queries[move][1];
+
+						long start=System.nanoTime();
+						FlowField flowField=new FlowField(graph);
+						flowField.update(player.getIndex());
+						List<List<GraphPoint>> fieldPaths=new ArrayList<>();
+						for(int i=0;i<tanks;i++)
+						{
+							GraphPoint tank=queries[move*tanks+i][0];
+							fieldPaths.add(flowField.getPath(tank.getX(), tank.getY()));
+						}
+						fieldTime+=System.nanoTime()-start;
+
+						start=System.nanoTime();
+						List<List<GraphPoint>> searchPaths=new ArrayList<>();
+						for(int i=0;i<tanks;i++)
+						{
+							GraphPoint tank=queries[move*tanks+i][0];
+							searchPaths.add(graph.getShortestPath(tank.getX(),
+									tank.getY(), player));
+						}
+						searchTime+=System.nanoTime()-start;
+
+						for(int i=0;i<tanks;i++)
+						{
+							if(Math.abs(getLength(fieldPaths.get(i))-getLength(
+									searchPaths.get(i)))>1e-6)
+							{
+								differentPaths++;
+							}
+						}
+					}
+				}
+
+				System.out.println(String.format("%5d | %5d | %6.1f | %6.1f | %d",
+						level, tanks, searchTime/1000.0/moves, fieldTime/1000.0/moves,
+						differentPaths));
+			}
+		}
+	}
+
+	/**Prints, for the graph of each level, the average number of nodes of a
+	 * shortest path before and after it is smoothed, which is the number of
+	 * points a tank steers towards, the average length of the paths before
+	 * and after, and the time taken to smooth a path.*/
+	public static void benchmarkPathSmoothing()
+	{
+		System.out.println("Level | nodes | smoothed nodes | length | smoothed length"
+				+ " | microseconds per path");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			/*Compute the paths once, since only the smoothing is measured.*/
+			List<List<GraphPoint>> paths=new ArrayList<>();
+			for(GraphPoint[] query: queries)
+			{
+				List<GraphPoint> path=graph.getShortestPath(query[0].getX(),
+						query[0].getY(), query[1]);
+				if(path!=null)
+				{
+					paths.add(path);
+				}
+			}
+
+			long nodes=0;
+			long smoothedNodes=0;
+			double length=0;
+			double smoothedLength=0;
+			double time=0;
+
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				nodes=0;
+				smoothedNodes=0;
+				length=0;
+				smoothedLength=0;
+
+				long start=System.nanoTime();
+				List<List<GraphPoint>> smoothedPaths=new ArrayList<>();
+				for(List<GraphPoint> path: paths)
+				{
+					smoothedPaths.add(graph.smoothPath(path));
+				}
+				time=getMicrosPerQuery(start, paths.size());
+
+				for(int i=0;i<paths.size();i++)
+				{
+					nodes+=paths.get(i).size();
+					smoothedNodes+=smoothedPaths.get(i).size();
+					length+=getLength(paths.get(i));
+					smoothedLength+=getLength(smoothedPaths.get(i));
+				}
+			}
+
+			System.out.println(String.format("%5d | %5.1f | %5.1f | %6.1f | %6.1f | %6.1f",
+					level, (double)nodes/paths.size(), (double)smoothedNodes/paths.size(),
+					length/paths.size(), smoothedLength/paths.size(), time));
+		}
+	}
+
+	/**Compares, on the graph of each level, the paths of A*, the paths of A*
+	 * after they are smoothed and the any-angle paths of Theta*, by their 
+	 * average number of nodes, average length and the average time taken to
+	 * get a path.*/
+	public static void benchmarkAnyAngle()
+	{
+		System.out.println("Level | A* | smoothed A* | Theta* (nodes, length, "
+				+ "microseconds per path)");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			StringBuilder line=new StringBuilder(String.format("%5d", level));
+
+			/*Measure A* without and with smoothing, then Theta*.*/
+			for(int way=0;way<3;way++)
+			{
+				graph.setSearchMode(way<2 ? Graph.SearchMode.A_STAR : 
+					Graph.SearchMode.THETA_STAR);
+				long nodes=0;
+				double length=0;
+				int paths=0;
+				double time=0;
+
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					nodes=0;
+					length=0;
+					paths=0;
+
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						List<GraphPoint> path=graph.getShortestPath(query[0].getX(),
+								query[0].getY(), query[1]);
+						if(way==1)
+						{
+							path=graph.smoothPath(path);
+						}
+
+						if(path!=null)
+						{
+							nodes+=path.size();
+							length+=getLength(path);
+							paths++;
+						}
+					}
+					time=getMicrosPerQuery(start, queries.length);
+				}
+
+				line.append(String.format(" | %5.1f %6.1f %6.1f", (double)nodes/paths,
+						length/paths, time));
+			}
+
+			System.out.println(line);
+		}
+	}
+
+	/**Prints, for the graph of each level and several planning budgets, how
+	 * many acts it takes to plan the paths of a group of tanks that all need
+	 * a new path in the same act, like after a level is reloaded, and how 
+	 * long the longest of those acts spends planning. A budget of 0 plans
+	 * every path in the first act.*/
+	public static void benchmarkPlanningBudget()
+	{
+		int[] budgets={0, 1000, 500, 200};
+		int tanks=16;
+		System.out.println("Level | budget | acts | longest act (microseconds)");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			GraphPoint[][] queries=makeQueries(graph);
+
+			for(int budget: budgets)
+			{
+				int acts=0;
+				long longestAct=0;
+
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					PlanningScheduler scheduler=new PlanningScheduler(budget);
+					acts=0;
+					longestAct=0;
+
+					//tanks keep their planners, so they are not made in an act
+					DStarLitePlanner[] planners=new DStarLitePlanner[tanks];
+					for(int i=0;i<tanks;i++)
+					{
+						planners[i]=new DStarLitePlanner(graph);
+					}
+
+					/*All the tanks start their plans in the first act.*/
+					long start=System.nanoTime();
+					scheduler.startAct();
+					for(int i=0;i<tanks;i++)
+					{
+						planners[i].startPlan(queries[i][0].getX(), 
+								queries[i][0].getY(), queries[i][1], null);
+						scheduler.submit(planners[i]);
+					}
+
+					/*Then the scheduler continues them in each act until they
+					 * are all finished.*/
+					while(true)
+					{
+						acts++;
+						longestAct=Math.max(longestAct, System.nanoTime()-start);
+						if(scheduler.getPendingCount()==0)
+						{
+							break;
+						}
+
+						start=System.nanoTime();
+						scheduler.startAct();
+					}
+				}
+
+				System.out.println(String.format("%5d | %6d | %4d | %6.1f", level,
+						budget, acts, longestAct/1000.0));
+			}
+		}
+	}
+
+	/**Prints, for the graph of each level, how long the simulation thread
+	 * spends planning the paths of a group of tanks that all need a new path
+	 * in the same act, when they are planned in that act and when they are
+	 * submitted to a planning pool, and how long the pool takes to finish 
+	 * them. The pool only saves time on machines with several processors.
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 * for the pool.
+	 * @throws ExecutionException If a plan of the pool fails.*/
+	public static void benchmarkPlanningPool() throws InterruptedException,
+			ExecutionException
+	{
+		int tanks=16;
+		PathPlanningPool pool=PathPlanningPool.getSharedPool();
+		if(pool==null)
+		{
+			System.out.println("Only one processor, so there is no shared pool; "
+					+"using a pool with one worker.");
+			pool=new PathPlanningPool(1);
+		}
+
+		System.out.println("Level | in the act | submitting | pool finished "
+				+"(microseconds)");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			GraphPoint[][] queries=makeQueries(graph);
+			long actTime=0;
+			long submitTime=0;
+			long poolTime=0;
+
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				//tanks keep their planners, so they are not made in an act
+				DStarLitePlanner[] planners=new DStarLitePlanner[tanks];
+				for(int i=0;i<tanks;i++)
+				{
+					planners[i]=new DStarLitePlanner(graph);
+				}
+
+				/*Plan every path in the act.*/
+				long start=System.nanoTime();
+				for(int i=0;i<tanks;i++)
+				{
+					planners[i].plan(queries[i][0].getX(), queries[i][0].getY(),
+							queries[i][1]);
+				}
+				actTime=System.nanoTime()-start;
+
+				/*Submit every plan to the pool, then wait until they are all
+				 * finished.*/
+				List<Future<LinkedList<GraphPoint>>> futures=new ArrayList<>();
+				start=System.nanoTime();
+				for(int i=0;i<tanks;i++)
+				{
+					futures.add(pool.submitPlan(planners[i], queries[i][0].getX(),
+							queries[i][0].getY(), queries[i][1], null));
+				}
+				submitTime=System.nanoTime()-start;
+
+				for(Future<LinkedList<GraphPoint>> future: futures)
+				{
+					future.get();
+				}
+				poolTime=System.nanoTime()-start;
+			}
+
+			System.out.println(String.format("%5d | %10.1f | %10.1f | %6.1f", level,
+					actTime/1000.0, submitTime/1000.0, poolTime/1000.0));
+		}
+
+		//only the pool made for this benchmark is stopped
+		if(pool!=PathPlanningPool.getSharedPool())
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**Prints, for arenas made of more and more levels of the game side by
+	 * side, how long it takes to build the cluster graph, the average time of
+	 * a path query that searches the whole graph with A* and of one made 
+	 * with the cluster graph, both without and with refining every segment,
+	 * and how much longer the refined hierarchical paths are on average.*/
+	public static void benchmarkHierarchicalPaths()
+	{
+		System.out.println("Tiles | slots | build (ms) | A* | hierarchical | refined "
+				+"(microseconds) | length ratio");
+
+		for(int tiles=1;tiles<=4;tiles++)
+		{
+			int length=tiles*TankWorld.LENGTH;
+			int width=tiles*TankWorld.WIDTH;
+			Graph graph=new Graph(buildArena(tiles), length, width);
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			double buildTime=0;
+			double flatTime=0;
+			double hierarchicalTime=0;
+			double refinedTime=0;
+			double lengthRatio=0;
+
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				long start=System.nanoTime();
+				ClusterGraph clusterGraph=new ClusterGraph(graph);
+				buildTime=(System.nanoTime()-start)/1000000.0;
+
+				start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					graph.getShortestPath(query[0].getX(), query[0].getY(), query[1]);
+				}
+				flatTime=getMicrosPerQuery(start, queries.length);
+
+				start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					clusterGraph.findPath(query[0].getX(), query[0].getY(), query[1]);
+				}
+				hierarchicalTime=getMicrosPerQuery(start, queries.length);
+
+				start=System.nanoTime();
+				double hierarchicalLength=0;
+				for(GraphPoint[] query: queries)
+				{
+					HierarchicalPath path=clusterGraph.findPath(query[0].getX(),
+							query[0].getY(), query[1]);
+					while(path!=null && path.hasNextSegment())
+					{
+						path.nextSegment();
+					}
+					hierarchicalLength+=(path==null) ? 0 : path.getLength();
+				}
+				refinedTime=getMicrosPerQuery(start, queries.length);
+
+				/*Compare the lengths of the paths both queries found.*/
+				double shortestLength=0;
+				for(GraphPoint[] query: queries)
+				{
+					List<GraphPoint> path=graph.getShortestPath(query[0].getX(),
+							query[0].getY(), query[1]);
+					shortestLength+=(path==null) ? 0 : getLength(path);
+				}
+				lengthRatio=hierarchicalLength/shortestLength;
+			}
+
+			System.out.println(String.format("%5d | %5d | %10.1f | %6.1f | %12.1f | "
+					+"%7.1f | %5.3f", tiles*tiles, graph.getNodeCount(), buildTime,
+					flatTime, hierarchicalTime, refinedTime, lengthRatio));
+		}
+	}
+
+	/**Prints, for the graph of each level and several numbers of landmarks,
+	 * how long it takes to pick the landmarks and measure their distances,
+	 * the memory they take, and the average number of nodes expanded and the
+	 * average time of the same random A* queries. With no landmarks, the 
+	 * queries only use the octile distance.*/
+	public static void benchmarkLandmarks()
+	{
+		int[] landmarkCounts={0, 2, 4, 8};
+		System.out.println("Level | landmarks | build (ms) | memory (bytes) | "
+				+"expanded nodes | microseconds per query");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			graph.setSearchMode(Graph.SearchMode.A_STAR);
+			GraphPoint[][] queries=makeQueries(graph);
+
+			for(int landmarkCount: landmarkCounts)
+			{
+				double buildTime=0;
+				long expandedNodes=0;
+				double time=0;
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					long start=System.nanoTime();
+					graph.setLandmarkCount(landmarkCount);
+					buildTime=(System.nanoTime()-start)/1000000.0;
+
+					expandedNodes=0;
+					start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						graph.getShortestPath(query[0].getX(), query[0].getY(),
+								query[1]);
+						expandedNodes+=graph.getLastExpandedNodes();
+					}
+					time=getMicrosPerQuery(start, queries.length);
+				}
+
+				System.out.println(String.format("%5d | %9d | %10.2f | %14d | "
+						+"%14.1f | %6.1f", level, graph.getLandmarkCount(), buildTime,
+						graph.getLandmarkCount()*graph.getLandmarkMemory(),
+						(double)expandedNodes/queries.length, time));
+			}
+		}
+	}
+
+	/**Prints, for the graph of each level, how long it takes to make it's
+	 * next-hop table with one thread and with a thread for each processor,
+	 * the memory the table takes, and the average time of the same random
+	 * queries made with A* and with the table.*/
+	public static void benchmarkNextHopTable()
+	{
+		int processors=Runtime.getRuntime().availableProcessors();
+		System.out.println("Level | build, 1 thread | build, "+processors+" threads (ms) "
+				+"| memory (bytes) | A* | table (microseconds per query)");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			double singleBuildTime=0;
+			double buildTime=0;
+			double searchTime=0;
+			double tableTime=0;
+			long memory=0;
+
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				singleBuildTime=new NextHopTable(graph.getSnapshot(), 1).
+						getBuildTime()/1000000.0;
+
+				/*Measure the queries searched before the table is made, since
+				 * the graph answers them from the table after that.*/
+				Graph searchedGraph=new Graph(TankWorld.buildLevel(level));
+				searchedGraph.getPathCache().setCapacity(0);
+				long start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					searchedGraph.getShortestPath(query[0].getX(), query[0].getY(),
+							query[1]);
+				}
+				searchTime=getMicrosPerQuery(start, queries.length);
+
+				NextHopTable table=graph.buildNextHopTable();
+				buildTime=table.getBuildTime()/1000000.0;
+				memory=table.getMemory();
+
+				start=System.nanoTime();
+				for(GraphPoint[] query: queries)
+				{
+					graph.getShortestPath(query[0].getX(), query[0].getY(), query[1]);
+				}
+				tableTime=getMicrosPerQuery(start, queries.length);
+			}
+
+			System.out.println(String.format("%5d | %15.1f | %20.1f | %14d | %5.1f | "
+					+"%5.1f", level, singleBuildTime, buildTime, memory, searchTime,
+					tableTime));
+		}
+	}
+
+	/**Prints, for the graph of each level, how many times the first steps 
+	 * of the paths of teams of tanks that plan at the same time bring 2 tanks
+	 * into neighbouring slots, when each tank takes a shortest path and when
+	 * the tanks plan one after another with a reservation table. Like in the
+	 * game, the paths are smoothed, and the cooperative paths are smoothed
+	 * and reserved by the reservation table. The time of a cooperative plan
+	 * and how much longer the cooperative paths are on average are printed
+	 * as well.*/
+	public static void benchmarkCooperativePlanning()
+	{
+		System.out.println("Level | conflicts, independent | cooperative | "
+				+"microseconds per plan | length ratio");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			int independentConflicts=0;
+			int cooperativeConflicts=0;
+			double time=0;
+			double independentLength=0;
+			double cooperativeLength=0;
+
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				independentConflicts=0;
+				cooperativeConflicts=0;
+				independentLength=0;
+				cooperativeLength=0;
+				long planTime=0;
+
+				for(int first=0;first+TEAM_SIZE<=queries.length;first+=TEAM_SIZE)
+				{
+					List<List<GraphPoint>> independentPaths=new ArrayList<>();
+					List<List<GraphPoint>> cooperativePaths=new ArrayList<>();
+					ReservationTable reservations=new ReservationTable(graph);
+
+					for(int i=first;i<first+TEAM_SIZE;i++)
+					{
+						GraphPoint source=queries[i][0];
+						List<GraphPoint> path=graph.getShortestPath(source.getX(),
+								source.getY(), queries[i][1]);
+						if(path==null)
+						{
+							continue;
+						}
+
+						List<GraphPoint> independentPath=graph.smoothPath(path);
+						independentPaths.add(independentPath);
+						independentLength+=getLength(independentPath);
+
+						/*Each tank plans around the tanks that planned before it,
+						 * then reserves it's own path. The levels of the benchmark
+						 * have no mines or shells, so there are no dangers to keep
+						 * away from.*/
+						PathBuffer buffer=new PathBuffer();
+						buffer.addAll(path);
+						long start=System.nanoTime();
+						Object tank=new Object();
+						reservations.coordinatePath(tank, source.getX(), source.getY(),
+								buffer, TANK_SPEED, null, null, GraphPoint.WALL_OFFSET);
+						reservations.reserve(tank, source.getX(), source.getY(), buffer,
+								TANK_SPEED);
+						planTime+=System.nanoTime()-start;
+
+						path=buffer.toList(graph);
+						cooperativePaths.add(path);
+						cooperativeLength+=getLength(path);
+					}
+
+					independentConflicts+=countConflicts(graph, independentPaths);
+					cooperativeConflicts+=countConflicts(graph, cooperativePaths);
+				}
+
+				time=planTime/1000.0/queries.length;
+			}
+
+			System.out.println(String.format("%5d | %21d | %11d | %21.1f | %5.3f",
+					level, independentConflicts, cooperativeConflicts, time,
+					cooperativeLength/independentLength));
+		}
+	}
+
+	/**Prints, for the graph of each level, the average number of nodes
+	 * expanded and the average time of queries from the left quarter of the
+	 * map to the right quarter, like the paths of tanks going from one side
+	 * to the other, with Diejkstra's algorithm, A* and the bidirectional
+	 * search.*/
+	public static void benchmarkCrossMapPaths()
+	{
+		Graph.SearchMode[] modes={Graph.SearchMode.DIJKSTRA, Graph.SearchMode.A_STAR,
+				Graph.SearchMode.BIDIRECTIONAL};
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeCrossMapQueries(graph);
+
+			System.out.println("Level "+level+" ("+queries.length+" queries)");
+
+			for(Graph.SearchMode mode: modes)
+			{
+				graph.setSearchMode(mode);
+				long expandedNodes=0;
+				double time=0;
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					expandedNodes=0;
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						graph.getShortestPath(query[0].getX(), query[0].getY(),
+								query[1]);
+						expandedNodes+=graph.getLastExpandedNodes();
+					}
+					time=getMicrosPerQuery(start, queries.length);
+				}
+
+				System.out.println(String.format("  %-13s %8.1f expanded nodes %8.1f"
+						+ " microseconds per query", mode, 
+						(double)expandedNodes/Math.max(1, queries.length), time));
+			}
+		}
+	}
+
+	/**Prints, for each level, the time it takes to build the graph of the
+	 * level with it's next-hop table and to load them from the graph cache,
+	 * the size of the file of the graph, and the number of slots whose node
+	 * or neighbour mask differs between the built and the loaded graph, 
+	 * which should always be 0. The cache keeps it's files in a new 
+	 * temporary folder, which is deleted at the end.
+	 * @throws IOException If the temporary folder can not be made.*/
+	public static void benchmarkGraphCache() throws IOException
+	{
+		File folder=Files.createTempDirectory("graphs").toFile();
+		GraphCache cache=new GraphCache(folder);
+		System.out.println("Level | build | load (ms) | file (bytes) | different slots");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			TankWorld world=TankWorld.buildLevel(level);
+			long layoutHash=GraphCache.getLayoutHash(world, TankWorld.LENGTH,
+					TankWorld.WIDTH);
+			double buildTime=0;
+			double loadTime=0;
+			int differentSlots=0;
+
+			/*Build and load the graph several times, keeping only the times
+			 * of the last round so the JVM has warmed up.*/
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				long start=System.nanoTime();
+				Graph builtGraph=new Graph(world);
+				builtGraph.buildNextHopTable();
+				buildTime=(System.nanoTime()-start)/1000000.0;
+				cache.store(layoutHash, builtGraph);
+
+				start=System.nanoTime();
+				Graph loadedGraph=cache.load(layoutHash, world, TankWorld.LENGTH,
+						TankWorld.WIDTH);
+				loadTime=(System.nanoTime()-start)/1000000.0;
+
+				differentSlots=0;
+				for(int i=0;i<builtGraph.getNodeCount();i++)
+				{
+					if(loadedGraph==null || loadedGraph.hasNode(i)!=builtGraph.hasNode(i)
+							|| loadedGraph.getNeighbourMask(i)!=builtGraph.getNeighbourMask(i))
+					{
+						differentSlots++;
+					}
+				}
+			}
+
+			System.out.println(String.format("%5d | %5.1f | %9.2f | %12d | %d", level,
+					buildTime, loadTime, cache.getFile(layoutHash).length(),
+					differentSlots));
+		}
+
+		//delete the files of the benchmark
+		for(File file: folder.listFiles())
+		{
+			file.delete();
+		}
+		folder.delete();
+	}
+
+	/**Compares, on the graph of each level, the number of nodes with the
+	 * number of cells of it's quadtree and the memory they take, then the 
+	 * paths of A* after they are smoothed with the paths of the quadtree 
+	 * search mode, by the average number of nodes or cells expanded, the 
+	 * average time of a query and the average length of the paths.*/
+	public static void benchmarkQuadtree()
+	{
+		System.out.println("Level | nodes | cells | quadtree (bytes) | expanded A* |"
+				+" quadtree | microseconds A* | quadtree | length A* | quadtree");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			QuadtreeGraph quadtree=graph.getQuadtree();
+
+			Graph.SearchMode[] modes={Graph.SearchMode.A_STAR, Graph.SearchMode.QUADTREE};
+			double[] expandedNodes=new double[modes.length];
+			double[] times=new double[modes.length];
+			double[] lengths=new double[modes.length];
+
+			for(int i=0;i<modes.length;i++)
+			{
+				graph.setSearchMode(modes[i]);
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up. The paths of A* are
+				 * smoothed, since the tanks follow them smoothed.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					long expanded=0;
+					double length=0;
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						List<GraphPoint> path=graph.getShortestPath(query[0].getX(),
+								query[0].getY(), query[1]);
+						expanded+=graph.getLastExpandedNodes();
+						if(modes[i]==Graph.SearchMode.A_STAR)
+						{
+							path=graph.smoothPath(path);
+						}
+						length+=getLength(path);
+					}
+					times[i]=getMicrosPerQuery(start, queries.length);
+					expandedNodes[i]=(double)expanded/queries.length;
+					lengths[i]=length/queries.length;
+				}
+			}
+
+			System.out.println(String.format("%5d | %5d | %5d | %16d | %11.1f | %8.1f | "
+					+"%15.1f | %8.1f | %9.1f | %8.1f", level, countNodes(graph),
+					quadtree.getCellCount(), quadtree.getMemory(), expandedNodes[0],
+					expandedNodes[1], times[0], times[1], lengths[0], lengths[1]));
+		}
+	}
+
+	/**Compares, on the graph of each level, the memory allocated for the
+	 * paths of tanks when they are lists with when they are path buffers. 
+	 * Like a tank, each path is planned and smoothed, a path around a mine in
+	 * the middle of it is put at it's start, and it is followed to it's end.
+	 * The average number of bytes allocated by this thread for each path is
+	 * read from the counters of the JVM, for the whole path and for only 
+	 * avoiding the mine and following the path, which should be none with
+	 * path buffers. The average time of a path is printed as well.*/
+	public static void benchmarkPathBuffers()
+	{
+		if(getAllocatedBytes()==-1)
+		{
+			System.out.println("This JVM does not count the bytes allocated by "
+					+"each thread.");
+			return;
+		}
+
+		System.out.println("Level | bytes per path, lists | buffers | bytes to "
+				+"avoid and follow, lists | buffers | microseconds lists | buffers");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			MineExclusionMask[] mineMasks=makeMineMasks(graph, queries);
+			PathBuffer path=new PathBuffer();
+			PathBuffer minePath=new PathBuffer();
+
+			double[] pathBytes=new double[2];
+			double[] followBytes=new double[2];
+			double[] times=new double[2];
+
+			/*Run every query several times, keeping only the results of the
+			 * last round so the JVM has warmed up and the buffers have grown
+			 * to the longest paths.*/
+			for(int round=0;round<=WARM_UP_ROUNDS;round++)
+			{
+				long followed=0;
+				long allocated=getAllocatedBytes();
+				long start=System.nanoTime();
+				for(int i=0;i<queries.length;i++)
+				{
+					GraphPoint source=queries[i][0];
+					LinkedList<GraphPoint> listPath=graph.smoothPath(
+							graph.getShortestPath(source.getX(), source.getY(),
+							queries[i][1]));
+					if(listPath!=null)
+					{
+						long followStart=getAllocatedBytes();
+						followListPath(graph, source, listPath, mineMasks[i]);
+						followed+=getAllocatedBytes()-followStart;
+					}
+				}
+				times[0]=getMicrosPerQuery(start, queries.length);
+				pathBytes[0]=(double)(getAllocatedBytes()-allocated)/queries.length;
+				followBytes[0]=(double)followed/queries.length;
+
+				followed=0;
+				allocated=getAllocatedBytes();
+				start=System.nanoTime();
+				for(int i=0;i<queries.length;i++)
+				{
+					GraphPoint source=queries[i][0];
+					if(graph.getShortestPath(source.getX(), source.getY(),
+							queries[i][1].getIndex(), null, path))
+					{
+						graph.smoothPath(path);
+						long followStart=getAllocatedBytes();
+						followBufferPath(graph, source, path, minePath, mineMasks[i]);
+						followed+=getAllocatedBytes()-followStart;
+					}
+				}
+				times[1]=getMicrosPerQuery(start, queries.length);
+				pathBytes[1]=(double)(getAllocatedBytes()-allocated)/queries.length;
+				followBytes[1]=(double)followed/queries.length;
+			}
+
+			System.out.println(String.format("%5d | %21.1f | %7.1f | %31.1f | "
+					+"%7.1f | %18.1f | %7.1f", level, pathBytes[0], pathBytes[1],
+					followBytes[0], followBytes[1], times[0], times[1]));
+		}
+	}
+
+	/**Compares, on the graph of each level, the paths of tanks that need 
+	 * more and more clearance from the walls, all planned on the same graph:
+	 * the number of nodes with at least that clearance, the number of queries
+	 * that still have a path, and the average time and length of the paths
+	 * that were found.*/
+	public static void benchmarkClearance()
+	{
+		System.out.println("Level | clearance | nodes | paths | microseconds | length");
+
+		for(int level=1;level<=LEVELS;level++)
+		{
+			Graph graph=new Graph(TankWorld.buildLevel(level));
+			graph.getPathCache().setCapacity(0);
+			GraphPoint[][] queries=makeQueries(graph);
+			PathBuffer path=new PathBuffer();
+
+			for(int clearance: CLEARANCES)
+			{
+				int nodes=0;
+				for(int i=0;i<graph.getNodeCount();i++)
+				{
+					if(graph.hasNode(i) && graph.getClearance(i)>=clearance)
+					{
+						nodes++;
+					}
+				}
+
+				int paths=0;
+				double length=0;
+				double time=0;
+
+				/*Run every query several times, keeping only the results of
+				 * the last round so the JVM has warmed up.*/
+				for(int round=0;round<=WARM_UP_ROUNDS;round++)
+				{
+					paths=0;
+					length=0;
+					long start=System.nanoTime();
+					for(GraphPoint[] query: queries)
+					{
+						if(graph.getShortestPath(query[0].getX(), query[0].getY(),
+								query[1].getIndex(), null, clearance, path))
+						{
+							paths++;
+							length+=getLength(path.toList(graph));
+						}
+					}
+					time=getMicrosPerQuery(start, queries.length);
+				}
+
+				System.out.println(String.format("%5d | %9d | %5d | %5d | %12.1f | %6.1f",
+						level, clearance, nodes, paths, time, paths==0 ? 0 : 
+						length/paths));
+			}
+		}
+	}
+
+	/**
+	 * Makes a mask for each query with a mine at the middle node of the 
+	 * shortest path of the query, so the tanks following the paths of the 
+	 * queries need to go around it.
+	 * @param graph The graph of the queries.
+	 * @param queries The queries.
+	 * @return The mask of the mine of each query, which has no mine if the
+	 * query has no path.
+	 */
+	private static MineExclusionMask[] makeMineMasks(Graph graph,
+			GraphPoint[][] queries)
+	{
+		MineExclusionMask[] mineMasks=new MineExclusionMask[queries.length];
+		for(int i=0;i<queries.length;i++)
+		{
+			mineMasks[i]=new MineExclusionMask(graph, MINE_AVOIDANCE_DISTANCE);
+			List<GraphPoint> path=graph.getShortestPath(queries[i][0].getX(),
+					queries[i][0].getY(), queries[i][1]);
+			if(path!=null)
+			{
+				GraphPoint middle=path.get(path.size()/2);
+				mineMasks[i].addMine(middle.getX(), middle.getY());
+			}
+		}
+
+		return mineMasks;
+	}
+
+	/**
+	 * Makes a path that is a list go around the mine of a mask and follows
+	 * it to it's end, the way tanks did before they had path buffers.
+	 * @param graph The graph of the path.
+	 * @param source The node the tank following the path is at.
+	 * @param path The smoothed path of the tank.
+	 * @param mineMask The mask of the mine the tank avoids.
+	 * @return The sum of the coordinates of the nodes followed.
+	 */
+	private static long followListPath(Graph graph, GraphPoint source, 
+			LinkedList<GraphPoint> path, MineExclusionMask mineMask)
+	{
+		while(!path.isEmpty() && mineMask.isExcluded(path.getFirst().getIndex()))
+		{
+			path.removeFirst();
+		}
+
+		if(!path.isEmpty())
+		{
+			GraphPoint target=path.getLast();
+			if(mineMask.isExcluded(target.getIndex()))
+			{
+				target=path.getFirst();
+			}
+
+			LinkedList<GraphPoint> minePath=graph.getPathAvoidingMines(source.getX(),
+					source.getY(), target, mineMask);
+			if(minePath!=null)
+			{
+				while(!path.getFirst().equals(target))
+				{
+					path.removeFirst();
+				}
+				path.addAll(0, minePath);
+			}
+		}
+
+		long sum=0;
+		while(!path.isEmpty())
+		{
+			GraphPoint node=path.removeFirst();
+			sum+=node.getX()+node.getY();
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Makes a path in a path buffer go around the mine of a mask and follows
+	 * it to it's end, the way tanks do.
+	 * @param graph The graph of the path.
+	 * @param source The node the tank following the path is at.
+	 * @param path The buffer of the smoothed path of the tank.
+	 * @param minePath The buffer the path around the mine is planned in.
+	 * @param mineMask The mask of the mine the tank avoids.
+	 * @return The sum of the coordinates of the nodes followed.
+	 */
+	private static long followBufferPath(Graph graph, GraphPoint source,
+			PathBuffer path, PathBuffer minePath, MineExclusionMask mineMask)
+	{
+		while(!path.isEmpty() && mineMask.isExcluded(path.getFirst()))
+		{
+			path.removeFirst();
+		}
+
+		if(!path.isEmpty())
+		{
+			int target=path.getLast();
+			if(mineMask.isExcluded(target))
+			{
+				target=path.getFirst();
+			}
+
+			if(graph.getPathAvoidingMines(source.getX(), source.getY(), target,
+					mineMask, minePath))
+			{
+				while(path.getFirst()!=target)
+				{
+					path.removeFirst();
+				}
+				path.addAllFirst(minePath);
+			}
+		}
+
+		long sum=0;
+		while(!path.isEmpty())
+		{
+			int node=path.removeFirst();
+			sum+=graph.getNodeX(node)+graph.getNodeY(node);
+		}
+
+		return sum;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by this thread so far, from the
+	 * counters of the JVM.
+	 * @return The number of bytes, or -1 if the JVM does not count them.
+	 */
+	private static long getAllocatedBytes()
+	{
+		if(!(THREAD_BEAN instanceof com.sun.management.ThreadMXBean))
+		{
+			return -1;
+		}
+
+		return ((com.sun.management.ThreadMXBean)THREAD_BEAN).getThreadAllocatedBytes(
+				Thread.currentThread().getId());
+	}
+
+	/**
+	 * Counts how many times 2 tanks following the given paths from their 
+	 * first nodes at the same speed are in neighbouring slots, in each step
+	 * of the window of the reservation table after the first one.
+	 * @param graph The graph of the paths.
+	 * @param paths The paths of the tanks.
+	 * @return The number of pairs of tanks and steps in which the 2 tanks are
+	 * in neighbouring slots.
+	 */
+	private static int countConflicts(Graph graph, List<List<GraphPoint>> paths)
+	{
+		int[][] steps=new int[paths.size()][];
+		for(int i=0;i<steps.length;i++)
+		{
+			steps[i]=getStepSlots(graph, paths.get(i));
+		}
+
+		int conflicts=0;
+		for(int k=1;k<=ReservationTable.WINDOW_STEPS;k++)
+		{
+			for(int i=0;i<steps.length;i++)
+			{
+				for(int j=i+1;j<steps.length;j++)
+				{
+					int a=steps[i][k];
+					int b=steps[j][k];
+					if(Math.abs(a/graph.getColumnCount()-b/graph.getColumnCount())<=1
+							&& Math.abs(a%graph.getColumnCount()-b%graph.
+							getColumnCount())<=1)
+					{
+						conflicts++;
+					}
+				}
+			}
+		}
+
+		return conflicts;
+	}
+
+	/**
+	 * Gets the slots a tank following a path from it's first node is at after
+	 * each interval it drives, like the reservation table does.
+	 * @param graph The graph of the path.
+	 * @param path A path of the graph.
+	 * @return The index of the slot of the tank at the start and after each
+	 * step of the window of the reservation table.
+	 */
+	private static int[] getStepSlots(Graph graph, List<GraphPoint> path)
+	{
+		int[] slots=new int[ReservationTable.WINDOW_STEPS+1];
+		double x=path.get(0).getX();
+		double y=path.get(0).getY();
+		int next=1;
+
+		slots[0]=path.get(0).getIndex();
+		for(int k=1;k<slots.length;k++)
+		{
+			double remaining=GraphPoint.INTERVAL;
+			while(remaining>0 && next<path.size())
+			{
+				double deltaX=path.get(next).getX()-x;
+				double deltaY=path.get(next).getY()-y;
+				double distance=Math.sqrt(deltaX*deltaX+deltaY*deltaY);
+				if(distance<=remaining)
+				{
+					x=path.get(next).getX();
+					y=path.get(next).getY();
+					remaining-=distance;
+					next++;
+				}
+				else
+				{
+					x+=deltaX*remaining/distance;
+					y+=deltaY*remaining/distance;
+					remaining=0;
+				}
+			}
+
+			slots[k]=graph.getNodeIndex((int)Math.round(x), (int)Math.round(y));
+		}
+
+		return slots;
+	}
+
+	/**
+	 * Builds a square arena made of the levels of the game placed side by 
+	 * side, with their inner wall blocks and exterior walls around the whole
+	 * arena, to measure path queries on graphs larger than a level.
+	 * @param tiles The number of levels on each side of the arena.
+	 * @return A world with the wall blocks of the arena.
+	 */
+	private static World buildArena(int tiles)
+	{
+		int length=tiles*TankWorld.LENGTH;
+		int width=tiles*TankWorld.WIDTH;
+		World arena=new World(length, width, 1)
+		{
+		};
+
+		for(int row=0;row<tiles;row++)
+		{
+			for(int column=0;column<tiles;column++)
+			{
+				/*Copy the wall blocks of a level that are not on it's edges.*/
+				World level=TankWorld.buildLevel((row*tiles+column)%LEVELS+1);
+				for(WallBlock wall: level.getObjects(WallBlock.class))
+				{
+					if(wall.getX()>WallBlock.SIDE && wall.getX()<TankWorld.LENGTH-
+							WallBlock.SIDE && wall.getY()>WallBlock.SIDE && 
+							wall.getY()<TankWorld.WIDTH-WallBlock.SIDE)
+					{
+						arena.addObject(new WallBlock(), column*TankWorld.LENGTH+
+								wall.getX(), row*TankWorld.WIDTH+wall.getY());
+					}
+				}
+			}
+		}
+
+		/*Put wall blocks along the edges of the arena, like the exterior
+		 * walls of a level.*/
+		for(int y=WallBlock.SIDE/2;y<width+WallBlock.SIDE/2;y+=WallBlock.SIDE)
+		{
+			arena.addObject(new WallBlock(), WallBlock.SIDE/2, y);
+			arena.addObject(new WallBlock(), length-WallBlock.SIDE/2, y);
+		}
+		for(int x=WallBlock.SIDE*3/2;x<length;x+=WallBlock.SIDE)
+		{
+			arena.addObject(new WallBlock(), x, WallBlock.SIDE/2);
+			arena.addObject(new WallBlock(), x, width-WallBlock.SIDE/2);
+		}
+
+		return arena;
+	}
+
+	/**
+	 * Calculates the length of a path.
+	 * @param path A list of nodes, or null if there is no path.
+	 * @return The sum of the distances between consecutive nodes of the path,
+	 * or -1 if there is no path.
+	 */
+	private static double getLength(List<GraphPoint> path)
+	{
+		if(path==null)
+		{
+			return -1;
+		}
+
+		double length=0;
+		for(int i=1;i<path.size();i++)
+		{
+			length+=GraphPoint.getDistance(path.get(i-1), path.get(i));
+		}
+
+		return length;
+	}
+
+	/**
+	 * Picks random pairs of source and target nodes of the given graph.
+	 * @param graph The graph of a level.
+	 * @return An array of queries, each being an array with the source node
+	 * and the target node.
+	 */
+	private static GraphPoint[][] makeQueries(Graph graph)
+	{
+		//make a list of all nodes of the graph to pick from
+		List<GraphPoint> nodes=new ArrayList<>();
+		for(int i=0;i<graph.getNodeCount();i++)
+		{
+			if(graph.getNode(i)!=null)
+			{
+				nodes.add(graph.getNode(i));
+			}
+		}
+
+		Random random=new Random(SEED);
+		GraphPoint[][] queries=new GraphPoint[QUERIES][];
+		for(int i=0;i<QUERIES;i++)
+		{
+			queries[i]=new GraphPoint[] {nodes.get(random.nextInt(nodes.size())),
+					nodes.get(random.nextInt(nodes.size()))};
+		}
+
+		return queries;
+	}
+
+	/**
+	 * Picks random pairs of source and target nodes of the given graph, with
+	 * the source in the left quarter of the columns and the target in the 
+	 * right quarter, in the same component so there is a path between them.
+	 * @param graph The graph of a level.
+	 * @return An array of queries, each being an array with the source node
+	 * and the target node.
+	 */
+	private static GraphPoint[][] makeCrossMapQueries(Graph graph)
+	{
+		//sort the nodes on each side of the map by the component they are in
+		List<GraphPoint> leftNodes=new ArrayList<>();
+		List<GraphPoint> rightNodes=new ArrayList<>();
+		int quarter=graph.getColumnCount()/4;
+		for(int i=0;i<graph.getNodeCount();i++)
+		{
+			if(graph.getNode(i)==null)
+			{
+				continue;
+			}
+
+			int column=i%graph.getColumnCount();
+			if(column<quarter)
+			{
+				leftNodes.add(graph.getNode(i));
+			}
+			else if(column>=graph.getColumnCount()-quarter)
+			{
+				rightNodes.add(graph.getNode(i));
+			}
+		}
+
+		List<GraphPoint[]> queries=new ArrayList<>();
+		if(leftNodes.isEmpty() || rightNodes.isEmpty())
+		{
+			return new GraphPoint[0][];
+		}
+
+		/*Pick as many random pairs as the other benchmarks, keeping those
+		 * whose nodes are connected.*/
+		Random random=new Random(SEED);
+		for(int i=0;i<QUERIES;i++)
+		{
+			GraphPoint source=leftNodes.get(random.nextInt(leftNodes.size()));
+			GraphPoint target=rightNodes.get(random.nextInt(rightNodes.size()));
+			if(graph.getComponent(source.getIndex())==graph.getComponent(
+					target.getIndex()))
+			{
+				queries.add(new GraphPoint[] {source, target});
+			}
+		}
+
+		return queries.toArray(new GraphPoint[queries.size()][]);
+	}
+
+	/**
+	 * Counts the nodes of the given graph.
+	 * @param graph The graph of a level.
+	 * @return The number of slots in the matrix of the graph that have a node.
+	 */
+	private static int countNodes(Graph graph)
+	{
+		int nodes=0;
+		for(int i=0;i<graph.getNodeCount();i++)
+		{
+			if(graph.hasNode(i))
+			{
+				nodes++;
+			}
+		}
+
+		return nodes;
+	}
+
+	/**
+	 * Calculates the average time of a query in microseconds.
+	 * @param start The value of System.nanoTime() when the queries started.
+	 * @param queries The number of queries that were made.
+	 * @return The average time of one query in microseconds.
+	 */
+	private static double getMicrosPerQuery(long start, int queries)
+	{
+		return (System.nanoTime()-start)/1000.0/queries;
+	}
+
+	/**
+	 * Runs Diejkstra's algorithm between the given nodes using a PriorityQueue
+	 * of node indexes, the way the graph used to do it: all nodes are put in
+	 * the queue at the start and a node whose distance decreases is removed
+	 * and added again.
+	 * @param graph The graph of a level.
+	 * @param source The node the search starts from.
+	 * @param target The node the search stops at.
+	 * @return The number of nodes expanded by the search.
+	 */
+	private static int priorityQueueDijkstra(Graph graph, GraphPoint source,
+			GraphPoint target)
+	{
+		final double[] distances=new double[graph.getNodeCount()];
+		boolean[] visited=new boolean[graph.getNodeCount()];
+		Arrays.fill(distances, Integer.MAX_VALUE);
+		distances[source.getIndex()]=0;
+
+		PriorityQueue<Integer> queue=new PriorityQueue<>(11,
+				new Comparator<Integer>()
+		{
+			@Override
+			public int compare(Integer a, Integer b)
+			{
+				return Double.compare(distances[a], distances[b]);
+			}
+		});
+
+		for(int i=0;i<graph.getNodeCount();i++)
+		{
+			if(graph.hasNode(i))
+			{
+				queue.add(i);
+			}
+		}
+
+		int expandedNodes=0;
+		while(!queue.isEmpty())
+		{
+			int current=queue.poll();
+			visited[current]=true;
+			expandedNodes++;
+
+			if(current==target.getIndex() || distances[current]==Integer.MAX_VALUE)
+			{
+				break;
+			}
+
+			int mask=graph.getNeighbourMask(current);
+			for(int d=0;d<8;d++)
+			{
+				int neighbour=graph.getNeighbourIndex(current, d);
+				if((mask&(1<<d))!=0 && !visited[neighbour])
+				{
+					double distance=distances[current]+Graph.getEdgeLength(d);
+
+					if(distance<distances[neighbour])
+					{
+						//the linear search this benchmark is measuring
+						queue.remove(neighbour);
+						distances[neighbour]=distance;
+						queue.add(neighbour);
+					}
+				}
+			}
+		}
+
+		return expandedNodes;
+	}
+}
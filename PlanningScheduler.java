@@ -0,0 +1,170 @@
+import java.util.ArrayDeque;
+
+/**
+ * <p><b>File name: </b> PlanningScheduler.java
+ * @version 1.0
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>PlanningScheduler.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class spreads the path plans of the tanks of a Greenfoot recreation
+ * of the Wii Tanks game for the Nintendo Wii over several acts. When many
+ * tanks need a new path in the same act, like when a level is reloaded,
+ * planning all of them at once makes that act take much longer than the
+ * others. Instead, tanks start their plans and give their planners to the
+ * scheduler of the world, which expands at most a budget of nodes in each
+ * act and the tanks wait until their plans are finished.
+ *
+ * <p>The budget is shared fairly: the pending planners are kept in a queue,
+ * and each one in turn expands an equal share of what is left of the budget,
+ * then goes to the back of the queue if it's plan is not finished. Plans
+ * started when there is budget left in the act are continued right away, so
+ * a tank does not wait when few tanks are planning.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ */
+public class PlanningScheduler
+{
+	/**The planners whose plans are not finished, in the order they will
+	 * continue them.*/
+	private final ArrayDeque<DStarLitePlanner> pendingPlanners;
+
+	/**The largest number of nodes expanded in each act, or 0 or less if
+	 * there is no limit.*/
+	private int budget;
+
+	/**The number of nodes that can still be expanded in the current act.*/
+	private int remainingBudget;
+
+	/**
+	 * Makes a new scheduler with no pending plans.
+	 * @param budget The largest number of nodes expanded in each act, or 0
+	 * or less for no limit.
+	 */
+	public PlanningScheduler(int budget)
+	{
+		pendingPlanners=new ArrayDeque<>();
+		this.budget=budget;
+		remainingBudget=budget;
+	}
+
+	/**
+	 * Starts a new act, giving the scheduler it's whole budget again and
+	 * continuing the pending plans with it.
+	 */
+	public void startAct()
+	{
+		remainingBudget=budget;
+		continuePlans();
+	}
+
+	/**
+	 * Adds a planner whose plan has been started to the pending planners,
+	 * and continues it at once if there is budget left in this act.
+	 * @param planner A planner whose plan has been started.
+	 */
+	public void submit(DStarLitePlanner planner)
+	{
+		if(planner.isPlanning() && !pendingPlanners.contains(planner))
+		{
+			pendingPlanners.add(planner);
+			continuePlans();
+		}
+	}
+
+	/**
+	 * Continues the pending plans in turn until they are finished or the
+	 * budget of this act runs out. Each planner expands an equal share of the
+	 * remaining budget, rounded up so every planner expands a node.
+	 */
+	private void continuePlans()
+	{
+		while(!pendingPlanners.isEmpty() && (budget<=0 || remainingBudget>0))
+		{
+			DStarLitePlanner planner=pendingPlanners.poll();
+			int share=(budget<=0) ? Integer.MAX_VALUE : (remainingBudget+
+					pendingPlanners.size())/(pendingPlanners.size()+1);
+
+			int expandedBefore=planner.getExpandedNodes();
+			boolean finished=planner.continuePlan(share);
+			remainingBudget-=planner.getExpandedNodes()-expandedBefore;
+
+			/*If the plan needs more nodes, it waits for it's next turn.*/
+			if(!finished)
+			{
+				pendingPlanners.add(planner);
+			}
+		}
+	}
+
+	/**
+	 * Removes a planner from the pending planners and stops it's plan, for
+	 * example when it's tank has been destroyed or put back at it's starting
+	 * point.
+	 * @param planner A planner.
+	 */
+	public void cancel(DStarLitePlanner planner)
+	{
+		pendingPlanners.remove(planner);
+		planner.cancelPlan();
+	}
+
+	/**
+	 * Checks if the plan of a planner is waiting to be continued.
+	 * @param planner A planner.
+	 * @return True if the planner is pending, false if not.
+	 */
+	public boolean isPending(DStarLitePlanner planner)
+	{
+		return pendingPlanners.contains(planner);
+	}
+
+	/**
+	 * Getter for the number of planners whose plans are not finished.
+	 * @return The number of pending planners.
+	 */
+	public int getPendingCount()
+	{
+		return pendingPlanners.size();
+	}
+
+	/**
+	 * Sets the largest number of nodes expanded in each act.
+	 * @param budget The new budget, or 0 or less for no limit.
+	 */
+	public void setBudget(int budget)
+	{
+		this.budget=budget;
+		remainingBudget=Math.min(remainingBudget, budget);
+	}
+
+	/**
+	 * Getter for the largest number of nodes expanded in each act.
+	 * @return The budget of this scheduler, or 0 or less if there is no
+	 * limit.
+	 */
+	public int getBudget()
+	{
+		return budget;
+	}
+}
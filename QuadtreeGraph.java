@@ -0,0 +1,494 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p><b>File name: </b> QuadtreeGraph.java
+ * @version 1.1
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>QuadtreeGraph.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class describes a quadtree over the grid of the graph of a
+ * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii, which
+ * merges the open parts of a level into large square cells and keeps single
+ * slots next to the walls. The grid is split into 4 squares again and again,
+ * until each square has a node in every one of it's slots, or has no node at
+ * all and is left out. A tank can drive in a straight line between any 2
+ * nodes of a cell without hitting a wall, since a wall close enough to the
+ * line would also be too close to one of the nodes.
+ *
+ * <p>A path query searches the cells with the A* algorithm instead of the
+ * nodes. A cell is entered at the node where the path crosses into it from
+ * the cell before it, and the length of the path to it is the length of the
+ * straight lines from the entry node of each cell to the node where the path
+ * leaves it. Open levels have far fewer cells than nodes, so the search
+ * expands less of them. The path is a list of the nodes where it crosses
+ * between cells, pulled tight like the smoothed paths of the graph, so it is
+ * close to the shortest path but not always as short.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Paths are now built in a path buffer.
+ */
+public class QuadtreeGraph
+{
+	/**The largest number of slots on each side of a cell. Larger cells make
+	 * the paths through them less accurate, since each cell is only entered
+	 * at one node. Its value is {@value}.*/
+	public static final int MAX_CELL_SIZE=8;
+
+	/**The direction of the vertical move that is part of each diagonal move,
+	 * in the order of the bits of a neighbour mask, or -1 for the moves that
+	 * are not diagonal.*/
+	private static final int[] VERTICAL_PARTS={1, -1, 1, -1, -1, 6, -1, 6};
+
+	/**The direction of the horizontal move that is part of each diagonal 
+	 * move, in the order of the bits of a neighbour mask, or -1 for the moves
+	 * that are not diagonal.*/
+	private static final int[] HORIZONTAL_PARTS={3, -1, 4, -1, -1, 3, -1, 4};
+
+	/**The graph whose grid this quadtree is made of.*/
+	private final Graph graph;
+
+	/**The version of the topology of the graph this quadtree was made for.*/
+	private final int topologyVersion;
+
+	/**The cell of each slot of the grid, or -1 for slots without a node.*/
+	private final int[] slotCells;
+
+	/**The row of the upper left slot of each cell.*/
+	private final int[] cellRows;
+
+	/**The column of the upper left slot of each cell.*/
+	private final int[] cellColumns;
+
+	/**The number of slots on each side of each cell.*/
+	private final int[] cellSizes;
+
+	/**The position in the arrays of crossings of the first crossing out of
+	 * each cell, with one more element for the end of the last cell's
+	 * crossings.*/
+	private final int[] crossingStarts;
+
+	/**The node each crossing leaves it's cell from.*/
+	private final int[] crossingExits;
+
+	/**The node in a neighbouring cell that each crossing enters, which is a
+	 * neighbour of the node it leaves from.*/
+	private final int[] crossingEntries;
+
+	/**The length of the edge of each crossing.*/
+	private final double[] crossingLengths;
+
+	/**The search context of each thread that searches this quadtree, with
+	 * the cells in place of the nodes of the graph and the crossing each
+	 * cell was entered through in place of the best previous node.*/
+	private final ThreadLocal<SearchContext> searchContexts;
+
+	/**
+	 * Makes the quadtree of the given graph as it is now.
+	 * @param graph The graph whose grid the quadtree is made of.
+	 */
+	public QuadtreeGraph(Graph graph)
+	{
+		this.graph=graph;
+		topologyVersion=graph.getTopologyVersion();
+
+		/*Count the nodes of each rectangle of the grid starting at the upper
+		 * left corner, so the nodes of any square are counted at once.*/
+		int rows=graph.getRowCount();
+		int columns=graph.getColumnCount();
+		int[] nodeCounts=new int[(rows+1)*(columns+1)];
+		for(int row=0;row<rows;row++)
+		{
+			for(int column=0;column<columns;column++)
+			{
+				int node=graph.hasNode(row*columns+column) ? 1 : 0;
+				nodeCounts[(row+1)*(columns+1)+column+1]=node+nodeCounts[row*(columns+1)+
+						column+1]+nodeCounts[(row+1)*(columns+1)+column]-
+						nodeCounts[row*(columns+1)+column];
+			}
+		}
+
+		/*The root of the quadtree is the smallest square with a power of 2
+		 * slots on each side that covers the grid.*/
+		int rootSize=1;
+		while(rootSize<rows || rootSize<columns)
+		{
+			rootSize*=2;
+		}
+
+		List<int[]> cells=new ArrayList<>();
+		addCells(cells, nodeCounts, 0, 0, rootSize);
+
+		cellRows=new int[cells.size()];
+		cellColumns=new int[cells.size()];
+		cellSizes=new int[cells.size()];
+		slotCells=new int[graph.getNodeCount()];
+		Arrays.fill(slotCells, -1);
+		for(int cell=0;cell<cells.size();cell++)
+		{
+			cellRows[cell]=cells.get(cell)[0];
+			cellColumns[cell]=cells.get(cell)[1];
+			cellSizes[cell]=cells.get(cell)[2];
+
+			for(int row=cellRows[cell];row<cellRows[cell]+cellSizes[cell];row++)
+			{
+				for(int column=cellColumns[cell];column<cellColumns[cell]+
+						cellSizes[cell];column++)
+				{
+					slotCells[row*columns+column]=cell;
+				}
+			}
+		}
+
+		/*Count the edges of the graph that cross from each cell into another
+		 * one, then write them down cell after cell.*/
+		crossingStarts=new int[cells.size()+1];
+		for(int index=0;index<slotCells.length;index++)
+		{
+			for(int d=0;d<8;d++)
+			{
+				if(isCrossing(index, d))
+				{
+					crossingStarts[slotCells[index]+1]++;
+				}
+			}
+		}
+
+		for(int cell=0;cell<cells.size();cell++)
+		{
+			crossingStarts[cell+1]+=crossingStarts[cell];
+		}
+
+		crossingExits=new int[crossingStarts[cells.size()]];
+		crossingEntries=new int[crossingExits.length];
+		crossingLengths=new double[crossingExits.length];
+		int[] nextCrossings=crossingStarts.clone();
+		for(int index=0;index<slotCells.length;index++)
+		{
+			for(int d=0;d<8;d++)
+			{
+				if(isCrossing(index, d))
+				{
+					int crossing=nextCrossings[slotCells[index]]++;
+					crossingExits[crossing]=index;
+					crossingEntries[crossing]=graph.getNeighbourIndex(index, d);
+					crossingLengths[crossing]=Graph.getEdgeLength(d);
+				}
+			}
+		}
+
+		final int cellCount=cells.size();
+		searchContexts=new ThreadLocal<SearchContext>()
+		{
+			@Override
+			protected SearchContext initialValue()
+			{
+				return new SearchContext(cellCount);
+			}
+		};
+	}
+
+	/**
+	 * Adds the cells of a square of the grid to the list of cells. The square
+	 * is a cell if it is no larger than the largest cell, is inside the grid
+	 * and has a node in each slot. If it has no node, it has no cells.
+	 * Otherwise, it is split into 4 squares with half as many slots on each
+	 * side, whose cells are added.
+	 * @param cells The list of cells, each an array with the row and column of
+	 * it's upper left slot and the number of slots on each side.
+	 * @param nodeCounts The number of nodes of each rectangle of the grid
+	 * starting at the upper left corner.
+	 * @param row The row of the upper left slot of the square.
+	 * @param column The column of the upper left slot of the square.
+	 * @param size The number of slots on each side of the square.
+	 */
+	private void addCells(List<int[]> cells, int[] nodeCounts, int row, int column,
+			int size)
+	{
+		int rows=graph.getRowCount();
+		int columns=graph.getColumnCount();
+		if(row>=rows || column>=columns)
+		{
+			return;
+		}
+
+		/*Count the nodes of the part of the square inside the grid.*/
+		int lastRow=Math.min(row+size, rows);
+		int lastColumn=Math.min(column+size, columns);
+		int nodes=nodeCounts[lastRow*(columns+1)+lastColumn]-nodeCounts[row*(columns+1)+
+				lastColumn]-nodeCounts[lastRow*(columns+1)+column]+nodeCounts[row*
+				(columns+1)+column];
+
+		if(nodes==0)
+		{
+			return;
+		}
+
+		if(size<=MAX_CELL_SIZE && nodes==size*size)
+		{
+			cells.add(new int[] {row, column, size});
+			return;
+		}
+
+		int half=size/2;
+		addCells(cells, nodeCounts, row, column, half);
+		addCells(cells, nodeCounts, row, column+half, half);
+		addCells(cells, nodeCounts, row+half, column, half);
+		addCells(cells, nodeCounts, row+half, column+half, half);
+	}
+
+	/**
+	 * Checks if the edge of a node in the given direction crosses into 
+	 * another cell. A diagonal edge is left out if the node also has an 
+	 * edge into the same cell in the vertical or horizontal direction it is
+	 * made of, since the path can cross there instead.
+	 * @param index The index of a slot.
+	 * @param direction A direction, from 0 to 7, in the same order as the 
+	 * bits of a neighbour mask.
+	 * @return True if the slot has a node with an edge in that direction to 
+	 * a node of another cell that is kept as a crossing, false if not.
+	 */
+	private boolean isCrossing(int index, int direction)
+	{
+		int mask=graph.getNeighbourMask(index);
+		if((mask&(1<<direction))==0)
+		{
+			return false;
+		}
+
+		int neighbourCell=slotCells[graph.getNeighbourIndex(index, direction)];
+		if(neighbourCell==slotCells[index])
+		{
+			return false;
+		}
+
+		/*Check the vertical and horizontal parts of a diagonal edge.*/
+		int[] parts={VERTICAL_PARTS[direction], HORIZONTAL_PARTS[direction]};
+		for(int part: parts)
+		{
+			if(part!=-1 && (mask&(1<<part))!=0 && slotCells[graph.getNeighbourIndex(
+					index, part)]==neighbourCell)
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Searches the cells of this quadtree for a path between 2 nodes with the
+	 * A* algorithm, estimating the rest of the path from the entry node of
+	 * each cell with the straight distance to the target. In the cell of the
+	 * target, the length of the path includes the straight line from the
+	 * entry node to the target, so the shortest way into it is kept. Each
+	 * cell expanded is counted in the given search context of the graph.
+	 * @param graphContext The search context of the graph's query.
+	 * @param source The index of the node the path starts from.
+	 * @param target The index of the node the path ends at.
+	 * @param path The buffer that gets the indexes of the nodes where the
+	 * path turns, from the source to the target. It is emptied first, and 
+	 * left empty if there is no path.
+	 * @return True if a path was found, false if there is no path between
+	 * the nodes.
+	 */
+	public boolean findPath(SearchContext graphContext, int source, int target,
+			PathBuffer path)
+	{
+		path.clear();
+		int sourceCell=slotCells[source];
+		int targetCell=slotCells[target];
+		if(sourceCell==-1 || targetCell==-1)
+		{
+			return false;
+		}
+
+		SearchContext context=searchContexts.get();
+		context.startQuery();
+		IndexedMinHeap openCells=context.getOpenNodes();
+
+		/*The source cell is entered at the source, through no crossing.*/
+		double sourceDistance=(sourceCell==targetCell) ?
+				graph.getStraightDistance(source, target) : 0;
+		context.setDistance(sourceCell, sourceDistance, -1);
+		openCells.insertOrUpdate(sourceCell, graph.getStraightDistance(source, target));
+
+		boolean found=false;
+		while(!openCells.isEmpty())
+		{
+			int current=openCells.poll();
+			context.setVisited(current);
+			graphContext.countExpandedNode();
+
+			if(current==targetCell)
+			{
+				found=true;
+				break;
+			}
+
+			int entry=getEntry(context, current, source);
+			double currentDistance=context.getDistance(current);
+
+			/*Go out of the cell through each crossing, along the straight line
+			 * from the entry node to the node the crossing leaves from.*/
+			for(int crossing=crossingStarts[current];crossing<crossingStarts[current+1];
+					crossing++)
+			{
+				int exit=crossingExits[crossing];
+				int next=crossingEntries[crossing];
+				int nextCell=slotCells[next];
+				if(context.isVisited(nextCell))
+				{
+					continue;
+				}
+
+				double tentativeDistance=currentDistance+graph.getStraightDistance(entry,
+						exit)+crossingLengths[crossing];
+				double estimate=graph.getStraightDistance(next, target);
+
+				/*The length of the path to the target cell goes on to the
+				 * target, so it's estimate is 0.*/
+				if(nextCell==targetCell)
+				{
+					tentativeDistance+=estimate;
+					estimate=0;
+				}
+
+				if(tentativeDistance<context.getDistance(nextCell))
+				{
+					context.setDistance(nextCell, tentativeDistance, crossing);
+					openCells.insertOrUpdate(nextCell, tentativeDistance+estimate);
+				}
+			}
+		}
+
+		if(!found)
+		{
+			return false;
+		}
+
+		/*Go back through the crossings from the target to the source, then
+		 * pull the path tight.*/
+		addNode(path, target);
+		for(int crossing=context.getPrevious(targetCell);crossing!=-1;
+				crossing=context.getPrevious(slotCells[crossingExits[crossing]]))
+		{
+			addNode(path, crossingEntries[crossing]);
+			addNode(path, crossingExits[crossing]);
+		}
+		addNode(path, source);
+
+		graph.smoothPath(path);
+		return true;
+	}
+
+	/**
+	 * Gets the node a cell was entered at in a search.
+	 * @param context The search context of the search.
+	 * @param cell A cell reached by the search.
+	 * @param source The index of the node the search started from.
+	 * @return The index of the entry node of the cell.
+	 */
+	private int getEntry(SearchContext context, int cell, int source)
+	{
+		int crossing=context.getPrevious(cell);
+		return (crossing==-1) ? source : crossingEntries[crossing];
+	}
+
+	/**
+	 * Adds a node at the start of a path being built backwards, unless it is
+	 * already the first node.
+	 * @param path The path built so far, from the node added last to the
+	 * target.
+	 * @param index The index of the node.
+	 */
+	private void addNode(PathBuffer path, int index)
+	{
+		if(path.isEmpty() || path.getFirst()!=index)
+		{
+			path.addFirst(index);
+		}
+	}
+
+	/**
+	 * Getter for the graph of this quadtree.
+	 * @return The graph whose grid this quadtree is made of.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Getter for the version of the topology of the graph this quadtree was
+	 * made for.
+	 * @return The topology version of the graph when the quadtree was made.
+	 */
+	public int getTopologyVersion()
+	{
+		return topologyVersion;
+	}
+
+	/**
+	 * Getter for the number of cells of this quadtree.
+	 * @return The number of cells.
+	 */
+	public int getCellCount()
+	{
+		return cellSizes.length;
+	}
+
+	/**
+	 * Getter for the cell of a slot of the grid.
+	 * @param index The index of a slot.
+	 * @return The cell the slot is in, or -1 if it has no node.
+	 */
+	public int getCell(int index)
+	{
+		return slotCells[index];
+	}
+
+	/**
+	 * Getter for the number of slots on each side of a cell.
+	 * @param cell A cell of this quadtree.
+	 * @return The size of the cell, in slots.
+	 */
+	public int getCellSize(int cell)
+	{
+		return cellSizes[cell];
+	}
+
+	/**
+	 * Getter for the memory taken by the cells and crossings of this
+	 * quadtree, without the search contexts.
+	 * @return The number of bytes of the arrays of this quadtree.
+	 */
+	public long getMemory()
+	{
+		//each int takes 4 bytes and each double 8 bytes
+		return 4L*(slotCells.length+4*cellSizes.length+1+2*crossingExits.length)+
+				8L*crossingLengths.length;
+	}
+}
@@ -0,0 +1,778 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p><b>File name: </b> ReservationTable.java
+ * @version 1.2
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>ReservationTable.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class keeps the slots of the grid of the graph of a Greenfoot
+ * recreation of the Wii Tanks game for the Nintendo Wii that the tanks
+ * following paths will pass through in the next acts, so tanks can plan
+ * paths that do not run into each other. Each tank reserves the slots it
+ * will be at in each of the next few steps of it's path, a step being the
+ * time it takes the tank to move the interval between 2 nodes. A slot is
+ * reserved from the step before the tank is expected there until the step
+ * after, since tanks lose time when they turn.
+ *
+ * <p>Tanks are about as wide as 2 intervals between nodes, so 2 tanks collide
+ * if they are in neighbouring slots at the same time. When a tank gets a new
+ * path whose first steps go through slots reserved by other tanks, the
+ * first steps are planned again with a search over both the slots and the
+ * steps, where entering a slot next to one reserved by another tank at that
+ * step costs extra, so the tank takes a detour or a different lane. The
+ * rest of the path is kept. Each tank gets a priority when it first
+ * reserves slots, and a tank gives way to tanks with a higher priority
+ * whose reserved slots it is about to enter, so 2 tanks never wait for each
+ * other.
+ *
+ * <p>The table is used by the thread that runs the acts of the world.
+ * Tanks reserve their slots in every act, so the table reads their paths
+ * from their path buffers and keeps the reservations of each tank to reuse
+ * them, and it makes no objects once every tank has reserved slots.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Paths are now read from path buffers, and the first steps of a
+ * path are planned again in it's own buffer. The reservations of a tank are
+ * reused in each act.
+ * <p>	-1.2 - The first steps planned again, the paths that join them to the 
+ * rest of the path and the smoothing now keep the clearance from the walls
+ * the tank needs.
+ */
+public class ReservationTable
+{
+	/**The number of steps of a path that are reserved and planned with the
+	 * reservations of other tanks. Its value is {@value}.*/
+	public static final int WINDOW_STEPS=8;
+
+	/**The extra cost of a step into a slot next to one reserved by another
+	 * tank, in the same units as the length of a path. A detour of a few
+	 * nodes is taken rather than such a step. Its value is {@value}.*/
+	private static final double CONFLICT_COST=4*GraphPoint.INTERVAL;
+
+	/**The graph whose slots are reserved.*/
+	private final Graph graph;
+
+	/**The first reservation of each slot of the grid, or null if the slot
+	 * has none. The other reservations of a slot follow the first one.*/
+	private final Reservation[] slotReservations;
+
+	/**The reservations of each tank. The reservations a tank did not need in
+	 * it's last act have no slot and are kept to be used again.*/
+	private final Map<Object, List<Reservation>> ownerReservations;
+
+	/**The priority of each tank, a smaller number being a higher priority.*/
+	private final Map<Object, Integer> priorities;
+
+	/**The priority given to the next tank that reserves slots.*/
+	private int nextPriority;
+
+	/**The number of the current act.*/
+	private long currentAct;
+
+	/**The open states of the search of the first steps of a path, a state
+	 * being a slot at a step, with the index of the slot multiplied by the
+	 * number of steps plus 1, plus the step.*/
+	private final IndexedMinHeap openStates;
+
+	/**The cost of the cheapest way found to each state in the current
+	 * search.*/
+	private final double[] stateCosts;
+
+	/**The state before each state on the cheapest way found to it.*/
+	private final int[] previousStates;
+
+	/**The number of the search in which each state was last reached, so the
+	 * states do not need to be reset before each search.*/
+	private final int[] reachedStamps;
+
+	/**The number of the current search.*/
+	private int generation;
+
+	/**The slots of the steps of the last path followed by getSteps.*/
+	private final int[] steps;
+
+	/**The position in the last path followed by getSteps of the node at the
+	 * end of the straight line each step is on.*/
+	private final int[] segments;
+
+	/**The buffer the first steps of a path planned again are built in.*/
+	private final PathBuffer firstSteps;
+
+	/**The buffer of the shortest paths that link the first steps of a path
+	 * planned again to the rest of it.*/
+	private final PathBuffer link;
+
+	/**
+	 * A slot reserved by a tank from one act until another.
+	 */
+	private static class Reservation
+	{
+		/**The tank that reserved the slot.*/
+		private final Object owner;
+
+		/**The index of the reserved slot, or -1 if the reservation is not
+		 * used and kept for the tank's next act.*/
+		private int slot;
+
+		/**The first act of the reservation.*/
+		private long start;
+
+		/**The act after the last act of the reservation.*/
+		private long end;
+
+		/**The next reservation of the same slot, or null.*/
+		private Reservation next;
+
+		/**
+		 * Makes a new reservation of the given tank, which has no slot until
+		 * it is used.
+		 * @param owner The tank that reserves slots with it.
+		 */
+		private Reservation(Object owner)
+		{
+			this.owner=owner;
+			this.slot=-1;
+		}
+	}
+
+	/**
+	 * Makes a new empty reservation table for the given graph.
+	 * @param graph The graph whose slots are reserved.
+	 */
+	public ReservationTable(Graph graph)
+	{
+		this.graph=graph;
+		slotReservations=new Reservation[graph.getNodeCount()];
+		ownerReservations=new HashMap<>();
+		priorities=new HashMap<>();
+		nextPriority=0;
+		currentAct=0;
+
+		int stateCount=graph.getNodeCount()*(WINDOW_STEPS+1);
+		openStates=new IndexedMinHeap(stateCount);
+		stateCosts=new double[stateCount];
+		previousStates=new int[stateCount];
+		reachedStamps=new int[stateCount];
+		generation=0;
+
+		steps=new int[WINDOW_STEPS+1];
+		segments=new int[WINDOW_STEPS+1];
+		firstSteps=new PathBuffer();
+		link=new PathBuffer();
+	}
+
+	/**Starts a new act of the world, so the reservations made from now on
+	 * start in it.*/
+	public void startAct()
+	{
+		currentAct++;
+	}
+
+	/**
+	 * Reserves the slots a tank will pass through in the next steps of it's
+	 * path, replacing it's earlier reservations. A tank without a path, or
+	 * that does not move, reserves the slot it is at. The tank gets a
+	 * priority if it did not have one.
+	 * @param owner The tank.
+	 * @param x The x coordinate of the tank.
+	 * @param y The y coordinate of the tank.
+	 * @param path The nodes the tank will drive to in straight lines, which
+	 * may be empty.
+	 * @param speed The distance in pixels the tank moves in each act.
+	 */
+	public void reserve(Object owner, int x, int y, PathBuffer path, int speed)
+	{
+		List<Reservation> reservations=ownerReservations.get(owner);
+		if(reservations==null)
+		{
+			reservations=new ArrayList<>();
+			ownerReservations.put(owner, reservations);
+		}
+		else
+		{
+			unlinkReservations(reservations);
+		}
+
+		if(!priorities.containsKey(owner))
+		{
+			priorities.put(owner, nextPriority++);
+		}
+
+		int stepActs=getStepActs(speed);
+		getSteps(x, y, path);
+		int usedReservations=0;
+		Reservation last=null;
+
+		for(int k=0;k<steps.length;k++)
+		{
+			if(steps[k]==-1)
+			{
+				continue;
+			}
+
+			long start=currentAct+(k-1)*stepActs;
+			long end=currentAct+(k+1)*stepActs;
+
+			/*A tank stays in a slot for several steps when it turns or stops,
+			 * so the steps in the same slot are one reservation.*/
+			if(last!=null && last.slot==steps[k])
+			{
+				last.end=end;
+				continue;
+			}
+
+			/*A new reservation is only made when the tank has used all the
+			 * reservations it had.*/
+			if(usedReservations==reservations.size())
+			{
+				reservations.add(new Reservation(owner));
+			}
+
+			last=reservations.get(usedReservations++);
+			last.slot=steps[k];
+			last.start=Math.max(currentAct, start);
+			last.end=end;
+			last.next=slotReservations[last.slot];
+			slotReservations[last.slot]=last;
+		}
+	}
+
+	/**
+	 * Removes the reservations of a tank and it's priority, for example when
+	 * it has been destroyed or put back at it's starting point.
+	 * @param owner The tank.
+	 */
+	public void release(Object owner)
+	{
+		removeReservations(owner);
+		priorities.remove(owner);
+	}
+
+	/**
+	 * Removes the reservations of a tank from the lists of their slots.
+	 * @param owner The tank.
+	 */
+	private void removeReservations(Object owner)
+	{
+		List<Reservation> reservations=ownerReservations.remove(owner);
+		if(reservations!=null)
+		{
+			unlinkReservations(reservations);
+		}
+	}
+
+	/**
+	 * Removes the given reservations from the lists of their slots, leaving
+	 * them without a slot so they can be used again.
+	 * @param reservations The reservations of a tank.
+	 */
+	private void unlinkReservations(List<Reservation> reservations)
+	{
+		for(int i=0;i<reservations.size();i++)
+		{
+			Reservation reservation=reservations.get(i);
+			if(reservation.slot==-1)
+			{
+				continue;
+			}
+
+			/*Find the reservation in the list of it's slot and unlink it.*/
+			Reservation previous=null;
+			Reservation current=slotReservations[reservation.slot];
+			while(current!=reservation)
+			{
+				previous=current;
+				current=current.next;
+			}
+
+			if(previous==null)
+			{
+				slotReservations[reservation.slot]=current.next;
+			}
+			else
+			{
+				previous.next=current.next;
+			}
+
+			reservation.slot=-1;
+			reservation.next=null;
+		}
+	}
+
+	/**
+	 * Checks if a tank should give way instead of driving towards the given
+	 * slot, because a tank with a higher priority reserved that slot or a
+	 * neighbour of it for the current act.
+	 * @param owner The tank.
+	 * @param slot The index of the slot the tank is about to enter.
+	 * @return True if the tank should wait, false if not.
+	 */
+	public boolean mustYield(Object owner, int slot)
+	{
+		return slot!=-1 && isReservedByOthers(owner, slot, currentAct, currentAct+1,
+				true);
+	}
+
+	/**
+	 * Checks if the next steps of a tank's path go through slots next to the
+	 * ones reserved by other tanks for the same steps.
+	 * @param owner The tank.
+	 * @param x The x coordinate of the tank.
+	 * @param y The y coordinate of the tank.
+	 * @param path The nodes the tank will drive to in straight lines.
+	 * @param speed The distance in pixels the tank moves in each act.
+	 * @return True if the path runs into another tank, false if not.
+	 */
+	public boolean hasConflict(Object owner, int x, int y, PathBuffer path,
+			int speed)
+	{
+		int stepActs=getStepActs(speed);
+		getSteps(x, y, path);
+
+		for(int k=1;k<steps.length;k++)
+		{
+			if(steps[k]!=-1 && isReservedByOthers(owner, steps[k], currentAct+
+					(k-1)*stepActs, currentAct+(k+1)*stepActs, false))
+			{
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Prepares a new path of a tank for it to follow with the other tanks.
+	 * The path is smoothed first, since tanks follow it in straight lines and
+	 * reserve the slots along them. If the smoothed path runs into slots 
+	 * reserved by other tanks, it's first steps are planned again around 
+	 * them, and only the path after the window of the first steps is 
+	 * smoothed again. The first steps are kept as they are, since straight
+	 * lines only go around walls and would cut through the slots of the 
+	 * other tanks again. Each node of the window is at least a step away 
+	 * from the one before it, so the smoothed part is reached after the
+	 * last reserved step.
+	 * @param owner The tank.
+	 * @param x The x coordinate of the tank.
+	 * @param y The y coordinate of the tank.
+	 * @param path A path of the graph, in which each node is a neighbour of 
+	 * the one before it, which becomes the path the tank follows.
+	 * @param speed The distance in pixels the tank moves in each act.
+	 * @param costLayer The danger cost of entering each slot, which the path
+	 * was planned with, or null.
+	 * @param mineMask The mask of the slots too close to land mines for the
+	 * tank, or null.
+	 * @param minClearance The half side of the square around the centre of 
+	 * the tank that must not touch a wall.
+	 * @return True if the first steps were planned again, false if the path
+	 * was only smoothed.
+	 * @throws IllegalArgumentException If the clearance is larger than the 
+	 * largest clearance kept by the graph.
+	 */
+	public boolean coordinatePath(Object owner, int x, int y, PathBuffer path,
+			int speed, CostLayer costLayer, MineExclusionMask mineMask, 
+			int minClearance)
+	{
+		graph.smoothPath(path, 0, minClearance);
+		if(path.isEmpty() || !hasConflict(owner, x, y, path, speed) || 
+				!findPath(owner, x, y, path, speed, costLayer, mineMask, 
+				minClearance))
+		{
+			return false;
+		}
+
+		graph.smoothPath(path, Math.min(WINDOW_STEPS, path.size()-1), 
+				minClearance);
+		return true;
+	}
+
+	/**
+	 * Plans the next steps of a tank's path again, so they keep away from
+	 * the slots reserved by other tanks, and keeps the rest of the path. The
+	 * first steps are found by an A* search over the slots and the steps,
+	 * from the slot of the tank to the slot the path reaches in the last
+	 * step of the window, where each step moves to a neighbouring node and
+	 * costs the length of the move, plus the danger cost of the node, plus 
+	 * an extra cost if the node is next to a slot another tank reserved for
+	 * that step. Nodes too close to a land mine or with less clearance from
+	 * the walls than the tank needs are not entered. Since the octile 
+	 * distance is never longer than the cost of reaching a node, the 
+	 * cheapest first steps are found. The paths that join them to the rest
+	 * of the path pay the danger costs and avoid the mines and the walls as
+	 * well. The first steps replace the nodes of the path up to the one they
+	 * lead to, in the buffer of the path.
+	 * @param owner The tank.
+	 * @param x The x coordinate of the tank.
+	 * @param y The y coordinate of the tank.
+	 * @param path The nodes the tank will drive to in straight lines, which
+	 * become the new path, in which each node is a neighbour of the one
+	 * before it until the rest of the path. The path is not changed if the
+	 * tank is not at a node or the path is empty.
+	 * @param speed The distance in pixels the tank moves in each act.
+	 * @param costLayer The danger cost of entering each slot, which the path
+	 * was planned with, or null.
+	 * @param mineMask The mask of the slots too close to land mines for the
+	 * tank, or null.
+	 * @param minClearance The half side of the square around the centre of 
+	 * the tank that must not touch a wall.
+	 * @return True if the first steps were planned again, false if the path
+	 * was not changed.
+	 * @throws IllegalArgumentException If the clearance is larger than the 
+	 * largest clearance kept by the graph.
+	 */
+	public boolean findPath(Object owner, int x, int y, PathBuffer path, int speed,
+			CostLayer costLayer, MineExclusionMask mineMask, int minClearance)
+	{
+		if(minClearance>Graph.MAX_CLEARANCE)
+		{
+			throw new IllegalArgumentException("The clearance can not be larger "
+					+"than "+Graph.MAX_CLEARANCE+".");
+		}
+
+		getSteps(x, y, path);
+		int source=steps[0];
+		int waypoint=steps[WINDOW_STEPS];
+
+		if(source==-1 || waypoint==-1 || path.isEmpty())
+		{
+			return false;
+		}
+
+		int stepActs=getStepActs(speed);
+		startSearch();
+		setStateCost(getState(source, 0), 0, -1);
+		openStates.insertOrUpdate(getState(source, 0),
+				graph.getOctileDistance(source, waypoint));
+
+		/*Expand states until the waypoint is reached or the last step of the
+		 * window is, whose cost includes the distance to the waypoint.*/
+		int lastState=-1;
+		while(!openStates.isEmpty())
+		{
+			int state=openStates.poll();
+			int node=state/(WINDOW_STEPS+1);
+			int step=state%(WINDOW_STEPS+1);
+
+			if(node==waypoint || step==WINDOW_STEPS)
+			{
+				lastState=state;
+				break;
+			}
+
+			double cost=stateCosts[state];
+			int mask=graph.getNeighbourMask(node);
+			for(int d=0;d<8;d++)
+			{
+				if((mask&(1<<d))==0)
+				{
+					continue;
+				}
+
+				int neighbour=graph.getNeighbourIndex(node, d);
+				
+				/*The tank keeps away from the mines and has room between the
+				 * walls, like it's path did.*/
+				if((mineMask!=null && mineMask.isExcluded(neighbour)) || 
+						graph.getClearance(neighbour)<minClearance)
+				{
+					continue;
+				}
+				
+				/*A step costs it's length and the danger of the slot it 
+				 * enters, like in the cost queries of the graph.*/
+				int nextState=getState(neighbour, step+1);
+				double nextCost=cost+Graph.getEdgeLength(d);
+				if(costLayer!=null)
+				{
+					nextCost+=costLayer.getCost(neighbour);
+				}
+
+				//a step next to another tank costs extra
+				if(isReservedByOthers(owner, neighbour, currentAct+step*stepActs,
+						currentAct+(step+2)*stepActs, false))
+				{
+					nextCost+=CONFLICT_COST;
+				}
+
+				if(nextCost<getStateCost(nextState))
+				{
+					setStateCost(nextState, nextCost, state);
+					openStates.insertOrUpdate(nextState, nextCost+
+							graph.getOctileDistance(neighbour, waypoint));
+				}
+			}
+		}
+
+		//without any step, the tank keeps it's path
+		if(lastState==-1)
+		{
+			return false;
+		}
+
+		/*Build the first steps from the states that led to the last one.*/
+		firstSteps.clear();
+		for(int state=lastState;state!=-1;state=previousStates[state])
+		{
+			firstSteps.addFirst(state/(WINDOW_STEPS+1));
+		}
+
+		/*If the window ended before the waypoint, go on to it along a
+		 * shortest path.*/
+		int lastNode=lastState/(WINDOW_STEPS+1);
+		if(lastNode!=waypoint && !addLink(lastNode, waypoint, costLayer, 
+				mineMask, minClearance))
+		{
+			return false;
+		}
+
+		/*The waypoint is on the way to a node of the path, which is reached
+		 * along a shortest path from it, and then the path goes on.*/
+		int segmentEnd=segments[WINDOW_STEPS];
+		int segmentNode=path.get(segmentEnd);
+		if(segmentNode!=waypoint && !addLink(waypoint, segmentNode, costLayer,
+				mineMask, minClearance))
+		{
+			return false;
+		}
+
+		for(int i=0;i<=segmentEnd;i++)
+		{
+			path.removeFirst();
+		}
+		path.addAllFirst(firstSteps);
+		return true;
+	}
+
+	/**
+	 * Adds the cheapest path between 2 nodes to the end of the first steps of
+	 * the path being planned again, without it's first node, which is the 
+	 * last of the first steps.
+	 * @param start The index of the node the path starts from.
+	 * @param end The index of the node the path ends at.
+	 * @param costLayer The danger cost of entering each slot, or null for 
+	 * the shortest path.
+	 * @param mineMask The mask of the slots too close to land mines, or null.
+	 * @param minClearance The half side of the square around the centre of 
+	 * the tank that must not touch a wall.
+	 * @return True if there is a path between the nodes, false if not.
+	 */
+	private boolean addLink(int start, int end, CostLayer costLayer, 
+			MineExclusionMask mineMask, int minClearance)
+	{
+		int startX=graph.getNodeX(start);
+		int startY=graph.getNodeY(start);
+		
+		/*Without mines, the path may be taken from the next-hop table or the
+		 * path cache of the graph.*/
+		boolean found=(mineMask==null) ? graph.getShortestPath(startX, startY, end,
+				costLayer, minClearance, link) : graph.getPathAvoidingMines(startX, 
+				startY, end, mineMask, costLayer, minClearance, link);
+		if(!found)
+		{
+			return false;
+		}
+
+		link.removeFirst();
+		firstSteps.addAll(link);
+		return true;
+	}
+
+	/**
+	 * Follows a path from the given coordinates in steps of the interval
+	 * between nodes, like a tank following it without stopping. For each
+	 * step, the index of the slot of the node closest to it is put in the
+	 * steps of this table, or -1 if no node is close, and the position in 
+	 * the path of the node at the end of the straight line the step is on is
+	 * put in the segments. The steps after the end of the path are at it's 
+	 * end.
+	 * @param x The x coordinate the path is followed from.
+	 * @param y The y coordinate the path is followed from.
+	 * @param path The nodes the path goes to in straight lines, which may be
+	 * empty.
+	 */
+	private void getSteps(int x, int y, PathBuffer path)
+	{
+		double pointX=x;
+		double pointY=y;
+		int nextNode=0;
+		int pathSize=path.size();
+
+		steps[0]=graph.getNodeIndex(x, y);
+		segments[0]=0;
+		for(int k=1;k<=WINDOW_STEPS;k++)
+		{
+			/*Move along the path until an interval has been covered or the
+			 * end of the path has been reached.*/
+			double remaining=GraphPoint.INTERVAL;
+			while(remaining>0 && nextNode<pathSize)
+			{
+				int node=path.get(nextNode);
+				double deltaX=graph.getNodeX(node)-pointX;
+				double deltaY=graph.getNodeY(node)-pointY;
+				double distance=Math.sqrt(deltaX*deltaX+deltaY*deltaY);
+
+				if(distance<=remaining)
+				{
+					pointX=graph.getNodeX(node);
+					pointY=graph.getNodeY(node);
+					remaining-=distance;
+					nextNode++;
+				}
+				else
+				{
+					pointX+=deltaX*remaining/distance;
+					pointY+=deltaY*remaining/distance;
+					remaining=0;
+				}
+			}
+
+			steps[k]=graph.getNodeIndex((int)Math.round(pointX),
+					(int)Math.round(pointY));
+			segments[k]=Math.min(nextNode, pathSize-1);
+		}
+	}
+
+	/**
+	 * Checks if a slot or a neighbour of it is reserved by another tank at
+	 * any time between 2 acts.
+	 * @param owner The tank asking.
+	 * @param slot The index of a slot.
+	 * @param start The first act checked.
+	 * @param end The act after the last act checked.
+	 * @param higherPriorityOnly True if only the reservations of tanks with
+	 * a higher priority than the one asking count, false if all do.
+	 * @return True if the slot is next to a reserved one, false if not.
+	 */
+	private boolean isReservedByOthers(Object owner, int slot, long start, long end,
+			boolean higherPriorityOnly)
+	{
+		int columns=graph.getColumnCount();
+		int row=slot/columns;
+		int column=slot%columns;
+		Integer ownerPriority=priorities.get(owner);
+
+		for(int i=Math.max(0, row-1);i<=Math.min(graph.getRowCount()-1, row+1);i++)
+		{
+			for(int j=Math.max(0, column-1);j<=Math.min(columns-1, column+1);j++)
+			{
+				for(Reservation reservation=slotReservations[i*columns+j];
+						reservation!=null;reservation=reservation.next)
+				{
+					if(reservation.owner==owner || reservation.start>=end ||
+							reservation.end<=start)
+					{
+						continue;
+					}
+
+					/*A tank without a priority gives way to every tank.*/
+					if(!higherPriorityOnly || ownerPriority==null ||
+							priorities.get(reservation.owner)<ownerPriority)
+					{
+						return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Gets the number of acts a tank takes to move the interval between 2
+	 * nodes.
+	 * @param speed The distance in pixels the tank moves in each act.
+	 * @return The number of acts of each step of the tank, which is one
+	 * interval for a tank that does not move.
+	 */
+	private static int getStepActs(int speed)
+	{
+		return (speed<=0) ? GraphPoint.INTERVAL : Math.max(1,
+				(GraphPoint.INTERVAL+speed-1)/speed);
+	}
+
+	/**
+	 * Gets the index of the state of a slot at a step of a search.
+	 * @param slot The index of a slot.
+	 * @param step A step, from 0 to the number of steps of the window.
+	 * @return The index of the state.
+	 */
+	private static int getState(int slot, int step)
+	{
+		return slot*(WINDOW_STEPS+1)+step;
+	}
+
+	/**Prepares the states for a new search, so none of them is reached.*/
+	private void startSearch()
+	{
+		openStates.clear();
+		generation++;
+	}
+
+	/**
+	 * Getter for the cost of the cheapest way found to a state.
+	 * @param state The index of a state.
+	 * @return The cost of the state, or Double.MAX_VALUE if it has not been
+	 * reached in this search.
+	 */
+	private double getStateCost(int state)
+	{
+		return (reachedStamps[state]==generation) ? stateCosts[state] :
+			Double.MAX_VALUE;
+	}
+
+	/**
+	 * Records a cheaper way to a state.
+	 * @param state The index of the state.
+	 * @param cost The cost of the state.
+	 * @param previousState The state before it, or -1.
+	 */
+	private void setStateCost(int state, double cost, int previousState)
+	{
+		stateCosts[state]=cost;
+		previousStates[state]=previousState;
+		reachedStamps[state]=generation;
+	}
+
+	/**
+	 * Getter for the graph whose slots are reserved.
+	 * @return The graph of this table.
+	 */
+	public Graph getGraph()
+	{
+		return graph;
+	}
+
+	/**
+	 * Getter for the number of the current act.
+	 * @return The number of acts started since this table was made.
+	 */
+	public long getCurrentAct()
+	{
+		return currentAct;
+	}
+}
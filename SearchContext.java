@@ -0,0 +1,377 @@
+import java.util.Arrays;
+
+/**
+ * <p><b>File name: </b> SearchContext.java
+ * @version 1.6
+ * @since 18.10.2026
+ * <p><b>Last modification date: </b> 18.10.2026
+ * @author Alexandru F. Dascalu
+ * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
+ *
+ * <p>SearchContext.java is part of Panzer Batallion.
+ * Panzer Batallion is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * <p>You should have received a copy of the GNU General Public License v3
+ * along with this program.  If not, see <a href="https://www.gnu.org/licenses/">https://www.gnu.org/licenses/</a> .
+ *
+ * <p>A summary of the license can be found here:
+ * <a href="https://choosealicense.com/licenses/gpl-3.0/">https://choosealicense.com/licenses/gpl-3.0/</a> .
+ *
+ * <p><b>Purpose: </b>
+ * <p> This class holds the state of one shortest path query on the graph of a
+ * Greenfoot recreation of the Wii Tanks game for the Nintendo Wii: the
+ * tentative distance, best previous node, visited and blocked flags of each
+ * node, and the heap of open nodes. Keeping this state outside of the graph's
+ * nodes lets several queries use the same graph at the same time, as long as
+ * each one has it's own context.
+ *
+ * <p>Instead of resetting every node after a query, each query has a new
+ * generation number, and the values of a node are only valid if they were
+ * stamped with the current generation. Starting a query is therefore done
+ * in constant time, and a query only touches the nodes it reaches.
+ *
+ * <p><b>Version History</b>
+ * <p>	-1.0 - Created the class.
+ * <p>	-1.1 - Added blocked flags, so nodes a query must avoid are no longer
+ * marked as visited.
+ * <p>	-1.2 - A query can now be given a mask of the nodes close to land mines,
+ * which are blocked as well.
+ * <p>	-1.3 - A query can now be given a layer of extra costs for entering
+ * nodes.
+ * <p>	-1.4 - Added a check if a query avoids mines.
+ * <p>	-1.5 - Added a path buffer, in which the paths of the queries made with
+ * this context are built before they are copied into lists.
+ * <p>	-1.6 - A query can now be given the clearance a tank needs from the 
+ * walls, and the nodes with less clearance are blocked.
+ */
+public class SearchContext
+{
+	/**The tentative distance of each node, valid if the node was reached in
+	 * the current generation.*/
+	private final double[] distances;
+
+	/**The index of the best previous node of each node, or -1 for the source
+	 * node. Valid if the node was reached in the current generation.*/
+	private final int[] previous;
+
+	/**The generation in which each node was last reached.*/
+	private final int[] reachedStamps;
+
+	/**The generation in which each node was last marked as visited.*/
+	private final int[] visitedStamps;
+
+	/**The generation in which each node was last marked as blocked, meaning
+	 * the current query must not pass through it.*/
+	private final int[] blockedStamps;
+
+	/**The mask of the nodes too close to land mines, which are blocked in the
+	 * current query, or null if the query does not avoid mines.*/
+	private MineExclusionMask exclusionMask;
+
+	/**The clearance of each slot of the graph, meaning how far it is from 
+	 * the walls, or null if the query is made for tanks of the size every 
+	 * node has room for.*/
+	private byte[] clearances;
+
+	/**The clearance a node needs to have in the current query so it is not
+	 * blocked, or 0 if the query has no clearances.*/
+	private int minClearance;
+
+	/**The extra cost of entering each node in the current query, or null if
+	 * the query only looks for the shortest path.*/
+	private CostLayer costLayer;
+
+	/**The index of the node last marked as not blocked in the current query,
+	 * which is not blocked even if the exclusion mask excludes it.*/
+	private int clearedIndex;
+
+	/**The heap of open node indexes of the current query.*/
+	private final IndexedMinHeap openNodes;
+
+	/**The number of the current query made with this context.*/
+	private int generation;
+
+	/**The number of nodes expanded by the current (or last) query.*/
+	private int expandedNodes;
+
+	/**The buffer the paths of queries made with this context are built in
+	 * when the caller wants a list, so a buffer is not made for each query.*/
+	private final PathBuffer pathBuffer;
+
+	/**
+	 * Makes a new search context for a graph with the given number of node
+	 * indexes.
+	 * @param nodeCount The number of node indexes of the graph.
+	 */
+	public SearchContext(int nodeCount)
+	{
+		distances=new double[nodeCount];
+		previous=new int[nodeCount];
+		reachedStamps=new int[nodeCount];
+		visitedStamps=new int[nodeCount];
+		blockedStamps=new int[nodeCount];
+		openNodes=new IndexedMinHeap(nodeCount);
+		pathBuffer=new PathBuffer();
+		generation=0;
+		expandedNodes=0;
+		exclusionMask=null;
+		costLayer=null;
+		clearances=null;
+		minClearance=0;
+		clearedIndex=-1;
+	}
+
+	/**Prepares this context for a new query, so that all nodes are
+	 * unreached and unvisited.*/
+	public void startQuery()
+	{
+		/*Empty the heap, since the last query may have stopped before all
+		 * nodes in it were expanded.*/
+		openNodes.clear();
+		expandedNodes=0;
+		exclusionMask=null;
+		costLayer=null;
+		clearances=null;
+		minClearance=0;
+		clearedIndex=-1;
+		generation++;
+
+		/*If the generation numbers were all used up, clear the stamps once
+		 * and start counting from 1 again.*/
+		if(generation==Integer.MAX_VALUE)
+		{
+			Arrays.fill(reachedStamps, 0);
+			Arrays.fill(visitedStamps, 0);
+			Arrays.fill(blockedStamps, 0);
+			generation=1;
+		}
+	}
+
+	/**
+	 * Getter for the tentative distance of a node.
+	 * @param index The index of a node.
+	 * @return The tentative distance of the node, or Double.MAX_VALUE if it
+	 * has not been reached in this query.
+	 */
+	public double getDistance(int index)
+	{
+		if(reachedStamps[index]!=generation)
+		{
+			return Double.MAX_VALUE;
+		}
+
+		return distances[index];
+	}
+
+	/**
+	 * Getter for the best previous node of a node.
+	 * @param index The index of a node that has been reached in this query.
+	 * @return The index of it's best previous node, or -1 if it has none.
+	 */
+	public int getPrevious(int index)
+	{
+		return previous[index];
+	}
+
+	/**
+	 * Records that a node has been reached with a new tentative distance
+	 * through the given best previous node.
+	 * @param index The index of the reached node.
+	 * @param distance It's new tentative distance.
+	 * @param previousIndex The index of it's best previous node, or -1.
+	 */
+	public void setDistance(int index, double distance, int previousIndex)
+	{
+		reachedStamps[index]=generation;
+		distances[index]=distance;
+		previous[index]=previousIndex;
+	}
+
+	/**
+	 * Checks if a node has been visited in this query.
+	 * @param index The index of a node.
+	 * @return True if it has been visited, false if not.
+	 */
+	public boolean isVisited(int index)
+	{
+		return visitedStamps[index]==generation;
+	}
+
+	/**
+	 * Marks a node as visited in this query, so it will not be considered
+	 * by the search any more.
+	 * @param index The index of a node.
+	 */
+	public void setVisited(int index)
+	{
+		visitedStamps[index]=generation;
+	}
+
+	/**
+	 * Checks if a node has been blocked in this query.
+	 * @param index The index of a node.
+	 * @return True if the query must not pass through the node, false if not.
+	 */
+	public boolean isBlocked(int index)
+	{
+		if(blockedStamps[index]==generation)
+		{
+			return true;
+		}
+
+		if(index==clearedIndex)
+		{
+			return false;
+		}
+
+		return (exclusionMask!=null && exclusionMask.isExcluded(index)) ||
+				(clearances!=null && clearances[index]<minClearance);
+	}
+
+	/**
+	 * Marks a node as blocked in this query, for example because it is too
+	 * close to a land mine, so the query will not pass through it.
+	 * @param index The index of a node.
+	 */
+	public void setBlocked(int index)
+	{
+		blockedStamps[index]=generation;
+	}
+
+	/**
+	 * Marks a node as not blocked in this query.
+	 * @param index The index of a node.
+	 */
+	public void clearBlocked(int index)
+	{
+		blockedStamps[index]=generation-1;
+		clearedIndex=index;
+	}
+
+	/**
+	 * Sets the mask of the nodes too close to land mines, which will be 
+	 * blocked in this query as well.
+	 * @param exclusionMask The mask of the nodes to avoid, or null to not
+	 * avoid mines.
+	 */
+	public void setExclusionMask(MineExclusionMask exclusionMask)
+	{
+		this.exclusionMask=exclusionMask;
+	}
+
+	/**
+	 * Checks if this query avoids the nodes close to land mines.
+	 * @return True if the query has an exclusion mask, false if not.
+	 */
+	public boolean hasExclusionMask()
+	{
+		return exclusionMask!=null;
+	}
+
+	/**
+	 * Sets the clearance the tank of this query needs from the walls, so the
+	 * nodes closer to the walls than that will be blocked in this query as
+	 * well.
+	 * @param clearances The clearance of each slot of the graph, or null if
+	 * every node has enough room for the tank.
+	 * @param minClearance The clearance a node needs to have so the tank can
+	 * pass through it.
+	 */
+	public void setMinClearance(byte[] clearances, int minClearance)
+	{
+		this.clearances=clearances;
+		this.minClearance=(clearances==null) ? 0 : minClearance;
+	}
+
+	/**
+	 * Getter for the clearance a node needs to have in this query.
+	 * @return The clearance needed from the walls, or 0 if the query has no
+	 * clearances, meaning every node has enough room.
+	 */
+	public int getMinClearance()
+	{
+		return minClearance;
+	}
+
+	/**
+	 * Checks if this query blocks the nodes too close to the walls for it's
+	 * tank.
+	 * @return True if the query has clearances, false if not.
+	 */
+	public boolean hasMinClearance()
+	{
+		return clearances!=null;
+	}
+
+	/**
+	 * Sets the layer of extra costs for entering nodes in this query.
+	 * @param costLayer The layer of costs, or null for no extra costs.
+	 */
+	public void setCostLayer(CostLayer costLayer)
+	{
+		this.costLayer=costLayer;
+	}
+
+	/**
+	 * Getter for the extra cost of entering a node in this query.
+	 * @param index The index of a node.
+	 * @return The cost of the node in the cost layer of this query, or 0 if
+	 * the query has no cost layer.
+	 */
+	public double getCost(int index)
+	{
+		return costLayer==null ? 0 : costLayer.getCost(index);
+	}
+
+	/**
+	 * Checks if this query has extra costs for entering nodes.
+	 * @return True if the query has a cost layer, false if not.
+	 */
+	public boolean hasCosts()
+	{
+		return costLayer!=null;
+	}
+
+	/**
+	 * Getter for the heap of open node indexes of this query.
+	 * @return The heap of open nodes.
+	 */
+	public IndexedMinHeap getOpenNodes()
+	{
+		return openNodes;
+	}
+
+	/**Records that one more node has been expanded by this query.*/
+	public void countExpandedNode()
+	{
+		expandedNodes++;
+	}
+
+	/**
+	 * Getter for the number of nodes expanded by the current or last query.
+	 * @return The number of expanded nodes.
+	 */
+	public int getExpandedNodes()
+	{
+		return expandedNodes;
+	}
+
+	/**
+	 * Getter for the path buffer of this context. It is not cleared when a
+	 * query starts, so the path it holds is only valid until the next query
+	 * of this context that builds a list.
+	 * @return The path buffer of this context.
+	 */
+	public PathBuffer getPathBuffer()
+	{
+		return pathBuffer;
+	}
+}
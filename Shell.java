@@ -3,9 +3,9 @@ import java.util.List;
 
 /**
  * <p><b>File name: </b> Shell.java
- * @version 1.3
+ * @version 1.4
  * @since 14.05.2018
- * <p><b>Last modification date: </b> 22.07.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -40,6 +40,8 @@ import java.util.List;
  * <p>	-1.3 - Changed the way the shell bounces so that it relies on code in the 
  * WallBlock class to detect in what quadrant of the block the shell hits. Now the
  * shells bounce more naturally.
+ * <p>	-1.4 - The world is told when the shell bounces, so it can move the lane
+ * of the shell in the danger costs tanks avoid.
  */
 public class Shell extends Actor
 {
@@ -336,6 +338,9 @@ public class Shell extends Actor
     	  of times it has bounced.*/
     	setRotation(newRotation);
     	timesBounced++;
+    	
+    	//the shell now flies down another lane, which tanks should avoid
+    	getWorldOfType(TankWorld.class).updateShellLane(this);
     }
     
     /**
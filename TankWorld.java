@@ -1,11 +1,16 @@
 import greenfoot.*;  
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * <p><b>File name: </b> TankWorld.java
- * @version 1.6
+ * @version 1.18
  * @since 02.05.2018
- * <p><b>Last modification date: </b> 14.08.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -44,6 +49,34 @@ import java.util.List;
  * when the last level is beaten.
  * <p>	-1.6 - Added a graph of points in the world that are used to find the 
  * shortest path between a moving enemy tank and a selected point.
+ * <p>	-1.7 - Levels can now be built outside of a game, and the graph is 
+ * updated when a destroyable wall block is removed.
+ * <p>	-1.8 - Added a flow field rooted at the node of the player tank, shared
+ * by the enemy tanks chasing the player.
+ * <p>	-1.9 - Added masks of the nodes of the graph close to land mines, which
+ * are kept up to date when mines are laid or removed.
+ * <p>	-1.10 - Added a layer of danger costs for the nodes of the graph close to
+ * mines, in the lanes of shells and in the fire lanes of static enemy tanks,
+ * which is kept up to date as these change.
+ * <p>	-1.11 - Added a scheduler that spreads the path plans of tanks over
+ * several acts, with a budget of nodes expanded in each act that can be set.
+ * <p>	-1.12 - Added a pool of worker threads that plans the paths of tanks on
+ * machines with several processors, instead of the planning scheduler.
+ * <p>	-1.13 - Tanks in arenas with large graphs now find their paths with the
+ * cluster graph of the world graph.
+ * <p>	-1.14 - The world graph of a level now has a next-hop table, made when
+ * the level starts and again by the planning pool when a destroyable wall
+ * block is removed.
+ * <p>	-1.15 - Added a reservation table of the slots of the world graph the
+ * mobile enemy tanks will pass through, so their paths keep away from each
+ * other.
+ * <p>	-1.16 - The graph of a level and it's next-hop table are now loaded from
+ * the graph cache when the level has been played before.
+ * <p>	-1.17 - The world graph is now updated before a destroyable wall block
+ * is removed, while it's position can still be read.
+ * <p>	-1.18 - The next-hop table of the world graph is now made by the 
+ * planning pool when the graph cache has none, instead of when the level 
+ * starts, and is then written to the graph cache.
  */
 
 public class TankWorld extends World
@@ -78,6 +111,40 @@ public class TankWorld extends World
      * show up on the screen, during which the game is paused. Its value is {@value}.*/
     private static final int START_LEVEL_DELAY = 75;
     
+    /**The danger cost of entering a node within the explosion range of a land
+     * mine, in pixels of path length. Its value is {@value}.*/
+    private static final float MINE_DANGER_COST=60;
+    
+    /**The danger cost of entering a node in the lane of a shell, in pixels of
+     * path length. Its value is {@value}.*/
+    private static final float SHELL_DANGER_COST=40;
+    
+    /**The danger cost of entering a node in the fire lane of a static enemy
+     * tank, in pixels of path length. Its value is {@value}.*/
+    private static final float TURRET_DANGER_COST=20;
+    
+    /**The largest length in pixels of the lane of a shell that is dangerous.
+     * Its value is {@value}.*/
+    private static final int SHELL_LANE_LENGTH=400;
+    
+    /**The largest distance in pixels from the middle of a lane of the nodes
+     * that are dangerous. Its value is {@value}.*/
+    private static final int LANE_HALF_WIDTH=30;
+    
+    /**The default largest number of nodes expanded by the path plans of all
+     * the tanks in each act. Its value is {@value}.*/
+    private static final int PLANNING_BUDGET=500;
+    
+    /**The number of slots from which the grid of the world graph is large 
+     * enough for tanks to find their paths with it's cluster graph, instead
+     * of searching the whole graph. Its value is {@value}.*/
+    private static final int HIERARCHICAL_PATH_SLOTS=10000;
+    
+    /**The largest number of slots of a grid for which the world graph gets a
+     * next-hop table. The table takes a byte for every 2 pairs of slots, so
+     * it takes at most 8 MB. Its value is {@value}.*/
+    private static final int NEXT_HOP_TABLE_SLOTS=4096;
+    
     /**The horizontal length of the world. Its value is {@value}. Public so the
      * graph of points enemy tanks pass through is generated correctly based on
      * the size of the world.*/
@@ -95,6 +162,54 @@ public class TankWorld extends World
      * Is remade each time a new level is loaded.*/
     protected Graph worldGraph;
     
+    /**The flow field towards the node of the player tank in the world graph,
+     * shared by the enemy tanks chasing the player. Is made again each time
+     * the world graph is.*/
+    protected FlowField playerFlowField;
+    
+    /**The masks of the nodes of the world graph too close to the land mines 
+     * in this world, by the distance tanks keep away from mines, since each
+     * type of tank keeps a different distance.*/
+    protected Map<Integer, MineExclusionMask> mineMasks;
+    
+    /**The danger cost of entering each node of the world graph, which mobile
+     * enemy tanks add to the length of their paths. Is made when first needed
+     * and again each time the world graph is made.*/
+    protected CostLayer dangerCosts;
+    
+    /**The lane of each shell in the danger costs, as the coordinates of it's
+     * start and it's end.*/
+    protected Map<Shell, int[]> shellLanes;
+    
+    /**The fire lanes of the static enemy tanks in the danger costs, as the
+     * coordinates of their start and their end.*/
+    protected List<int[]> turretLanes;
+    
+    /**The index of the node of the player tank when the fire lanes of the 
+     * static enemy tanks were added to the danger costs.*/
+    protected int turretLanesPlayerNode;
+    
+    /**The scheduler that spreads the path plans of the tanks of this world
+     * over several acts.*/
+    protected PlanningScheduler planningScheduler;
+    
+    /**The pool of worker threads that plans the paths of the tanks of this
+     * world, or null if they are planned by the planning scheduler.*/
+    protected PathPlanningPool planningPool;
+    
+    /**The next-hop table of the world graph being made again by the planning
+     * pool after a destroyable wall block was removed, or null if none is.*/
+    private Future<NextHopTable> nextHopTableFuture;
+    
+    /**The slots of the world graph the mobile enemy tanks will pass through
+     * in the next acts. Is made when first needed and again each time the
+     * world graph is made.*/
+    private ReservationTable reservationTable;
+    
+    /**A flag that indicates if mobile enemy tanks plan their paths with the
+     * reservations of the other tanks.*/
+    private boolean cooperativePlanning;
+    
     /**The player tank of this game world.*/
     protected PlayerTank playerTank;
     
@@ -146,6 +261,33 @@ public class TankWorld extends World
     	return new Level1World();
     }
     
+    /**
+     * Makes the world of the given level with all of it's walls and tanks, 
+     * without setting it as the current world or showing it's start screen. 
+     * Used to build the path finding graphs of the real levels outside of a
+     * game, for example by the PathfindingBenchmark class.
+     * @param level The number of the level, starting from 1.
+     * @return The world of that level, or null if there is no such level.
+     */
+    public static TankWorld buildLevel(int level)
+    {
+    	//go through the levels in order until the wanted level is reached
+    	TankWorld world=getFirstWorld();
+    	for(int i=1;i<level && world!=null;i++)
+    	{
+    		world=world.getNextWorld();
+    	}
+    	
+    	/*Add the same walls and tanks as when the level is loaded in a game.*/
+    	if(world!=null)
+    	{
+    		world.addExternalWalls();
+    		world.prepare();
+    	}
+    	
+    	return world;
+    }
+    
     protected void initializeLevelStartUI()
     {
     	/*Re-add the display elements for the number of player lives and 
@@ -159,9 +301,12 @@ public class TankWorld extends World
         addObject(enemyCount,LENGTH/2,23);
         enemyCount.act();
         
-        /*rebuild the graph used for path finding for the current level that
-         * was loaded.*/
-        worldGraph=new Graph(this);
+        /*Get the graph used for path finding for the current level that was
+         * loaded. It is only built the first time the walls of the level are
+         * seen, and is loaded from the graph cache after that, with it's 
+         * next-hop table if one has been made. Otherwise, the table is made
+         * by the planning pool while the level is played.*/
+        worldGraph=GraphCache.getSharedCache().getGraph(this, LENGTH, WIDTH);
         
         /*Show the updated start screen for the new level.*/
         showStartScreen();
@@ -176,6 +321,23 @@ public class TankWorld extends World
     	 * cells being one pixels.It is also bounded so actors can not move 
     	 * outside the world.*/
         super(LENGTH, WIDTH, 1,true);
+        
+        //the masks of the nodes close to mines are made when first needed
+        mineMasks=new HashMap<>();
+        
+        //the danger costs are made when first needed
+        shellLanes=new HashMap<>();
+        turretLanes=new ArrayList<>();
+        turretLanesPlayerNode=-1;
+        
+        planningScheduler=new PlanningScheduler(PLANNING_BUDGET);
+        
+        /*Paths are planned on other threads if there are processors the
+         * simulation does not use.*/
+        planningPool=PathPlanningPool.getSharedPool();
+        
+        //tanks keep out of each other's way unless told otherwise
+        cooperativePlanning=true;
     }
 
     /**Ensures that the first level is initiated and that the mouse cursor is hidden
@@ -183,6 +345,16 @@ public class TankWorld extends World
     @Override
     public void act()
     {
+    	//continue the path plans of the tanks with the budget of this act
+    	planningScheduler.startAct();
+    	updateNextHopTable();
+    	
+    	//the reservations made in this act start from it
+    	if(reservationTable!=null)
+    	{
+    		reservationTable.startAct();
+    	}
+    	
     	/*If the game has just started, only an instance of TankWorld is loaded,
     	 * so we make sure to load the subclass associated with the first level.*/
     	if(getClass() == TankWorld.class)
@@ -452,6 +624,79 @@ public class TankWorld extends World
     	return playerTank;
     }
     
+    /**
+     * Checks if the world graph is large enough for mobile enemy tanks to 
+     * find their paths with it's cluster graph. The paths of the cluster 
+     * graph do not keep away from dangers, so the levels of the game, whose
+     * graphs are small, are searched whole.
+     * @return True if tanks should use hierarchical paths, false if not.
+     */
+    public boolean usesHierarchicalPaths()
+    {
+    	return worldGraph!=null && worldGraph.getNodeCount()>=HIERARCHICAL_PATH_SLOTS;
+    }
+    
+    /**
+     * Checks if the world graph is small enough to have a next-hop table, 
+     * which finds the shortest path between any 2 nodes without searching.
+     * @return True if the world graph gets a next-hop table, false if not.
+     */
+    public boolean usesNextHopTable()
+    {
+    	return worldGraph!=null && worldGraph.getNodeCount()<=NEXT_HOP_TABLE_SLOTS;
+    }
+    
+    /**
+     * Makes the next-hop table of the world graph if it has none, because 
+     * the graph cache had no table for the walls of the level or because 
+     * the graph dropped it when a destroyable wall block was removed. Making
+     * the table takes much longer than an act, so it is made by the planning
+     * pool from a snapshot of the graph, and set when it is finished if the
+     * graph has not changed since. A table made for the walls the level 
+     * started with is written to the graph cache, so it is loaded the next 
+     * time the level starts. Without a planning pool, the graph keeps no 
+     * table and the paths of tanks are planned as on larger graphs.
+     */
+    private void updateNextHopTable()
+    {
+    	/*Check if the table needs to be made again.*/
+    	if(!usesNextHopTable() || worldGraph.getNextHopTable()!=null || 
+    			planningPool==null)
+    	{
+    		return;
+    	}
+    	
+    	if(nextHopTableFuture==null)
+    	{
+    		//if the pool is full, the table is submitted again in the next act
+    		nextHopTableFuture=planningPool.submitNextHopTable(worldGraph);
+    	}
+    	else if(nextHopTableFuture.isDone())
+    	{
+    		/*If the graph changed while the table was made, it is not set and
+    		 * is made again in the next act.*/
+    		try
+    		{
+    			/*If no wall block has been removed since the level started, 
+    			 * the table is kept for the next time it starts.*/
+    			if(worldGraph.setNextHopTable(nextHopTableFuture.get()) && 
+    					worldGraph.getTopologyVersion()==0)
+    			{
+    				GraphCache.getSharedCache().store(GraphCache.getLayoutHash(this,
+    						LENGTH, WIDTH), worldGraph);
+    			}
+    		}
+    		catch(InterruptedException | ExecutionException e)
+    		{
+    			//the table is made again in the next act
+    		}
+    		finally
+    		{
+    			nextHopTableFuture=null;
+    		}
+    	}
+    }
+    
     /**
      * Getter for the graph used for path finding by enemy tanks.
      * @return The reference to the path finding graph of this game world.
@@ -461,6 +706,382 @@ public class TankWorld extends World
     	return worldGraph;
     }
     
+    /**
+     * Getter for the flow field towards the player tank. The field is only
+     * computed again if the player has moved to another node of the world 
+     * graph or the graph has changed since it was last asked for, so any 
+     * number of tanks can chase the player for the cost of one search.
+     * @return The flow field rooted at the node of the player tank, or null
+     * if this world has no graph or the player is not close to any node.
+     */
+    public FlowField getPlayerFlowField()
+    {
+    	/*Check if there is a graph the player can be chased through.*/
+    	if(worldGraph==null)
+    	{
+    		return null;
+    	}
+    	
+    	/*Make a new flow field if the graph has been made again.*/
+    	if(playerFlowField==null || playerFlowField.getGraph()!=worldGraph)
+    	{
+    		playerFlowField=new FlowField(worldGraph);
+    	}
+    	
+    	int playerNode=worldGraph.getNodeIndex(playerTank.getX(), playerTank.getY());
+    	if(playerNode==-1)
+    	{
+    		return null;
+    	}
+    	
+    	playerFlowField.update(playerNode);
+    	return playerFlowField;
+    }
+    
+    /**
+     * Getter for the mask of the nodes of the world graph that are closer than
+     * the given distance to any land mine in this world. The mask is built 
+     * from all the mines in one pass the first time it is needed, then kept up
+     * to date as mines are added and removed.
+     * @param avoidanceDistance The distance a tank keeps away from mines.
+     * @return The mask of the nodes within that distance of a mine, or null if
+     * this world has no graph.
+     */
+    public MineExclusionMask getMineMask(int avoidanceDistance)
+    {
+    	/*Check if there is a graph to make a mask for.*/
+    	if(worldGraph==null)
+    	{
+    		return null;
+    	}
+    	
+    	/*Build the mask if there is none for this distance, or if the graph has
+    	 * been made again since it was built.*/
+    	MineExclusionMask mineMask=mineMasks.get(avoidanceDistance);
+    	if(mineMask==null || mineMask.getGraph()!=worldGraph)
+    	{
+    		mineMask=new MineExclusionMask(worldGraph, avoidanceDistance);
+    		mineMask.build(getObjects(LandMine.class));
+    		mineMasks.put(avoidanceDistance, mineMask);
+    	}
+    	
+    	return mineMask;
+    }
+    
+    /**
+     * Getter for the scheduler that spreads the path plans of the tanks of
+     * this world over several acts.
+     * @return The planning scheduler of this world.
+     */
+    public PlanningScheduler getPlanningScheduler()
+    {
+    	return planningScheduler;
+    }
+    
+    /**
+     * Getter for the pool of worker threads that plans the paths of the tanks
+     * of this world.
+     * @return The planning pool of this world, or null if paths are planned
+     * by the planning scheduler.
+     */
+    public PathPlanningPool getPlanningPool()
+    {
+    	return planningPool;
+    }
+    
+    /**
+     * Getter for the reservation table of the slots of the world graph the
+     * mobile enemy tanks will pass through. The table is made the first time
+     * it is needed and again when the world graph has been made again.
+     * @return The reservation table of the world graph, or null if this world
+     * has no graph.
+     */
+    public ReservationTable getReservationTable()
+    {
+    	if(worldGraph==null)
+    	{
+    		return null;
+    	}
+    	
+    	if(reservationTable==null || reservationTable.getGraph()!=worldGraph)
+    	{
+    		reservationTable=new ReservationTable(worldGraph);
+    	}
+    	
+    	return reservationTable;
+    }
+    
+    /**
+     * Checks if mobile enemy tanks plan their paths with the reservations of
+     * the other tanks, so they do not run into each other. Tanks in arenas 
+     * large enough for hierarchical paths plan on their own.
+     * @return True if tanks plan cooperatively, false if not.
+     */
+    public boolean usesCooperativePlanning()
+    {
+    	return cooperativePlanning && worldGraph!=null && !usesHierarchicalPaths();
+    }
+    
+    /**
+     * Sets if mobile enemy tanks plan their paths with the reservations of
+     * the other tanks.
+     * @param cooperativePlanning True if tanks plan cooperatively, false if 
+     * each tank plans on it's own.
+     */
+    public void setCooperativePlanning(boolean cooperativePlanning)
+    {
+    	this.cooperativePlanning=cooperativePlanning;
+    }
+    
+    /**
+     * Sets the pool of worker threads that plans the paths of the tanks of
+     * this world. Plans already submitted to the last pool are still 
+     * finished by it.
+     * @param planningPool The new planning pool, or null to plan the paths 
+     * with the planning scheduler, in the acts of this world.
+     */
+    public void setPlanningPool(PathPlanningPool planningPool)
+    {
+    	this.planningPool=planningPool;
+    }
+    
+    /**
+     * Sets the largest number of nodes expanded by the path plans of all the
+     * tanks in each act. A smaller budget keeps acts short when many tanks 
+     * need new paths at once, but tanks wait longer for their paths.
+     * @param budget The new budget, or 0 or less for no limit.
+     */
+    public void setPlanningBudget(int budget)
+    {
+    	planningScheduler.setBudget(budget);
+    }
+    
+    /**
+     * Getter for the largest number of nodes expanded by the path plans of all
+     * the tanks in each act.
+     * @return The planning budget, or 0 or less if there is no limit.
+     */
+    public int getPlanningBudget()
+    {
+    	return planningScheduler.getBudget();
+    }
+    
+    /**
+     * Getter for the danger cost of entering each node of the world graph. 
+     * The costs are added from all the mines and shells in this world the 
+     * first time they are needed, then kept up to date as mines and shells 
+     * are added and removed and shells bounce. The fire lanes of the static 
+     * enemy tanks are moved only when the player has moved to another node.
+     * @return The layer of danger costs of the world graph, or null if this
+     * world has no graph.
+     */
+    public CostLayer getDangerCosts()
+    {
+    	/*Check if there is a graph to make the costs for.*/
+    	if(worldGraph==null)
+    	{
+    		return null;
+    	}
+    	
+    	/*Add the costs of every danger if there is no layer of costs yet, or
+    	 * if the graph has been made again since it was made.*/
+    	if(dangerCosts==null || dangerCosts.getGraph()!=worldGraph)
+    	{
+    		dangerCosts=new CostLayer(worldGraph);
+    		shellLanes.clear();
+    		turretLanes.clear();
+    		turretLanesPlayerNode=-1;
+    		
+    		for(LandMine mine: getObjects(LandMine.class))
+    		{
+    			dangerCosts.addDisc(mine.getX(), mine.getY(), LandMine.EXPLOSION_RANGE, 
+    					MINE_DANGER_COST);
+    		}
+    		
+    		for(Shell shell: getObjects(Shell.class))
+    		{
+    			addShellLane(shell);
+    		}
+    	}
+    	
+    	updateTurretLanes();
+    	return dangerCosts;
+    }
+    
+    /**
+     * Moves the fire lanes of the static enemy tanks in the danger costs so
+     * they point at the player tank, if it has moved to another node of the 
+     * world graph or a static enemy tank has been destroyed since they were
+     * last moved.
+     */
+    private void updateTurretLanes()
+    {
+    	/*The lanes can not point at a player tank that is not in the world.*/
+    	if(playerTank==null || playerTank.getWorld()!=this)
+    	{
+    		return;
+    	}
+    	
+    	int playerNode=worldGraph.getNodeIndex(playerTank.getX(), playerTank.getY());
+    	List<StaticEnemyTank> staticTanks=getObjects(StaticEnemyTank.class);
+    	
+    	/*Check if the lanes are up to date.*/
+    	if(playerNode==turretLanesPlayerNode && staticTanks.size()==turretLanes.size())
+    	{
+    		return;
+    	}
+    	
+    	//remove the old lanes
+    	for(int[] lane: turretLanes)
+    	{
+    		dangerCosts.addSegment(lane[0], lane[1], lane[2], lane[3], LANE_HALF_WIDTH,
+    				-TURRET_DANGER_COST);
+    	}
+    	turretLanes.clear();
+    	
+    	/*Add a lane from each static enemy tank towards the player tank, up to
+    	 * the first wall in the way.*/
+    	for(StaticEnemyTank tank: staticTanks)
+    	{
+    		int xDistance=playerTank.getX()-tank.getX();
+    		int yDistance=playerTank.getY()-tank.getY();
+    		int rotation=(int) Math.round(Math.toDegrees(Math.atan2(yDistance, 
+    				xDistance)));
+    		int[] end=dangerCosts.getLaneEnd(tank.getX(), tank.getY(), rotation,
+    				(int) Math.sqrt(xDistance*xDistance+yDistance*yDistance));
+    		
+    		int[] lane={tank.getX(), tank.getY(), end[0], end[1]};
+    		dangerCosts.addSegment(lane[0], lane[1], lane[2], lane[3], LANE_HALF_WIDTH,
+    				TURRET_DANGER_COST);
+    		turretLanes.add(lane);
+    	}
+    	
+    	turretLanesPlayerNode=playerNode;
+    }
+    
+    /**
+     * Adds the lane a shell is flying down to the danger costs, from where the
+     * shell is up to the first wall in it's way.
+     * @param shell A shell in this world.
+     */
+    private void addShellLane(Shell shell)
+    {
+    	int[] end=dangerCosts.getLaneEnd(shell.getX(), shell.getY(), 
+    			shell.getRotation(), SHELL_LANE_LENGTH);
+    	
+    	int[] lane={shell.getX(), shell.getY(), end[0], end[1]};
+    	dangerCosts.addSegment(lane[0], lane[1], lane[2], lane[3], LANE_HALF_WIDTH,
+    			SHELL_DANGER_COST);
+    	shellLanes.put(shell, lane);
+    }
+    
+    /**
+     * Removes the lane of a shell from the danger costs, if it was added.
+     * @param shell A shell of this world.
+     */
+    private void removeShellLane(Shell shell)
+    {
+    	int[] lane=shellLanes.remove(shell);
+    	if(lane!=null && dangerCosts!=null)
+    	{
+    		dangerCosts.addSegment(lane[0], lane[1], lane[2], lane[3], LANE_HALF_WIDTH,
+    				-SHELL_DANGER_COST);
+    	}
+    }
+    
+    /**
+     * Moves the lane of a shell in the danger costs after it has changed it's
+     * direction, for example by bouncing off a wall.
+     * @param shell A shell in this world.
+     */
+    public void updateShellLane(Shell shell)
+    {
+    	if(dangerCosts!=null && dangerCosts.getGraph()==worldGraph)
+    	{
+    		removeShellLane(shell);
+    		addShellLane(shell);
+    	}
+    }
+    
+    /**
+     * Overloads the default addObject method. This is so that when a shell is
+     * fired, it's lane is added to the danger costs.
+     * @param shell The shell that is to be added.
+     * @param x The x coordinate where the shell is added.
+     * @param y The y coordinate where the shell is added.
+     */
+    public void addObject(Shell shell, int x, int y)
+    {
+    	//add the shell using the default method
+    	super.addObject(shell, x, y);
+    	
+    	if(dangerCosts!=null && dangerCosts.getGraph()==worldGraph)
+    	{
+    		addShellLane(shell);
+    	}
+    }
+    
+    /**
+     * Overloads the default addObject method. This is so that when a land mine
+     * is laid, the masks of the nodes close to mines are updated.
+     * @param mine The land mine that is to be added.
+     * @param x The x coordinate where the mine is added.
+     * @param y The y coordinate where the mine is added.
+     */
+    public void addObject(LandMine mine, int x, int y)
+    {
+    	//add the mine using the default method
+    	super.addObject(mine, x, y);
+    	
+    	/*Exclude the nodes close to the mine, using the coordinates the mine
+    	 * ended up at in case they were outside of the world.*/
+    	for(MineExclusionMask mineMask: mineMasks.values())
+    	{
+    		if(mineMask.getGraph()==worldGraph)
+    		{
+    			mineMask.addMine(mine.getX(), mine.getY());
+    		}
+    	}
+    	
+    	//make the nodes in the explosion range of the mine dangerous
+    	if(dangerCosts!=null && dangerCosts.getGraph()==worldGraph)
+    	{
+    		dangerCosts.addDisc(mine.getX(), mine.getY(), LandMine.EXPLOSION_RANGE, 
+    				MINE_DANGER_COST);
+    	}
+    }
+    
+    /**
+     * Overloads the default removeObject method. This is so that when a land 
+     * mine explodes or is removed when the level is reloaded, the masks of the
+     * nodes close to mines are updated.
+     * @param mine The land mine that is to be removed.
+     */
+    public void removeObject(LandMine mine)
+    {
+    	/*The coordinates of the mine are needed to update the masks, so they
+    	 * are updated before it is removed, if it has not been removed already.*/
+    	if(mine.getWorld()==this)
+    	{
+    		for(MineExclusionMask mineMask: mineMasks.values())
+    		{
+    			if(mineMask.getGraph()==worldGraph)
+    			{
+    				mineMask.removeMine(mine.getX(), mine.getY());
+    			}
+    		}
+    		
+    		if(dangerCosts!=null && dangerCosts.getGraph()==worldGraph)
+    		{
+    			dangerCosts.addDisc(mine.getX(), mine.getY(), LandMine.EXPLOSION_RANGE,
+    					-MINE_DANGER_COST);
+    		}
+    	}
+    	
+    	//remove the mine using the default method
+    	super.removeObject(mine);
+    }
+    
     /**Overloads the default removeObject method. This is so that when a shell
      * is removed, the counter of live shells of that shell's parent tank is
      * decremented, then the shell is removed from the game world.
@@ -470,10 +1091,33 @@ public class TankWorld extends World
     	//decrement the counter of shells in the parent tank's turret
     	shell.getParentTank().getTurret().decLiveShells();
     	
+    	//the lane of the shell is no longer dangerous
+    	removeShellLane(shell);
+    	
     	//now we can remove the shell safely using the default method
     	super.removeObject(shell);
     }
     
+    /**
+     * Overloads the default removeObject method. This is so that when a 
+     * destroyable wall block is removed, the graph used for path finding is
+     * updated so that enemy tanks can drive through where the block was.
+     * @param wall The destroyable wall block that is to be removed.
+     */
+    public void removeObject(DestroyableWallBlock wall)
+    {
+    	/*Update the graph, which only checks again the points close to the
+    	 * wall block. This is done while the block is still in the world, 
+    	 * since it's position can not be read once it has been removed.*/
+    	if(worldGraph!=null)
+    	{
+    		worldGraph.removeWall(wall, this);
+    	}
+    	
+    	//remove the wall block using the default method
+    	super.removeObject(wall);
+    }
+    
     /**
      * Overloads the default removeObject method. This is so that when a tank is
      * removed from the world, we can decide if the mission has been cleared, failed
@@ -2,9 +2,9 @@ import greenfoot.*;
 
 /**
  * <p><b>File name: </b> YellowTank.java
- * @version 1.1
+ * @version 1.4
  * @since 28.09.2018
- * <p><b>Last modification date: </b> 05.10.2018
+ * <p><b>Last modification date: </b> 18.10.2026
  * @author Alexandru F. Dascalu
  * <p><b>Copyright (C)</b> 2018  Alexandru F. Dascalu
  * 
@@ -35,6 +35,12 @@ import greenfoot.*;
  * <p>	-1.0 - Created the class.
  * <p>	-1.1 - Made Yellow tanks do a suicide attack on the player where they
  * get close to the player, lay a mine then step on it to set it off.
+ * <p>	-1.2 - The path to the player is now read from the flow field of the
+ * world, which all tanks chasing the player share, instead of searching the
+ * graph for each tank.
+ * <p>	-1.3 - The path to the player is now smoothed, so the tank drives 
+ * straight past the nodes it does not need to turn at.
+ * <p>	-1.4 - The path to the player is now put in the path buffer of the tank.
  */
 
 public class YellowTank extends MobileEnemyTank
@@ -147,7 +153,7 @@ public class YellowTank extends MobileEnemyTank
     		else
     		{
     			/*Check if a new path needs to be generated.*/
-    			if(path==null)
+    			if(path.isEmpty())
         		{
     				//generate new path that gets this tank to the player
         			generateAttackPath();
@@ -204,17 +210,17 @@ public class YellowTank extends MobileEnemyTank
      * and sets it as the path of this tank.*/
     private void generateAttackPath()
     {
-    	//get a reference to the payer tank of the world this tank is in
-    	PlayerTank playerTank=getWorldOfType(TankWorld.class).getPlayerTank();
-    	
-    	//the graph of points the tank can travel through of the current level
-	    Graph worldGraph=getWorldOfType(TankWorld.class).getWorldGraph();
-	    
-	   	//Get the node/point at the calculated indexes from the graph
-	    GraphPoint destination=worldGraph.getPoint(playerTank.getX(), playerTank.getY());
+    	/*The flow field of the world already knows the next node towards the
+    	 * player from every node, so the path is built by following it.*/
+    	FlowField playerFlowField=getWorldOfType(TankWorld.class).getPlayerFlowField();
 	    
-    	/* use the world's graph to get a path to it he destination.*/
-    	path=worldGraph.getShortestPath(getX(), getY(), destination);
+    	/*If the player is not close to any node, the path is left empty and
+    	 * this tank tries again later.*/
+    	clearPath();
+    	if(playerFlowField!=null && playerFlowField.getPath(getX(), getY(), path))
+    	{
+    		playerFlowField.getGraph().smoothPath(path);
+    	}
     }
     
     /**Makes the tank move in reverse until it no longer overlaps the mine